@@ -0,0 +1,25 @@
+package com.ai.middle.platform.common.enums;
+
+import lombok.Getter;
+
+/**
+ * 文件处理流水线的各个阶段
+ */
+@Getter
+public enum ProcessingStage {
+    OCR("ocr_status", "OCR识别"),
+    VECTORIZATION("vectorization_status", "向量化"),
+    QA_PAIRS("qa_pairs_status", "问答对生成"),
+    KNOWLEDGE_GRAPH("knowledge_graph_status", "知识图谱生成");
+
+    /**
+     * 对应 file_detail 中的状态列
+     */
+    private final String column;
+    private final String desc;
+
+    ProcessingStage(String column, String desc) {
+        this.column = column;
+        this.desc = desc;
+    }
+}
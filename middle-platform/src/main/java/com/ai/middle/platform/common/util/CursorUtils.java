@@ -0,0 +1,69 @@
+package com.ai.middle.platform.common.util;
+
+import com.ai.middle.platform.common.exception.BusinessException;
+import lombok.experimental.UtilityClass;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页工具类，游标由排序键（时间 + ID，或单独的 ID）编码而成，对调用方不透明。
+ */
+@UtilityClass
+public class CursorUtils {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 游标解码结果
+     */
+    public record Cursor(LocalDateTime time, String id) {
+    }
+
+    public String encode(LocalDateTime time, String id) {
+        if (time == null || id == null) {
+            return null;
+        }
+        String raw = time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Cursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.indexOf(SEPARATOR);
+            return new Cursor(LocalDateTime.parse(raw.substring(0, index)), raw.substring(index + 1));
+        } catch (RuntimeException ex) {
+            throw new BusinessException(400, "无效的分页游标");
+        }
+    }
+
+    /**
+     * 编码仅按 ID 排序的游标
+     */
+    public String encodeKey(String id) {
+        if (id == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码仅按 ID 排序的游标，游标为空时返回 null
+     */
+    public String decodeKey(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (RuntimeException ex) {
+            throw new BusinessException(400, "无效的分页游标");
+        }
+    }
+}
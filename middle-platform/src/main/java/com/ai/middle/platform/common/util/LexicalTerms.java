@@ -0,0 +1,70 @@
+package com.ai.middle.platform.common.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 关键词检索的词项提取：优先保留型号、条款号等标识符，中文按连续片段切分。
+ * 不超过六个字的中文片段整体保留（含两字词，如“电压”），更长的片段按三字窗口、步长二切分，
+ * 最后一个窗口对齐片段末尾，保证每个字都被覆盖。
+ */
+@UtilityClass
+public class LexicalTerms {
+
+    public static final int MIN_TERM_LENGTH = 2;
+    private static final int CJK_TERM_LENGTH = 3;
+    private static final int CJK_TERM_STEP = 2;
+    private static final int CJK_SHORT_RUN = 6;
+
+    /**
+     * 标识符类词项（型号、条款号等）允许包含 - _ . /，其余连续的中日韩字符单独成段
+     */
+    private static final Pattern IDENTIFIER_TERM = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_./-]*[A-Za-z0-9]|[A-Za-z0-9]");
+    private static final Pattern CJK_RUN = Pattern.compile("[\\p{IsHan}\\p{IsHiragana}\\p{IsKatakana}\\p{IsHangul}]+");
+
+    /**
+     * 提取去重后的词项，标识符统一小写
+     *
+     * @param query    查询文本
+     * @param maxTerms 词项数量上限
+     */
+    public List<String> extract(String query, int maxTerms) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query == null) {
+            return new ArrayList<>();
+        }
+        Matcher identifiers = IDENTIFIER_TERM.matcher(query);
+        while (identifiers.find() && terms.size() < maxTerms) {
+            String term = identifiers.group();
+            if (term.length() >= MIN_TERM_LENGTH) {
+                terms.add(term.toLowerCase(Locale.ROOT));
+            }
+        }
+        Matcher cjkRuns = CJK_RUN.matcher(query);
+        while (cjkRuns.find() && terms.size() < maxTerms) {
+            String run = cjkRuns.group();
+            if (run.length() < MIN_TERM_LENGTH) {
+                continue;
+            }
+            if (run.length() <= CJK_SHORT_RUN) {
+                terms.add(run);
+                continue;
+            }
+            for (int start = 0; terms.size() < maxTerms; start += CJK_TERM_STEP) {
+                int end = Math.min(start + CJK_TERM_LENGTH, run.length());
+                terms.add(run.substring(end - CJK_TERM_LENGTH, end));
+                if (end == run.length()) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+}
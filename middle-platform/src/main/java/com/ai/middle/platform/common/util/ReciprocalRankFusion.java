@@ -0,0 +1,70 @@
+package com.ai.middle.platform.common.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 倒数排名融合（RRF）：score(d) = Σ 1 / (k + rank_i(d))，rank 从 1 开始。
+ * 只依赖各路结果的名次，不要求不同检索方式的得分可比。
+ */
+@UtilityClass
+public class ReciprocalRankFusion {
+
+    public static final int DEFAULT_K = 60;
+
+    /**
+     * 融合结果
+     *
+     * @param item  首次出现时的元素
+     * @param score 融合得分
+     * @param ranks 在各路结果中的名次，未出现为 null，顺序与输入一致
+     */
+    public record Fused<T>(T item, double score, List<Integer> ranks) {
+    }
+
+    /**
+     * 融合多路排序结果，按融合得分降序返回；同分时保持首次出现的先后顺序
+     *
+     * @param rankings 各路排序结果，每路内部按相关度降序
+     * @param keyOf    判定同一元素的键
+     * @param k        平滑常数，越大越弱化头部名次的优势
+     */
+    public <T> List<Fused<T>> fuse(List<List<T>> rankings, Function<T, String> keyOf, int k) {
+        Map<String, T> items = new LinkedHashMap<>();
+        Map<String, double[]> scores = new LinkedHashMap<>();
+        Map<String, Integer[]> ranks = new LinkedHashMap<>();
+        for (int list = 0; list < rankings.size(); list++) {
+            List<T> ranking = rankings.get(list);
+            if (ranking == null) {
+                continue;
+            }
+            Set<String> seen = new HashSet<>();
+            for (int position = 0; position < ranking.size(); position++) {
+                T item = ranking.get(position);
+                String key = keyOf.apply(item);
+                // 同一路中重复出现的元素只按最高名次计分
+                if (key == null || !seen.add(key)) {
+                    continue;
+                }
+                int rank = position + 1;
+                items.putIfAbsent(key, item);
+                scores.computeIfAbsent(key, ignored -> new double[1])[0] += 1.0 / (k + rank);
+                ranks.computeIfAbsent(key, ignored -> new Integer[rankings.size()])[list] = rank;
+            }
+        }
+
+        List<Fused<T>> fused = new ArrayList<>(items.size());
+        items.forEach((key, item) -> fused.add(new Fused<>(item, scores.get(key)[0], Arrays.asList(ranks.get(key)))));
+        fused.sort(Comparator.comparingDouble((Fused<T> f) -> f.score()).reversed());
+        return fused;
+    }
+}
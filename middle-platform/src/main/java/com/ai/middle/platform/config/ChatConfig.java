@@ -0,0 +1,30 @@
+package com.ai.middle.platform.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Knowledge base chat configuration.
+ *
+ * Streaming requests return the SSE connection immediately and prepare the answer on a
+ * dedicated executor, so servlet threads are never held while a model is generating.
+ */
+@Configuration
+@EnableConfigurationProperties(ChatProperties.class)
+public class ChatConfig {
+
+    @Bean(name = "chatStreamExecutor")
+    public ThreadPoolTaskExecutor chatStreamExecutor(ChatProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getStreamExecutorThreads());
+        executor.setMaxPoolSize(properties.getStreamExecutorThreads());
+        executor.setQueueCapacity(properties.getStreamExecutorQueueCapacity());
+        executor.setThreadNamePrefix("chat-stream-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ai.middle.platform.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for knowledge base question answering.
+ *
+ * Bound from the `app.chat` prefix in application.yml.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.chat")
+public class ChatProperties {
+
+    /**
+     * Minimum similarity between the user question and a generated question for the
+     * stored answer to be returned without calling the model.
+     */
+    private Double qaThreshold = 0.92;
+
+    /**
+     * Number of generated questions fetched per lookup; candidates whose QA pair has been
+     * deleted are skipped.
+     */
+    private Integer qaCandidates = 3;
+
+    /**
+     * Number of chunks retrieved as context when the QA lookup misses.
+     */
+    private Integer contextChunks = 8;
+
+    /**
+     * Estimated token budget of the retrieved context in the prompt.
+     */
+    private Integer maxContextTokens = 3000;
+
+    /**
+     * Lifetime of a streaming response; the SSE connection is closed when it is exceeded.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(3);
+
+    /**
+     * Threads preparing streaming answers (QA lookup, retrieval and prompt assembly);
+     * tokens are pushed from the model client's own threads.
+     */
+    private Integer streamExecutorThreads = 8;
+
+    /**
+     * Queue capacity of the streaming executor; requests beyond it are rejected.
+     */
+    private Integer streamExecutorQueueCapacity = 100;
+}
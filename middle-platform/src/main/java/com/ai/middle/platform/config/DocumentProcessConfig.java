@@ -0,0 +1,15 @@
+package com.ai.middle.platform.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Document processing configuration.
+ *
+ * Enables the page rendering profile used when rasterizing documents for OCR,
+ * and the settings of the OCR requests themselves.
+ */
+@Configuration
+@EnableConfigurationProperties({PageRenderProperties.class, OcrProperties.class})
+public class DocumentProcessConfig {
+}
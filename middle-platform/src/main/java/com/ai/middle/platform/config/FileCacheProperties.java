@@ -0,0 +1,36 @@
+package com.ai.middle.platform.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties for the local disk cache placed in front of object storage.
+ *
+ * Bound from the `app.file-cache` prefix in application.yml.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.file-cache")
+public class FileCacheProperties {
+
+    /**
+     * Whether the local disk cache is enabled.
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Directory holding cached objects, owned by the cache. Entries found here on startup are
+     * restored into the index (trimmed to maxSize); only leftover partial downloads are deleted.
+     */
+    private String directory = "/tmp/ai-middle-platform/file-cache";
+
+    /**
+     * Upper bound of the total cached bytes, least recently used entries are evicted beyond it.
+     */
+    private DataSize maxSize = DataSize.ofGigabytes(2);
+
+    /**
+     * Objects larger than this are never cached and always streamed from storage.
+     */
+    private DataSize maxEntrySize = DataSize.ofMegabytes(200);
+}
@@ -0,0 +1,51 @@
+package com.ai.middle.platform.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the asynchronous file deletion pipeline.
+ *
+ * Bound from the `app.file-deletion` prefix in application.yml.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.file-deletion")
+public class FileDeletionProperties {
+
+    /**
+     * Threads running cleanup steps; each deletion fans out into four independent steps.
+     */
+    private Integer executorThreads = 8;
+
+    /**
+     * Queue capacity of the cleanup executor; callers run the step themselves when it is full.
+     */
+    private Integer executorQueueCapacity = 200;
+
+    /**
+     * Attempts of a batched object removal; later attempts only retry the keys that failed.
+     */
+    private Integer removeRetryAttempts = 3;
+
+    /**
+     * Delay before the first retry, doubled for every further attempt.
+     */
+    private Duration removeRetryBackoff = Duration.ofMillis(500);
+
+    /**
+     * Vector rows deleted per statement, keeping each transaction short.
+     */
+    private Integer vectorDeleteBatchSize = 5000;
+
+    /**
+     * Entity nodes detached and deleted per Neo4j transaction.
+     */
+    private Integer graphDeleteBatchSize = 1000;
+
+    /**
+     * Files still marked for deletion are picked up again by the sweeper, which covers
+     * failed steps and deletions interrupted by a restart.
+     */
+    private Integer sweepBatchSize = 20;
+}
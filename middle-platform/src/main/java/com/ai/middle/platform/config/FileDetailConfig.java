@@ -0,0 +1,33 @@
+package com.ai.middle.platform.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * File detail configuration.
+ *
+ * Provides the executor that loads detail sections stored in different databases in
+ * parallel. It is kept apart from the retrieval executor so that slow detail loads never
+ * queue in front of search legs.
+ */
+@Configuration
+@EnableConfigurationProperties(FileDetailProperties.class)
+public class FileDetailConfig {
+
+    @Bean(name = "fileDetailExecutor")
+    public ThreadPoolTaskExecutor fileDetailExecutor(FileDetailProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getExecutorThreads());
+        executor.setMaxPoolSize(properties.getExecutorThreads());
+        executor.setQueueCapacity(properties.getExecutorQueueCapacity());
+        executor.setThreadNamePrefix("file-detail-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
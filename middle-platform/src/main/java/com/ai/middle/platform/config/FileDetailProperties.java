@@ -0,0 +1,24 @@
+package com.ai.middle.platform.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the file detail API.
+ *
+ * Bound from the `app.file-detail` prefix in application.yml.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.file-detail")
+public class FileDetailProperties {
+
+    /**
+     * Threads loading the sections of a file detail (OCR text, knowledge graph, QA pairs).
+     */
+    private Integer executorThreads = 4;
+
+    /**
+     * Queue capacity of the file detail executor; callers run the task themselves when it is full.
+     */
+    private Integer executorQueueCapacity = 50;
+}
@@ -0,0 +1,33 @@
+package com.ai.middle.platform.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * File ingest configuration.
+ *
+ * Uploads only register the file; reading the stored object back (content hash, page
+ * extraction, cloning a duplicate) happens on this executor after the upload transaction
+ * has committed.
+ */
+@Configuration
+@EnableConfigurationProperties(FileIngestProperties.class)
+public class FileIngestConfig {
+
+    @Bean(name = "fileIngestExecutor")
+    public ThreadPoolTaskExecutor fileIngestExecutor(FileIngestProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getExecutorThreads());
+        executor.setMaxPoolSize(properties.getExecutorThreads());
+        executor.setQueueCapacity(properties.getExecutorQueueCapacity());
+        executor.setThreadNamePrefix("file-ingest-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
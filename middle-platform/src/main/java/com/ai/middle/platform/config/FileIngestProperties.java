@@ -0,0 +1,25 @@
+package com.ai.middle.platform.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for processing newly registered files.
+ *
+ * Bound from the `app.file-ingest` prefix in application.yml.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.file-ingest")
+public class FileIngestProperties {
+
+    /**
+     * Threads hashing uploaded objects and splitting them into pages or cloning the results
+     * of an identical file.
+     */
+    private Integer executorThreads = 4;
+
+    /**
+     * Queue capacity of the ingest executor; callers run the task themselves when it is full.
+     */
+    private Integer executorQueueCapacity = 100;
+}
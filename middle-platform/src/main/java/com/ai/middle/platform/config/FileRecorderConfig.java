@@ -11,6 +11,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
@@ -24,6 +25,7 @@ import org.dromara.x.file.storage.core.recorder.FileRecorder;
 import org.dromara.x.file.storage.core.upload.FilePartInfo;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 /**
  * 自定义实现 X-File-Storage 的 {@link FileRecorder}，
@@ -293,9 +295,15 @@ public class FileRecorderConfig implements FileRecorder {
         return Date.from(time.atZone(DEFAULT_ZONE).toInstant());
     }
 
-    private String generatePartId(FilePartInfo info) {
-        String uploadId = StrUtil.blankToDefault(info.getUploadId(), IdUtil.fastSimpleUUID());
+    /**
+     * 分片ID取 (uploadId, partNumber) 的 MD5，长度固定为 32；存储端的 uploadId 远长于主键列宽，
+     * 不能直接拼接。同一分片重复上传时ID不变，按主键覆盖原记录。
+     */
+    String generatePartId(FilePartInfo info) {
+        if (StrUtil.isBlank(info.getUploadId())) {
+            return IdUtil.fastSimpleUUID();
+        }
         Integer partNumber = Optional.ofNullable(info.getPartNumber()).orElse(0);
-        return uploadId + ":" + partNumber;
+        return DigestUtils.md5DigestAsHex((info.getUploadId() + ":" + partNumber).getBytes(StandardCharsets.UTF_8));
     }
 }
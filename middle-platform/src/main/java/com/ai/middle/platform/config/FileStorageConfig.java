@@ -1,9 +1,11 @@
 package com.ai.middle.platform.config;
 
 import org.dromara.x.file.storage.spring.EnableFileStorage;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @EnableFileStorage
+@EnableConfigurationProperties(FileCacheProperties.class)
 public class FileStorageConfig {
 }
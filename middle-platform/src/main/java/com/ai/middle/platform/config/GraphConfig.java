@@ -0,0 +1,9 @@
+package com.ai.middle.platform.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(GraphProperties.class)
+public class GraphConfig {
+}
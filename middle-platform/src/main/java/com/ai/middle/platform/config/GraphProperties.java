@@ -0,0 +1,61 @@
+package com.ai.middle.platform.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the knowledge graph exploration API.
+ *
+ * Bound from the `app.graph` prefix in application.yml. Every query is bounded by these
+ * limits so that a dense document cannot turn one request into a full graph scan.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.graph")
+public class GraphProperties {
+
+    /**
+     * Server-side transaction timeout of a single exploration query.
+     */
+    private Duration queryTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Relationships returned per hop of a neighborhood query when the caller gives no limit.
+     */
+    private Integer defaultNeighborLimit = 50;
+
+    /**
+     * Upper bound of the per-hop relationship limit a caller may request.
+     */
+    private Integer maxNeighborLimit = 500;
+
+    /**
+     * Maximum neighborhood depth, 1 or 2.
+     */
+    private Integer maxDepth = 2;
+
+    /**
+     * Maximum number of relationships on a shortest path.
+     */
+    private Integer maxPathLength = 6;
+
+    /**
+     * Entities per page of a subgraph query when the caller gives no size.
+     */
+    private Integer defaultPageSize = 100;
+
+    /**
+     * Upper bound of the subgraph page size a caller may request.
+     */
+    private Integer maxPageSize = 500;
+
+    /**
+     * Outgoing relationships returned per entity of a subgraph page.
+     */
+    private Integer maxEdgesPerEntity = 50;
+
+    /**
+     * Relationships returned per subgraph page; the page ends early once it is reached.
+     */
+    private Integer maxEdgesPerPage = 2000;
+}
@@ -0,0 +1,57 @@
+package com.ai.middle.platform.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for vision OCR requests.
+ *
+ * Bound from the `app.ocr` prefix in application.yml.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.ocr")
+public class OcrProperties {
+
+    private Integer chunkSize = 1000;
+
+    private Integer overlap = 200;
+
+    private Long timeout = 300000L;
+
+    /**
+     * How page images are handed to the model: inline base64, or a presigned object URL.
+     */
+    private ImageTransfer imageTransfer = ImageTransfer.BASE64;
+
+    /**
+     * Providers that may fetch presigned URLs; empty means every provider.
+     * Other providers keep receiving base64 even when URL transfer is enabled.
+     */
+    private List<String> urlProviders = new ArrayList<>();
+
+    /**
+     * Lifetime of presigned page image URLs; must cover the model request including retries.
+     */
+    private Duration imageUrlExpiry = Duration.ofMinutes(10);
+
+    /**
+     * Maximum number of consecutive pages recognized in one model request; 1 disables batching.
+     */
+    private Integer batchSize = 1;
+
+    public enum ImageTransfer {
+        BASE64,
+        URL
+    }
+
+    public boolean useUrlFor(String provider) {
+        if (imageTransfer != ImageTransfer.URL) {
+            return false;
+        }
+        return urlProviders.isEmpty()
+                || (provider != null && urlProviders.stream().anyMatch(provider::equalsIgnoreCase));
+    }
+}
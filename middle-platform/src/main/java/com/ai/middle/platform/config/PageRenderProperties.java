@@ -0,0 +1,83 @@
+package com.ai.middle.platform.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rendering profile for page images sent to the OCR model.
+ *
+ * Bound from the `app.page-render` prefix in application.yml.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.page-render")
+public class PageRenderProperties {
+
+    /**
+     * Rendering DPI used when no per-type value is configured.
+     */
+    private Integer defaultDpi = 200;
+
+    /**
+     * Rendering DPI per file type (pdf, word), overriding the default.
+     */
+    private Map<String, Integer> dpi = new LinkedHashMap<>();
+
+    /**
+     * Longest edge in pixels; larger pages are rendered at a lower DPI and
+     * larger uploaded images are downscaled. Vision models resize beyond this anyway.
+     */
+    private Integer maxLongEdge = 2048;
+
+    /**
+     * JPEG quality between 0 and 1.
+     */
+    private Float jpegQuality = 0.8f;
+
+    /**
+     * Whether pages without embedded raster images are encoded as grayscale.
+     */
+    private Boolean grayscaleTextPages = true;
+
+    /**
+     * Native text-layer extraction that lets born-digital pages skip vision OCR.
+     */
+    private TextLayer textLayer = new TextLayer();
+
+    @Data
+    public static class TextLayer {
+        /**
+         * Whether pages with a usable embedded text layer bypass OCR.
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Minimum non-whitespace characters for a page without raster images.
+         */
+        private Integer minChars = 50;
+
+        /**
+         * Minimum non-whitespace characters for a page that also contains raster images;
+         * below this the images probably carry content the text layer misses.
+         */
+        private Integer minCharsWithImages = 500;
+
+        /**
+         * Maximum share of unreadable characters (replacement and control characters)
+         * before the text layer is considered broken, e.g. by missing font encodings.
+         */
+        private Double maxGarbageRatio = 0.05;
+
+        /**
+         * Whether to still render a preview image for pages taken from the text layer.
+         */
+        private Boolean renderPreview = false;
+    }
+
+    public int resolveDpi(String fileType) {
+        Integer value = fileType == null ? null : dpi.get(fileType.toLowerCase());
+        return value != null && value > 0 ? value : defaultDpi;
+    }
+}
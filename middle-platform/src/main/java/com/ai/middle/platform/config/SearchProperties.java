@@ -0,0 +1,107 @@
+package com.ai.middle.platform.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for knowledge base retrieval.
+ *
+ * Bound from the `app.search` prefix in application.yml.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search")
+public class SearchProperties {
+
+    /**
+     * Smoothing constant of reciprocal rank fusion.
+     */
+    private Integer rrfK = 60;
+
+    /**
+     * Each retrieval leg fetches topK * multiplier candidates before fusion.
+     */
+    private Integer candidateMultiplier = 4;
+
+    /**
+     * Upper bound of candidates fetched by one leg.
+     */
+    private Integer maxCandidates = 100;
+
+    /**
+     * Maximum number of query terms used by the lexical leg.
+     */
+    private Integer maxLexicalTerms = 8;
+
+    /**
+     * Time budget of the lexical leg; when exceeded the vector results are returned alone.
+     */
+    private Duration lexicalTimeout = Duration.ofMillis(500);
+
+    /**
+     * Time budget of the graph leg, enforced both as the Neo4j transaction timeout and on
+     * the caller side; when exceeded the vector results are returned alone.
+     */
+    private Duration graphTimeout = Duration.ofMillis(300);
+
+    /**
+     * Full-text hits fetched before restricting them to the files being searched.
+     */
+    private Integer graphSeedCandidates = 100;
+
+    /**
+     * Seed entities expanded per query.
+     */
+    private Integer graphSeeds = 10;
+
+    /**
+     * Relationships followed per seed and hop.
+     */
+    private Integer graphFanOut = 20;
+
+    /**
+     * Expansion depth, 1 or 2.
+     */
+    private Integer graphMaxHops = 2;
+
+    /**
+     * Weight multiplier applied per hop away from a seed entity.
+     */
+    private Double graphHopDecay = 0.5;
+
+    /**
+     * Highest weighted pages mapped back to chunks.
+     */
+    private Integer graphMaxPages = 30;
+
+    /**
+     * Threads shared by parallel retrieval legs.
+     */
+    private Integer executorThreads = 16;
+
+    /**
+     * Queue capacity of the retrieval executor; callers run the task themselves when it is full.
+     */
+    private Integer executorQueueCapacity = 200;
+
+    /**
+     * Maximum number of cached query embeddings (about 6 KB each at 1536 dimensions).
+     */
+    private Long embeddingCacheSize = 5000L;
+
+    /**
+     * Lifetime of a cached query embedding.
+     */
+    private Duration embeddingCacheTtl = Duration.ofHours(1);
+
+    /**
+     * Maximum number of cached search results.
+     */
+    private Long resultCacheSize = 2000L;
+
+    /**
+     * Lifetime of a cached search result; it bounds how long newly vectorized or deleted
+     * files stay invisible to repeated queries. Zero disables the result cache.
+     */
+    private Duration resultCacheTtl = Duration.ofSeconds(30);
+}
@@ -42,5 +42,59 @@ public class VectorStoreProperties {
          * Optional DataSource bean name; when empty, primary DataSource is used.
          */
         private String datasource;
+
+        /**
+         * ANN index managed by the application, independent of the langchain4j useIndex flag.
+         */
+        private IndexProperties index = new IndexProperties();
+    }
+
+    public enum IndexType {
+        NONE,
+        HNSW,
+        IVFFLAT
+    }
+
+    @Data
+    public static class IndexProperties {
+        /**
+         * Index type; NONE keeps exact sequential scans.
+         */
+        private IndexType type = IndexType.HNSW;
+
+        /**
+         * HNSW: max connections per layer.
+         */
+        private Integer m = 16;
+
+        /**
+         * HNSW: candidate list size while building.
+         */
+        private Integer efConstruction = 64;
+
+        /**
+         * HNSW: candidate list size per query, trades recall for latency.
+         */
+        private Integer efSearch = 100;
+
+        /**
+         * IVFFlat: number of inverted lists, roughly rows / 1000 up to 1M rows.
+         */
+        private Integer lists = 100;
+
+        /**
+         * IVFFlat: lists probed per query.
+         */
+        private Integer probes = 10;
+
+        /**
+         * Keep scanning the index until enough rows pass the metadata filter (pgvector 0.8+).
+         */
+        private Boolean iterativeScan = false;
+
+        /**
+         * Build missing indexes concurrently in the background after startup.
+         */
+        private Boolean buildOnStartup = true;
     }
 }
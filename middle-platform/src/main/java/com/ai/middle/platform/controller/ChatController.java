@@ -0,0 +1,43 @@
+package com.ai.middle.platform.controller;
+
+import com.ai.middle.platform.common.constant.ApiConstants;
+import com.ai.middle.platform.common.result.Result;
+import com.ai.middle.platform.dto.request.AskRequest;
+import com.ai.middle.platform.dto.response.AnswerDTO;
+import com.ai.middle.platform.service.ChatService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 知识库问答控制器
+ */
+@RestController
+@RequiredArgsConstructor
+public class ChatController {
+
+    private final ChatService chatService;
+
+    /**
+     * 知识库问答，优先返回已生成问答对中的答案
+     */
+    @PostMapping(ApiConstants.KB_PATH + "/{kbId}/ask")
+    public Result<AnswerDTO> ask(@PathVariable String kbId,
+                                 @Valid @RequestBody AskRequest request) {
+        return Result.success(chatService.ask(kbId, request));
+    }
+
+    /**
+     * 流式知识库问答（Server-Sent Events）
+     */
+    @PostMapping(value = ApiConstants.KB_PATH + "/{kbId}/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable String kbId,
+                             @Valid @RequestBody AskRequest request) {
+        return chatService.stream(kbId, request);
+    }
+}
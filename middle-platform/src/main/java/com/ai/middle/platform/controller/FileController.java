@@ -2,16 +2,29 @@ package com.ai.middle.platform.controller;
 
 import com.ai.middle.platform.common.constant.ApiConstants;
 import com.ai.middle.platform.common.result.Result;
+import com.ai.middle.platform.dto.request.DirectUploadRequest;
+import com.ai.middle.platform.dto.request.FileQueryRequest;
+import com.ai.middle.platform.dto.response.CursorPageDTO;
 import com.ai.middle.platform.dto.response.FileDTO;
 import com.ai.middle.platform.dto.response.FileDetailDTO;
 import com.ai.middle.platform.dto.response.FileUploadResponse;
+import com.ai.middle.platform.dto.response.GraphViewDTO;
+import com.ai.middle.platform.dto.response.MultipartPartDTO;
+import com.ai.middle.platform.dto.response.MultipartUploadDTO;
+import com.ai.middle.platform.dto.response.OcrPageRangeDTO;
+import com.ai.middle.platform.dto.response.PresignedUrlDTO;
+import com.ai.middle.platform.dto.response.QaPairDTO;
+import com.ai.middle.platform.dto.response.TagFacetDTO;
+import com.ai.middle.platform.service.FileDetailService;
 import com.ai.middle.platform.service.FileService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
@@ -26,6 +39,7 @@ import java.util.List;
 public class FileController {
 
     private final FileService fileService;
+    private final FileDetailService fileDetailService;
 
     /**
      * 查询知识库的文件列表
@@ -37,14 +51,53 @@ public class FileController {
     }
 
     /**
-     * 查询文件详情
+     * 游标分页查询知识库的文件列表
+     */
+    @GetMapping(ApiConstants.KB_PATH + "/{kbId}/files/page")
+    public Result<CursorPageDTO<FileDTO>> pageByKbId(@PathVariable String kbId, FileQueryRequest request) {
+        return Result.success(fileService.pageByKbId(kbId, request));
+    }
+
+    /**
+     * 查询文件详情，fields 指定需要返回的部分（ocrContent、knowledgeGraph、qaPairs），不传时返回全部
      */
     @GetMapping(ApiConstants.FILE_PATH + "/{id}")
-    public Result<FileDetailDTO> getById(@PathVariable String id) {
-        FileDetailDTO file = fileService.getDetailById(id);
+    public Result<FileDetailDTO> getById(@PathVariable String id,
+                                         @RequestParam(required = false) String fields) {
+        FileDetailDTO file = fileDetailService.getDetail(id, fields);
         return Result.success(file);
     }
 
+    /**
+     * 按页码区间查询文件的OCR结果
+     */
+    @GetMapping(ApiConstants.FILE_PATH + "/{id}/ocr-pages")
+    public Result<OcrPageRangeDTO> getOcrPages(@PathVariable String id,
+                                               @RequestParam(required = false) Integer from,
+                                               @RequestParam(required = false) Integer to) {
+        return Result.success(fileDetailService.getOcrPages(id, from, to));
+    }
+
+    /**
+     * 游标分页查询文件的问答对
+     */
+    @GetMapping(ApiConstants.FILE_PATH + "/{id}/qa-pairs")
+    public Result<CursorPageDTO<QaPairDTO>> pageQaPairs(@PathVariable String id,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return Result.success(fileDetailService.pageQaPairs(id, cursor, size));
+    }
+
+    /**
+     * 游标分页查询文件的知识图谱
+     */
+    @GetMapping(ApiConstants.FILE_PATH + "/{id}/graph")
+    public Result<GraphViewDTO> pageGraph(@PathVariable String id,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size) {
+        return Result.success(fileDetailService.pageGraph(id, cursor, size));
+    }
+
     /**
      * 上传文件
      */
@@ -56,6 +109,78 @@ public class FileController {
         return Result.success(response);
     }
 
+    /**
+     * 申请直传上传地址，文件内容由客户端直接上传到对象存储
+     */
+    @PostMapping(ApiConstants.KB_PATH + "/{kbId}/files/direct-upload")
+    public Result<PresignedUrlDTO> createDirectUpload(
+            @PathVariable String kbId,
+            @Valid @RequestBody DirectUploadRequest request) {
+        return Result.success(fileService.createDirectUpload(kbId, request));
+    }
+
+    /**
+     * 直传完成回调
+     */
+    @PostMapping(ApiConstants.FILE_PATH + "/{id}/complete")
+    public Result<FileUploadResponse> completeDirectUpload(@PathVariable String id) {
+        return Result.success(fileService.completeDirectUpload(id));
+    }
+
+    /**
+     * 初始化分片上传
+     */
+    @PostMapping(ApiConstants.KB_PATH + "/{kbId}/files/multipart")
+    public Result<MultipartUploadDTO> initiateMultipartUpload(
+            @PathVariable String kbId,
+            @Valid @RequestBody DirectUploadRequest request) {
+        return Result.success(fileService.initiateMultipartUpload(kbId, request));
+    }
+
+    /**
+     * 上传分片
+     */
+    @PutMapping(ApiConstants.FILE_PATH + "/{id}/multipart/parts/{partNumber}")
+    public Result<MultipartPartDTO> uploadPart(
+            @PathVariable String id,
+            @PathVariable int partNumber,
+            @RequestParam("file") MultipartFile part) {
+        return Result.success(fileService.uploadPart(id, partNumber, part));
+    }
+
+    /**
+     * 查询分片上传进度
+     */
+    @GetMapping(ApiConstants.FILE_PATH + "/{id}/multipart")
+    public Result<MultipartUploadDTO> getMultipartUpload(@PathVariable String id) {
+        return Result.success(fileService.getMultipartUpload(id));
+    }
+
+    /**
+     * 合并分片
+     */
+    @PostMapping(ApiConstants.FILE_PATH + "/{id}/multipart/complete")
+    public Result<FileUploadResponse> completeMultipartUpload(@PathVariable String id) {
+        return Result.success(fileService.completeMultipartUpload(id));
+    }
+
+    /**
+     * 取消分片上传
+     */
+    @DeleteMapping(ApiConstants.FILE_PATH + "/{id}/multipart")
+    public Result<Void> abortMultipartUpload(@PathVariable String id) {
+        fileService.abortMultipartUpload(id);
+        return Result.success();
+    }
+
+    /**
+     * 获取预签名下载地址
+     */
+    @GetMapping(ApiConstants.FILE_PATH + "/{id}/download-url")
+    public Result<PresignedUrlDTO> createDownloadUrl(@PathVariable String id) {
+        return Result.success(fileService.createDownloadUrl(id));
+    }
+
     /**
      * 删除文件
      */
@@ -87,6 +212,30 @@ public class FileController {
         return Result.success(files);
     }
 
+    /**
+     * 根据标签游标分页搜索文件
+     */
+    @GetMapping(ApiConstants.KB_PATH + "/{kbId}/files/search/tags")
+    public Result<CursorPageDTO<FileDTO>> searchByTagPage(
+            @PathVariable String kbId,
+            @RequestParam String tag,
+            @RequestParam(defaultValue = "contains") String match,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return Result.success(fileService.searchByTag(kbId, tag, match, cursor, size));
+    }
+
+    /**
+     * 查询知识库的标签统计
+     */
+    @GetMapping(ApiConstants.KB_PATH + "/{kbId}/tags/facets")
+    public Result<List<TagFacetDTO>> listTagFacets(
+            @PathVariable String kbId,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return Result.success(fileService.listTagFacets(kbId, prefix, limit));
+    }
+
     /**
      * 更新文件的OCR内容
      */
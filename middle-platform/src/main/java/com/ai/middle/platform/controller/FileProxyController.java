@@ -1,13 +1,31 @@
 package com.ai.middle.platform.controller;
 
+import com.ai.middle.platform.service.storage.LocalFileCache;
+import com.ai.middle.platform.service.storage.MinioObjectService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.FileInfo;
 import org.springframework.http.*;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.List;
 
 /**
  * 文件代理控制器 - 通过x-file-storage获取文件，解决前端CORS问题
+ * <p>
+ * 对象内容以固定大小的缓冲区从存储端直接流向响应，不在堆中整体缓存；
+ * 支持 Range 分段读取与 ETag / Last-Modified 条件请求，PDF 阅读器可以只拉取当前页所需的字节。
+ * 热点对象命中本地磁盘缓存时，直接通过 FileChannel 传输，不再访问存储端；
+ * 未命中的完整请求边向客户端输出边写入缓存，首字节不必等待整个对象落盘。
  */
 @Slf4j
 @RestController
@@ -15,61 +33,172 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 @RequiredArgsConstructor
 public class FileProxyController {
-    
-    private final FileStorageService fileStorageService;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MinioObjectService minioObjectService;
+    private final LocalFileCache localFileCache;
 
     /**
-     * 代理文件访问 - 使用x-file-storage下载文件
+     * 代理文件访问 - 流式读取存储对象
      * @param url 文件URL（来自MinIO/OSS）
-     * @return 文件内容
      */
     @GetMapping("/file")
-    public ResponseEntity<byte[]> proxyFile(@RequestParam String url) {
-        log.info("代理文件访问（x-file-storage）: {}", url);
-        
+    public void proxyFile(@RequestParam String url,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        log.debug("代理文件访问: {}", url);
+
+        FileInfo fileInfo = minioObjectService.getFileInfo(url);
+        if (fileInfo == null) {
+            log.warn("代理文件不存在: {}", url);
+            response.sendError(HttpStatus.NOT_FOUND.value(), "File not found");
+            return;
+        }
+
+        // 未命中时直接回源；完整请求在输出的同时写入缓存，分段请求不写缓存，避免为一次翻页把整个大文件拉到本地
+        LocalFileCache.CachedFile cached = localFileCache.lookup(url);
+        FileChannel channel = cached != null ? localFileCache.open(cached) : null;
         try {
-            // 使用x-file-storage的download方法
-            byte[] fileContent = fileStorageService.download(url).bytes();
-            
-            if (fileContent == null || fileContent.length == 0) {
-                log.error("文件内容为空: {}", url);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body("File not found or empty".getBytes());
+            MinioObjectService.ObjectMetadata metadata;
+            try {
+                metadata = channel != null
+                        ? new MinioObjectService.ObjectMetadata(cached.size(), cached.etag(), cached.lastModified(), null)
+                        : minioObjectService.stat(fileInfo);
+            } catch (Exception e) {
+                log.error("文件代理失败: {}", e.getMessage(), e);
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to proxy file: " + e.getMessage());
+                return;
+            }
+            writeBody(url, fileInfo, channel, metadata, request, response);
+        } finally {
+            if (channel != null) {
+                channel.close();
             }
-            
-            // 根据URL后缀判断Content-Type
-            String contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
-            String lowerUrl = url.toLowerCase();
-            if (lowerUrl.endsWith(".pdf")) {
-                contentType = MediaType.APPLICATION_PDF_VALUE;
-            } else if (lowerUrl.matches(".*\\.(jpg|jpeg)$")) {
-                contentType = MediaType.IMAGE_JPEG_VALUE;
-            } else if (lowerUrl.endsWith(".png")) {
-                contentType = MediaType.IMAGE_PNG_VALUE;
-            } else if (lowerUrl.endsWith(".gif")) {
-                contentType = MediaType.IMAGE_GIF_VALUE;
-            } else if (lowerUrl.endsWith(".webp")) {
-                contentType = "image/webp";
+        }
+    }
+
+    private void writeBody(String url,
+                           FileInfo fileInfo,
+                           FileChannel channel,
+                           MinioObjectService.ObjectMetadata metadata,
+                           HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        String etag = StringUtils.hasText(metadata.etag()) ? "\"" + metadata.etag() + "\"" : null;
+        writeCommonHeaders(response, resolveContentType(url, metadata.contentType()));
+
+        // 设置 ETag / Last-Modified，条件命中时直接返回 304
+        if (new ServletWebRequest(request, response).checkNotModified(etag, metadata.lastModified())) {
+            return;
+        }
+
+        long length = metadata.size();
+        HttpRange range;
+        try {
+            range = resolveRange(request, etag, length);
+        } catch (IllegalArgumentException ex) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+
+        long start = 0;
+        long count = length;
+        if (range != null) {
+            start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            count = end - start + 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        } else {
+            response.setStatus(HttpStatus.OK.value());
+        }
+        response.setContentLengthLong(count);
+
+        if (count == 0) {
+            return;
+        }
+        try {
+            if (channel != null) {
+                OutputStream out = response.getOutputStream();
+                LocalFileCache.transfer(channel, start, count, Channels.newChannel(out));
+                out.flush();
+                return;
+            }
+            try (InputStream in = minioObjectService.openStream(fileInfo, range != null ? start : null,
+                    range != null ? count : null);
+                 LocalFileCache.CacheWriter cacheWriter = range == null ? localFileCache.beginWrite(url, metadata) : null) {
+                copy(in, response.getOutputStream(), cacheWriter);
+                if (cacheWriter != null) {
+                    cacheWriter.commit();
+                }
+            }
+        } catch (IOException e) {
+            // 阅读器翻页或取消加载时会主动断开连接
+            log.debug("代理文件传输中断: {} {}", url, e.getMessage());
+        }
+    }
+
+    /**
+     * 解析单个 Range；多段 Range 或 If-Range 不匹配时返回 null，按完整内容响应
+     */
+    private HttpRange resolveRange(HttpServletRequest request, String etag, long length) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (!StringUtils.hasText(rangeHeader)) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (StringUtils.hasText(ifRange) && !ifRange.equals(etag)) {
+            return null;
+        }
+        List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+        if (ranges.size() != 1) {
+            return null;
+        }
+        HttpRange range = ranges.get(0);
+        // 越界时抛出 IllegalArgumentException，由调用方返回 416
+        range.getRangeStart(length);
+        return range;
+    }
+
+    private void writeCommonHeaders(HttpServletResponse response, String contentType) {
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(3600, java.util.concurrent.TimeUnit.SECONDS).getHeaderValue());
+        // 添加CORS头
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "*");
+        response.setHeader("Access-Control-Expose-Headers", "Accept-Ranges, Content-Range, Content-Length, ETag");
+    }
+
+    private String resolveContentType(String url, String storedContentType) {
+        // 根据URL后缀判断Content-Type
+        String lowerUrl = url.toLowerCase();
+        if (lowerUrl.endsWith(".pdf")) {
+            return MediaType.APPLICATION_PDF_VALUE;
+        } else if (lowerUrl.matches(".*\\.(jpg|jpeg)$")) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        } else if (lowerUrl.endsWith(".png")) {
+            return MediaType.IMAGE_PNG_VALUE;
+        } else if (lowerUrl.endsWith(".gif")) {
+            return MediaType.IMAGE_GIF_VALUE;
+        } else if (lowerUrl.endsWith(".webp")) {
+            return "image/webp";
+        }
+        return StringUtils.hasText(storedContentType) ? storedContentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private void copy(InputStream in, OutputStream out, LocalFileCache.CacheWriter cacheWriter) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            if (cacheWriter != null) {
+                cacheWriter.write(buffer, 0, read);
             }
-            
-            // 构建响应头
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(contentType));
-            headers.setContentLength(fileContent.length);
-            headers.setCacheControl(CacheControl.maxAge(3600, java.util.concurrent.TimeUnit.SECONDS));
-            // 添加CORS头
-            headers.set("Access-Control-Allow-Origin", "*");
-            headers.set("Access-Control-Allow-Methods", "GET, OPTIONS");
-            headers.set("Access-Control-Allow-Headers", "*");
-            
-            log.info("文件代理成功: {} bytes, contentType={}", fileContent.length, contentType);
-            return new ResponseEntity<>(fileContent, headers, HttpStatus.OK);
-            
-        } catch (Exception e) {
-            log.error("文件代理失败: {}", e.getMessage(), e);
-            String errorMsg = "Failed to proxy file: " + e.getMessage();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(errorMsg.getBytes());
         }
+        out.flush();
     }
 }
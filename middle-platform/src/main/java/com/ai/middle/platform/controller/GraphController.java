@@ -0,0 +1,54 @@
+package com.ai.middle.platform.controller;
+
+import com.ai.middle.platform.common.constant.ApiConstants;
+import com.ai.middle.platform.common.result.Result;
+import com.ai.middle.platform.dto.response.GraphViewDTO;
+import com.ai.middle.platform.service.GraphService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 知识图谱探索控制器
+ */
+@RestController
+@RequiredArgsConstructor
+public class GraphController {
+
+    private final GraphService graphService;
+
+    /**
+     * 分页遍历知识库图谱，可按文件过滤
+     */
+    @GetMapping(ApiConstants.KB_PATH + "/{kbId}/graph")
+    public Result<GraphViewDTO> subgraph(@PathVariable String kbId,
+                                         @RequestParam(required = false) String fileId,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size) {
+        return Result.success(graphService.subgraph(kbId, fileId, cursor, size));
+    }
+
+    /**
+     * 查询实体邻域
+     */
+    @GetMapping(ApiConstants.KB_PATH + "/{kbId}/graph/entities/{entityId}/neighbors")
+    public Result<GraphViewDTO> neighbors(@PathVariable String kbId,
+                                          @PathVariable String entityId,
+                                          @RequestParam(required = false) Integer depth,
+                                          @RequestParam(required = false) Integer limit) {
+        return Result.success(graphService.neighbors(kbId, entityId, depth, limit));
+    }
+
+    /**
+     * 查询两个实体之间的最短路径
+     */
+    @GetMapping(ApiConstants.KB_PATH + "/{kbId}/graph/path")
+    public Result<GraphViewDTO> shortestPath(@PathVariable String kbId,
+                                             @RequestParam String from,
+                                             @RequestParam String to,
+                                             @RequestParam(required = false) Integer maxLength) {
+        return Result.success(graphService.shortestPath(kbId, from, to, maxLength));
+    }
+}
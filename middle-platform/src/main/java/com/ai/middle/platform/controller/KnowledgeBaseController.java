@@ -4,6 +4,7 @@ import com.ai.middle.platform.common.constant.ApiConstants;
 import com.ai.middle.platform.common.result.Result;
 import com.ai.middle.platform.dto.request.KnowledgeBaseRequest;
 import com.ai.middle.platform.dto.response.KnowledgeBaseDTO;
+import com.ai.middle.platform.dto.response.PageDTO;
 import com.ai.middle.platform.service.KnowledgeBaseService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -38,6 +40,20 @@ public class KnowledgeBaseController {
         return Result.success(list);
     }
 
+    /**
+     * 分页查询知识库列表
+     *
+     * @param current 页码，从1开始
+     * @param size    每页数量
+     * @return 知识库分页结果
+     */
+    @GetMapping("/page")
+    public Result<PageDTO<KnowledgeBaseDTO>> page(
+            @RequestParam(defaultValue = "1") long current,
+            @RequestParam(defaultValue = "20") long size) {
+        return Result.success(knowledgeBaseService.page(current, size));
+    }
+
     /**
      * 查询知识库详情
      *
@@ -0,0 +1,34 @@
+package com.ai.middle.platform.controller;
+
+import com.ai.middle.platform.common.constant.ApiConstants;
+import com.ai.middle.platform.common.result.Result;
+import com.ai.middle.platform.dto.request.SearchRequest;
+import com.ai.middle.platform.dto.response.SearchHitDTO;
+import com.ai.middle.platform.service.SearchService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 知识库检索控制器
+ */
+@RestController
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+
+    /**
+     * 语义检索知识库
+     */
+    @PostMapping(ApiConstants.KB_PATH + "/{kbId}/search")
+    public Result<List<SearchHitDTO>> search(@PathVariable String kbId,
+                                             @Valid @RequestBody SearchRequest request) {
+        return Result.success(searchService.search(kbId, request));
+    }
+}
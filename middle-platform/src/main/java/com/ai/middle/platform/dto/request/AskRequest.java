@@ -0,0 +1,41 @@
+package com.ai.middle.platform.dto.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 知识库问答请求DTO
+ */
+@Data
+public class AskRequest {
+
+    /**
+     * 用户问题
+     */
+    @NotBlank(message = "问题不能为空")
+    @Size(max = 2000, message = "问题不能超过2000个字符")
+    private String question;
+
+    /**
+     * 限定检索的文件ID，为空表示整个知识库
+     */
+    @Size(max = 100, message = "文件数量不能超过100")
+    private List<String> fileIds;
+
+    /**
+     * 是否优先匹配已生成的问答对
+     */
+    private Boolean useQaCache = true;
+
+    /**
+     * 问答对命中阈值，为空时使用系统配置
+     */
+    @DecimalMin(value = "0.5", message = "命中阈值不能小于0.5")
+    @DecimalMax(value = "1.0", message = "命中阈值不能大于1")
+    private Double qaThreshold;
+}
@@ -0,0 +1,31 @@
+package com.ai.middle.platform.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * 直传上传申请DTO
+ */
+@Data
+public class DirectUploadRequest {
+
+    /**
+     * 原始文件名
+     */
+    @NotBlank(message = "文件名不能为空")
+    private String filename;
+
+    /**
+     * 文件大小（字节）
+     */
+    @NotNull(message = "文件大小不能为空")
+    @Positive(message = "文件大小必须大于0")
+    private Long size;
+
+    /**
+     * 文件内容类型
+     */
+    private String contentType;
+}
@@ -0,0 +1,65 @@
+package com.ai.middle.platform.dto.request;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文件分页查询请求DTO
+ */
+@Data
+public class FileQueryRequest {
+
+    /**
+     * 上一页返回的游标，首页为空
+     */
+    private String cursor;
+
+    /**
+     * 每页数量，默认20，最大100
+     */
+    private Integer size;
+
+    /**
+     * 按上传时间排序方向：desc（默认）或 asc
+     */
+    private String order;
+
+    /**
+     * 上传时间下限（包含）
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime uploadedFrom;
+
+    /**
+     * 上传时间上限（不包含）
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime uploadedTo;
+
+    /**
+     * OCR处理状态过滤
+     */
+    private String ocrStatus;
+
+    /**
+     * 向量化处理状态过滤
+     */
+    private String vectorizationStatus;
+
+    /**
+     * 问答对生成状态过滤
+     */
+    private String qaPairsStatus;
+
+    /**
+     * 知识图谱生成状态过滤
+     */
+    private String knowledgeGraphStatus;
+
+    /**
+     * 返回视图：full（默认）或 lite，lite 只查询列表展示需要的列
+     */
+    private String view;
+}
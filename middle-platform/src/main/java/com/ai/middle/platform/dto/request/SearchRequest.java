@@ -0,0 +1,53 @@
+package com.ai.middle.platform.dto.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 知识库检索请求DTO
+ */
+@Data
+public class SearchRequest {
+
+    /**
+     * 查询文本
+     */
+    @NotBlank(message = "查询内容不能为空")
+    @Size(max = 2000, message = "查询内容不能超过2000个字符")
+    private String query;
+
+    /**
+     * 返回条数
+     */
+    @Min(value = 1, message = "返回条数至少为1")
+    @Max(value = 50, message = "返回条数不能超过50")
+    private Integer topK = 10;
+
+    /**
+     * 限定检索的文件ID，为空表示整个知识库
+     */
+    @Size(max = 100, message = "文件数量不能超过100")
+    private List<String> fileIds;
+
+    /**
+     * 最低相似度，0~1
+     */
+    @DecimalMin(value = "0.0", message = "相似度不能小于0")
+    @DecimalMax(value = "1.0", message = "相似度不能大于1")
+    private Double minScore;
+
+    /**
+     * 检索模式：vector 向量检索；hybrid 向量与关键词并行检索后按名次融合；
+     * graph 向量检索与知识图谱实体扩展并行后按名次融合
+     */
+    @Pattern(regexp = "(?i)vector|hybrid|graph", message = "检索模式只能是 vector、hybrid 或 graph")
+    private String mode = "vector";
+}
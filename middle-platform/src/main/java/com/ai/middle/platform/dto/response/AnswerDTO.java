@@ -0,0 +1,68 @@
+package com.ai.middle.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 知识库问答结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerDTO {
+
+    /**
+     * 答案
+     */
+    private String answer;
+
+    /**
+     * 答案来源：qa_cache 命中已生成的问答对；rag 检索后由模型生成
+     */
+    private String source;
+
+    /**
+     * 命中的问答对ID，仅 qa_cache 时有值
+     */
+    private String qaId;
+
+    /**
+     * 命中的问题，仅 qa_cache 时有值
+     */
+    private String matchedQuestion;
+
+    /**
+     * 问题相似度，仅 qa_cache 时有值
+     */
+    private Double score;
+
+    /**
+     * 答案出处文本，仅 qa_cache 时有值
+     */
+    private String sourceText;
+
+    /**
+     * 出处文件ID，仅 qa_cache 时有值
+     */
+    private String fileId;
+
+    /**
+     * 出处文件名称，仅 qa_cache 时有值
+     */
+    private String fileName;
+
+    /**
+     * 作为上下文的检索结果，仅 rag 时有值
+     */
+    private List<SearchHitDTO> references;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private Long costMs;
+}
@@ -0,0 +1,43 @@
+package com.ai.middle.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 图谱探索结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphViewDTO {
+
+    /**
+     * 节点列表
+     */
+    private List<KnowledgeGraphDTO.GraphNodeDTO> nodes;
+
+    /**
+     * 边列表；子图分页时边的目标节点可能位于其他页
+     */
+    private List<KnowledgeGraphDTO.GraphEdgeDTO> edges;
+
+    /**
+     * 是否因数量上限截断了部分关系
+     */
+    private Boolean truncated;
+
+    /**
+     * 下一页游标，仅子图分页查询返回
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasMore;
+}
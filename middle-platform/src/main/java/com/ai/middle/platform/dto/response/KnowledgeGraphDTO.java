@@ -49,6 +49,11 @@ public class KnowledgeGraphDTO {
          * 节点类型
          */
         private String type;
+
+        /**
+         * 所属文件ID
+         */
+        private String fileId;
     }
 
     /**
@@ -74,5 +79,10 @@ public class KnowledgeGraphDTO {
          * 边的标签或关系类型
          */
         private String label;
+
+        /**
+         * 关系类型
+         */
+        private String type;
     }
 }
@@ -0,0 +1,31 @@
+package com.ai.middle.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 已上传分片DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartPartDTO {
+
+    /**
+     * 分片序号，从1开始
+     */
+    private Integer partNumber;
+
+    /**
+     * 分片大小（字节）
+     */
+    private Long size;
+
+    /**
+     * 存储端返回的分片ETag
+     */
+    private String etag;
+}
@@ -0,0 +1,48 @@
+package com.ai.middle.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 分片上传任务DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartUploadDTO {
+
+    /**
+     * 文件ID
+     */
+    private String fileId;
+
+    /**
+     * 存储端分片上传ID
+     */
+    private String uploadId;
+
+    /**
+     * 文件总大小（字节）
+     */
+    private Long size;
+
+    /**
+     * 建议的分片大小（字节），除最后一片外各分片不得小于5MB
+     */
+    private Long partSize;
+
+    /**
+     * 按建议分片大小计算的分片数
+     */
+    private Integer partCount;
+
+    /**
+     * 已上传的分片，断点续传时跳过这些分片
+     */
+    private List<MultipartPartDTO> uploadedParts;
+}
@@ -0,0 +1,36 @@
+package com.ai.middle.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 单页OCR结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcrPageDTO {
+
+    /**
+     * 页码，从0开始
+     */
+    private Integer pageIndex;
+
+    /**
+     * 识别内容
+     */
+    private String content;
+
+    /**
+     * 识别状态
+     */
+    private String status;
+
+    /**
+     * 识别失败原因
+     */
+    private String error;
+}
@@ -0,0 +1,38 @@
+package com.ai.middle.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 按页码区间查询的OCR结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcrPageRangeDTO {
+
+    /**
+     * 起始页码（含），从 1 开始
+     */
+    private Integer fromPage;
+
+    /**
+     * 结束页码（含）
+     */
+    private Integer toPage;
+
+    /**
+     * 文件总页数
+     */
+    private Long totalPages;
+
+    /**
+     * 区间内的页面
+     */
+    private List<OcrPageDTO> pages;
+}
@@ -0,0 +1,38 @@
+package com.ai.middle.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 分页结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDTO<T> {
+
+    /**
+     * 当前页数据
+     */
+    private List<T> records;
+
+    /**
+     * 总记录数
+     */
+    private Long total;
+
+    /**
+     * 当前页码，从1开始
+     */
+    private Long current;
+
+    /**
+     * 每页数量
+     */
+    private Long size;
+}
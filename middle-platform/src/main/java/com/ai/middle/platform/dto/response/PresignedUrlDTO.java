@@ -0,0 +1,38 @@
+package com.ai.middle.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 预签名地址DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedUrlDTO {
+
+    /**
+     * 文件ID
+     */
+    private String fileId;
+
+    /**
+     * 预签名地址，客户端直接访问对象存储
+     */
+    private String url;
+
+    /**
+     * 访问方式：PUT 上传，GET 下载
+     */
+    private String method;
+
+    /**
+     * 过期时间
+     */
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,71 @@
+package com.ai.middle.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 检索命中结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHitDTO {
+
+    /**
+     * 文本块ID
+     */
+    private String chunkId;
+
+    /**
+     * 文件ID
+     */
+    private String fileId;
+
+    /**
+     * 文件名称
+     */
+    private String fileName;
+
+    /**
+     * 文本块序号
+     */
+    private Integer chunkIndex;
+
+    /**
+     * 起始页码，历史数据可能为空
+     */
+    private Integer pageStart;
+
+    /**
+     * 结束页码，历史数据可能为空
+     */
+    private Integer pageEnd;
+
+    /**
+     * 得分：vector 模式为相似度（0~1），hybrid、graph 模式为融合得分
+     */
+    private Double score;
+
+    /**
+     * 在向量检索结果中的名次，未命中为空
+     */
+    private Integer vectorRank;
+
+    /**
+     * 在关键词检索结果中的名次，未命中为空
+     */
+    private Integer lexicalRank;
+
+    /**
+     * 在知识图谱扩展结果中的名次，未命中为空
+     */
+    private Integer graphRank;
+
+    /**
+     * 文本块内容
+     */
+    private String content;
+}
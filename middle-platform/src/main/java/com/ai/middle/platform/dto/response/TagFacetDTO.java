@@ -0,0 +1,26 @@
+package com.ai.middle.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 标签统计DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagFacetDTO {
+
+    /**
+     * 标签
+     */
+    private String tag;
+
+    /**
+     * 带有该标签的文件数
+     */
+    private Long count;
+}
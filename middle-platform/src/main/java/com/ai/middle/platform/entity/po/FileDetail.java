@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import java.time.LocalDateTime;
+import org.apache.ibatis.type.ArrayTypeHandler;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,7 +18,7 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@TableName("file_detail")
+@TableName(value = "file_detail", autoResultMap = true)
 public class FileDetail {
 
     @TableId(value = "id")
@@ -100,4 +101,36 @@ public class FileDetail {
 
     @TableField(value = "create_time", fill = FieldFill.INSERT)
     private LocalDateTime createTime;
+
+    /** 上传者用户ID */
+    @TableField("uploaded_by")
+    private Long uploadedBy;
+
+    /** OCR 处理状态 */
+    @TableField("ocr_status")
+    private String ocrStatus;
+
+    /** 向量化处理状态 */
+    @TableField("vectorization_status")
+    private String vectorizationStatus;
+
+    /** 问答对生成状态 */
+    @TableField("qa_pairs_status")
+    private String qaPairsStatus;
+
+    /** 知识图谱生成状态 */
+    @TableField("knowledge_graph_status")
+    private String knowledgeGraphStatus;
+
+    /** 最近一次处理失败的错误信息 */
+    @TableField("error_message")
+    private String errorMessage;
+
+    /** 文件标签 */
+    @TableField(value = "tags", typeHandler = ArrayTypeHandler.class)
+    private String[] tags;
+
+    /** 文件内容 SHA-256（十六进制小写），用于识别重复上传 */
+    @TableField("content_sha256")
+    private String contentSha256;
 }
@@ -9,6 +9,9 @@ import java.util.List;
 
 /**
  * 附加在 file_detail.attr 字段中的业务元数据。
+ * <p>
+ * 处理状态、上传者、标签与错误信息已迁移到 file_detail 的独立列，
+ * 这里的同名字段只用于读取尚未回填的历史数据。
  */
 @Data
 @Builder
@@ -0,0 +1,40 @@
+package com.ai.middle.platform.entity.po;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文件标签索引表，每个文件的每个标签一行，用于知识库内的标签检索与统计。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("kb_file_tag")
+public class KbFileTag {
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    @TableField("kb_id")
+    private Long kbId;
+
+    @TableField("file_id")
+    private String fileId;
+
+    @TableField("tag")
+    private String tag;
+
+    @TableField("tag_lower")
+    private String tagLower;
+
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+}
@@ -1,27 +1,23 @@
 package com.ai.middle.platform.mq.consumer;
 
+import com.ai.middle.platform.common.enums.ProcessingStage;
 import com.ai.middle.platform.common.enums.ProcessingStatus;
-import com.ai.middle.platform.common.util.FileDetailAttrUtils;
-import com.ai.middle.platform.common.util.IdGenerator;
 import com.ai.middle.platform.config.RabbitMQConfig;
 
-import com.ai.middle.platform.entity.po.FileDetail;
-import com.ai.middle.platform.entity.po.FileDetailAttributes;
 import com.ai.middle.platform.entity.po.KbDocument;
 import com.ai.middle.platform.mq.message.OcrTaskMessage;
-import com.ai.middle.platform.mq.message.VectorizationTaskMessage;
 
-import com.ai.middle.platform.repository.mapper.FileDetailMapper;
 import com.ai.middle.platform.repository.mapper.KbDocumentMapper;
 import com.ai.middle.platform.service.AIProcessService;
+import com.ai.middle.platform.service.FileStatusService;
+import com.ai.middle.platform.service.processing.OcrCompletionHandler;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
-
-import java.util.List;
+import org.springframework.util.CollectionUtils;
 
 @Slf4j
 @Component
@@ -29,12 +25,17 @@ import java.util.List;
 public class OcrConsumer {
 
     private final AIProcessService aiProcessService;
+    private final FileStatusService fileStatusService;
     private final KbDocumentMapper documentMapper;
-    private final FileDetailMapper fileDetailMapper;
-    private final RabbitTemplate rabbitTemplate;
+    private final OcrCompletionHandler ocrCompletionHandler;
 
     @RabbitListener(queues = RabbitMQConfig.QUEUE_OCR)
     public void process(OcrTaskMessage message) {
+        if (!CollectionUtils.isEmpty(message.getDocumentIds())) {
+            processBatch(message);
+            return;
+        }
+
         log.info("Received OCR task: documentId={}, pageIndex={}", message.getDocumentId(), message.getPageIndex());
 
         KbDocument document = documentMapper.selectOne(new LambdaQueryWrapper<KbDocument>()
@@ -44,107 +45,85 @@ public class OcrConsumer {
             return;
         }
 
-        try {
-            document.setOcrStatus(ProcessingStatus.PROCESSING.getCode());
-            document.setOcrError(null);
-            documentMapper.updateById(document);
-
-            updateFileStatus(document.getFileId(), ProcessingStatus.PROCESSING, null);
-
-            String ocrContent = aiProcessService.performOcr(message.getImageUrl(), message.getFileType());
-
-            document.setContent(ocrContent);
-            document.setOcrStatus(ProcessingStatus.COMPLETED.getCode());
-            document.setOcrError(null);
-            documentMapper.updateById(document);
-
-            log.info("OCR completed for documentId={} pageIndex={} characters={}",
-                    message.getDocumentId(), message.getPageIndex(),
-                    ocrContent != null ? ocrContent.length() : 0);
-
-            checkAndTriggerVectorization(document.getFileId());
-        } catch (Exception ex) {
-            log.error("OCR failed for documentId={}", message.getDocumentId(), ex);
-            document.setOcrStatus(ProcessingStatus.FAILED.getCode());
-            document.setOcrError(ex.getMessage());
-            documentMapper.updateById(document);
-            updateFileStatus(document.getFileId(), ProcessingStatus.FAILED, ex.getMessage());
+        markProcessing(document);
+        if (recognizePage(document, message.getImageUrl(), message.getFileType())) {
+            ocrCompletionHandler.onPageFinished(document.getFileId());
         }
     }
 
-    private void checkAndTriggerVectorization(String fileId) {
-        long pendingCount = documentMapper.selectCount(new LambdaQueryWrapper<KbDocument>()
-                .eq(KbDocument::getFileId, fileId)
-                .in(KbDocument::getOcrStatus,
-                        ProcessingStatus.PENDING.getCode(),
-                        ProcessingStatus.PROCESSING.getCode()));
-
-        if (pendingCount > 0) {
-            return;
-        }
+    private void processBatch(OcrTaskMessage message) {
+        log.info("Received batch OCR task: fileId={}, pages={}", message.getFileId(), message.getDocumentIds().size());
 
         List<KbDocument> documents = documentMapper.selectList(new LambdaQueryWrapper<KbDocument>()
-                .eq(KbDocument::getFileId, fileId)
-                .eq(KbDocument::getOcrStatus, ProcessingStatus.COMPLETED.getCode())
+                .in(KbDocument::getDocumentId, message.getDocumentIds())
                 .orderByAsc(KbDocument::getPageIndex));
-
         if (documents.isEmpty()) {
-            log.warn("All documents failed for fileId={}, skipping vectorization trigger", fileId);
-            updateFileStatus(fileId, ProcessingStatus.FAILED, "OCR failed for all pages");
+            log.error("Documents not found for batch OCR task: {}", message.getDocumentIds());
             return;
         }
 
-        StringBuilder fullContent = new StringBuilder();
-        for (KbDocument doc : documents) {
-            if (doc.getContent() != null) {
-                fullContent.append(doc.getContent()).append("\n\n");
-            }
-        }
+        documents.forEach(this::markProcessing);
+        String fileId = documents.get(0).getFileId();
 
-        String aggregatedContent = fullContent.toString().trim();
-        updateFileStatus(fileId, ProcessingStatus.COMPLETED, null);
+        List<String> contents = null;
+        try {
+            contents = aiProcessService.performBatchOcr(
+                    documents.stream().map(KbDocument::getImageUrl).toList(), message.getFileType());
+        } catch (Exception ex) {
+            log.warn("Batch OCR failed for fileId={}, falling back to single pages: {}", fileId, ex.getMessage());
+        }
 
-        FileDetail file = fileDetailMapper.selectById(fileId);
-        if (file == null) {
-            log.warn("File not found for OCR completion: {}", fileId);
+        if (contents == null) {
+            // 批量输出无法可靠拆分时逐页重新识别
+            boolean anyCompleted = false;
+            for (KbDocument document : documents) {
+                anyCompleted |= recognizePage(document, document.getImageUrl(), message.getFileType());
+            }
+            if (anyCompleted) {
+                ocrCompletionHandler.onPageFinished(fileId);
+            }
             return;
         }
 
-        sendVectorizationTask(file.getId(), aggregatedContent);
+        for (int i = 0; i < documents.size(); i++) {
+            completePage(documents.get(i), contents.get(i));
+        }
+        log.info("Batch OCR completed for fileId={} pages {}-{}", fileId,
+                documents.get(0).getPageIndex(), documents.get(documents.size() - 1).getPageIndex());
+        ocrCompletionHandler.onPageFinished(fileId);
     }
 
-    private void updateFileStatus(String fileId, ProcessingStatus status, String errorMessage) {
-        FileDetail fileDetail = fileDetailMapper.selectById(fileId);
-        if (fileDetail == null) {
-            log.warn("Attempted to update status for missing file: {}", fileId);
-            return;
-        }
-        FileDetailAttributes attributes = FileDetailAttrUtils.parse(fileDetail.getAttr());
-        attributes.setOcrStatus(status.getCode());
-        if (status == ProcessingStatus.FAILED) {
-            attributes.setErrorMessage(errorMessage);
-        } else if (status == ProcessingStatus.COMPLETED) {
-            attributes.setErrorMessage(null);
+    private void markProcessing(KbDocument document) {
+        document.setOcrStatus(ProcessingStatus.PROCESSING.getCode());
+        document.setOcrError(null);
+        documentMapper.updateById(document);
+
+        fileStatusService.updateStatus(document.getFileId(), ProcessingStage.OCR, ProcessingStatus.PROCESSING, null);
+    }
+
+    private boolean recognizePage(KbDocument document, String imageUrl, String fileType) {
+        try {
+            String ocrContent = aiProcessService.performOcr(imageUrl, fileType);
+            completePage(document, ocrContent);
+            return true;
+        } catch (Exception ex) {
+            log.error("OCR failed for documentId={}", document.getDocumentId(), ex);
+            document.setOcrStatus(ProcessingStatus.FAILED.getCode());
+            document.setOcrError(ex.getMessage());
+            documentMapper.updateById(document);
+            fileStatusService.updateStatus(document.getFileId(), ProcessingStage.OCR, ProcessingStatus.FAILED, ex.getMessage());
+            return false;
         }
-        fileDetail.setAttr(FileDetailAttrUtils.toJson(attributes));
-        fileDetailMapper.updateById(fileDetail);
     }
 
-    private void sendVectorizationTask(String fileId, String content) {
-        VectorizationTaskMessage message = VectorizationTaskMessage.builder()
-                .taskId(IdGenerator.simpleUUID())
-                .fileId(fileId)
-                .ocrContent(content)
-                .chunkSize(1000)
-                .overlap(200)
-                .build();
-
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.EXCHANGE_VECTORIZATION,
-                RabbitMQConfig.ROUTING_KEY_VECTORIZATION,
-                message
-        );
-
-        log.info("Triggered vectorization for fileId={} contentLength={}", fileId, content != null ? content.length() : 0);
+    private void completePage(KbDocument document, String ocrContent) {
+        document.setContent(ocrContent);
+        document.setOcrStatus(ProcessingStatus.COMPLETED.getCode());
+        document.setOcrError(null);
+        documentMapper.updateById(document);
+
+        log.info("OCR completed for documentId={} pageIndex={} characters={}",
+                document.getDocumentId(), document.getPageIndex(),
+                ocrContent != null ? ocrContent.length() : 0);
     }
 }
@@ -1,15 +1,13 @@
 package com.ai.middle.platform.mq.consumer;
 
+import com.ai.middle.platform.common.enums.ProcessingStage;
 import com.ai.middle.platform.common.enums.ProcessingStatus;
-import com.ai.middle.platform.common.util.FileDetailAttrUtils;
 import com.ai.middle.platform.config.RabbitMQConfig;
-import com.ai.middle.platform.entity.po.FileDetail;
-import com.ai.middle.platform.entity.po.FileDetailAttributes;
 import com.ai.middle.platform.mq.message.KgGenerationTaskMessage;
 import com.ai.middle.platform.mq.message.QaGenerationTaskMessage;
 import com.ai.middle.platform.mq.message.VectorizationTaskMessage;
-import com.ai.middle.platform.repository.mapper.FileDetailMapper;
 import com.ai.middle.platform.service.AIProcessService;
+import com.ai.middle.platform.service.FileStatusService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -24,8 +22,8 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class VectorizationConsumer {
 
-    private final FileDetailMapper fileDetailMapper;
     private final AIProcessService aiProcessService;
+    private final FileStatusService fileStatusService;
     private final RabbitTemplate rabbitTemplate;
 
     @RabbitListener(queues = RabbitMQConfig.QUEUE_VECTORIZATION)
@@ -33,7 +31,7 @@ public class VectorizationConsumer {
         log.info("收到向量化任务: {}", message);
 
         try {
-            updateFileStatus(message.getFileId(), ProcessingStatus.PROCESSING, null);
+            fileStatusService.updateStatus(message.getFileId(), ProcessingStage.VECTORIZATION, ProcessingStatus.PROCESSING, null);
 
             aiProcessService.performVectorization(
                     message.getFileId(),
@@ -42,7 +40,7 @@ public class VectorizationConsumer {
                     message.getOverlap()
             );
 
-            updateFileStatus(message.getFileId(), ProcessingStatus.COMPLETED, null);
+            fileStatusService.updateStatus(message.getFileId(), ProcessingStage.VECTORIZATION, ProcessingStatus.COMPLETED, null);
 
             triggerQaGenerationTask(message.getFileId(), message.getOcrContent());
             triggerKgGenerationTask(message.getFileId(), message.getOcrContent());
@@ -50,25 +48,10 @@ public class VectorizationConsumer {
             log.info("向量化任务完成: fileId={}", message.getFileId());
         } catch (Exception e) {
             log.error("向量化任务失败: fileId={}", message.getFileId(), e);
-            updateFileStatus(message.getFileId(), ProcessingStatus.FAILED, e.getMessage());
+            fileStatusService.updateStatus(message.getFileId(), ProcessingStage.VECTORIZATION, ProcessingStatus.FAILED, e.getMessage());
         }
     }
 
-    private void updateFileStatus(String fileId, ProcessingStatus status, String errorMessage) {
-        FileDetail fileDetail = fileDetailMapper.selectById(fileId);
-        if (fileDetail == null) {
-            return;
-        }
-        FileDetailAttributes attributes = FileDetailAttrUtils.parse(fileDetail.getAttr());
-        attributes.setVectorizationStatus(status.getCode());
-        if (status == ProcessingStatus.FAILED) {
-            attributes.setErrorMessage(errorMessage);
-        } else if (status == ProcessingStatus.COMPLETED) {
-            attributes.setErrorMessage(null);
-        }
-        fileDetail.setAttr(FileDetailAttrUtils.toJson(attributes));
-        fileDetailMapper.updateById(fileDetail);
-    }
 
     private void triggerQaGenerationTask(String fileId, String ocrContent) {
         QaGenerationTaskMessage taskMessage = QaGenerationTaskMessage.builder()
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * OCR任务消息
@@ -48,6 +49,11 @@ public class OcrTaskMessage implements Serializable {
      */
     private String fileType;
 
+    /**
+     * 批量识别的页级文档ID，按页码顺序排列；为空时按单页处理
+     */
+    private List<String> documentIds;
+
     /**
      * 知识库ID (deprecated)
      */
@@ -0,0 +1,41 @@
+package com.ai.middle.platform.repository.mapper;
+
+import com.ai.middle.platform.dto.response.TagFacetDTO;
+import com.ai.middle.platform.entity.po.KbFileTag;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * Mapper interface for the file tag index table.
+ */
+@Mapper
+public interface KbFileTagMapper extends BaseMapper<KbFileTag> {
+
+    /**
+     * 统计知识库内各标签的文件数，可按小写前缀过滤
+     *
+     * @param kbId    知识库内部ID
+     * @param pattern 小写 LIKE 前缀模式，为空表示不过滤
+     * @param limit   返回的标签数上限
+     */
+    @Select("""
+            <script>
+            SELECT MIN(tag) AS tag, COUNT(*) AS count
+            FROM kb_file_tag
+            WHERE kb_id = #{kbId}
+            <if test="pattern != null and pattern != ''">
+              AND tag_lower LIKE #{pattern}
+            </if>
+            GROUP BY tag_lower
+            ORDER BY count DESC, tag_lower
+            LIMIT #{limit}
+            </script>
+            """)
+    List<TagFacetDTO> countTags(@Param("kbId") Long kbId,
+                                @Param("pattern") String pattern,
+                                @Param("limit") int limit);
+}
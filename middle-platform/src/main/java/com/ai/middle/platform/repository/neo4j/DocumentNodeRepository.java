@@ -51,4 +51,19 @@ public interface DocumentNodeRepository extends Neo4jRepository<DocumentNode, St
             DETACH DELETE d
             """)
     void deleteDocumentWithRelations(@Param("fileId") String fileId);
+
+    /**
+     * Detaches and deletes up to {@code limit} entities of the document in one transaction.
+     * Callers repeat until it returns 0, so a dense document is removed in bounded chunks.
+     *
+     * @return number of deleted entities
+     */
+    @Query("""
+            MATCH (d:Document {id: $fileId})<-[:BELONGS_TO]-(e:Entity)
+            WITH e
+            LIMIT $limit
+            DETACH DELETE e
+            RETURN count(*)
+            """)
+    long deleteEntitiesBatch(@Param("fileId") String fileId, @Param("limit") int limit);
 }
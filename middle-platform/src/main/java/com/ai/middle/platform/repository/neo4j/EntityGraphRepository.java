@@ -0,0 +1,310 @@
+package com.ai.middle.platform.repository.neo4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.TransactionConfig;
+import org.neo4j.driver.Value;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Read-only traversals over the entity graph used by retrieval and graph exploration.
+ *
+ * Queries go through the driver rather than {@code Neo4jClient} so that a transaction timeout
+ * can be attached; the server then aborts a traversal that exceeds the retrieval budget
+ * instead of letting it run on after the caller has given up.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EntityGraphRepository {
+
+    /**
+     * Seeds come from the entity_search full-text index restricted to the given documents.
+     * Each seed expands over entity-to-entity relationships only (BELONGS_TO points at
+     * Document nodes and is excluded by the label), with at most $fanOut edges per hop.
+     * Aggregating subqueries always yield one row, so seeds without neighbours are kept.
+     */
+    private static final String EXPAND_QUERY = """
+            CALL db.index.fulltext.queryNodes('entity_search', $query, {limit: $seedCandidates})
+            YIELD node, score
+            WHERE node.documentId IN $documentIds
+            WITH node AS seed, score
+            ORDER BY score DESC
+            LIMIT $seeds
+            CALL {
+                WITH seed
+                MATCH (seed)-[r1]-(hop1:Entity)
+                WITH r1, hop1
+                LIMIT $fanOut
+                RETURN collect(hop1) AS hop1Nodes,
+                       collect(coalesce(r1.sourcePages, []) + coalesce(hop1.sourcePages, [])) AS hop1Pages
+            }
+            CALL {
+                WITH hop1Nodes
+                UNWIND CASE WHEN $maxHops > 1 THEN hop1Nodes ELSE [] END AS hop1
+                MATCH (hop1)-[r2]-(hop2:Entity)
+                WITH r2, hop2
+                LIMIT $fanOut
+                RETURN collect(coalesce(r2.sourcePages, []) + coalesce(hop2.sourcePages, [])) AS hop2Pages
+            }
+            RETURN seed.documentId AS documentId,
+                   score,
+                   coalesce(seed.sourcePages, []) AS seedPages,
+                   hop1Pages,
+                   hop2Pages
+            """;
+
+    /**
+     * Relationships of the center entity, then of each first-hop neighbour, each hop capped
+     * at $limit. Entity-to-entity relationships never leave the file, so only the center
+     * needs to be checked against the searchable documents.
+     */
+    private static final String NEIGHBORS_QUERY = """
+            MATCH (center:Entity {id: $entityId})-[:BELONGS_TO]->(d:Document)
+            WHERE d.id IN $documentIds
+            CALL {
+                WITH center
+                MATCH (center)-[r1]-(hop1:Entity)
+                WITH r1, hop1
+                LIMIT $limit
+                RETURN collect(r1) AS rels1, collect(DISTINCT hop1) AS nodes1, count(*) AS seen1
+            }
+            CALL {
+                WITH nodes1
+                UNWIND CASE WHEN $depth > 1 THEN nodes1 ELSE [] END AS hop1
+                MATCH (hop1)-[r2]-(hop2:Entity)
+                WITH r2, hop2
+                LIMIT $limit
+                RETURN collect(r2) AS rels2, collect(DISTINCT hop2) AS nodes2, count(*) AS seen2
+            }
+            RETURN [n IN [center] + nodes1 + nodes2 |
+                       {id: n.id, name: n.name, type: n.type, fileId: coalesce(n.documentId, d.id)}] AS nodes,
+                   [r IN rels1 + rels2 |
+                       {source: startNode(r).id, target: endNode(r).id, type: type(r), description: r.description}] AS edges,
+                   seen1 >= $limit OR seen2 >= $limit AS truncated
+            """;
+
+    /**
+     * The relationship predicate is evaluated during the breadth-first search, so the path
+     * never detours through a Document node. The length bound is a literal filled in by
+     * {@link #shortestPath}.
+     */
+    private static final String PATH_QUERY = """
+            MATCH (source:Entity {id: $from})-[:BELONGS_TO]->(sd:Document)
+            WHERE sd.id IN $documentIds
+            MATCH (target:Entity {id: $to})-[:BELONGS_TO]->(td:Document)
+            WHERE td.id IN $documentIds
+            MATCH path = shortestPath((source)-[*..%d]-(target))
+            WHERE none(r IN relationships(path) WHERE type(r) = 'BELONGS_TO')
+            RETURN [n IN nodes(path) |
+                       {id: n.id, name: n.name, type: n.type, fileId: coalesce(n.documentId, sd.id)}] AS nodes,
+                   [r IN relationships(path) |
+                       {source: startNode(r).id, target: endNode(r).id, type: type(r), description: r.description}] AS edges,
+                   false AS truncated
+            """;
+
+    /**
+     * Entities of the given documents in id order after $after, each with its outgoing
+     * entity relationships. Every relationship is therefore listed exactly once across
+     * pages, on the page of its start node.
+     */
+    private static final String SUBGRAPH_QUERY = """
+            MATCH (d:Document)<-[:BELONGS_TO]-(e:Entity)
+            WHERE d.id IN $documentIds AND e.id > $after
+            WITH d, e
+            ORDER BY e.id
+            LIMIT $limit
+            CALL {
+                WITH e
+                MATCH (e)-[r]->(target:Entity)
+                WITH e, r, target
+                LIMIT $edgesPerEntity
+                RETURN collect({source: e.id, target: target.id, type: type(r), description: r.description}) AS edges
+            }
+            RETURN e.id AS id, e.name AS name, e.type AS type, d.id AS fileId, edges
+            """;
+
+    private final Driver driver;
+
+    /**
+     * Pages reached from one seed entity.
+     *
+     * @param documentId file id the seed belongs to; expansion never leaves the file
+     * @param score      full-text score of the seed
+     * @param hopPages   pages touched at distance 0 (the seed), 1 and 2
+     */
+    public record SeedExpansion(String documentId, double score, List<List<Integer>> hopPages) {
+    }
+
+    /**
+     * Entity node as returned by exploration queries.
+     */
+    public record GraphNode(String id, String name, String type, String fileId) {
+    }
+
+    /**
+     * Directed entity relationship as returned by exploration queries.
+     */
+    public record GraphEdge(String source, String target, String type, String description) {
+    }
+
+    /**
+     * Nodes and relationships of a bounded query; nodes and edges may repeat when reached
+     * over several hops.
+     *
+     * @param truncated whether a per-hop limit was reached
+     */
+    public record Subgraph(List<GraphNode> nodes, List<GraphEdge> edges, boolean truncated) {
+    }
+
+    /**
+     * Entity of a subgraph page together with its outgoing relationships.
+     */
+    public record EntityRow(GraphNode node, List<GraphEdge> edges) {
+    }
+
+    /**
+     * @param luceneQuery    full-text query against entity names
+     * @param documentIds    files to search in
+     * @param seedCandidates hits fetched from the full-text index before the document filter
+     * @param seeds          seed entities kept after filtering
+     * @param fanOut         relationships followed per seed and hop
+     * @param maxHops        1 or 2
+     * @param timeout        server-side transaction timeout
+     */
+    public List<SeedExpansion> expand(String luceneQuery,
+                                      Collection<String> documentIds,
+                                      int seedCandidates,
+                                      int seeds,
+                                      int fanOut,
+                                      int maxHops,
+                                      Duration timeout) {
+        Map<String, Object> parameters = Map.of(
+                "query", luceneQuery,
+                "documentIds", List.copyOf(documentIds),
+                "seedCandidates", seedCandidates,
+                "seeds", seeds,
+                "fanOut", fanOut,
+                "maxHops", maxHops);
+        return read(EXPAND_QUERY, parameters, timeout, this::toExpansion);
+    }
+
+    /**
+     * @param entityId    center entity
+     * @param documentIds files the center entity must belong to
+     * @param depth       1 or 2
+     * @param limit       relationships followed per hop
+     * @param timeout     server-side transaction timeout
+     * @return empty when the entity does not exist in the given files
+     */
+    public Optional<Subgraph> neighbors(String entityId,
+                                        Collection<String> documentIds,
+                                        int depth,
+                                        int limit,
+                                        Duration timeout) {
+        Map<String, Object> parameters = Map.of(
+                "entityId", entityId,
+                "documentIds", List.copyOf(documentIds),
+                "depth", depth,
+                "limit", limit);
+        return read(NEIGHBORS_QUERY, parameters, timeout, this::toSubgraph).stream().findFirst();
+    }
+
+    /**
+     * @param maxLength maximum number of relationships on the path
+     * @return empty when either entity is missing or no path within the bound exists
+     */
+    public Optional<Subgraph> shortestPath(String from,
+                                           String to,
+                                           Collection<String> documentIds,
+                                           int maxLength,
+                                           Duration timeout) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to,
+                "documentIds", List.copyOf(documentIds));
+        return read(String.format(PATH_QUERY, maxLength), parameters, timeout, this::toSubgraph).stream()
+                .findFirst();
+    }
+
+    /**
+     * @param after          exclusive entity id to continue from, empty for the first page
+     * @param limit          entities to return
+     * @param edgesPerEntity outgoing relationships returned per entity
+     */
+    public List<EntityRow> entities(Collection<String> documentIds,
+                                    String after,
+                                    int limit,
+                                    int edgesPerEntity,
+                                    Duration timeout) {
+        Map<String, Object> parameters = Map.of(
+                "documentIds", List.copyOf(documentIds),
+                "after", after,
+                "limit", limit,
+                "edgesPerEntity", edgesPerEntity);
+        return read(SUBGRAPH_QUERY, parameters, timeout, record -> new EntityRow(
+                new GraphNode(
+                        record.get("id").asString(null),
+                        record.get("name").asString(null),
+                        record.get("type").asString(null),
+                        record.get("fileId").asString(null)),
+                record.get("edges").asList(this::toEdge)));
+    }
+
+    private <T> List<T> read(String query, Map<String, Object> parameters, Duration timeout,
+                             Function<Record, T> mapper) {
+        SessionConfig sessionConfig = SessionConfig.builder().withDefaultAccessMode(AccessMode.READ).build();
+        try (Session session = driver.session(sessionConfig)) {
+            return session.executeRead(tx -> tx.run(query, parameters).list(mapper),
+                    TransactionConfig.builder().withTimeout(timeout).build());
+        }
+    }
+
+    private Subgraph toSubgraph(Record record) {
+        return new Subgraph(
+                record.get("nodes").asList(this::toNode),
+                record.get("edges").asList(this::toEdge),
+                record.get("truncated").asBoolean(false));
+    }
+
+    private GraphNode toNode(Value value) {
+        return new GraphNode(
+                value.get("id").asString(null),
+                value.get("name").asString(null),
+                value.get("type").asString(null),
+                value.get("fileId").asString(null));
+    }
+
+    private GraphEdge toEdge(Value value) {
+        return new GraphEdge(
+                value.get("source").asString(null),
+                value.get("target").asString(null),
+                value.get("type").asString(null),
+                value.get("description").asString(null));
+    }
+
+    private SeedExpansion toExpansion(Record record) {
+        List<Integer> seedPages = record.get("seedPages").asList(Value::asInt);
+        List<Integer> hop1Pages = flatten(record.get("hop1Pages"));
+        List<Integer> hop2Pages = flatten(record.get("hop2Pages"));
+        return new SeedExpansion(
+                record.get("documentId").asString(null),
+                record.get("score").asDouble(),
+                List.of(seedPages, hop1Pages, hop2Pages));
+    }
+
+    private List<Integer> flatten(Value nested) {
+        return nested.asList(inner -> inner.asList(Value::asInt)).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+}
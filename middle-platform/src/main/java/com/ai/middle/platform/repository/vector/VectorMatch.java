@@ -0,0 +1,34 @@
+package com.ai.middle.platform.repository.vector;
+
+import java.util.Map;
+
+/**
+ * A row returned by a similarity query against a pgvector store.
+ *
+ * @param embeddingId row id in the vector table
+ * @param text        embedded text
+ * @param metadata    parsed JSON metadata, never null
+ * @param score       relevance in [0, 1], derived from cosine distance the same way langchain4j does
+ */
+public record VectorMatch(String embeddingId, String text, Map<String, Object> metadata, double score) {
+
+    public String metadataString(String key) {
+        Object value = metadata.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    public Integer metadataInt(String key) {
+        Object value = metadata.get(key);
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        if (value != null) {
+            try {
+                return Integer.valueOf(value.toString());
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,336 @@
+package com.ai.middle.platform.repository.vector;
+
+import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.config.VectorStoreProperties.IndexProperties;
+import com.ai.middle.platform.config.VectorStoreProperties.StoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Read access to the pgvector tables written by the langchain4j embedding stores.
+ *
+ * Queries go through JdbcTemplate instead of {@code EmbeddingStore.search} so that metadata
+ * filters are pushed into SQL and can use the expression indexes on the metadata column.
+ */
+@Slf4j
+@Repository
+public class VectorStoreRepository {
+
+    /**
+     * Shortest lexical term that produces a trigram and can therefore use the trigram index.
+     */
+    private static final int MIN_TRIGRAM_TERM_LENGTH = 3;
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate isolatedTransaction;
+
+    public VectorStoreRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                 TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.isolatedTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.isolatedTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Top-k cosine similarity search over the text chunks of one knowledge base.
+     * The chunk and QA stores may share a table, so rows without chunkIndex are skipped.
+     *
+     * @param store   store settings, providing the table and per-query index parameters
+     * @param vector  query embedding
+     * @param kbId    internal knowledge base id stored under metadata.kbId
+     * @param fileIds optional file filter, null or empty for the whole knowledge base
+     * @param limit   maximum number of rows
+     */
+    public List<VectorMatch> search(StoreProperties store, float[] vector, String kbId, Collection<String> fileIds, int limit) {
+        return similaritySearch(store, vector, "metadata->>'chunkIndex' IS NOT NULL", kbId, fileIds, limit);
+    }
+
+    /**
+     * Top-k cosine similarity search over the generated questions of one knowledge base.
+     * Only rows carrying metadata.qaId are considered, so each match maps back to a kb_qa_pair row.
+     */
+    public List<VectorMatch> searchQuestions(StoreProperties store, float[] vector, String kbId, Collection<String> fileIds, int limit) {
+        return similaritySearch(store, vector, "metadata->>'qaId' IS NOT NULL", kbId, fileIds, limit);
+    }
+
+    /**
+     * Removes the question vectors of a file before its QA pairs are regenerated.
+     *
+     * @return number of deleted rows
+     */
+    public int deleteQuestions(StoreProperties store, String fileId) {
+        return jdbcTemplate.update("DELETE FROM " + checkTableName(store.getTable())
+                + " WHERE metadata->>'fileId' = ? AND metadata->>'chunkIndex' IS NULL", fileId);
+    }
+
+    /**
+     * Removes every vector of a file (chunks and generated questions) in batches, so a large
+     * file never holds one long-running delete. Served by the fileId expression index.
+     *
+     * @return number of deleted rows
+     */
+    public int deleteByFileId(StoreProperties store, String fileId, int batchSize) {
+        String table = checkTableName(store.getTable());
+        String sql = "DELETE FROM " + table + " WHERE embedding_id IN (SELECT embedding_id FROM " + table
+                + " WHERE metadata->>'fileId' = ? LIMIT ?)";
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, fileId, batchSize);
+            total += deleted;
+        } while (deleted >= batchSize);
+        return total;
+    }
+
+    private List<VectorMatch> similaritySearch(StoreProperties store,
+                                               float[] vector,
+                                               String rowPredicate,
+                                               String kbId,
+                                               Collection<String> fileIds,
+                                               int limit) {
+        String vectorLiteral = toVectorLiteral(vector);
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT embedding_id, text, metadata, embedding <=> ?::vector AS distance FROM ")
+                .append(checkTableName(store.getTable()))
+                .append(" WHERE metadata->>'kbId' = ? AND ")
+                .append(rowPredicate);
+        args.add(vectorLiteral);
+        args.add(kbId);
+        if (!CollectionUtils.isEmpty(fileIds)) {
+            sql.append(" AND metadata->>'fileId' IN (")
+                    .append(String.join(",", Collections.nCopies(fileIds.size(), "?")))
+                    .append(')');
+            args.addAll(fileIds);
+        }
+        sql.append(" ORDER BY embedding <=> ?::vector LIMIT ?");
+        args.add(vectorLiteral);
+        args.add(limit);
+
+        return queryWithSettings(indexSettings(store.getIndex()), sql.toString(), args.toArray(),
+                (rs, rowNum) -> new VectorMatch(
+                        rs.getString("embedding_id"),
+                        rs.getString("text"),
+                        parseMetadata(rs.getString("metadata")),
+                        (2 - rs.getDouble("distance")) / 2));
+    }
+
+    /**
+     * Lexical search over chunk text within one knowledge base. Chunks are ranked by how many of
+     * the terms they contain, so exact identifiers such as part numbers or clause ids, and short
+     * Chinese words, surface even when embeddings miss them.
+     *
+     * Terms of three or more characters are served by the trigram index. A shorter term yields
+     * no trigram and would turn an OR over all terms into a scan of the whole table, so short
+     * terms are matched in a separate branch restricted to the knowledge base's rows through
+     * the kbId (and fileId) expression indexes. The statement runs with a server-side
+     * {@code statement_timeout}, so a slow scan is cancelled in the database instead of only
+     * being abandoned by the caller.
+     *
+     * @param terms   query terms, already deduplicated; matched case-insensitively as substrings
+     * @param timeout server-side statement timeout
+     */
+    public List<VectorMatch> lexicalSearch(StoreProperties store,
+                                           List<String> terms,
+                                           String kbId,
+                                           Collection<String> fileIds,
+                                           int limit,
+                                           Duration timeout) {
+        if (CollectionUtils.isEmpty(terms)) {
+            return List.of();
+        }
+        List<String> trigramPatterns = new ArrayList<>();
+        List<String> shortPatterns = new ArrayList<>();
+        for (String term : terms) {
+            if (!StringUtils.hasText(term)) {
+                continue;
+            }
+            String pattern = "%" + escapeLike(term) + "%";
+            if (term.length() >= MIN_TRIGRAM_TERM_LENGTH) {
+                trigramPatterns.add(pattern);
+            } else {
+                shortPatterns.add(pattern);
+            }
+        }
+        int patternCount = trigramPatterns.size() + shortPatterns.size();
+        if (patternCount == 0) {
+            return List.of();
+        }
+        String table = checkTableName(store.getTable());
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT embedding_id, text, metadata, ")
+                .append(String.join(" + ", Collections.nCopies(patternCount, "(text ILIKE ?)::int")))
+                .append(" AS hits FROM ")
+                .append(table)
+                .append(" WHERE embedding_id IN (");
+        args.addAll(trigramPatterns);
+        args.addAll(shortPatterns);
+        List<String> branches = new ArrayList<>(2);
+        for (List<String> patterns : List.of(trigramPatterns, shortPatterns)) {
+            if (patterns.isEmpty()) {
+                continue;
+            }
+            StringBuilder branch = new StringBuilder("SELECT embedding_id FROM ")
+                    .append(table)
+                    .append(" WHERE metadata->>'kbId' = ? AND metadata->>'chunkIndex' IS NOT NULL");
+            args.add(kbId);
+            if (!CollectionUtils.isEmpty(fileIds)) {
+                branch.append(" AND metadata->>'fileId' IN (")
+                        .append(String.join(",", Collections.nCopies(fileIds.size(), "?")))
+                        .append(')');
+                args.addAll(fileIds);
+            }
+            branch.append(" AND (")
+                    .append(String.join(" OR ", Collections.nCopies(patterns.size(), "text ILIKE ?")))
+                    .append(')');
+            args.addAll(patterns);
+            branches.add(branch.toString());
+        }
+        sql.append(String.join(" UNION ALL ", branches))
+                .append(") ORDER BY hits DESC, length(text) ASC LIMIT ?");
+        args.add(limit);
+
+        List<String> settings = List.of("SET LOCAL statement_timeout = " + Math.max(1L, timeout.toMillis()));
+        return queryWithSettings(settings, sql.toString(), args.toArray(), (rs, rowNum) -> new VectorMatch(
+                rs.getString("embedding_id"),
+                rs.getString("text"),
+                parseMetadata(rs.getString("metadata")),
+                (double) rs.getInt("hits") / patternCount));
+    }
+
+    /**
+     * A page of a knowledge base file, numbered like KbDocument.pageIndex.
+     */
+    public record PageRef(String fileId, int page) {
+    }
+
+    /**
+     * Text chunks whose page range covers any of the given pages, e.g. pages where entities
+     * matched by a graph query are mentioned. Rows are returned unranked with score 0.
+     */
+    public List<VectorMatch> findChunksByPages(StoreProperties store, String kbId, Collection<PageRef> pages, int limit) {
+        if (CollectionUtils.isEmpty(pages)) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT embedding_id, text, metadata FROM ")
+                .append(checkTableName(store.getTable()))
+                .append(" WHERE metadata->>'kbId' = ? AND metadata->>'chunkIndex' IS NOT NULL AND (")
+                .append(String.join(" OR ", Collections.nCopies(pages.size(),
+                        "(metadata->>'fileId' = ? AND (metadata->>'pageStart')::int <= ?"
+                                + " AND coalesce(metadata->>'pageEnd', metadata->>'pageStart')::int >= ?)")))
+                .append(") LIMIT ?");
+        args.add(kbId);
+        for (PageRef page : pages) {
+            args.add(page.fileId());
+            args.add(page.page());
+            args.add(page.page());
+        }
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new VectorMatch(
+                rs.getString("embedding_id"),
+                rs.getString("text"),
+                parseMetadata(rs.getString("metadata")),
+                0D
+        ), args.toArray());
+    }
+
+    /**
+     * Runs the settings and the query in a transaction of their own, so that {@code SET LOCAL}
+     * ends with this query. A caller's surrounding transaction is suspended rather than joined:
+     * the settings never stay in effect for its remaining statements, and a statement timeout
+     * here only rolls back this query.
+     */
+    private List<VectorMatch> queryWithSettings(List<String> settings,
+                                                String sql,
+                                                Object[] args,
+                                                RowMapper<VectorMatch> rowMapper) {
+        return isolatedTransaction.execute(status -> {
+            settings.forEach(jdbcTemplate::execute);
+            return jdbcTemplate.query(sql, rowMapper, args);
+        });
+    }
+
+    private List<String> indexSettings(IndexProperties index) {
+        if (index == null) {
+            return List.of();
+        }
+        List<String> settings = new ArrayList<>();
+        switch (index.getType()) {
+            case HNSW -> {
+                settings.add("SET LOCAL hnsw.ef_search = " + index.getEfSearch());
+                if (Boolean.TRUE.equals(index.getIterativeScan())) {
+                    settings.add("SET LOCAL hnsw.iterative_scan = relaxed_order");
+                }
+            }
+            case IVFFLAT -> {
+                settings.add("SET LOCAL ivfflat.probes = " + index.getProbes());
+                if (Boolean.TRUE.equals(index.getIterativeScan())) {
+                    settings.add("SET LOCAL ivfflat.iterative_scan = relaxed_order");
+                }
+            }
+            case NONE -> {
+            }
+        }
+        return settings;
+    }
+
+    public static String checkTableName(String table) {
+        if (!StringUtils.hasText(table) || !TABLE_NAME.matcher(table).matches()) {
+            throw new BusinessException("非法的向量表名: " + table);
+        }
+        return table;
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private String toVectorLiteral(float[] vector) {
+        if (vector == null || vector.length == 0) {
+            throw new BusinessException("查询向量为空");
+        }
+        StringBuilder builder = new StringBuilder(vector.length * 12).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(vector[i]);
+        }
+        return builder.append(']').toString();
+    }
+
+    private Map<String, Object> parseMetadata(String json) {
+        if (!StringUtils.hasText(json)) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(json, METADATA_TYPE);
+        } catch (Exception ex) {
+            log.warn("Failed to parse vector metadata: {}", ex.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -5,10 +5,13 @@ import com.ai.middle.platform.entity.po.ModelApiKey;
 import com.ai.middle.platform.service.ModelConfigService.ModelRuntimeConfig;
 import dev.langchain4j.model.azure.AzureOpenAiChatModel;
 import dev.langchain4j.model.azure.AzureOpenAiEmbeddingModel;
+import dev.langchain4j.model.azure.AzureOpenAiStreamingChatModel;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import java.time.Duration;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -43,6 +46,14 @@ public class AIModelFactory {
         return new ChatModelContext(chatModel, runtimeConfig);
     }
 
+    public StreamingChatLanguageModel createStreamingChatModel(ModelRuntimeConfig runtimeConfig) {
+        String provider = normalizeProvider(runtimeConfig.provider());
+        return switch (provider) {
+            case "azure", "azure-openai" -> buildAzureStreamingChatModel(runtimeConfig);
+            default -> buildOpenAiStreamingChatModel(runtimeConfig);
+        };
+    }
+
     public EmbeddingModelContext createEmbeddingModelContext(String businessCode) {
         ModelRuntimeConfig runtimeConfig = modelConfigService.getRuntimeConfig(businessCode);
         return createEmbeddingModelContext(runtimeConfig);
@@ -101,6 +112,38 @@ public class AIModelFactory {
         return builder.build();
     }
 
+    private StreamingChatLanguageModel buildOpenAiStreamingChatModel(ModelRuntimeConfig runtimeConfig) {
+        ModelApiKey apiKey = requireApiKey(runtimeConfig);
+        OpenAiStreamingChatModel.OpenAiStreamingChatModelBuilder builder = OpenAiStreamingChatModel.builder()
+                .apiKey(apiKey.getApiKey().trim())
+                .timeout(Duration.ofMinutes(10))
+                .modelName(runtimeConfig.chatModelName())
+                .temperature(DEFAULT_TEMPERATURE);
+
+        String baseUrl = ensureOpenAiBaseUrl(runtimeConfig.baseUrl());
+        if (StringUtils.hasText(baseUrl)) {
+            builder.baseUrl(baseUrl);
+        }
+        return builder.build();
+    }
+
+    private StreamingChatLanguageModel buildAzureStreamingChatModel(ModelRuntimeConfig runtimeConfig) {
+        ModelApiKey apiKey = requireApiKey(runtimeConfig);
+        AzureEndpoint endpoint = resolveAzureEndpoint(runtimeConfig.baseUrl());
+
+        AzureOpenAiStreamingChatModel.Builder builder = AzureOpenAiStreamingChatModel.builder()
+                .endpoint(endpoint.url())
+                .deploymentName(runtimeConfig.chatModelName())
+                .apiKey(apiKey.getApiKey().trim())
+                .temperature(DEFAULT_TEMPERATURE);
+
+        String apiVersion = endpoint.apiVersion();
+        if (StringUtils.hasText(apiVersion)) {
+            builder.serviceVersion(apiVersion);
+        }
+        return builder.build();
+    }
+
     private EmbeddingModel buildOpenAiEmbeddingModel(ModelRuntimeConfig runtimeConfig) {
         ModelApiKey apiKey = requireApiKey(runtimeConfig);
         OpenAiEmbeddingModel.OpenAiEmbeddingModelBuilder builder = OpenAiEmbeddingModel.builder()
@@ -1,5 +1,7 @@
 package com.ai.middle.platform.service;
 
+import java.util.List;
+
 /**
  * AI处理服务接口
  */
@@ -14,6 +16,15 @@ public interface AIProcessService {
      */
     String performOcr(String filePath, String fileType);
 
+    /**
+     * 多页合并OCR识别
+     *
+     * @param filePaths 页图片路径，按页码顺序排列
+     * @param fileType  文件类型
+     * @return 与输入顺序一致的识别内容；输出无法按页拆分时返回 null
+     */
+    List<String> performBatchOcr(List<String> filePaths, String fileType);
+
     /**
      * 文本向量化
      *
@@ -49,5 +60,5 @@ public interface AIProcessService {
      * @param content  文件内容（会截取前500字）
      * @return 标签列表（约5个）
      */
-    java.util.List<String> generateTags(String fileId, String fileName, String content);
+    List<String> generateTags(String fileId, String fileName, String content);
 }
@@ -0,0 +1,31 @@
+package com.ai.middle.platform.service;
+
+import com.ai.middle.platform.dto.request.AskRequest;
+import com.ai.middle.platform.dto.response.AnswerDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 知识库问答服务接口
+ */
+public interface ChatService {
+
+    /**
+     * 回答知识库问题：优先匹配已生成的问答对，未命中时检索文本块并由模型生成答案
+     *
+     * @param kbId    知识库ID
+     * @param request 问答请求
+     * @return 答案及其来源
+     */
+    AnswerDTO ask(String kbId, AskRequest request);
+
+    /**
+     * 流式回答知识库问题，通过 SSE 推送：
+     * answer（命中问答对或无相关内容时的完整答案）、references（作为上下文的文本块）、
+     * token（模型输出片段）、done（结束及耗时统计）、error（失败原因）
+     *
+     * @param kbId    知识库ID
+     * @param request 问答请求
+     * @return SSE 连接
+     */
+    SseEmitter stream(String kbId, AskRequest request);
+}
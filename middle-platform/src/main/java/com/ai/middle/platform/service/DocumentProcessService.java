@@ -1,5 +1,7 @@
 package com.ai.middle.platform.service;
 
+import com.ai.middle.platform.service.model.PageContent;
+
 import java.io.File;
 import java.util.List;
 
@@ -9,21 +11,26 @@ import java.util.List;
 public interface DocumentProcessService {
 
     /**
-     * Convert Word document to PDF.
+     * Extract PDF pages, taking text from the embedded text layer when it is usable
+     * and rasterizing only the pages that still need vision OCR.
      *
-     * @param wordFile Word file (DOCX)
-     * @return PDF file path
+     * @param pdfFilePath PDF file path
+     * @param fileId      File ID for storage path
+     * @param fileType    Source file type (pdf, word) used to pick the rendering DPI
+     * @return Pages in document order
      */
-    String convertWordToPdf(File wordFile);
+    List<PageContent> extractPdfPages(String pdfFilePath, String fileId, String fileType);
 
     /**
-     * Split PDF into page images.
+     * Extract Word pages as Markdown directly with Aspose.Words, without converting to PDF.
+     * Pages whose text is insufficient (e.g. scanned images pasted into the document)
+     * are rendered and returned as image pages for vision OCR.
      *
-     * @param pdfFilePath PDF file path
-     * @param fileId      File ID for storage path
-     * @return List of image URLs
+     * @param wordFile Word file (DOC/DOCX)
+     * @param fileId   File ID for storage path
+     * @return Pages in document order
      */
-    List<String> splitPdfToImages(String pdfFilePath, String fileId);
+    List<PageContent> extractWordPages(File wordFile, String fileId);
 
     /**
      * Process image file (single page).
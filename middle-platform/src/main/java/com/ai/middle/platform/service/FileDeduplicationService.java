@@ -0,0 +1,24 @@
+package com.ai.middle.platform.service;
+
+import com.ai.middle.platform.entity.po.FileDetail;
+import java.util.function.Consumer;
+
+/**
+ * 文件内容去重服务
+ * <p>
+ * 以内容 SHA-256 识别重复上传；已有相同内容且处理完成的文件时，
+ * 直接复制其页面、向量、问答对和知识图谱，不再重复执行识别与生成。
+ */
+public interface FileDeduplicationService {
+
+    /**
+     * 在后台处理新登记的知识库文件，需在上传事务提交后调用
+     * <p>
+     * 缺少内容哈希时先流式补算；存在内容相同且已处理完成的文件时复制其处理结果，
+     * 否则交给 fullProcessing 执行完整处理流程。
+     *
+     * @param fileId         新登记的知识库文件ID
+     * @param fullProcessing 无法复用时的完整处理流程
+     */
+    void processAsync(String fileId, Consumer<FileDetail> fullProcessing);
+}
@@ -0,0 +1,15 @@
+package com.ai.middle.platform.service;
+
+/**
+ * 文件删除清理服务接口
+ */
+public interface FileDeletionService {
+
+    /**
+     * 异步清理已标记删除的文件：对象存储、向量、知识图谱、问答对与页面记录并行删除，
+     * 全部成功后删除文件记录；任一步骤失败时保留标记，由定时任务重试
+     *
+     * @param fileId 文件ID
+     */
+    void purgeAsync(String fileId);
+}
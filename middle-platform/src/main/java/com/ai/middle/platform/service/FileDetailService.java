@@ -0,0 +1,42 @@
+package com.ai.middle.platform.service;
+
+import com.ai.middle.platform.dto.response.CursorPageDTO;
+import com.ai.middle.platform.dto.response.FileDetailDTO;
+import com.ai.middle.platform.dto.response.GraphViewDTO;
+import com.ai.middle.platform.dto.response.OcrPageRangeDTO;
+import com.ai.middle.platform.dto.response.QaPairDTO;
+
+/**
+ * 文件详情服务接口，详情中的各部分可以单独分页获取
+ */
+public interface FileDetailService {
+
+    /**
+     * 查询文件详情
+     *
+     * @param id     文件ID
+     * @param fields 需要返回的部分（ocrContent、knowledgeGraph、qaPairs），逗号分隔；
+     *               为空时返回全部，空字符串时只返回基本信息
+     * @return 文件详情，未请求的部分为空
+     */
+    FileDetailDTO getDetail(String id, String fields);
+
+    /**
+     * 按页码区间查询OCR结果
+     *
+     * @param id       文件ID
+     * @param fromPage 起始页码（含），为空时从第一页开始
+     * @param toPage   结束页码（含），区间长度受上限约束
+     */
+    OcrPageRangeDTO getOcrPages(String id, Integer fromPage, Integer toPage);
+
+    /**
+     * 游标分页查询文件的问答对
+     */
+    CursorPageDTO<QaPairDTO> pageQaPairs(String id, String cursor, Integer size);
+
+    /**
+     * 游标分页查询文件的知识图谱
+     */
+    GraphViewDTO pageGraph(String id, String cursor, Integer size);
+}
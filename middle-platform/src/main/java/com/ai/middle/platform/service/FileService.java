@@ -1,8 +1,14 @@
 package com.ai.middle.platform.service;
 
+import com.ai.middle.platform.dto.request.DirectUploadRequest;
+import com.ai.middle.platform.dto.request.FileQueryRequest;
+import com.ai.middle.platform.dto.response.CursorPageDTO;
 import com.ai.middle.platform.dto.response.FileDTO;
-import com.ai.middle.platform.dto.response.FileDetailDTO;
 import com.ai.middle.platform.dto.response.FileUploadResponse;
+import com.ai.middle.platform.dto.response.MultipartPartDTO;
+import com.ai.middle.platform.dto.response.MultipartUploadDTO;
+import com.ai.middle.platform.dto.response.PresignedUrlDTO;
+import com.ai.middle.platform.dto.response.TagFacetDTO;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -18,15 +24,60 @@ public interface FileService {
     List<FileDTO> listByKbId(String kbId);
 
     /**
-     * 查询文件详情
+     * 游标分页查询知识库的文件，支持按状态和上传时间过滤
      */
-    FileDetailDTO getDetailById(String id);
+    CursorPageDTO<FileDTO> pageByKbId(String kbId, FileQueryRequest request);
+
+    /**
+     * 查询文件基本信息与处理状态，不含 OCR 内容、知识图谱和问答对
+     */
+    FileDTO getById(String id);
 
     /**
      * 上传文件
      */
     FileUploadResponse upload(String kbId, MultipartFile file);
 
+    /**
+     * 申请直传上传，返回客户端直接上传到对象存储的预签名地址
+     */
+    PresignedUrlDTO createDirectUpload(String kbId, DirectUploadRequest request);
+
+    /**
+     * 直传完成回调，登记文件并启动处理流程
+     */
+    FileUploadResponse completeDirectUpload(String fileId);
+
+    /**
+     * 初始化分片上传任务
+     */
+    MultipartUploadDTO initiateMultipartUpload(String kbId, DirectUploadRequest request);
+
+    /**
+     * 上传单个分片，同一任务的分片可以并行上传
+     */
+    MultipartPartDTO uploadPart(String fileId, int partNumber, MultipartFile part);
+
+    /**
+     * 查询分片上传进度，用于断点续传
+     */
+    MultipartUploadDTO getMultipartUpload(String fileId);
+
+    /**
+     * 合并分片并登记文件
+     */
+    FileUploadResponse completeMultipartUpload(String fileId);
+
+    /**
+     * 取消分片上传并清理已上传的分片
+     */
+    void abortMultipartUpload(String fileId);
+
+    /**
+     * 获取文件的预签名下载地址
+     */
+    PresignedUrlDTO createDownloadUrl(String id);
+
     /**
      * 删除文件
      */
@@ -42,6 +93,19 @@ public interface FileService {
      */
     List<FileDTO> searchByTag(String kbId, String tag);
 
+    /**
+     * 根据标签游标分页搜索文件
+     *
+     * @param match  匹配方式：prefix 前缀匹配，contains 子串匹配
+     * @param cursor 上一页返回的游标，首页为空
+     */
+    CursorPageDTO<FileDTO> searchByTag(String kbId, String tag, String match, String cursor, Integer size);
+
+    /**
+     * 统计知识库内的标签及其文件数
+     */
+    List<TagFacetDTO> listTagFacets(String kbId, String prefix, Integer limit);
+
     /**
      * 更新文件的OCR内容
      */
@@ -0,0 +1,35 @@
+package com.ai.middle.platform.service;
+
+import com.ai.middle.platform.common.enums.ProcessingStage;
+import com.ai.middle.platform.common.enums.ProcessingStatus;
+
+import java.util.List;
+
+/**
+ * 文件处理状态服务
+ * <p>
+ * 所有对 file_detail 处理状态的写入都经过这里：PROCESSING 迁移按文件合并后定时写出，
+ * 其余状态（PENDING / COMPLETED / FAILED）立即写入。
+ */
+public interface FileStatusService {
+
+    /**
+     * 更新文件某个处理阶段的状态
+     *
+     * @param fileId       文件ID
+     * @param stage        处理阶段
+     * @param status       目标状态
+     * @param errorMessage 失败原因，仅在 FAILED 时写入
+     */
+    void updateStatus(String fileId, ProcessingStage stage, ProcessingStatus status, String errorMessage);
+
+    /**
+     * 覆盖文件标签，并同步 kb_file_tag 标签索引
+     */
+    void updateTags(String fileId, List<String> tags);
+
+    /**
+     * 立即写出所有缓冲中的状态
+     */
+    void flush();
+}
@@ -0,0 +1,42 @@
+package com.ai.middle.platform.service;
+
+import com.ai.middle.platform.dto.response.GraphViewDTO;
+
+/**
+ * 知识图谱探索服务接口
+ */
+public interface GraphService {
+
+    /**
+     * 查询实体的邻域
+     *
+     * @param kbId     知识库ID
+     * @param entityId 中心实体ID
+     * @param depth    扩展深度，为空时为 1
+     * @param limit    每一跳返回的关系数上限
+     * @return 邻域子图
+     */
+    GraphViewDTO neighbors(String kbId, String entityId, Integer depth, Integer limit);
+
+    /**
+     * 查询两个实体之间的最短路径
+     *
+     * @param kbId      知识库ID
+     * @param from      起始实体ID
+     * @param to        目标实体ID
+     * @param maxLength 路径最大关系数
+     * @return 路径上的节点与边，不存在路径时为空图
+     */
+    GraphViewDTO shortestPath(String kbId, String from, String to, Integer maxLength);
+
+    /**
+     * 按实体ID游标分页遍历知识库（或其中某个文件）的图谱
+     *
+     * @param kbId   知识库ID
+     * @param fileId 文件ID，为空时遍历整个知识库
+     * @param cursor 分页游标
+     * @param size   每页实体数
+     * @return 当前页的实体及其出边
+     */
+    GraphViewDTO subgraph(String kbId, String fileId, String cursor, Integer size);
+}
@@ -2,6 +2,7 @@ package com.ai.middle.platform.service;
 
 import com.ai.middle.platform.dto.request.KnowledgeBaseRequest;
 import com.ai.middle.platform.dto.response.KnowledgeBaseDTO;
+import com.ai.middle.platform.dto.response.PageDTO;
 
 import java.util.List;
 
@@ -17,6 +18,15 @@ public interface KnowledgeBaseService {
      */
     List<KnowledgeBaseDTO> list();
 
+    /**
+     * 分页查询知识库列表
+     *
+     * @param current 页码，从1开始
+     * @param size    每页数量
+     * @return 知识库分页结果
+     */
+    PageDTO<KnowledgeBaseDTO> page(long current, long size);
+
     /**
      * 查询知识库详情
      *
@@ -39,4 +49,11 @@ public interface KnowledgeBaseService {
      * @param id 知识库ID
      */
     void delete(String id);
+
+    /**
+     * 清除知识库成员缓存，成员变更后调用
+     *
+     * @param kbInternalId 知识库内部ID
+     */
+    void evictMembershipCache(Long kbInternalId);
 }
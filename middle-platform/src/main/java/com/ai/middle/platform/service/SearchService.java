@@ -0,0 +1,21 @@
+package com.ai.middle.platform.service;
+
+import com.ai.middle.platform.dto.request.SearchRequest;
+import com.ai.middle.platform.dto.response.SearchHitDTO;
+
+import java.util.List;
+
+/**
+ * 知识库检索服务接口
+ */
+public interface SearchService {
+
+    /**
+     * 语义检索知识库文本块
+     *
+     * @param kbId    知识库ID
+     * @param request 检索请求
+     * @return 按相似度降序排列的命中结果
+     */
+    List<SearchHitDTO> search(String kbId, SearchRequest request);
+}
@@ -28,6 +28,11 @@ public class AIProcessServiceImpl implements AIProcessService {
         return ocrProcessor.performOcr(filePath, fileType);
     }
 
+    @Override
+    public List<String> performBatchOcr(List<String> filePaths, String fileType) {
+        return ocrProcessor.performBatchOcr(filePaths, fileType);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void performVectorization(String fileId, String content, Integer chunkSize, Integer overlap) {
@@ -0,0 +1,367 @@
+package com.ai.middle.platform.service.impl;
+
+import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.config.ChatProperties;
+import com.ai.middle.platform.config.VectorStoreProperties;
+import com.ai.middle.platform.dto.request.AskRequest;
+import com.ai.middle.platform.dto.request.SearchRequest;
+import com.ai.middle.platform.dto.response.AnswerDTO;
+import com.ai.middle.platform.dto.response.SearchHitDTO;
+import com.ai.middle.platform.entity.po.KbKnowledgeBase;
+import com.ai.middle.platform.entity.po.KbQaPair;
+import com.ai.middle.platform.repository.mapper.KbKnowledgeBaseMapper;
+import com.ai.middle.platform.repository.mapper.KbQaPairMapper;
+import com.ai.middle.platform.repository.vector.VectorMatch;
+import com.ai.middle.platform.repository.vector.VectorStoreRepository;
+import com.ai.middle.platform.service.ChatService;
+import com.ai.middle.platform.service.PromptService;
+import com.ai.middle.platform.service.SearchService;
+import com.ai.middle.platform.service.model.QueryEmbeddingCache;
+import com.ai.middle.platform.service.processing.ChatExecutor;
+import com.ai.middle.platform.service.processing.ContextPacker;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@Service
+public class ChatServiceImpl implements ChatService {
+
+    private static final String BUSINESS_CHAT = "chat";
+    private static final String SOURCE_QA_CACHE = "qa_cache";
+    private static final String SOURCE_RAG = "rag";
+    private static final String NO_CONTEXT_ANSWER = "知识库中没有找到与问题相关的内容。";
+
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final VectorStoreRepository vectorStoreRepository;
+    private final VectorStoreProperties vectorStoreProperties;
+    private final ChatProperties chatProperties;
+    private final SearchService searchService;
+    private final KbKnowledgeBaseMapper knowledgeBaseMapper;
+    private final KbQaPairMapper qaPairMapper;
+    private final PromptService promptService;
+    private final ChatExecutor chatExecutor;
+    private final MeterRegistry meterRegistry;
+    private final TaskExecutor chatStreamExecutor;
+
+    public ChatServiceImpl(QueryEmbeddingCache queryEmbeddingCache,
+                           VectorStoreRepository vectorStoreRepository,
+                           VectorStoreProperties vectorStoreProperties,
+                           ChatProperties chatProperties,
+                           SearchService searchService,
+                           KbKnowledgeBaseMapper knowledgeBaseMapper,
+                           KbQaPairMapper qaPairMapper,
+                           PromptService promptService,
+                           ChatExecutor chatExecutor,
+                           MeterRegistry meterRegistry,
+                           @Qualifier("chatStreamExecutor") TaskExecutor chatStreamExecutor) {
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.vectorStoreRepository = vectorStoreRepository;
+        this.vectorStoreProperties = vectorStoreProperties;
+        this.chatProperties = chatProperties;
+        this.searchService = searchService;
+        this.knowledgeBaseMapper = knowledgeBaseMapper;
+        this.qaPairMapper = qaPairMapper;
+        this.promptService = promptService;
+        this.chatExecutor = chatExecutor;
+        this.meterRegistry = meterRegistry;
+        this.chatStreamExecutor = chatStreamExecutor;
+    }
+
+    @Override
+    public AnswerDTO ask(String kbId, AskRequest request) {
+        long startNanos = System.nanoTime();
+        KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
+        String question = request.getQuestion().trim();
+
+        AnswerDTO answer = null;
+        if (!Boolean.FALSE.equals(request.getUseQaCache())) {
+            answer = lookupQaPair(String.valueOf(knowledgeBase.getId()), question, request);
+        }
+        if (answer == null) {
+            answer = generateAnswer(kbId, question, request);
+        }
+
+        long costMs = elapsedMillis(startNanos);
+        answer.setCostMs(costMs);
+        meterRegistry.counter("kb.chat.answer", "source", answer.getSource()).increment();
+        log.debug("知识库问答完成: kbId={} source={} costMs={}", kbId, answer.getSource(), costMs);
+        return answer;
+    }
+
+    @Override
+    public SseEmitter stream(String kbId, AskRequest request) {
+        KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
+        ChatStream stream = new ChatStream(new SseEmitter(chatProperties.getStreamTimeout().toMillis()));
+        try {
+            chatStreamExecutor.execute(() -> streamAnswer(knowledgeBase, kbId, request, stream));
+        } catch (TaskRejectedException ex) {
+            throw new BusinessException("问答请求过多，请稍后重试");
+        }
+        return stream.emitter;
+    }
+
+    /**
+     * 在流式线程池中完成问答对匹配、检索与 Prompt 组装，随后由模型客户端线程逐段推送输出；
+     * 检索结果先于首个 token 下发，客户端可提前展示出处
+     */
+    private void streamAnswer(KbKnowledgeBase knowledgeBase, String kbId, AskRequest request, ChatStream stream) {
+        try {
+            String question = request.getQuestion().trim();
+            AnswerDTO cached = !Boolean.FALSE.equals(request.getUseQaCache())
+                    ? lookupQaPair(String.valueOf(knowledgeBase.getId()), question, request)
+                    : null;
+            if (cached != null) {
+                stream.finishWithAnswer(cached);
+                return;
+            }
+
+            List<SearchHitDTO> hits = retrieve(kbId, question, request);
+            if (hits.isEmpty()) {
+                stream.finishWithAnswer(noContextAnswer());
+                return;
+            }
+
+            PreparedPrompt prompt = preparePrompt(question, hits);
+            if (!stream.send("references", prompt.references())) {
+                return;
+            }
+            chatExecutor.stream(BUSINESS_CHAT, prompt.text(), new StreamingResponseHandler<>() {
+                @Override
+                public void onNext(String token) {
+                    stream.token(token);
+                }
+
+                @Override
+                public void onComplete(Response<AiMessage> response) {
+                    stream.finish(response != null ? response.tokenUsage() : null);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    log.warn("流式问答生成失败: kbId={} error={}", kbId, error.getMessage());
+                    stream.fail("答案生成失败: " + error.getMessage());
+                }
+            });
+        } catch (Exception ex) {
+            log.warn("流式问答准备失败: kbId={} error={}", kbId, ex.getMessage(), ex);
+            stream.fail(ex instanceof BusinessException ? ex.getMessage() : "问答失败: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * 在已生成的问题向量中查找近似重复的问题，命中时直接返回存储的答案
+     */
+    private AnswerDTO lookupQaPair(String kbKey, String question, AskRequest request) {
+        double threshold = request.getQaThreshold() != null ? request.getQaThreshold() : chatProperties.getQaThreshold();
+        List<VectorMatch> candidates = vectorStoreRepository.searchQuestions(
+                        vectorStoreProperties.getQa(),
+                        queryEmbeddingCache.embed(question),
+                        kbKey,
+                        request.getFileIds(),
+                        chatProperties.getQaCandidates())
+                .stream()
+                .filter(match -> match.score() >= threshold)
+                .toList();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        List<String> qaIds = candidates.stream()
+                .map(match -> match.metadataString("qaId"))
+                .filter(Objects::nonNull)
+                .toList();
+        Map<String, KbQaPair> qaPairs = qaPairMapper.selectList(new LambdaQueryWrapper<KbQaPair>()
+                        .in(KbQaPair::getQaId, qaIds))
+                .stream()
+                .collect(Collectors.toMap(KbQaPair::getQaId, Function.identity(), (a, b) -> a));
+
+        for (VectorMatch match : candidates) {
+            KbQaPair qaPair = qaPairs.get(match.metadataString("qaId"));
+            if (qaPair == null) {
+                continue;
+            }
+            return AnswerDTO.builder()
+                    .answer(qaPair.getAnswer())
+                    .source(SOURCE_QA_CACHE)
+                    .qaId(qaPair.getQaId())
+                    .matchedQuestion(qaPair.getQuestion())
+                    .score(match.score())
+                    .sourceText(qaPair.getSourceText())
+                    .fileId(qaPair.getFileId())
+                    .fileName(match.metadataString("fileName"))
+                    .build();
+        }
+        return null;
+    }
+
+    private AnswerDTO generateAnswer(String kbId, String question, AskRequest request) {
+        List<SearchHitDTO> hits = retrieve(kbId, question, request);
+        if (hits.isEmpty()) {
+            return noContextAnswer();
+        }
+        PreparedPrompt prompt = preparePrompt(question, hits);
+        String content = chatExecutor.execute(BUSINESS_CHAT, (chatModel, runtimeConfig) -> chatModel.generate(prompt.text()));
+        return AnswerDTO.builder()
+                .answer(content)
+                .source(SOURCE_RAG)
+                .references(prompt.references())
+                .build();
+    }
+
+    private List<SearchHitDTO> retrieve(String kbId, String question, AskRequest request) {
+        SearchRequest searchRequest = new SearchRequest();
+        searchRequest.setQuery(question);
+        searchRequest.setTopK(chatProperties.getContextChunks());
+        searchRequest.setFileIds(request.getFileIds());
+        searchRequest.setMode("hybrid");
+        return searchService.search(kbId, searchRequest);
+    }
+
+    /**
+     * 按检索名次在 token 预算内装入上下文，引用编号与返回的 references 顺序一致
+     */
+    private PreparedPrompt preparePrompt(String question, List<SearchHitDTO> hits) {
+        ContextPacker.Packed<SearchHitDTO> packed = ContextPacker.pack(hits,
+                (hit, number) -> "[" + number + "] " + describeSource(hit) + "\n" + hit.getContent(),
+                chatProperties.getMaxContextTokens());
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("context", packed.text());
+        variables.put("question", question);
+        String prompt = promptService.formatPrompt(promptService.getActivePromptContent(BUSINESS_CHAT), variables);
+        return new PreparedPrompt(prompt, packed.items());
+    }
+
+    private record PreparedPrompt(String text, List<SearchHitDTO> references) {
+    }
+
+    private AnswerDTO noContextAnswer() {
+        return AnswerDTO.builder()
+                .answer(NO_CONTEXT_ANSWER)
+                .source(SOURCE_RAG)
+                .references(List.of())
+                .build();
+    }
+
+    private String describeSource(SearchHitDTO hit) {
+        String name = hit.getFileName() != null ? hit.getFileName() : hit.getFileId();
+        if (hit.getPageStart() == null) {
+            return name;
+        }
+        if (hit.getPageEnd() == null || hit.getPageEnd().equals(hit.getPageStart())) {
+            return name + " 第" + hit.getPageStart() + "页";
+        }
+        return name + " 第" + hit.getPageStart() + "-" + hit.getPageEnd() + "页";
+    }
+
+    private KbKnowledgeBase findKnowledgeBase(String kbId) {
+        KbKnowledgeBase knowledgeBase = knowledgeBaseMapper.selectOne(new LambdaQueryWrapper<KbKnowledgeBase>()
+                .eq(KbKnowledgeBase::getKbId, kbId));
+        if (knowledgeBase == null) {
+            throw new BusinessException("知识库不存在: " + kbId);
+        }
+        return knowledgeBase;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 一次流式问答的 SSE 连接；客户端断开或超时后不再推送，模型输出被丢弃
+     */
+    private final class ChatStream {
+
+        private final SseEmitter emitter;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long firstTokenNanos;
+
+        private ChatStream(SseEmitter emitter) {
+            this.emitter = emitter;
+            emitter.onTimeout(() -> closed.set(true));
+            emitter.onError(ex -> closed.set(true));
+            emitter.onCompletion(() -> closed.set(true));
+        }
+
+        void token(String token) {
+            if (firstTokenNanos == 0) {
+                firstTokenNanos = System.nanoTime();
+                meterRegistry.timer("kb.chat.first.token").record(firstTokenNanos - startNanos, TimeUnit.NANOSECONDS);
+            }
+            send("token", Map.of("content", token));
+        }
+
+        void finishWithAnswer(AnswerDTO answer) {
+            answer.setCostMs(elapsedMillis(startNanos));
+            if (send("answer", answer)) {
+                finish(answer.getSource(), null);
+            }
+        }
+
+        void finish(TokenUsage tokenUsage) {
+            finish(SOURCE_RAG, tokenUsage);
+        }
+
+        private void finish(String source, TokenUsage tokenUsage) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("source", source);
+            summary.put("costMs", elapsedMillis(startNanos));
+            if (firstTokenNanos != 0) {
+                summary.put("firstTokenMs", (firstTokenNanos - startNanos) / 1_000_000);
+            }
+            if (tokenUsage != null) {
+                summary.put("inputTokens", tokenUsage.inputTokenCount());
+                summary.put("outputTokens", tokenUsage.outputTokenCount());
+            }
+            meterRegistry.counter("kb.chat.answer", "source", source).increment();
+            if (send("done", summary) && closed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        void fail(String message) {
+            if (send("error", Map.of("message", message != null ? message : "未知错误"))
+                    && closed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        /**
+         * @return 连接是否仍然可用
+         */
+        boolean send(String event, Object data) {
+            if (closed.get()) {
+                return false;
+            }
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data));
+                return true;
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("SSE 连接已断开: event={} error={}", event, ex.getMessage());
+                closed.set(true);
+                return false;
+            }
+        }
+    }
+}
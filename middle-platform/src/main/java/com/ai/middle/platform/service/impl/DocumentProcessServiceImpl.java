@@ -1,79 +1,111 @@
 package com.ai.middle.platform.service.impl;
 
 import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.config.PageRenderProperties;
 import com.ai.middle.platform.service.DocumentProcessService;
+import com.ai.middle.platform.service.model.PageContent;
 import com.aspose.pdf.Document;
-import com.aspose.pdf.devices.JpegDevice;
+import com.aspose.pdf.Page;
+import com.aspose.pdf.Rectangle;
+import com.aspose.pdf.TextAbsorber;
+import com.aspose.pdf.devices.PngDevice;
 import com.aspose.pdf.devices.Resolution;
+import com.aspose.words.ImageSaveOptions;
+import com.aspose.words.MarkdownSaveOptions;
+import com.aspose.words.NodeType;
+import com.aspose.words.PageInfo;
+import com.aspose.words.PageSet;
 import com.aspose.words.SaveFormat;
+import com.aspose.words.Shape;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DocumentProcessServiceImpl implements DocumentProcessService {
 
-    private static final int DEFAULT_RESOLUTION_DPI = 300;
+    private static final int MIN_RESOLUTION_DPI = 72;
+    private static final double POINTS_PER_INCH = 72.0;
 
     private static final String OCR_PAGE_OBJECT_TYPE = "kb_document_page";
+    private static final String WORD_FILE_TYPE = "word";
+    private static final Pattern MARKDOWN_IMAGE = Pattern.compile("!\\[[^\\]]*]\\([^)]*\\)");
 
     private final FileStorageService fileStorageService;
+    private final PageRenderProperties renderProperties;
+    private final MeterRegistry meterRegistry;
 
     @Override
-    public String convertWordToPdf(File wordFile) {
-        try {
-            log.info("Converting Word to PDF: {}", wordFile.getAbsolutePath());
-            com.aspose.words.Document document = new com.aspose.words.Document(wordFile.getAbsolutePath());
-            File pdfFile = File.createTempFile("converted_", ".pdf");
-            document.save(pdfFile.getAbsolutePath(), SaveFormat.PDF);
-            log.info("Word to PDF conversion succeeded: {}", pdfFile.getAbsolutePath());
-            return pdfFile.getAbsolutePath();
-        } catch (Exception e) {
-            log.error("Failed to convert Word to PDF", e);
-            throw new BusinessException("Word to PDF conversion failed: " + e.getMessage());
-        }
-    }
-
-    @Override
-    public List<String> splitPdfToImages(String pdfFilePath, String fileId) {
-        List<String> imageUrls = new ArrayList<>();
+    public List<PageContent> extractPdfPages(String pdfFilePath, String fileId, String fileType) {
+        PageRenderProperties.TextLayer textLayer = renderProperties.getTextLayer();
+        List<PageContent> pages = new ArrayList<>();
         Document pdfDocument = null;
         try {
-            log.info("Splitting PDF into images: {}", pdfFilePath);
+            log.info("Extracting PDF pages: {}", pdfFilePath);
             pdfDocument = new Document(pdfFilePath);
             int pageCount = pdfDocument.getPages().size();
-            log.info("PDF page count: {}", pageCount);
-
-            Resolution resolution = new Resolution(DEFAULT_RESOLUTION_DPI);
-            JpegDevice jpegDevice = new JpegDevice(resolution);
+            int baseDpi = renderProperties.resolveDpi(fileType);
 
+            int textPages = 0;
             for (int pageNumber = 1; pageNumber <= pageCount; pageNumber++) {
-                File imageFile = File.createTempFile("page_" + pageNumber + "_", ".jpg");
-                try (FileOutputStream imageStream = new FileOutputStream(imageFile)) {
-                    jpegDevice.process(pdfDocument.getPages().get_Item(pageNumber), imageStream);
+                Page page = pdfDocument.getPages().get_Item(pageNumber);
+                String text = Boolean.TRUE.equals(textLayer.getEnabled()) ? extractTextLayer(page) : null;
+                boolean textOnly = isTextOnly(page);
+
+                if (text != null && hasUsableTextLayer(text, textOnly, textLayer)) {
+                    String previewUrl = Boolean.TRUE.equals(textLayer.getRenderPreview())
+                            ? renderAndUpload(page, pageNumber, fileId, fileType, baseDpi, textOnly)
+                            : null;
+                    pages.add(PageContent.text(pageNumber, text.strip(), previewUrl));
+                    textPages++;
+                } else {
+                    String imageUrl = renderAndUpload(page, pageNumber, fileId, fileType, baseDpi, textOnly);
+                    pages.add(PageContent.image(pageNumber, imageUrl));
                 }
-                String imageUrl = uploadPageImage(imageFile, fileId, pageNumber);
-                imageUrls.add(imageUrl);
-                deleteQuietly(imageFile);
-                log.info("Processed page {}/{} for file {}", pageNumber, pageCount, fileId);
             }
-            return imageUrls;
+            meterRegistry.counter("kb.page.extract", "fileType", String.valueOf(fileType), "source", "text_layer")
+                    .increment(textPages);
+            meterRegistry.counter("kb.page.extract", "fileType", String.valueOf(fileType), "source", "ocr")
+                    .increment(pageCount - textPages);
+            log.info("Extracted PDF pages for file {}: total={}, textLayer={}, ocr={}",
+                    fileId, pageCount, textPages, pageCount - textPages);
+            return pages;
         } catch (Exception e) {
-            log.error("Failed to split PDF into images", e);
-            throw new BusinessException("PDF to images conversion failed: " + e.getMessage());
+            log.error("Failed to extract PDF pages", e);
+            throw new BusinessException("PDF page extraction failed: " + e.getMessage());
         } finally {
             if (pdfDocument != null) {
                 pdfDocument.close();
@@ -81,6 +113,47 @@ public class DocumentProcessServiceImpl implements DocumentProcessService {
         }
     }
 
+    @Override
+    public List<PageContent> extractWordPages(File wordFile, String fileId) {
+        PageRenderProperties.TextLayer textLayer = renderProperties.getTextLayer();
+        List<PageContent> pages = new ArrayList<>();
+        try {
+            log.info("Extracting Word pages: {}", wordFile.getAbsolutePath());
+            com.aspose.words.Document document = new com.aspose.words.Document(wordFile.getAbsolutePath());
+            int pageCount = document.getPageCount();
+            int baseDpi = renderProperties.resolveDpi(WORD_FILE_TYPE);
+
+            int textPages = 0;
+            for (int pageIndex = 0; pageIndex < pageCount; pageIndex++) {
+                int pageNumber = pageIndex + 1;
+                com.aspose.words.Document pageDocument = document.extractPages(pageIndex, 1);
+                boolean textOnly = !containsImages(pageDocument);
+                String markdown = exportMarkdown(pageDocument);
+
+                if (markdown != null && hasUsableTextLayer(markdown, textOnly, textLayer)) {
+                    String previewUrl = Boolean.TRUE.equals(textLayer.getRenderPreview())
+                            ? renderWordPageAndUpload(document, pageIndex, fileId, baseDpi, textOnly)
+                            : null;
+                    pages.add(PageContent.text(pageNumber, markdown, previewUrl));
+                    textPages++;
+                } else {
+                    String imageUrl = renderWordPageAndUpload(document, pageIndex, fileId, baseDpi, textOnly);
+                    pages.add(PageContent.image(pageNumber, imageUrl));
+                }
+            }
+            meterRegistry.counter("kb.page.extract", "fileType", WORD_FILE_TYPE, "source", "text_layer")
+                    .increment(textPages);
+            meterRegistry.counter("kb.page.extract", "fileType", WORD_FILE_TYPE, "source", "ocr")
+                    .increment(pageCount - textPages);
+            log.info("Extracted Word pages for file {}: total={}, markdown={}, ocr={}",
+                    fileId, pageCount, textPages, pageCount - textPages);
+            return pages;
+        } catch (Exception e) {
+            log.error("Failed to extract Word pages", e);
+            throw new BusinessException("Word page extraction failed: " + e.getMessage());
+        }
+    }
+
     @Override
     public String processImageFile(String imageFilePath, String fileId) {
         File imageFile = new File(imageFilePath);
@@ -88,7 +161,20 @@ public class DocumentProcessServiceImpl implements DocumentProcessService {
             throw new BusinessException("Image file does not exist: " + imageFilePath);
         }
         try {
-            return uploadPageImage(imageFile, fileId, 1);
+            long startNanos = System.nanoTime();
+            byte[] imageBytes = reencodeJpeg(imageFile);
+            if (imageBytes != null) {
+                recordRender("image", false, imageBytes.length, System.nanoTime() - startNanos);
+                return uploadPageImage(imageBytes, fileId, 1);
+            }
+            // Formats ImageIO cannot decode (CMYK JPEG, some TIFFs) are uploaded unchanged,
+            // keeping their own extension and content type so the OCR provider can sniff them
+            String extension = StringUtils.getFilenameExtension(imageFile.getName());
+            String pageName = "page_1" + (StringUtils.hasText(extension) ? "." + extension.toLowerCase(Locale.ROOT) : "");
+            String contentType = MediaTypeFactory.getMediaType(pageName)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                    .toString();
+            return uploadPageImage(Files.readAllBytes(imageFile.toPath()), fileId, 1, pageName, contentType);
         } catch (Exception e) {
             log.error("Failed to process image file", e);
             throw new BusinessException("Image processing failed: " + e.getMessage());
@@ -111,35 +197,249 @@ public class DocumentProcessServiceImpl implements DocumentProcessService {
         }
     }
 
-    private String uploadPageImage(File imageFile, String fileId, int pageNumber) throws IOException {
-        try (FileInputStream fis = new FileInputStream(imageFile)) {
-            Map<String, String> metadata = new HashMap<>();
-            metadata.put("fileId", fileId);
-            metadata.put("pageNumber", String.valueOf(pageNumber));
+    private String renderAndUpload(Page page,
+                                   int pageNumber,
+                                   String fileId,
+                                   String fileType,
+                                   int baseDpi,
+                                   boolean textOnly) throws IOException {
+        boolean grayscale = Boolean.TRUE.equals(renderProperties.getGrayscaleTextPages()) && textOnly;
+        int dpi = resolvePageDpi(page, baseDpi);
+
+        long startNanos = System.nanoTime();
+        byte[] imageBytes = encodeJpeg(renderPage(page, dpi), grayscale);
+        recordRender(fileType, grayscale, imageBytes.length, System.nanoTime() - startNanos);
+
+        String imageUrl = uploadPageImage(imageBytes, fileId, pageNumber);
+        log.info("Rendered page {} for file {}: dpi={}, grayscale={}, bytes={}",
+                pageNumber, fileId, dpi, grayscale, imageBytes.length);
+        return imageUrl;
+    }
+
+    /**
+     * Exports one Word page as Markdown. Embedded images are discarded because only
+     * the text goes into the knowledge base; image-heavy pages fall back to OCR instead.
+     */
+    private String exportMarkdown(com.aspose.words.Document pageDocument) {
+        try {
+            MarkdownSaveOptions options = new MarkdownSaveOptions();
+            options.setImageSavingCallback(args -> args.setImageStream(OutputStream.nullOutputStream()));
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            pageDocument.save(output, options);
+            String markdown = output.toString(StandardCharsets.UTF_8);
+            return MARKDOWN_IMAGE.matcher(markdown).replaceAll("").strip();
+        } catch (Exception e) {
+            log.debug("Markdown export failed, falling back to OCR: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean containsImages(com.aspose.words.Document pageDocument) {
+        for (Object node : pageDocument.getChildNodes(NodeType.SHAPE, true)) {
+            if (node instanceof Shape shape && shape.hasImage()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String renderWordPageAndUpload(com.aspose.words.Document document,
+                                           int pageIndex,
+                                           String fileId,
+                                           int baseDpi,
+                                           boolean textOnly) throws Exception {
+        boolean grayscale = Boolean.TRUE.equals(renderProperties.getGrayscaleTextPages()) && textOnly;
+        PageInfo pageInfo = document.getPageInfo(pageIndex);
+        int dpi = capDpi(Math.max(pageInfo.getWidthInPoints(), pageInfo.getHeightInPoints()), baseDpi);
+
+        long startNanos = System.nanoTime();
+        ImageSaveOptions options = new ImageSaveOptions(SaveFormat.PNG);
+        options.setPageSet(new PageSet(pageIndex));
+        options.setResolution(dpi);
+        ByteArrayOutputStream pngStream = new ByteArrayOutputStream();
+        document.save(pngStream, options);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(pngStream.toByteArray()));
+        if (image == null) {
+            throw new IOException("Rendered page image could not be decoded");
+        }
+        byte[] imageBytes = encodeJpeg(image, grayscale);
+        recordRender(WORD_FILE_TYPE, grayscale, imageBytes.length, System.nanoTime() - startNanos);
+
+        int pageNumber = pageIndex + 1;
+        String imageUrl = uploadPageImage(imageBytes, fileId, pageNumber);
+        log.info("Rendered Word page {} for file {}: dpi={}, grayscale={}, bytes={}",
+                pageNumber, fileId, dpi, grayscale, imageBytes.length);
+        return imageUrl;
+    }
+
+    private String extractTextLayer(Page page) {
+        try {
+            TextAbsorber absorber = new TextAbsorber();
+            page.accept(absorber);
+            return absorber.getText();
+        } catch (Exception e) {
+            log.debug("Text layer extraction failed, falling back to OCR: {}", e.getMessage());
+            return null;
+        }
+    }
 
-            FileInfo fileInfo = fileStorageService.of(fis)
-                    .setObjectType(OCR_PAGE_OBJECT_TYPE)
-                    .setObjectId(fileId)
-                    .setPath("kb/documents/" + fileId + "/pages/")
-                    .setSaveFilename("page_" + pageNumber + ".jpg")
-                    .setOriginalFilename(imageFile.getName())
-                    .setMetadata(metadata)
-                    .upload();
-            if (fileInfo == null || fileInfo.getUrl() == null) {
-                throw new BusinessException("Image upload failed: target URL missing");
+    /**
+     * A text layer is usable when it has enough readable characters; pages that also
+     * contain raster images need more text, otherwise the images likely hold the content.
+     */
+    private boolean hasUsableTextLayer(String text, boolean textOnly, PageRenderProperties.TextLayer settings) {
+        int visible = 0;
+        int garbage = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                continue;
             }
-            return fileInfo.getUrl();
+            visible++;
+            if (ch == '\uFFFD' || Character.isISOControl(ch) || Character.getType(ch) == Character.PRIVATE_USE) {
+                garbage++;
+            }
+        }
+        int required = textOnly ? settings.getMinChars() : settings.getMinCharsWithImages();
+        if (visible < required) {
+            return false;
+        }
+        return (double) garbage / visible <= settings.getMaxGarbageRatio();
+    }
+
+    /**
+     * Pages without embedded raster images carry only text and vector art,
+     * so color adds bytes without helping recognition.
+     */
+    private boolean isTextOnly(Page page) {
+        try {
+            return page.getResources() == null
+                    || page.getResources().getImages() == null
+                    || page.getResources().getImages().size() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Lowers the DPI for large pages so the rendered long edge stays within the configured limit.
+     */
+    private int resolvePageDpi(Page page, int baseDpi) {
+        Rectangle rect = page.getRect();
+        double longEdgePoints = rect == null ? 0 : Math.max(rect.getWidth(), rect.getHeight());
+        return capDpi(longEdgePoints, baseDpi);
+    }
+
+    private int capDpi(double longEdgePoints, int baseDpi) {
+        int maxLongEdge = renderProperties.getMaxLongEdge();
+        if (longEdgePoints <= 0 || maxLongEdge <= 0) {
+            return baseDpi;
+        }
+        int capped = (int) Math.floor(maxLongEdge * POINTS_PER_INCH / longEdgePoints);
+        return Math.max(MIN_RESOLUTION_DPI, Math.min(baseDpi, capped));
+    }
+
+    private BufferedImage renderPage(Page page, int dpi) throws IOException {
+        // Render losslessly first, JPEG encoding happens once with the configured quality
+        ByteArrayOutputStream pngStream = new ByteArrayOutputStream();
+        new PngDevice(new Resolution(dpi)).process(page, pngStream);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(pngStream.toByteArray()));
+        if (image == null) {
+            throw new IOException("Rendered page image could not be decoded");
         }
+        return image;
     }
 
-    private void deleteQuietly(File file) {
-        if (file == null) {
-            return;
+    private byte[] encodeJpeg(BufferedImage source, boolean grayscale) throws IOException {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int maxLongEdge = renderProperties.getMaxLongEdge();
+        int longEdge = Math.max(width, height);
+        if (maxLongEdge > 0 && longEdge > maxLongEdge) {
+            double scale = (double) maxLongEdge / longEdge;
+            width = Math.max(1, (int) Math.round(width * scale));
+            height = Math.max(1, (int) Math.round(height * scale));
         }
+
+        BufferedImage target = new BufferedImage(width, height,
+                grayscale ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
         try {
-            Files.deleteIfExists(file.toPath());
-        } catch (IOException ex) {
-            log.warn("Failed to delete temp file: {}", file.getAbsolutePath(), ex);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(renderProperties.getJpegQuality());
+            writer.write(null, new IIOImage(target, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private void recordRender(String fileType, boolean grayscale, long bytes, long elapsedNanos) {
+        String type = fileType == null ? "unknown" : fileType;
+        String mode = grayscale ? "gray" : "color";
+        DistributionSummary.builder("kb.page.image.bytes")
+                .description("Encoded page image size sent to OCR")
+                .baseUnit("bytes")
+                .tags("fileType", type, "mode", mode)
+                .register(meterRegistry)
+                .record(bytes);
+        Timer.builder("kb.page.render.duration")
+                .description("Time to render and encode one page image")
+                .tags("fileType", type, "mode", mode)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Decodes an image and re-encodes it as JPEG, or returns null when ImageIO has no reader for
+     * the format or fails to decode it (e.g. CMYK JPEG raises an IIOException).
+     */
+    private byte[] reencodeJpeg(File imageFile) {
+        try {
+            BufferedImage image = ImageIO.read(imageFile);
+            return image != null ? encodeJpeg(image, false) : null;
+        } catch (Exception e) {
+            log.warn("ImageIO could not decode {}, uploading the original bytes: {}", imageFile.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String uploadPageImage(byte[] imageBytes, String fileId, int pageNumber) {
+        String pageName = "page_" + pageNumber + ".jpg";
+        return uploadPageImage(imageBytes, fileId, pageNumber, pageName, MediaType.IMAGE_JPEG_VALUE);
+    }
+
+    private String uploadPageImage(byte[] imageBytes, String fileId, int pageNumber, String pageName, String contentType) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("fileId", fileId);
+        metadata.put("pageNumber", String.valueOf(pageNumber));
+
+        FileInfo fileInfo = fileStorageService.of(imageBytes)
+                .setObjectType(OCR_PAGE_OBJECT_TYPE)
+                .setObjectId(fileId)
+                .setPath("kb/documents/" + fileId + "/pages/")
+                .setSaveFilename(pageName)
+                .setOriginalFilename(pageName)
+                .setContentType(contentType)
+                .setMetadata(metadata)
+                .upload();
+        if (fileInfo == null || fileInfo.getUrl() == null) {
+            throw new BusinessException("Image upload failed: target URL missing");
         }
+        return fileInfo.getUrl();
     }
 }
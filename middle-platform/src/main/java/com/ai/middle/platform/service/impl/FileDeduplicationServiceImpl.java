@@ -0,0 +1,514 @@
+package com.ai.middle.platform.service.impl;
+
+import com.ai.middle.platform.common.enums.ProcessingStage;
+import com.ai.middle.platform.common.enums.ProcessingStatus;
+import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.common.util.IdGenerator;
+import com.ai.middle.platform.config.VectorStoreProperties;
+import com.ai.middle.platform.config.VectorStoreProperties.StoreProperties;
+import com.ai.middle.platform.entity.po.FileDetail;
+import com.ai.middle.platform.entity.po.KbDocument;
+import com.ai.middle.platform.entity.po.KbQaPair;
+import com.ai.middle.platform.repository.mapper.FileDetailMapper;
+import com.ai.middle.platform.repository.mapper.KbDocumentMapper;
+import com.ai.middle.platform.repository.mapper.KbQaPairMapper;
+import com.ai.middle.platform.repository.neo4j.DocumentNodeRepository;
+import com.ai.middle.platform.repository.vector.VectorStoreRepository;
+import com.ai.middle.platform.service.FileDeduplicationService;
+import com.ai.middle.platform.service.FileStatusService;
+import com.ai.middle.platform.service.storage.LocalFileCache;
+import com.ai.middle.platform.service.storage.MinioObjectService;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * 文件内容去重服务实现
+ * <p>
+ * 复制在上传事务提交后执行，顺序为：页面图片 → 页面记录、向量与问答对 → 知识图谱。
+ * 可能失败的对象存储复制放在最前，失败时清理已复制的图片并交回正常流程；
+ * 页面记录、向量与问答对在同一个独立事务中写入，要么全部可见要么全部回滚；
+ * 知识图谱写在独立的 Neo4j 中，复制失败只影响图谱阶段的状态。
+ * 复制出的数据都以新文件ID为键，开始前先清理该文件此前未完成的复制结果，重复执行不会产生重复数据。
+ */
+@Slf4j
+@Service
+public class FileDeduplicationServiceImpl implements FileDeduplicationService {
+
+    private static final String OBJECT_TYPE_KB = "knowledge_base";
+    private static final String OBJECT_TYPE_DOCUMENT_PAGE = "kb_document_page";
+    private static final String COMPLETED = ProcessingStatus.COMPLETED.getCode();
+    private static final int DISCARD_VECTOR_BATCH_SIZE = 5000;
+
+    private static final String CLONE_VECTORS_SQL = """
+            INSERT INTO %s (embedding_id, embedding, text, metadata)
+            SELECT gen_random_uuid(), embedding, text,
+                   (metadata::jsonb
+                       || jsonb_build_object('fileId', ?::text, 'kbId', ?::text)
+                       || CASE WHEN jsonb_exists(metadata::jsonb, 'documentId')
+                               THEN jsonb_build_object('documentId', ?::text) ELSE '{}'::jsonb END
+                       || CASE WHEN jsonb_exists(metadata::jsonb, 'fileName')
+                               THEN jsonb_build_object('fileName', ?::text) ELSE '{}'::jsonb END)::json
+            FROM %s
+            WHERE metadata->>'fileId' = ?
+            """;
+
+    /**
+     * 复制出的问题向量仍指向源文件的 qaId，按问题文本改指向新问答对
+     */
+    private static final String REMAP_QA_VECTORS_SQL = """
+            UPDATE %s v
+            SET metadata = (v.metadata::jsonb || jsonb_build_object('qaId', t.qa_id))::json
+            FROM kb_qa_pair s
+                     JOIN kb_qa_pair t ON t.file_id = ? AND t.question = s.question
+            WHERE s.file_id = ?
+              AND v.metadata->>'fileId' = ?
+              AND v.metadata->>'qaId' = s.qa_id
+            """;
+
+    private final FileDetailMapper fileDetailMapper;
+    private final KbDocumentMapper documentMapper;
+    private final KbQaPairMapper qaPairMapper;
+    private final DocumentNodeRepository documentNodeRepository;
+    private final FileStatusService fileStatusService;
+    private final FileStorageService fileStorageService;
+    private final MinioObjectService minioObjectService;
+    private final LocalFileCache localFileCache;
+    private final VectorStoreProperties vectorStoreProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final Neo4jClient neo4jClient;
+    private final VectorStoreRepository vectorStoreRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor fileIngestExecutor;
+
+    /**
+     * 本实例正在处理的文件，避免同一文件并发复制
+     */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.file.dedup-enabled:true}")
+    private boolean dedupEnabled;
+
+    public FileDeduplicationServiceImpl(FileDetailMapper fileDetailMapper,
+                                        KbDocumentMapper documentMapper,
+                                        KbQaPairMapper qaPairMapper,
+                                        DocumentNodeRepository documentNodeRepository,
+                                        FileStatusService fileStatusService,
+                                        FileStorageService fileStorageService,
+                                        MinioObjectService minioObjectService,
+                                        LocalFileCache localFileCache,
+                                        VectorStoreProperties vectorStoreProperties,
+                                        JdbcTemplate jdbcTemplate,
+                                        Neo4jClient neo4jClient,
+                                        VectorStoreRepository vectorStoreRepository,
+                                        TransactionTemplate transactionTemplate,
+                                        @Qualifier("fileIngestExecutor") TaskExecutor fileIngestExecutor) {
+        this.fileDetailMapper = fileDetailMapper;
+        this.documentMapper = documentMapper;
+        this.qaPairMapper = qaPairMapper;
+        this.documentNodeRepository = documentNodeRepository;
+        this.fileStatusService = fileStatusService;
+        this.fileStorageService = fileStorageService;
+        this.minioObjectService = minioObjectService;
+        this.localFileCache = localFileCache;
+        this.vectorStoreProperties = vectorStoreProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.neo4jClient = neo4jClient;
+        this.vectorStoreRepository = vectorStoreRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.fileIngestExecutor = fileIngestExecutor;
+    }
+
+    @Override
+    public void processAsync(String fileId, Consumer<FileDetail> fullProcessing) {
+        if (!inFlight.add(fileId)) {
+            return;
+        }
+        try {
+            fileIngestExecutor.execute(() -> {
+                try {
+                    process(fileId, fullProcessing);
+                } finally {
+                    inFlight.remove(fileId);
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlight.remove(fileId);
+            throw ex;
+        }
+    }
+
+    private void process(String fileId, Consumer<FileDetail> fullProcessing) {
+        FileDetail file = fileDetailMapper.selectById(fileId);
+        if (file == null || !OBJECT_TYPE_KB.equals(file.getObjectType())) {
+            log.info("文件已删除，跳过处理: fileId={}", fileId);
+            return;
+        }
+        try {
+            // 相同内容已处理完成时直接复用结果，跳过页面拆分、OCR与向量化
+            if (resolveContentSha256(file) && dedupEnabled && cloneProcessedFile(file)) {
+                return;
+            }
+        } catch (Exception ex) {
+            log.warn("复用处理结果失败，改为完整处理: fileId={}", fileId, ex);
+            try {
+                discardPartialClone(fileId);
+            } catch (Exception cleanupEx) {
+                log.warn("清理未完成的复制结果失败: fileId={}", fileId, cleanupEx);
+            }
+        }
+        fullProcessing.accept(file);
+    }
+
+    /**
+     * 直传文件在上传时无法计算哈希，这里流式补算并写回
+     */
+    private boolean resolveContentSha256(FileDetail file) {
+        if (StringUtils.hasText(file.getContentSha256())) {
+            return true;
+        }
+        FileInfo fileInfo = fileStorageService.getFileInfoByUrl(file.getUrl());
+        if (fileInfo == null) {
+            return false;
+        }
+        String sha256 = computeSha256(fileInfo);
+        fileDetailMapper.update(null, new LambdaUpdateWrapper<FileDetail>()
+                .eq(FileDetail::getId, file.getId())
+                .set(FileDetail::getContentSha256, sha256));
+        file.setContentSha256(sha256);
+        return true;
+    }
+
+    /**
+     * 流式计算已存储对象的 SHA-256
+     */
+    private String computeSha256(FileInfo fileInfo) {
+        try (InputStream in = openContent(fileInfo);
+             HashingInputStream hashing = new HashingInputStream(Hashing.sha256(), in)) {
+            hashing.transferTo(OutputStream.nullOutputStream());
+            return hashing.hash().toString();
+        } catch (IOException ex) {
+            throw new BusinessException("计算文件哈希失败: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * 从内容相同且已处理完成的文件复制处理结果
+     *
+     * @return 是否复制成功；返回 false 时按正常流程处理
+     */
+    private boolean cloneProcessedFile(FileDetail target) {
+        if (target == null || !StringUtils.hasText(target.getContentSha256())) {
+            return false;
+        }
+        FileDetail source = fileDetailMapper.selectOne(new LambdaQueryWrapper<FileDetail>()
+                .eq(FileDetail::getContentSha256, target.getContentSha256())
+                .eq(FileDetail::getObjectType, OBJECT_TYPE_KB)
+                .ne(FileDetail::getId, target.getId())
+                .eq(FileDetail::getOcrStatus, COMPLETED)
+                .eq(FileDetail::getVectorizationStatus, COMPLETED)
+                .orderByAsc(FileDetail::getCreateTime)
+                .last("LIMIT 1"));
+        if (source == null) {
+            return false;
+        }
+        List<KbDocument> pages = documentMapper.selectList(new LambdaQueryWrapper<KbDocument>()
+                .eq(KbDocument::getFileId, source.getId())
+                .orderByAsc(KbDocument::getPageIndex));
+        if (pages.isEmpty()) {
+            return false;
+        }
+
+        // 上次复制中断时可能留下部分数据，先按新文件ID清理
+        discardPartialClone(target.getId());
+
+        List<String> imageUrls = copyPageImages(source.getId(), target.getId(), pages);
+        if (imageUrls == null) {
+            return false;
+        }
+
+        log.info("检测到重复内容，复用已有处理结果: fileId={} sourceFileId={} pages={}",
+                target.getId(), source.getId(), pages.size());
+
+        boolean cloneQaPairs = COMPLETED.equals(source.getQaPairsStatus());
+        Integer vectorCount;
+        try {
+            vectorCount = transactionTemplate.execute(status -> {
+                for (int i = 0; i < pages.size(); i++) {
+                    KbDocument page = pages.get(i);
+                    documentMapper.insert(KbDocument.builder()
+                            .documentId(IdGenerator.simpleUUID())
+                            .fileId(target.getId())
+                            .pageIndex(page.getPageIndex())
+                            .content(page.getContent())
+                            .imageUrl(imageUrls.get(i))
+                            .ocrStatus(page.getOcrStatus())
+                            .tokensUsed(page.getTokensUsed())
+                            .build());
+                }
+                int copied = cloneVectors(source.getId(), target);
+                if (cloneQaPairs) {
+                    int qaCount = cloneQaPairs(source.getId(), target.getId());
+                    jdbcTemplate.update(String.format(REMAP_QA_VECTORS_SQL,
+                                    VectorStoreRepository.checkTableName(vectorStoreProperties.getQa().getTable())),
+                            target.getId(), source.getId(), target.getId());
+                    log.debug("复制问答对完成: fileId={} count={}", target.getId(), qaCount);
+                }
+                return copied;
+            });
+        } catch (Exception ex) {
+            log.warn("复制页面与向量失败，改为完整处理: fileId={} sourceFileId={} error={}",
+                    target.getId(), source.getId(), ex.getMessage());
+            deleteCopiedImages(imageUrls);
+            return false;
+        }
+
+        fileStatusService.updateStatus(target.getId(), ProcessingStage.OCR, ProcessingStatus.COMPLETED, null);
+        fileStatusService.updateStatus(target.getId(), ProcessingStage.VECTORIZATION, ProcessingStatus.COMPLETED, null);
+        if (cloneQaPairs) {
+            fileStatusService.updateStatus(target.getId(), ProcessingStage.QA_PAIRS, ProcessingStatus.COMPLETED, null);
+        }
+
+        if (COMPLETED.equals(source.getKnowledgeGraphStatus()) && cloneKnowledgeGraph(source.getId(), target)) {
+            fileStatusService.updateStatus(target.getId(), ProcessingStage.KNOWLEDGE_GRAPH, ProcessingStatus.COMPLETED, null);
+        }
+
+        if (source.getTags() != null && source.getTags().length > 0) {
+            fileStatusService.updateTags(target.getId(), Arrays.asList(source.getTags()));
+        }
+
+        log.info("复用处理结果完成: fileId={} sourceFileId={} vectors={}", target.getId(), source.getId(), vectorCount);
+        return true;
+    }
+
+    /**
+     * 在对象存储内复制页面图片，任一页失败时删除已复制的图片并返回 null
+     */
+    private List<String> copyPageImages(String sourceFileId, String targetFileId, List<KbDocument> pages) {
+        List<String> copiedUrls = new ArrayList<>(pages.size());
+        try {
+            for (KbDocument page : pages) {
+                FileInfo sourceImage = StringUtils.hasText(page.getImageUrl())
+                        ? fileStorageService.getFileInfoByUrl(page.getImageUrl())
+                        : null;
+                if (sourceImage == null) {
+                    throw new BusinessException("页面图片不存在: pageIndex=" + page.getPageIndex());
+                }
+                FileInfo copied = fileStorageService.copy(sourceImage)
+                        .setPath("kb/documents/" + targetFileId + "/pages/")
+                        .setFilename(sourceImage.getFilename())
+                        .copy();
+                fileDetailMapper.update(null, new LambdaUpdateWrapper<FileDetail>()
+                        .eq(FileDetail::getId, copied.getId())
+                        .set(FileDetail::getObjectType, OBJECT_TYPE_DOCUMENT_PAGE)
+                        .set(FileDetail::getObjectId, targetFileId));
+                copiedUrls.add(copied.getUrl());
+            }
+            return copiedUrls;
+        } catch (Exception ex) {
+            log.warn("复制页面图片失败，改为完整处理: fileId={} sourceFileId={} error={}",
+                    targetFileId, sourceFileId, ex.getMessage());
+            deleteCopiedImages(copiedUrls);
+            return null;
+        }
+    }
+
+    private void deleteCopiedImages(Collection<String> urls) {
+        for (String url : urls) {
+            localFileCache.evict(url);
+            try {
+                fileStorageService.delete(url);
+            } catch (Exception deleteEx) {
+                log.warn("清理已复制的页面图片失败: {}", url, deleteEx);
+            }
+        }
+    }
+
+    /**
+     * 清理该文件此前复制出的页面图片、页面记录、向量、问答对和知识图谱，使复制可以重复执行
+     */
+    private void discardPartialClone(String targetFileId) {
+        List<String> imageUrls = fileDetailMapper.selectList(new LambdaQueryWrapper<FileDetail>()
+                        .select(FileDetail::getId, FileDetail::getUrl)
+                        .eq(FileDetail::getObjectType, OBJECT_TYPE_DOCUMENT_PAGE)
+                        .eq(FileDetail::getObjectId, targetFileId))
+                .stream()
+                .map(FileDetail::getUrl)
+                .filter(StringUtils::hasText)
+                .toList();
+        boolean hasPages = documentMapper.exists(new LambdaQueryWrapper<KbDocument>()
+                .eq(KbDocument::getFileId, targetFileId));
+        if (imageUrls.isEmpty() && !hasPages && documentNodeRepository.findByFileId(targetFileId) == null) {
+            return;
+        }
+        log.info("清理未完成的复制结果: fileId={} images={}", targetFileId, imageUrls.size());
+        deleteCopiedImages(imageUrls);
+        if (hasPages) {
+            // 页面记录、向量与问答对在同一事务中写入，有页面记录时才可能存在后两者
+            documentMapper.delete(new LambdaQueryWrapper<KbDocument>()
+                    .eq(KbDocument::getFileId, targetFileId));
+            Map<String, StoreProperties> stores = new LinkedHashMap<>();
+            stores.putIfAbsent(vectorStoreProperties.getDefaultStore().getTable(), vectorStoreProperties.getDefaultStore());
+            stores.putIfAbsent(vectorStoreProperties.getQa().getTable(), vectorStoreProperties.getQa());
+            for (StoreProperties store : stores.values()) {
+                vectorStoreRepository.deleteByFileId(store, targetFileId, DISCARD_VECTOR_BATCH_SIZE);
+            }
+            qaPairMapper.delete(new LambdaQueryWrapper<KbQaPair>()
+                    .eq(KbQaPair::getFileId, targetFileId));
+        }
+        documentNodeRepository.deleteDocumentWithRelations(targetFileId);
+    }
+
+    /**
+     * 在数据库内复制向量，改写元数据中的文件标识，不重新调用嵌入模型
+     */
+    private int cloneVectors(String sourceFileId, FileDetail target) {
+        String fileName = StringUtils.hasText(target.getOriginalFilename())
+                ? target.getOriginalFilename()
+                : target.getFilename();
+        Set<String> tables = new LinkedHashSet<>();
+        tables.add(vectorStoreProperties.getDefaultStore().getTable());
+        tables.add(vectorStoreProperties.getQa().getTable());
+
+        int copied = 0;
+        for (String table : tables) {
+            String checked = VectorStoreRepository.checkTableName(table);
+            copied += jdbcTemplate.update(String.format(CLONE_VECTORS_SQL, checked, checked),
+                    target.getId(), target.getObjectId(), target.getId(), fileName, sourceFileId);
+        }
+        return copied;
+    }
+
+    private int cloneQaPairs(String sourceFileId, String targetFileId) {
+        List<KbQaPair> qaPairs = qaPairMapper.selectList(new LambdaQueryWrapper<KbQaPair>()
+                .eq(KbQaPair::getFileId, sourceFileId));
+        for (KbQaPair qaPair : qaPairs) {
+            qaPairMapper.insert(KbQaPair.builder()
+                    .qaId(IdGenerator.simpleUUID())
+                    .fileId(targetFileId)
+                    .question(qaPair.getQuestion())
+                    .answer(qaPair.getAnswer())
+                    .sourceText(qaPair.getSourceText())
+                    .confidenceScore(qaPair.getConfidenceScore())
+                    .build());
+        }
+        return qaPairs.size();
+    }
+
+    /**
+     * 复制文档节点、实体节点及实体间关系；实体ID以文件ID为前缀，复制时替换前缀
+     */
+    private boolean cloneKnowledgeGraph(String sourceFileId, FileDetail target) {
+        String targetFileId = target.getId();
+        String documentName = StringUtils.hasText(target.getOriginalFilename())
+                ? target.getOriginalFilename()
+                : target.getFilename();
+        try {
+            neo4jClient.query("""
+                    MATCH (d:Document {id: $sourceId})
+                    CREATE (nd:Document {id: $targetId})
+                    SET nd.name = $name, nd.type = d.type, nd.createdAt = localdatetime()
+                    WITH d, nd
+                    MATCH (e:Entity)-[:BELONGS_TO]->(d)
+                    CREATE (ne:Entity)
+                    SET ne = properties(e),
+                        ne.id = $targetId + substring(e.id, size($sourceId)),
+                        ne.documentId = $targetId
+                    CREATE (ne)-[:BELONGS_TO]->(nd)
+                    """)
+                    .bind(sourceFileId).to("sourceId")
+                    .bind(targetFileId).to("targetId")
+                    .bind(documentName).to("name")
+                    .run();
+
+            Collection<Map<String, Object>> relationships = neo4jClient.query("""
+                    MATCH (s:Entity)-[:BELONGS_TO]->(:Document {id: $sourceId})
+                    MATCH (s)-[r]->(t:Entity)
+                    WHERE type(r) <> 'BELONGS_TO' AND t.id STARTS WITH $prefix
+                    RETURN s.id AS sourceId, t.id AS targetId, type(r) AS type, properties(r) AS props
+                    """)
+                    .bind(sourceFileId).to("sourceId")
+                    .bind(sourceFileId + "::").to("prefix")
+                    .fetch().all();
+
+            Map<String, List<Map<String, Object>>> rowsByType = relationships.stream()
+                    .collect(Collectors.groupingBy(row -> String.valueOf(row.get("type"))));
+            for (Map.Entry<String, List<Map<String, Object>>> entry : rowsByType.entrySet()) {
+                List<Map<String, Object>> rows = entry.getValue().stream()
+                        .map(row -> {
+                            Map<String, Object> mapped = new HashMap<>();
+                            mapped.put("sourceId", rewriteId(row.get("sourceId"), sourceFileId, targetFileId));
+                            mapped.put("targetId", rewriteId(row.get("targetId"), sourceFileId, targetFileId));
+                            mapped.put("props", row.get("props"));
+                            return mapped;
+                        })
+                        .toList();
+                // 关系类型无法参数化，这里使用源图谱中已经过清洗的类型名
+                neo4jClient.query(String.format("""
+                        UNWIND $rows AS row
+                        MATCH (s:Entity {id: row.sourceId})
+                        MATCH (t:Entity {id: row.targetId})
+                        CREATE (s)-[r:`%s`]->(t)
+                        SET r = row.props
+                        """, entry.getKey().replace("`", "``")))
+                        .bind(rows).to("rows")
+                        .run();
+            }
+            log.debug("复制知识图谱完成: fileId={} relationships={}", targetFileId, relationships.size());
+            return true;
+        } catch (Exception ex) {
+            log.warn("复制知识图谱失败，图谱需重新生成: fileId={} sourceFileId={}", targetFileId, sourceFileId, ex);
+            try {
+                documentNodeRepository.deleteDocumentWithRelations(targetFileId);
+            } catch (Exception cleanupEx) {
+                log.warn("清理部分复制的知识图谱失败: fileId={}", targetFileId, cleanupEx);
+            }
+            return false;
+        }
+    }
+
+    private String rewriteId(Object id, String sourceFileId, String targetFileId) {
+        String value = String.valueOf(id);
+        return value.startsWith(sourceFileId) ? targetFileId + value.substring(sourceFileId.length()) : value;
+    }
+
+    private InputStream openContent(FileInfo fileInfo) throws IOException {
+        LocalFileCache.CachedFile cached = localFileCache.getOrLoad(fileInfo.getUrl(), fileInfo);
+        if (cached != null) {
+            try {
+                return Files.newInputStream(cached.path());
+            } catch (IOException ex) {
+                log.debug("缓存文件不可读，改为直接读取存储: {}", cached.path());
+            }
+        }
+        return minioObjectService.openStream(fileInfo, null, null);
+    }
+}
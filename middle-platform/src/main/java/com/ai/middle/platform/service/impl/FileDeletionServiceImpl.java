@@ -0,0 +1,276 @@
+package com.ai.middle.platform.service.impl;
+
+import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.config.FileDeletionProperties;
+import com.ai.middle.platform.config.VectorStoreProperties;
+import com.ai.middle.platform.config.VectorStoreProperties.StoreProperties;
+import com.ai.middle.platform.entity.po.FileDetail;
+import com.ai.middle.platform.entity.po.KbDocument;
+import com.ai.middle.platform.entity.po.KbQaPair;
+import com.ai.middle.platform.repository.mapper.FileDetailMapper;
+import com.ai.middle.platform.repository.mapper.KbDocumentMapper;
+import com.ai.middle.platform.repository.mapper.KbQaPairMapper;
+import com.ai.middle.platform.repository.neo4j.DocumentNodeRepository;
+import com.ai.middle.platform.repository.vector.VectorStoreRepository;
+import com.ai.middle.platform.service.FileDeletionService;
+import com.ai.middle.platform.service.storage.LocalFileCache;
+import com.ai.middle.platform.service.storage.MinioObjectService;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.platform.MinioFileStorage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+@Slf4j
+@Service
+public class FileDeletionServiceImpl implements FileDeletionService {
+
+    private static final String OBJECT_TYPE_KB_DELETING = "knowledge_base_deleting";
+    private static final String OBJECT_TYPE_DOCUMENT_PAGE = "kb_document_page";
+
+    private final FileDetailMapper fileDetailMapper;
+    private final KbDocumentMapper documentMapper;
+    private final KbQaPairMapper qaPairMapper;
+    private final DocumentNodeRepository documentNodeRepository;
+    private final VectorStoreRepository vectorStoreRepository;
+    private final VectorStoreProperties vectorStoreProperties;
+    private final MinioObjectService minioObjectService;
+    private final FileStorageService fileStorageService;
+    private final LocalFileCache localFileCache;
+    private final FileDeletionProperties properties;
+    private final TaskExecutor fileCleanupExecutor;
+
+    /**
+     * 本实例正在清理的文件，避免定时任务重复发起；清理步骤均可重复执行，多实例重复清理无副作用
+     */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public FileDeletionServiceImpl(FileDetailMapper fileDetailMapper,
+                                   KbDocumentMapper documentMapper,
+                                   KbQaPairMapper qaPairMapper,
+                                   DocumentNodeRepository documentNodeRepository,
+                                   VectorStoreRepository vectorStoreRepository,
+                                   VectorStoreProperties vectorStoreProperties,
+                                   MinioObjectService minioObjectService,
+                                   FileStorageService fileStorageService,
+                                   LocalFileCache localFileCache,
+                                   FileDeletionProperties properties,
+                                   @Qualifier("fileCleanupExecutor") TaskExecutor fileCleanupExecutor) {
+        this.fileDetailMapper = fileDetailMapper;
+        this.documentMapper = documentMapper;
+        this.qaPairMapper = qaPairMapper;
+        this.documentNodeRepository = documentNodeRepository;
+        this.vectorStoreRepository = vectorStoreRepository;
+        this.vectorStoreProperties = vectorStoreProperties;
+        this.minioObjectService = minioObjectService;
+        this.fileStorageService = fileStorageService;
+        this.localFileCache = localFileCache;
+        this.properties = properties;
+        this.fileCleanupExecutor = fileCleanupExecutor;
+    }
+
+    @Override
+    public void purgeAsync(String fileId) {
+        if (!inFlight.add(fileId)) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        // 各存储之间互不依赖，并行清理；页面图片地址记录在 kb_document 中，因此对象与页面记录在同一步骤内先后删除
+        CompletableFuture<Void> cleanup = CompletableFuture.allOf(
+                step(fileId, "storage", () -> purgeStorage(fileId)),
+                step(fileId, "vectors", () -> purgeVectors(fileId)),
+                step(fileId, "graph", () -> purgeGraph(fileId)),
+                step(fileId, "qa", () -> purgeQaPairs(fileId)));
+        cleanup.whenComplete((ignored, ex) -> {
+            try {
+                if (ex != null) {
+                    log.warn("文件清理未完成，保留删除标记等待重试: fileId={}", fileId);
+                    return;
+                }
+                fileDetailMapper.delete(new LambdaQueryWrapper<FileDetail>()
+                        .eq(FileDetail::getId, fileId)
+                        .eq(FileDetail::getObjectType, OBJECT_TYPE_KB_DELETING));
+                log.info("文件删除完成，所有关联数据已清理: fileId={} costMs={}",
+                        fileId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            } catch (Exception deleteEx) {
+                log.error("删除文件记录失败: fileId={}", fileId, deleteEx);
+            } finally {
+                inFlight.remove(fileId);
+            }
+        });
+    }
+
+    /**
+     * 继续清理仍带删除标记的文件，覆盖失败的步骤和重启前未完成的删除
+     */
+    @Scheduled(fixedDelayString = "${app.file-deletion.sweep-interval:300000}")
+    public void resumePendingDeletions() {
+        List<FileDetail> pending = fileDetailMapper.selectList(new LambdaQueryWrapper<FileDetail>()
+                .select(FileDetail::getId)
+                .eq(FileDetail::getObjectType, OBJECT_TYPE_KB_DELETING)
+                .orderByAsc(FileDetail::getCreateTime)
+                .last("LIMIT " + properties.getSweepBatchSize()));
+        for (FileDetail file : pending) {
+            purgeAsync(file.getId());
+        }
+    }
+
+    private CompletableFuture<Void> step(String fileId, String name, Runnable action) {
+        return CompletableFuture.runAsync(() -> {
+            long startNanos = System.nanoTime();
+            try {
+                action.run();
+                log.debug("文件清理步骤完成: fileId={} step={} costMs={}",
+                        fileId, name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            } catch (RuntimeException ex) {
+                log.warn("文件清理步骤失败: fileId={} step={}", fileId, name, ex);
+                throw ex;
+            }
+        }, fileCleanupExecutor);
+    }
+
+    /**
+     * 原始文件、缩略图与页面图片按平台分组批量删除，随后删除页面记录
+     */
+    private void purgeStorage(String fileId) {
+        FileDetail file = fileDetailMapper.selectById(fileId);
+        List<FileDetail> pageFiles = fileDetailMapper.selectList(new LambdaQueryWrapper<FileDetail>()
+                .eq(FileDetail::getObjectType, OBJECT_TYPE_DOCUMENT_PAGE)
+                .eq(FileDetail::getObjectId, fileId));
+        List<String> imageUrls = documentMapper.selectList(new LambdaQueryWrapper<KbDocument>()
+                        .select(KbDocument::getImageUrl)
+                        .eq(KbDocument::getFileId, fileId))
+                .stream()
+                .map(KbDocument::getImageUrl)
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .toList();
+
+        Map<String, Set<String>> keysByPlatform = new LinkedHashMap<>();
+        Set<String> urls = new LinkedHashSet<>();
+        if (file != null) {
+            collectKeys(file, keysByPlatform, urls);
+        }
+        for (FileDetail pageFile : pageFiles) {
+            collectKeys(pageFile, keysByPlatform, urls);
+        }
+        for (String imageUrl : imageUrls) {
+            // 早期页面图片没有独立的文件记录，只能按地址反查
+            if (urls.contains(imageUrl)) {
+                continue;
+            }
+            FileInfo fileInfo = fileStorageService.getFileInfoByUrl(imageUrl);
+            if (fileInfo == null) {
+                log.debug("页面图片没有存储记录，跳过: {}", imageUrl);
+                continue;
+            }
+            MinioFileStorage storage = minioObjectService.resolveStorage(fileInfo.getPlatform());
+            keysByPlatform.computeIfAbsent(storage.getPlatform(), key -> new LinkedHashSet<>())
+                    .add(storage.getFileKey(fileInfo));
+            urls.add(imageUrl);
+        }
+
+        keysByPlatform.forEach(this::removeWithRetry);
+        urls.forEach(localFileCache::evict);
+
+        List<String> pageFileIds = pageFiles.stream().map(FileDetail::getId).toList();
+        if (!pageFileIds.isEmpty()) {
+            fileDetailMapper.deleteBatchIds(pageFileIds);
+        }
+        int documentCount = documentMapper.delete(new LambdaQueryWrapper<KbDocument>()
+                .eq(KbDocument::getFileId, fileId));
+        log.info("删除存储对象与页面记录: fileId={} objects={} pages={}",
+                fileId, keysByPlatform.values().stream().mapToInt(Set::size).sum(), documentCount);
+    }
+
+    private void purgeVectors(String fileId) {
+        // 文本块与问答向量可能配置为同一张表，按表去重
+        Map<String, StoreProperties> stores = new LinkedHashMap<>();
+        stores.putIfAbsent(vectorStoreProperties.getDefaultStore().getTable(), vectorStoreProperties.getDefaultStore());
+        stores.putIfAbsent(vectorStoreProperties.getQa().getTable(), vectorStoreProperties.getQa());
+        int total = 0;
+        for (StoreProperties store : stores.values()) {
+            total += vectorStoreRepository.deleteByFileId(store, fileId, properties.getVectorDeleteBatchSize());
+        }
+        log.info("删除向量数据: fileId={} count={}", fileId, total);
+    }
+
+    private void purgeGraph(String fileId) {
+        long total = 0;
+        long deleted;
+        do {
+            deleted = documentNodeRepository.deleteEntitiesBatch(fileId, properties.getGraphDeleteBatchSize());
+            total += deleted;
+        } while (deleted > 0);
+        documentNodeRepository.deleteDocumentWithRelations(fileId);
+        log.info("删除Neo4j知识图谱数据: fileId={} entities={}", fileId, total);
+    }
+
+    private void purgeQaPairs(String fileId) {
+        int count = qaPairMapper.delete(new LambdaQueryWrapper<KbQaPair>()
+                .eq(KbQaPair::getFileId, fileId));
+        log.info("删除问答对: fileId={} count={}", fileId, count);
+    }
+
+    private void collectKeys(FileDetail file, Map<String, Set<String>> keysByPlatform, Set<String> urls) {
+        if (!StringUtils.hasText(file.getFilename())) {
+            return;
+        }
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setPlatform(file.getPlatform());
+        fileInfo.setBasePath(file.getBasePath());
+        fileInfo.setPath(file.getPath());
+        fileInfo.setFilename(file.getFilename());
+        fileInfo.setThFilename(file.getThFilename());
+        MinioFileStorage storage = minioObjectService.resolveStorage(file.getPlatform());
+        Set<String> keys = keysByPlatform.computeIfAbsent(storage.getPlatform(), key -> new LinkedHashSet<>());
+        keys.add(storage.getFileKey(fileInfo));
+        if (StringUtils.hasText(file.getThFilename())) {
+            keys.add(storage.getThFileKey(fileInfo));
+        }
+        if (StringUtils.hasText(file.getUrl())) {
+            urls.add(file.getUrl().trim());
+        }
+        if (StringUtils.hasText(file.getThUrl())) {
+            urls.add(file.getThUrl().trim());
+        }
+    }
+
+    /**
+     * 批量删除对象，每次重试只针对上一次失败的对象，间隔按指数增长
+     */
+    private void removeWithRetry(String platform, Set<String> objectKeys) {
+        List<String> pending = List.copyOf(objectKeys);
+        Duration backoff = properties.getRemoveRetryBackoff();
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            pending = minioObjectService.removeObjects(platform, pending);
+            if (pending.isEmpty()) {
+                return;
+            }
+            if (attempt >= properties.getRemoveRetryAttempts()) {
+                throw new BusinessException("删除存储对象失败: platform=" + platform + " count=" + pending.size());
+            }
+            try {
+                Thread.sleep(backoff.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException("删除存储对象被中断");
+            }
+            backoff = backoff.multipliedBy(2);
+        }
+    }
+}
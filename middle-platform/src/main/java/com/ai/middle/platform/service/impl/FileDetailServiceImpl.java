@@ -0,0 +1,365 @@
+package com.ai.middle.platform.service.impl;
+
+import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.common.util.CursorUtils;
+import com.ai.middle.platform.dto.response.CursorPageDTO;
+import com.ai.middle.platform.dto.response.FileDTO;
+import com.ai.middle.platform.dto.response.FileDetailDTO;
+import com.ai.middle.platform.dto.response.GraphViewDTO;
+import com.ai.middle.platform.dto.response.KnowledgeGraphDTO;
+import com.ai.middle.platform.dto.response.OcrPageDTO;
+import com.ai.middle.platform.dto.response.OcrPageRangeDTO;
+import com.ai.middle.platform.dto.response.QaPairDTO;
+import com.ai.middle.platform.entity.graph.DocumentNode;
+import com.ai.middle.platform.entity.po.KbDocument;
+import com.ai.middle.platform.entity.po.KbQaPair;
+import com.ai.middle.platform.repository.mapper.KbDocumentMapper;
+import com.ai.middle.platform.repository.mapper.KbQaPairMapper;
+import com.ai.middle.platform.repository.neo4j.DocumentNodeRepository;
+import com.ai.middle.platform.service.FileDetailService;
+import com.ai.middle.platform.service.FileService;
+import com.ai.middle.platform.service.GraphService;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+@Slf4j
+@Service
+public class FileDetailServiceImpl implements FileDetailService {
+
+    private static final String FIELD_OCR_CONTENT = "ocrContent";
+    private static final String FIELD_KNOWLEDGE_GRAPH = "knowledgeGraph";
+    private static final String FIELD_QA_PAIRS = "qaPairs";
+    private static final Set<String> ALL_FIELDS = Set.of(FIELD_OCR_CONTENT, FIELD_KNOWLEDGE_GRAPH, FIELD_QA_PAIRS);
+    private static final int FIRST_PAGE = 1;
+    private static final int DEFAULT_OCR_PAGES = 10;
+    private static final int MAX_OCR_PAGES = 50;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final FileService fileService;
+    private final GraphService graphService;
+    private final KbDocumentMapper documentMapper;
+    private final KbQaPairMapper qaPairMapper;
+    private final DocumentNodeRepository documentNodeRepository;
+    private final Neo4jClient neo4jClient;
+    private final TaskExecutor fileDetailExecutor;
+
+    public FileDetailServiceImpl(FileService fileService,
+                                 GraphService graphService,
+                                 KbDocumentMapper documentMapper,
+                                 KbQaPairMapper qaPairMapper,
+                                 DocumentNodeRepository documentNodeRepository,
+                                 Neo4jClient neo4jClient,
+                                 @Qualifier("fileDetailExecutor") TaskExecutor fileDetailExecutor) {
+        this.fileService = fileService;
+        this.graphService = graphService;
+        this.documentMapper = documentMapper;
+        this.qaPairMapper = qaPairMapper;
+        this.documentNodeRepository = documentNodeRepository;
+        this.neo4jClient = neo4jClient;
+        this.fileDetailExecutor = fileDetailExecutor;
+    }
+
+    @Override
+    public FileDetailDTO getDetail(String id, String fields) {
+        Set<String> sections = parseFields(fields);
+        // 基本信息在请求线程中加载（上传者缓存为请求作用域），同时校验文件存在
+        FileDTO baseDTO = fileService.getById(id);
+
+        // 三个部分分别来自 PostgreSQL 和 Neo4j，互不依赖，并行加载
+        CompletableFuture<String> ocrContent = load(sections, FIELD_OCR_CONTENT, () -> loadAggregatedOcrContent(id));
+        CompletableFuture<KnowledgeGraphDTO> knowledgeGraph = load(sections, FIELD_KNOWLEDGE_GRAPH,
+                () -> buildKnowledgeGraph(id));
+        CompletableFuture<List<QaPairDTO>> qaPairs = load(sections, FIELD_QA_PAIRS, () -> buildQaPairs(id));
+
+        FileDetailDTO detailDTO = new FileDetailDTO();
+        detailDTO.setId(baseDTO.getId());
+        detailDTO.setKnowledgeBaseId(baseDTO.getKnowledgeBaseId());
+        detailDTO.setName(baseDTO.getName());
+        detailDTO.setType(baseDTO.getType());
+        detailDTO.setMimeType(baseDTO.getMimeType());
+        detailDTO.setSize(baseDTO.getSize());
+        detailDTO.setUrl(baseDTO.getUrl());
+        detailDTO.setThumbnailUrl(baseDTO.getThumbnailUrl());
+        detailDTO.setUploadedAt(baseDTO.getUploadedAt());
+        detailDTO.setUploadedBy(baseDTO.getUploadedBy());
+        detailDTO.setStatuses(baseDTO.getStatuses());
+        detailDTO.setTags(baseDTO.getTags());
+        detailDTO.setErrorMessage(baseDTO.getErrorMessage());
+        detailDTO.setOcrContent(join(ocrContent));
+        detailDTO.setKnowledgeGraph(join(knowledgeGraph));
+        detailDTO.setQaPairs(join(qaPairs));
+        return detailDTO;
+    }
+
+    @Override
+    public OcrPageRangeDTO getOcrPages(String id, Integer fromPage, Integer toPage) {
+        fileService.getById(id);
+        // 页码与 KbDocument.pageIndex 一致，从 1 开始
+        int from = fromPage != null ? Math.max(fromPage, FIRST_PAGE) : FIRST_PAGE;
+        int to = toPage != null ? toPage : from + DEFAULT_OCR_PAGES - 1;
+        if (to < from) {
+            throw new BusinessException(400, "结束页码不能小于起始页码");
+        }
+        to = Math.min(to, from + MAX_OCR_PAGES - 1);
+
+        List<OcrPageDTO> pages = documentMapper.selectList(new LambdaQueryWrapper<KbDocument>()
+                        .select(KbDocument::getPageIndex, KbDocument::getContent,
+                                KbDocument::getOcrStatus, KbDocument::getOcrError)
+                        .eq(KbDocument::getFileId, id)
+                        .between(KbDocument::getPageIndex, from, to)
+                        .orderByAsc(KbDocument::getPageIndex))
+                .stream()
+                .map(document -> OcrPageDTO.builder()
+                        .pageIndex(document.getPageIndex())
+                        .content(document.getContent())
+                        .status(document.getOcrStatus())
+                        .error(document.getOcrError())
+                        .build())
+                .collect(Collectors.toList());
+        Long totalPages = documentMapper.selectCount(new LambdaQueryWrapper<KbDocument>()
+                .eq(KbDocument::getFileId, id));
+
+        return OcrPageRangeDTO.builder()
+                .fromPage(from)
+                .toPage(to)
+                .totalPages(totalPages)
+                .pages(pages)
+                .build();
+    }
+
+    @Override
+    public CursorPageDTO<QaPairDTO> pageQaPairs(String id, String cursor, Integer size) {
+        fileService.getById(id);
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Long afterId = parseQaCursor(CursorUtils.decodeKey(cursor));
+
+        List<KbQaPair> pairs = qaPairMapper.selectList(new LambdaQueryWrapper<KbQaPair>()
+                .eq(KbQaPair::getFileId, id)
+                .gt(afterId != null, KbQaPair::getId, afterId)
+                .orderByAsc(KbQaPair::getId)
+                .last("LIMIT " + (pageSize + 1)));
+
+        boolean hasMore = pairs.size() > pageSize;
+        List<KbQaPair> page = hasMore ? pairs.subList(0, pageSize) : pairs;
+        return CursorPageDTO.<QaPairDTO>builder()
+                .items(page.stream().map(this::toQaPairDTO).collect(Collectors.toList()))
+                .nextCursor(hasMore ? CursorUtils.encodeKey(String.valueOf(page.get(page.size() - 1).getId())) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    public GraphViewDTO pageGraph(String id, String cursor, Integer size) {
+        FileDTO file = fileService.getById(id);
+        return graphService.subgraph(file.getKnowledgeBaseId(), id, cursor, size);
+    }
+
+    private Set<String> parseFields(String fields) {
+        if (fields == null) {
+            return ALL_FIELDS;
+        }
+        Set<String> sections = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .collect(Collectors.toSet());
+        for (String section : sections) {
+            if (!ALL_FIELDS.contains(section)) {
+                throw new BusinessException(400, "不支持的字段: " + section);
+            }
+        }
+        return sections;
+    }
+
+    private <T> CompletableFuture<T> load(Set<String> sections, String field, Supplier<T> loader) {
+        if (!sections.contains(field)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.supplyAsync(loader, fileDetailExecutor);
+    }
+
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BusinessException("加载文件详情失败: " + cause.getMessage());
+        }
+    }
+
+    private Long parseQaCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException ex) {
+            throw new BusinessException(400, "无效的分页游标");
+        }
+    }
+
+    private String loadAggregatedOcrContent(String fileId) {
+        List<KbDocument> documents = documentMapper.selectList(new LambdaQueryWrapper<KbDocument>()
+                .select(KbDocument::getContent)
+                .eq(KbDocument::getFileId, fileId)
+                .orderByAsc(KbDocument::getPageIndex));
+
+        return documents.stream()
+                .map(KbDocument::getContent)
+                .filter(StringUtils::hasText)
+                .collect(Collectors.joining("\n\n"));
+    }
+
+    private KnowledgeGraphDTO buildKnowledgeGraph(String fileId) {
+        // 查询文档节点
+        DocumentNode documentNode = documentNodeRepository.findByFileId(fileId);
+        if (documentNode == null) {
+            return null;
+        }
+
+        List<KnowledgeGraphDTO.GraphNodeDTO> nodes = new ArrayList<>();
+        List<KnowledgeGraphDTO.GraphEdgeDTO> edges = new ArrayList<>();
+        
+        // 不添加文档节点，只添加实体节点
+        log.debug("buildKnowledgeGraph: fileId={}, skipping document node", fileId);
+        
+        // 添加所有实体节点（使用 neo4jClient 直接查询）
+        Set<String> processedEntityIds = new HashSet<>();
+        Collection<Map<String, Object>> entityMaps = neo4jClient.query("""
+                MATCH (d:Document {id: $fileId})<-[:BELONGS_TO]-(e:Entity)
+                RETURN e.id AS id, 
+                       e.name AS name, 
+                       e.type AS type
+                """)
+                .bind(fileId).to("fileId")
+                .fetch().all();
+        
+        log.info("buildKnowledgeGraph: fileId={}, found {} entities from Neo4j", fileId, entityMaps.size());
+        
+        for (Map<String, Object> entityMap : entityMaps) {
+            String entityId = toStringValue(entityMap.get("id"));
+            String entityName = toStringValue(entityMap.get("name"));
+            String entityType = toStringValue(entityMap.get("type"));
+            
+            if (!StringUtils.hasText(entityId)) {
+                log.warn("buildKnowledgeGraph: skipping entity with null id, name={}", entityName);
+                continue;
+            }
+            
+            if (processedEntityIds.contains(entityId)) {
+                log.debug("buildKnowledgeGraph: skipping duplicate entity id={}", entityId);
+                continue;
+            }
+
+            processedEntityIds.add(entityId);
+            nodes.add(KnowledgeGraphDTO.GraphNodeDTO.builder()
+                    .id(entityId)
+                    .label(entityName)
+                    .type(entityType)
+                    .fileId(fileId)
+                    .build());
+            
+            // 不添加文档到实体的关系
+            
+            log.debug("buildKnowledgeGraph: added entity node id={}, name={}, type={}", 
+                entityId, entityName, entityType);
+        }
+
+        // 查询实体之间的关系：从文档的每个实体沿自身的关系直接遍历，再校验目标实体属于同一文档，
+        // 避免先枚举 (source, target) 实体对再匹配关系的笛卡尔积
+        if (!processedEntityIds.isEmpty()) {
+            Set<String> relationshipEdgeKeys = new HashSet<>();
+            Collection<Map<String, Object>> relations = neo4jClient.query("""
+                    MATCH (d:Document {id: $fileId})<-[:BELONGS_TO]-(source:Entity)-[rel]->(target:Entity)
+                    WHERE EXISTS { (target)-[:BELONGS_TO]->(d) }
+                    RETURN source.id AS sourceId,
+                           target.id AS targetId,
+                           type(rel) AS relationType,
+                           rel.description AS description
+                    """)
+                    .bind(fileId).to("fileId")
+                    .fetch().all();
+
+            log.debug("buildKnowledgeGraph: found {} relationships", relations.size());
+
+            for (Map<String, Object> relation : relations) {
+                String sourceId = toStringValue(relation.get("sourceId"));
+                String targetId = toStringValue(relation.get("targetId"));
+                if (!StringUtils.hasText(sourceId) || !StringUtils.hasText(targetId)) {
+                    continue;
+                }
+                if (!processedEntityIds.contains(sourceId) || !processedEntityIds.contains(targetId)) {
+                    log.debug("buildKnowledgeGraph: skipping relation with missing entity: {} -> {}", sourceId, targetId);
+                    continue;
+                }
+
+                String relationType = toStringValue(relation.get("relationType"));
+                String description = toStringValue(relation.get("description"));
+                String edgeKey = sourceId + "->" + targetId + "::" + relationType;
+                if (!relationshipEdgeKeys.add(edgeKey)) {
+                    continue;
+                }
+
+                // 优先使用description，如果为空则使用relationType，最后兜底使用"关联"
+                String label = StringUtils.hasText(description) ? description : 
+                              (StringUtils.hasText(relationType) ? relationType : "关联");
+                edges.add(KnowledgeGraphDTO.GraphEdgeDTO.builder()
+                        .source(sourceId)
+                        .target(targetId)
+                        .label(label)
+                        .type(relationType)
+                        .build());
+                
+                log.debug("buildKnowledgeGraph: added edge {} -[{}]-> {}", sourceId, label, targetId);
+            }
+        }
+
+        log.info("buildKnowledgeGraph: completed for fileId={}, nodes={} entities, edges={}", 
+            fileId, processedEntityIds.size(), edges.size());
+
+        return new KnowledgeGraphDTO(nodes, edges);
+    }
+
+    private List<QaPairDTO> buildQaPairs(String fileId) {
+        LambdaQueryWrapper<KbQaPair> pairQuery = new LambdaQueryWrapper<>();
+        pairQuery.eq(KbQaPair::getFileId, fileId);
+        pairQuery.orderByAsc(KbQaPair::getCreatedAt);
+        List<KbQaPair> pairs = qaPairMapper.selectList(pairQuery);
+
+        return pairs.stream()
+                .map(this::toQaPairDTO)
+                .collect(Collectors.toList());
+    }
+
+    private QaPairDTO toQaPairDTO(KbQaPair pair) {
+        return QaPairDTO.builder()
+                .id(pair.getQaId())
+                .question(pair.getQuestion())
+                .answer(pair.getAnswer())
+                .sourceText(pair.getSourceText())
+                .build();
+    }
+
+    private String toStringValue(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
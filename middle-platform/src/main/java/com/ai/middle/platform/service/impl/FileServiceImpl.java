@@ -1,63 +1,86 @@
 package com.ai.middle.platform.service.impl;
 
+import com.ai.middle.platform.common.enums.ProcessingStage;
 import com.ai.middle.platform.common.enums.ProcessingStatus;
 import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.common.util.CursorUtils;
 import com.ai.middle.platform.common.util.FileDetailAttrUtils;
 import com.ai.middle.platform.common.util.IdGenerator;
 import com.ai.middle.platform.common.util.IdUtil;
+import com.ai.middle.platform.config.OcrProperties;
 import com.ai.middle.platform.config.RabbitMQConfig;
+import com.ai.middle.platform.dto.request.DirectUploadRequest;
+import com.ai.middle.platform.dto.request.FileQueryRequest;
+import com.ai.middle.platform.dto.response.CursorPageDTO;
 import com.ai.middle.platform.dto.response.FileDTO;
-import com.ai.middle.platform.dto.response.FileDetailDTO;
 import com.ai.middle.platform.dto.response.FileStatusesDTO;
 import com.ai.middle.platform.dto.response.FileUploadResponse;
-import com.ai.middle.platform.dto.response.KnowledgeGraphDTO;
-import com.ai.middle.platform.dto.response.QaPairDTO;
+import com.ai.middle.platform.dto.response.MultipartPartDTO;
+import com.ai.middle.platform.dto.response.MultipartUploadDTO;
+import com.ai.middle.platform.dto.response.PresignedUrlDTO;
+import com.ai.middle.platform.dto.response.TagFacetDTO;
 import com.ai.middle.platform.dto.response.UserDTO;
-import com.ai.middle.platform.entity.graph.DocumentNode;
 import com.ai.middle.platform.entity.graph.EntityNode;
 import com.ai.middle.platform.entity.po.FileDetail;
 import com.ai.middle.platform.entity.po.FileDetailAttributes;
+import com.ai.middle.platform.entity.po.FilePartDetail;
 import com.ai.middle.platform.entity.po.KbDocument;
+import com.ai.middle.platform.entity.po.KbFileTag;
 import com.ai.middle.platform.entity.po.KbKnowledgeBase;
-import com.ai.middle.platform.entity.po.KbQaPair;
-import com.ai.middle.platform.entity.po.SysUser;
 import com.ai.middle.platform.mq.message.KgGenerationTaskMessage;
 import com.ai.middle.platform.mq.message.OcrTaskMessage;
 import com.ai.middle.platform.mq.message.QaGenerationTaskMessage;
 import com.ai.middle.platform.repository.mapper.FileDetailMapper;
+import com.ai.middle.platform.repository.mapper.FilePartDetailMapper;
 import com.ai.middle.platform.repository.mapper.KbDocumentMapper;
+import com.ai.middle.platform.repository.mapper.KbFileTagMapper;
 import com.ai.middle.platform.repository.mapper.KbKnowledgeBaseMapper;
-import com.ai.middle.platform.repository.mapper.KbQaPairMapper;
-import com.ai.middle.platform.repository.mapper.SysUserMapper;
-import com.ai.middle.platform.repository.neo4j.DocumentNodeRepository;
 import com.ai.middle.platform.repository.neo4j.EntityNodeRepository;
 import com.ai.middle.platform.service.AIProcessService;
 import com.ai.middle.platform.service.DocumentProcessService;
+import com.ai.middle.platform.service.FileDeduplicationService;
+import com.ai.middle.platform.service.FileDeletionService;
 import com.ai.middle.platform.service.FileService;
+import com.ai.middle.platform.service.FileStatusService;
+import com.ai.middle.platform.service.model.PageContent;
+import com.ai.middle.platform.service.processing.OcrCompletionHandler;
+import com.ai.middle.platform.service.storage.LocalFileCache;
+import com.ai.middle.platform.service.storage.MinioObjectService;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import io.minio.http.Method;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.recorder.FileRecorder;
+import org.dromara.x.file.storage.core.upload.FilePartInfo;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.neo4j.core.Neo4jClient;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.ContentDisposition;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -68,20 +91,38 @@ public class FileServiceImpl implements FileService {
 
     private static final String OBJECT_TYPE_KB = "knowledge_base";
     private static final String OBJECT_TYPE_DOCUMENT_PAGE = "kb_document_page";
+    private static final String OBJECT_TYPE_KB_PENDING = "knowledge_base_pending";
+    private static final String OBJECT_TYPE_KB_DELETING = "knowledge_base_deleting";
+    private static final int PENDING_CLEANUP_BATCH = 100;
+    private static final int MAX_PART_NUMBER = 10000;
+    private static final String VIEW_LITE = "lite";
+    private static final String TAG_MATCH_PREFIX = "prefix";
+    private static final String TAG_MATCH_CONTAINS = "contains";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_FACET_LIMIT = 50;
+    private static final int MAX_FACET_LIMIT = 500;
 
     private final FileDetailMapper fileDetailMapper;
+    private final FilePartDetailMapper filePartDetailMapper;
     private final KbDocumentMapper documentMapper;
-    private final KbQaPairMapper qaPairMapper;
-    private final SysUserMapper userMapper;
+    private final RequestUserCache requestUserCache;
     private final KbKnowledgeBaseMapper knowledgeBaseMapper;
-    private final DocumentNodeRepository documentNodeRepository;
+    private final KbFileTagMapper kbFileTagMapper;
     private final EntityNodeRepository entityNodeRepository;
-    private final Neo4jClient neo4jClient;
     private final RabbitTemplate rabbitTemplate;
     private final FileStorageService fileStorageService;
+    private final LocalFileCache localFileCache;
+    private final MinioObjectService minioObjectService;
+    private final FileRecorder fileRecorder;
     private final DocumentProcessService documentProcessService;
     private final AIProcessService aiProcessService;
-    private final JdbcTemplate jdbcTemplate;
+    private final FileStatusService fileStatusService;
+    private final FileDeduplicationService fileDeduplicationService;
+    private final FileDeletionService fileDeletionService;
+    private final OcrCompletionHandler ocrCompletionHandler;
+    private final OcrProperties ocrProperties;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${app.file.max-size}")
     private Long maxFileSize;
@@ -89,6 +130,21 @@ public class FileServiceImpl implements FileService {
     @Value("${app.file.allowed-types}")
     private String allowedTypes;
 
+    @Value("${app.file.multipart-max-size:2147483648}")
+    private Long multipartMaxSize;
+
+    @Value("${app.file.multipart-part-size:8388608}")
+    private Long multipartPartSize;
+
+    @Value("${app.file.multipart-max-part-size:67108864}")
+    private Long multipartMaxPartSize;
+
+    @Value("${app.file.presign-expiry:15m}")
+    private Duration presignExpiry;
+
+    @Value("${app.file.pending-upload-ttl:24h}")
+    private Duration pendingUploadTtl;
+
     @Override
     public List<FileDTO> listByKbId(String kbId) {
         KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
@@ -97,13 +153,51 @@ public class FileServiceImpl implements FileService {
                 .eq(FileDetail::getObjectId, String.valueOf(knowledgeBase.getId()))
                 .orderByDesc(FileDetail::getCreateTime));
 
-        return files.stream()
-                .map(item -> convertToDTO(item, knowledgeBase))
-                .collect(Collectors.toList());
+        return convertToDTOs(files, knowledgeBase);
+    }
+
+    @Override
+    public CursorPageDTO<FileDTO> pageByKbId(String kbId, FileQueryRequest request) {
+        KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
+        int pageSize = resolvePageSize(request.getSize());
+        boolean ascending = "asc".equalsIgnoreCase(request.getOrder());
+        CursorUtils.Cursor position = CursorUtils.decode(request.getCursor());
+
+        LambdaQueryWrapper<FileDetail> query = new LambdaQueryWrapper<FileDetail>()
+                .eq(FileDetail::getObjectType, OBJECT_TYPE_KB)
+                .eq(FileDetail::getObjectId, String.valueOf(knowledgeBase.getId()))
+                .ge(request.getUploadedFrom() != null, FileDetail::getCreateTime, request.getUploadedFrom())
+                .lt(request.getUploadedTo() != null, FileDetail::getCreateTime, request.getUploadedTo())
+                .eq(StringUtils.hasText(request.getOcrStatus()), FileDetail::getOcrStatus, request.getOcrStatus())
+                .eq(StringUtils.hasText(request.getVectorizationStatus()),
+                        FileDetail::getVectorizationStatus, request.getVectorizationStatus())
+                .eq(StringUtils.hasText(request.getQaPairsStatus()),
+                        FileDetail::getQaPairsStatus, request.getQaPairsStatus())
+                .eq(StringUtils.hasText(request.getKnowledgeGraphStatus()),
+                        FileDetail::getKnowledgeGraphStatus, request.getKnowledgeGraphStatus());
+        if (VIEW_LITE.equalsIgnoreCase(request.getView())) {
+            // 列表视图不需要 url、元数据和 attr 等大字段
+            query.select(FileDetail::getId, FileDetail::getObjectId, FileDetail::getOriginalFilename,
+                    FileDetail::getFilename, FileDetail::getExt, FileDetail::getContentType, FileDetail::getSize,
+                    FileDetail::getCreateTime, FileDetail::getUploadedBy, FileDetail::getOcrStatus,
+                    FileDetail::getVectorizationStatus, FileDetail::getQaPairsStatus,
+                    FileDetail::getKnowledgeGraphStatus, FileDetail::getErrorMessage, FileDetail::getTags);
+        }
+        applyCursor(query, position, ascending);
+        if (ascending) {
+            query.orderByAsc(FileDetail::getCreateTime, FileDetail::getId);
+        } else {
+            query.orderByDesc(FileDetail::getCreateTime, FileDetail::getId);
+        }
+        query.last("LIMIT " + (pageSize + 1));
+
+        List<FileDetail> files = fileDetailMapper.selectList(query);
+        preloadUploaders(files);
+        return toCursorPage(files, pageSize, file -> convertToDTO(file, knowledgeBase));
     }
 
     @Override
-    public FileDetailDTO getDetailById(String id) {
+    public FileDTO getById(String id) {
         FileDetail file = fileDetailMapper.selectById(id);
 
         if (file == null || !OBJECT_TYPE_KB.equals(file.getObjectType())) {
@@ -120,24 +214,7 @@ public class FileServiceImpl implements FileService {
             throw new BusinessException("文件所属知识库不存在");
         }
 
-        FileDTO baseDTO = convertToDTO(file, knowledgeBase);
-        FileDetailDTO detailDTO = new FileDetailDTO();
-        detailDTO.setId(baseDTO.getId());
-        detailDTO.setKnowledgeBaseId(baseDTO.getKnowledgeBaseId());
-        detailDTO.setName(baseDTO.getName());
-        detailDTO.setType(baseDTO.getType());
-        detailDTO.setMimeType(baseDTO.getMimeType());
-        detailDTO.setSize(baseDTO.getSize());
-        detailDTO.setUrl(baseDTO.getUrl());
-        detailDTO.setThumbnailUrl(baseDTO.getThumbnailUrl());
-        detailDTO.setUploadedAt(baseDTO.getUploadedAt());
-        detailDTO.setUploadedBy(baseDTO.getUploadedBy());
-        detailDTO.setStatuses(baseDTO.getStatuses());
-        detailDTO.setErrorMessage(baseDTO.getErrorMessage());
-        detailDTO.setOcrContent(loadAggregatedOcrContent(file.getId()));
-        detailDTO.setKnowledgeGraph(buildKnowledgeGraph(file.getId()));
-        detailDTO.setQaPairs(buildQaPairs(file.getId()));
-        return detailDTO;
+        return convertToDTO(file, knowledgeBase);
     }
 
     @Override
@@ -149,28 +226,19 @@ public class FileServiceImpl implements FileService {
             throw new BusinessException("上传文件不能为空");
         }
 
-        if (file.getSize() > maxFileSize) {
-            throw new BusinessException("文件大小超过限制");
-        }
-
         String originalFilename = file.getOriginalFilename();
-        if (originalFilename == null || !originalFilename.contains(".")) {
-            throw new BusinessException("无法识别的文件名");
-        }
-
-        String extension = getFileExtension(originalFilename);
-        if (!isAllowedFileType(extension)) {
-            throw new BusinessException("不支持的文件类型");
-        }
+        String extension = validateUpload(originalFilename, file.getSize());
 
         KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
 
         String pathPrefix = "kb/" + kbId + "/";
         String saveFilename = IdUtil.simpleUUID() + "." + extension;
 
+        // 上传时顺带计算 SHA-256，结果写入 hash_info，用于识别重复内容
         FileInfo fileInfo = fileStorageService.of(file)
                 .setPath(pathPrefix)
                 .setSaveFilename(saveFilename)
+                .setHashCalculatorSha256()
                 .upload();
 
         if (fileInfo == null || !StringUtils.hasText(fileInfo.getUrl())) {
@@ -182,28 +250,10 @@ public class FileServiceImpl implements FileService {
             throw new BusinessException("文件记录未找到");
         }
 
-        FileDetailAttributes attributes = FileDetailAttrUtils.parse(fileRecord.getAttr());
-        attributes.setUploadedBy(currentUserId);
-        attributes.setFileType(getFileType(extension));
-        attributes.setOcrStatus(ProcessingStatus.PENDING.getCode());
-        attributes.setVectorizationStatus(ProcessingStatus.PENDING.getCode());
-        attributes.setQaPairsStatus(ProcessingStatus.PENDING.getCode());
-        attributes.setKnowledgeGraphStatus(ProcessingStatus.PENDING.getCode());
-        attributes.setErrorMessage(null);
-
         fileRecord.setFilename(fileInfo.getFilename());
         fileRecord.setOriginalFilename(originalFilename);
-        fileRecord.setExt(StringUtils.hasText(extension) ? extension : fileRecord.getExt());
-        fileRecord.setContentType(StringUtils.hasText(file.getContentType()) ? file.getContentType() : fileRecord.getContentType());
-        fileRecord.setSize(file.getSize());
-        fileRecord.setObjectType(OBJECT_TYPE_KB);
-        fileRecord.setObjectId(String.valueOf(knowledgeBase.getId()));
-        fileRecord.setAttr(FileDetailAttrUtils.toJson(attributes));
-        fileDetailMapper.updateById(fileRecord);
-
-        updateKnowledgeBaseFileCount(knowledgeBase, 1);
-
-        createDocumentPages(fileRecord, fileInfo.getUrl());
+        fileRecord.setContentSha256(fileInfo.getHashInfo() != null ? fileInfo.getHashInfo().getSha256() : null);
+        activateKnowledgeBaseFile(fileRecord, knowledgeBase, extension, file.getContentType(), file.getSize(), currentUserId);
 
         return FileUploadResponse.builder()
                 .fileId(fileId)
@@ -215,96 +265,265 @@ public class FileServiceImpl implements FileService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void delete(String id) {
-        FileDetail file = fileDetailMapper.selectById(id);
+    public PresignedUrlDTO createDirectUpload(String kbId, DirectUploadRequest request) {
+        String originalFilename = request.getFilename();
+        String extension = validateUpload(originalFilename, request.getSize());
+
+        KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
+
+        // 预先登记待上传的文件记录，对象键与普通上传保持一致
+        FileInfo fileInfo = minioObjectService.prepareFileInfo("kb/" + kbId + "/", IdUtil.simpleUUID() + "." + extension);
+        fileInfo.setOriginalFilename(originalFilename);
+        fileInfo.setExt(extension);
+        fileInfo.setContentType(request.getContentType());
+        fileInfo.setSize(request.getSize());
+        fileInfo.setObjectType(OBJECT_TYPE_KB_PENDING);
+        fileInfo.setObjectId(String.valueOf(knowledgeBase.getId()));
+        fileInfo.setCreateTime(new Date());
+        fileRecorder.save(fileInfo);
+
+        String uploadUrl = minioObjectService.presignedUrl(fileInfo, Method.PUT, presignExpiry, null);
+        log.info("签发直传上传地址: kbId={} fileId={} size={}", kbId, fileInfo.getId(), request.getSize());
+
+        return PresignedUrlDTO.builder()
+                .fileId(fileInfo.getId())
+                .url(uploadUrl)
+                .method(Method.PUT.name())
+                .expiresAt(LocalDateTime.now().plus(presignExpiry))
+                .build();
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public FileUploadResponse completeDirectUpload(String fileId) {
+        Long currentUserId = 1L;
+
+        FileDetail fileRecord = fileDetailMapper.selectById(fileId);
+        if (fileRecord == null || !OBJECT_TYPE_KB_PENDING.equals(fileRecord.getObjectType())) {
+            throw new BusinessException("上传任务不存在或已完成");
+        }
+
+        FileInfo fileInfo = fileStorageService.getFileInfoByUrl(fileRecord.getUrl());
+        MinioObjectService.ObjectMetadata metadata;
+        try {
+            metadata = minioObjectService.stat(fileInfo);
+        } catch (BusinessException ex) {
+            throw new BusinessException("文件尚未上传完成");
+        }
+        long sizeLimit = StringUtils.hasText(fileRecord.getUploadId()) ? multipartMaxSize : maxFileSize;
+        if (metadata.size() <= 0 || metadata.size() > sizeLimit) {
+            throw new BusinessException("文件大小超过限制");
+        }
 
+        // 客户端重复回调时只有一次能认领成功
+        int claimed = fileDetailMapper.update(null, new LambdaUpdateWrapper<FileDetail>()
+                .eq(FileDetail::getId, fileId)
+                .eq(FileDetail::getObjectType, OBJECT_TYPE_KB_PENDING)
+                .set(FileDetail::getObjectType, OBJECT_TYPE_KB));
+        if (claimed == 0) {
+            throw new BusinessException("上传任务不存在或已完成");
+        }
+
+        Long kbInternalId = parseLong(fileRecord.getObjectId());
+        KbKnowledgeBase knowledgeBase = kbInternalId == null ? null : knowledgeBaseMapper.selectById(kbInternalId);
+        if (knowledgeBase == null) {
+            throw new BusinessException("知识库不存在");
+        }
+
+        String contentType = firstNonBlank(fileRecord.getContentType(), metadata.contentType());
+        String extension = getFileExtension(fileRecord.getOriginalFilename());
+        activateKnowledgeBaseFile(fileRecord, knowledgeBase, extension, contentType, metadata.size(), currentUserId);
+        log.info("直传上传完成: fileId={} size={}", fileId, metadata.size());
+
+        return FileUploadResponse.builder()
+                .fileId(fileId)
+                .name(fileRecord.getOriginalFilename())
+                .url(fileRecord.getUrl())
+                .size(metadata.size())
+                .build();
+    }
+
+    @Override
+    public PresignedUrlDTO createDownloadUrl(String id) {
+        FileDetail file = fileDetailMapper.selectById(id);
         if (file == null || !OBJECT_TYPE_KB.equals(file.getObjectType())) {
             throw new BusinessException("文件不存在");
         }
+        FileInfo fileInfo = fileStorageService.getFileInfoByUrl(file.getUrl());
+        if (fileInfo == null) {
+            throw new BusinessException("文件不存在");
+        }
 
-        log.info("开始删除文件及其所有关联数据: fileId={}", id);
+        String filename = StringUtils.hasText(file.getOriginalFilename()) ? file.getOriginalFilename() : file.getFilename();
+        Map<String, String> queryParams = Map.of("response-content-disposition",
+                ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString());
+        String downloadUrl = minioObjectService.presignedUrl(fileInfo, Method.GET, presignExpiry, queryParams);
 
-        // 1. 删除文档页面记录和图片（OCR相关）
-        log.info("删除文档页面和OCR图片: fileId={}", id);
-        cleanupExistingDocumentImages(id);
-        
-        // 删除文档记录
-        int docDeleteCount = documentMapper.delete(new LambdaQueryWrapper<KbDocument>()
-                .eq(KbDocument::getFileId, id));
-        log.info("删除文档记录: fileId={}, count={}", id, docDeleteCount);
+        return PresignedUrlDTO.builder()
+                .fileId(id)
+                .url(downloadUrl)
+                .method(Method.GET.name())
+                .expiresAt(LocalDateTime.now().plus(presignExpiry))
+                .build();
+    }
 
-        // 2. 删除Neo4j中的知识图谱数据（文档节点和实体节点）
-        log.info("删除Neo4j知识图谱数据: fileId={}", id);
-        try {
-            // 删除文档节点及其关系
-            documentNodeRepository.deleteDocumentWithRelations(id);
-            
-            // 删除该文件相关的实体节点（如果实体只属于这个文档）
-            String deleteEntitiesQuery = 
-                "MATCH (e:Entity)-[:BELONGS_TO]->(d:Document {fileId: $fileId}) " +
-                "WHERE NOT EXISTS { " +
-                "  MATCH (e)-[:BELONGS_TO]->(other:Document) " +
-                "  WHERE other.fileId <> $fileId " +
-                "} " +
-                "DETACH DELETE e";
-            neo4jClient.query(deleteEntitiesQuery)
-                    .bind(id).to("fileId")
-                    .run();
-            log.info("删除Neo4j实体节点完成: fileId={}", id);
-        } catch (Exception e) {
-            log.error("删除Neo4j数据失败: fileId={}", id, e);
-        }
-
-        // 3. 删除问答对数据
-        log.info("删除问答对数据: fileId={}", id);
-        int qaPairDeleteCount = qaPairMapper.delete(new LambdaQueryWrapper<KbQaPair>()
-                .eq(KbQaPair::getFileId, id));
-        log.info("删除问答对: fileId={}, count={}", id, qaPairDeleteCount);
-
-        // 4. 删除向量化数据（从vector_store表中删除）
-        log.info("删除向量化数据: fileId={}", id);
-        try {
-            String deleteVectorSql = 
-                "DELETE FROM vector_store WHERE metadata->>'file_id' = ?";
-            int vectorDeleteCount = jdbcTemplate.update(deleteVectorSql, id);
-            log.info("删除向量数据: fileId={}, count={}", id, vectorDeleteCount);
-        } catch (Exception e) {
-            log.error("删除向量数据失败: fileId={}", id, e);
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public MultipartUploadDTO initiateMultipartUpload(String kbId, DirectUploadRequest request) {
+        String originalFilename = request.getFilename();
+        String extension = validateUpload(originalFilename, request.getSize(), multipartMaxSize);
+
+        KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
+
+        FileInfo fileInfo = fileStorageService.initiateMultipartUpload()
+                .setPath("kb/" + kbId + "/")
+                .setSaveFilename(IdUtil.simpleUUID() + "." + extension)
+                .setOriginalFilename(originalFilename)
+                .setContentType(request.getContentType())
+                .setSize(request.getSize())
+                .setObjectType(OBJECT_TYPE_KB_PENDING)
+                .setObjectId(String.valueOf(knowledgeBase.getId()))
+                .init();
+        log.info("初始化分片上传: kbId={} fileId={} uploadId={} size={}",
+                kbId, fileInfo.getId(), fileInfo.getUploadId(), request.getSize());
+
+        return toMultipartUploadDTO(fileInfo.getId(), fileInfo.getUploadId(), request.getSize(), List.of());
+    }
+
+    @Override
+    public MultipartPartDTO uploadPart(String fileId, int partNumber, MultipartFile part) {
+        FileDetail fileRecord = findMultipartUpload(fileId);
+        if (partNumber < 1 || partNumber > MAX_PART_NUMBER) {
+            throw new BusinessException("分片序号无效: " + partNumber);
+        }
+        if (part == null || part.isEmpty()) {
+            throw new BusinessException("分片内容不能为空");
+        }
+        if (part.getSize() > multipartMaxPartSize) {
+            throw new BusinessException("分片大小超过限制");
         }
 
-        // 5. 删除MinIO中的原始文件
-        log.info("删除MinIO原始文件: fileId={}, url={}", id, file.getUrl());
-        try {
-            if (StringUtils.hasText(file.getUrl())) {
-                fileStorageService.delete(file.getUrl());
-                log.info("MinIO文件删除成功: fileId={}", id);
+        // 各分片互不依赖，客户端可以并行上传；重传同一序号会覆盖之前的记录
+        FileInfo fileInfo = fileStorageService.getFileInfoByUrl(fileRecord.getUrl());
+        try (InputStream in = part.getInputStream()) {
+            FilePartInfo partInfo = fileStorageService.uploadPart(fileInfo, partNumber, in, part.getSize()).upload();
+            return MultipartPartDTO.builder()
+                    .partNumber(partNumber)
+                    .size(partInfo.getPartSize())
+                    .etag(partInfo.getETag())
+                    .build();
+        } catch (IOException e) {
+            throw new BusinessException("分片上传失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public MultipartUploadDTO getMultipartUpload(String fileId) {
+        FileDetail fileRecord = findMultipartUpload(fileId);
+        List<MultipartPartDTO> uploadedParts = listUploadedParts(fileRecord.getUploadId()).stream()
+                .map(part -> MultipartPartDTO.builder()
+                        .partNumber(part.getPartNumber())
+                        .size(part.getPartSize())
+                        .etag(part.getETag())
+                        .build())
+                .toList();
+        return toMultipartUploadDTO(fileId, fileRecord.getUploadId(), fileRecord.getSize(), uploadedParts);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public FileUploadResponse completeMultipartUpload(String fileId) {
+        FileDetail fileRecord = findMultipartUpload(fileId);
+        List<FilePartDetail> parts = listUploadedParts(fileRecord.getUploadId());
+
+        long uploadedBytes = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            if (parts.get(i).getPartNumber() != i + 1) {
+                throw new BusinessException("分片不完整，缺少第" + (i + 1) + "片");
             }
-        } catch (Exception e) {
-            log.error("删除MinIO文件失败: fileId={}, url={}", id, file.getUrl(), e);
+            uploadedBytes += parts.get(i).getPartSize() == null ? 0 : parts.get(i).getPartSize();
         }
+        if (parts.isEmpty() || (fileRecord.getSize() != null && uploadedBytes != fileRecord.getSize())) {
+            throw new BusinessException("分片不完整，已上传" + uploadedBytes + "字节");
+        }
+
+        FileInfo fileInfo = fileStorageService.getFileInfoByUrl(fileRecord.getUrl());
+        List<FilePartInfo> partInfoList = parts.stream()
+                .map(part -> new FilePartInfo()
+                        .setPlatform(part.getPlatform())
+                        .setUploadId(part.getUploadId())
+                        .setPartNumber(part.getPartNumber())
+                        .setPartSize(part.getPartSize())
+                        .setETag(part.getETag()))
+                .toList();
+        fileStorageService.completeMultipartUpload(fileInfo)
+                .setPartInfoList(partInfoList)
+                .complete();
+        log.info("分片合并完成: fileId={} parts={} size={}", fileId, parts.size(), uploadedBytes);
+
+        return completeDirectUpload(fileId);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void abortMultipartUpload(String fileId) {
+        FileDetail fileRecord = findMultipartUpload(fileId);
+        abortMultipartUploadQuietly(fileRecord);
+        fileDetailMapper.deleteById(fileId);
+        log.info("取消分片上传: fileId={} uploadId={}", fileId, fileRecord.getUploadId());
+    }
 
-        // 6. 删除缩略图（如果有）
-        if (StringUtils.hasText(file.getThUrl())) {
-            try {
-                fileStorageService.delete(file.getThUrl());
-                log.info("缩略图删除成功: fileId={}", id);
-            } catch (Exception e) {
-                log.error("删除缩略图失败: fileId={}, url={}", id, file.getThUrl(), e);
+    /**
+     * 清理超时未完成的直传记录及可能已上传的对象
+     */
+    @Scheduled(fixedDelayString = "${app.file.pending-cleanup-interval:3600000}")
+    public void purgeExpiredDirectUploads() {
+        LocalDateTime deadline = LocalDateTime.now().minus(pendingUploadTtl);
+        List<FileDetail> expired = fileDetailMapper.selectList(new LambdaQueryWrapper<FileDetail>()
+                .eq(FileDetail::getObjectType, OBJECT_TYPE_KB_PENDING)
+                .lt(FileDetail::getCreateTime, deadline)
+                .last("LIMIT " + PENDING_CLEANUP_BATCH));
+        for (FileDetail file : expired) {
+            if (StringUtils.hasText(file.getUploadId())) {
+                abortMultipartUploadQuietly(file);
             }
+            deleteRemoteFileQuietly(file);
+            fileDetailMapper.deleteById(file.getId());
+        }
+        if (!expired.isEmpty()) {
+            log.info("清理过期直传记录: count={}", expired.size());
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void delete(String id) {
+        FileDetail file = fileDetailMapper.selectById(id);
+
+        if (file == null || !OBJECT_TYPE_KB.equals(file.getObjectType())) {
+            throw new BusinessException("文件不存在");
         }
 
-        // 7. 删除文件记录（包含标签等元数据）
-        log.info("删除文件记录: fileId={}", id);
-        fileDetailMapper.deleteById(file.getId());
+        // 只做标记：列表、详情和检索只认 knowledge_base，文件立即不可见；关联数据提交后在后台并行清理
+        int marked = fileDetailMapper.update(null, new LambdaUpdateWrapper<FileDetail>()
+                .eq(FileDetail::getId, id)
+                .eq(FileDetail::getObjectType, OBJECT_TYPE_KB)
+                .set(FileDetail::getObjectType, OBJECT_TYPE_KB_DELETING));
+        if (marked == 0) {
+            throw new BusinessException("文件不存在");
+        }
+        // 标签索引与删除标记同一事务清理，标签统计不再计入该文件；syncTagIndex 不会为非 knowledge_base 文件重建索引
+        kbFileTagMapper.delete(new LambdaQueryWrapper<KbFileTag>()
+                .eq(KbFileTag::getFileId, id));
 
-        // 8. 更新知识库文件计数
         Long kbInternalId = parseLong(file.getObjectId());
         KbKnowledgeBase knowledgeBase = kbInternalId == null ? null : knowledgeBaseMapper.selectById(kbInternalId);
         if (knowledgeBase != null) {
             updateKnowledgeBaseFileCount(knowledgeBase, -1);
         }
 
-        log.info("文件删除完成，所有关联数据已清理: fileId={}", id);
+        log.info("文件已标记删除，关联数据将在后台清理: fileId={}", id);
+        runAfterCommit(() -> fileDeletionService.purgeAsync(id));
     }
 
     @Override
@@ -341,15 +560,7 @@ public class FileServiceImpl implements FileService {
         cleanupExistingDocumentImages(file.getId());
 
         // 只重置OCR状态，不影响其他处理状态（向量化、问答对、知识图谱）
-        FileDetailAttributes attributes = FileDetailAttrUtils.parse(file.getAttr());
-        attributes.setOcrStatus(ProcessingStatus.PENDING.getCode());
-        // 不重置其他状态，让它们保持独立
-        // attributes.setVectorizationStatus(...);  // 保持不变
-        // attributes.setQaPairsStatus(...);         // 保持不变
-        // attributes.setKnowledgeGraphStatus(...);  // 保持不变
-        attributes.setErrorMessage(null);
-        file.setAttr(FileDetailAttrUtils.toJson(attributes));
-        fileDetailMapper.updateById(file);
+        fileStatusService.updateStatus(file.getId(), ProcessingStage.OCR, ProcessingStatus.PENDING, null);
 
         // 重新创建文档页面并触发OCR
         createDocumentPages(file, file.getUrl());
@@ -358,15 +569,11 @@ public class FileServiceImpl implements FileService {
     }
 
     private void triggerKnowledgeGraphProcessing(FileDetail file) {
-        FileDetailAttributes attributes = FileDetailAttrUtils.parse(file.getAttr());
-        if (!ProcessingStatus.COMPLETED.getCode().equals(attributes.getOcrStatus())) {
+        if (!ProcessingStatus.COMPLETED.getCode().equals(resolveOcrStatus(file))) {
             throw new BusinessException("请先完成OCR识别后再生成知识图谱");
         }
 
-        attributes.setKnowledgeGraphStatus(ProcessingStatus.PENDING.getCode());
-        attributes.setErrorMessage(null);
-        file.setAttr(FileDetailAttrUtils.toJson(attributes));
-        fileDetailMapper.updateById(file);
+        fileStatusService.updateStatus(file.getId(), ProcessingStage.KNOWLEDGE_GRAPH, ProcessingStatus.PENDING, null);
 
         String aggregatedContent = loadAggregatedOcrContent(file.getId());
         if (!StringUtils.hasText(aggregatedContent)) {
@@ -393,15 +600,11 @@ public class FileServiceImpl implements FileService {
     }
 
     private void triggerQaPairsProcessing(FileDetail file) {
-        FileDetailAttributes attributes = FileDetailAttrUtils.parse(file.getAttr());
-        if (!ProcessingStatus.COMPLETED.getCode().equals(attributes.getOcrStatus())) {
+        if (!ProcessingStatus.COMPLETED.getCode().equals(resolveOcrStatus(file))) {
             throw new BusinessException("请先完成OCR识别后再生成问答对");
         }
 
-        attributes.setQaPairsStatus(ProcessingStatus.PENDING.getCode());
-        attributes.setErrorMessage(null);
-        file.setAttr(FileDetailAttrUtils.toJson(attributes));
-        fileDetailMapper.updateById(file);
+        fileStatusService.updateStatus(file.getId(), ProcessingStage.QA_PAIRS, ProcessingStatus.PENDING, null);
 
         String aggregatedContent = loadAggregatedOcrContent(file.getId());
         if (!StringUtils.hasText(aggregatedContent)) {
@@ -427,8 +630,7 @@ public class FileServiceImpl implements FileService {
     }
 
     private void triggerTagsGeneration(FileDetail file) {
-        FileDetailAttributes attributes = FileDetailAttrUtils.parse(file.getAttr());
-        if (!ProcessingStatus.COMPLETED.getCode().equals(attributes.getOcrStatus())) {
+        if (!ProcessingStatus.COMPLETED.getCode().equals(resolveOcrStatus(file))) {
             throw new BusinessException("请先完成OCR识别后再生成标签");
         }
 
@@ -445,9 +647,7 @@ public class FileServiceImpl implements FileService {
         List<String> tags = aiProcessService.generateTags(file.getId(), fileName, aggregatedContent);
 
         // 更新文件属性中的标签
-        attributes.setTags(tags);
-        file.setAttr(FileDetailAttrUtils.toJson(attributes));
-        fileDetailMapper.updateById(file);
+        fileStatusService.updateTags(file.getId(), tags);
 
         log.info("标签生成完成并已保存: fileId={} tags={}", file.getId(), tags);
     }
@@ -517,6 +717,7 @@ public class FileServiceImpl implements FileService {
         if (url.isEmpty()) {
             return;
         }
+        localFileCache.evict(url);
         try {
             FileInfo fileInfo = fileStorageService.getFileInfoByUrl(url);
             boolean deleted = fileInfo != null
@@ -538,6 +739,7 @@ public class FileServiceImpl implements FileService {
         if (trimmed.isEmpty()) {
             return;
         }
+        localFileCache.evict(trimmed);
         try {
             FileInfo fileInfo = fileStorageService.getFileInfoByUrl(trimmed);
             boolean deleted = fileInfo != null
@@ -555,64 +757,162 @@ public class FileServiceImpl implements FileService {
         documentMapper.delete(new LambdaQueryWrapper<KbDocument>()
                 .eq(KbDocument::getFileId, fileDetail.getId()));
 
-        List<String> pageImageUrls = new ArrayList<>();
+        List<PageContent> pages = new ArrayList<>();
         File downloadedFile = null;
         try {
-            byte[] bytes = fileStorageService.download(fileUrl).bytes();
-            downloadedFile = createTempFileFromBytes(bytes, fileDetail.getOriginalFilename());
+            downloadedFile = downloadToTempFile(fileUrl, fileDetail.getOriginalFilename());
             FileDetailAttributes attributes = FileDetailAttrUtils.parse(fileDetail.getAttr());
             String fileType = attributes.getFileType();
             if ("word".equalsIgnoreCase(fileType)) {
-                String pdfPath = documentProcessService.convertWordToPdf(downloadedFile);
-                pageImageUrls = documentProcessService.splitPdfToImages(pdfPath, fileDetail.getId());
-                File pdfFile = new File(pdfPath);
-                deleteTempFile(pdfFile);
+                pages = documentProcessService.extractWordPages(downloadedFile, fileDetail.getId());
             } else if ("pdf".equalsIgnoreCase(fileType)) {
-                pageImageUrls = documentProcessService.splitPdfToImages(downloadedFile.getAbsolutePath(), fileDetail.getId());
+                pages = documentProcessService.extractPdfPages(downloadedFile.getAbsolutePath(), fileDetail.getId(), fileType);
             } else if ("image".equalsIgnoreCase(fileType)) {
                 String imageUrl = documentProcessService.processImageFile(downloadedFile.getAbsolutePath(), fileDetail.getId());
-                pageImageUrls.add(imageUrl);
+                pages.add(PageContent.image(1, imageUrl));
             } else {
                 throw new BusinessException("Unsupported file type for OCR: " + fileType);
             }
 
-            if (pageImageUrls.isEmpty()) {
+            if (pages.isEmpty()) {
                 throw new BusinessException("未能提取有效的页面图像");
             }
 
-            for (int i = 0; i < pageImageUrls.size(); i++) {
-                int pageIndex = i + 1;
+            // 先落库全部页面，再投递 OCR 任务，避免消费者先于插入完成时误判整份文件已处理完
+            List<KbDocument> pendingDocuments = new ArrayList<>();
+            for (PageContent page : pages) {
                 KbDocument document = KbDocument.builder()
                         .documentId(IdGenerator.simpleUUID())
                         .fileId(fileDetail.getId())
-                        .pageIndex(pageIndex)
-                        .imageUrl(pageImageUrls.get(i))
-                        .ocrStatus(ProcessingStatus.PENDING.getCode())
+                        .pageIndex(page.pageIndex())
+                        .imageUrl(page.imageUrl())
+                        .content(page.text())
+                        .ocrStatus(page.hasText()
+                                ? ProcessingStatus.COMPLETED.getCode()
+                                : ProcessingStatus.PENDING.getCode())
                         .tokensUsed(0)
                         .build();
                 documentMapper.insert(document);
-                sendOcrTaskForPage(fileDetail, document);
+                if (!page.hasText()) {
+                    pendingDocuments.add(document);
+                }
             }
 
-            log.info("Created {} documents for OCR processing: fileId={}", pageImageUrls.size(), fileDetail.getId());
+            log.info("Created {} documents for file {}: textLayer={}, ocr={}",
+                    pages.size(), fileDetail.getId(), pages.size() - pendingDocuments.size(), pendingDocuments.size());
+            runAfterCommit(() -> dispatchOcrTasks(fileDetail, pendingDocuments));
         } finally {
             deleteTempFile(downloadedFile);
         }
     }
 
-    private File createTempFileFromBytes(byte[] data, String originalFilename) {
-        if (data == null || data.length == 0) {
-            throw new BusinessException("下载文件内容为空");
+    private void dispatchOcrTasks(FileDetail fileDetail, List<KbDocument> pendingDocuments) {
+        if (pendingDocuments.isEmpty()) {
+            // 所有页面均来自文本层，直接进入向量化
+            ocrCompletionHandler.onPageFinished(fileDetail.getId());
+            return;
+        }
+        int batchSize = Math.max(1, ocrProperties.getBatchSize());
+        List<KbDocument> batch = new ArrayList<>(batchSize);
+        for (KbDocument document : pendingDocuments) {
+            // 只合并连续页，文本层直取的页面会打断批次
+            if (!batch.isEmpty()
+                    && (batch.size() >= batchSize
+                    || document.getPageIndex() != batch.get(batch.size() - 1).getPageIndex() + 1)) {
+                sendOcrTask(fileDetail, batch);
+                batch = new ArrayList<>(batchSize);
+            }
+            batch.add(document);
+        }
+        if (!batch.isEmpty()) {
+            sendOcrTask(fileDetail, batch);
         }
+    }
+
+    private void sendOcrTask(FileDetail file, List<KbDocument> batch) {
+        if (batch.size() == 1) {
+            sendOcrTaskForPage(file, batch.get(0));
+            return;
+        }
+        OcrTaskMessage message = OcrTaskMessage.builder()
+                .taskId(IdGenerator.simpleUUID())
+                .fileId(file.getId())
+                .documentIds(batch.stream().map(KbDocument::getDocumentId).toList())
+                .pageIndex(batch.get(0).getPageIndex())
+                .fileType("image")
+                .build();
+
+        rabbitTemplate.convertAndSend(
+                RabbitMQConfig.EXCHANGE_OCR,
+                RabbitMQConfig.ROUTING_KEY_OCR,
+                message
+        );
+
+        log.info("发送批量OCR任务: fileId={} pages={}-{}", file.getId(),
+                batch.get(0).getPageIndex(), batch.get(batch.size() - 1).getPageIndex());
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 流式下载原始文件到临时目录，本地缓存命中时直接复制缓存文件
+     */
+    private File downloadToTempFile(String fileUrl, String originalFilename) {
+        FileInfo fileInfo = fileStorageService.getFileInfoByUrl(fileUrl);
+        LocalFileCache.CachedFile cached = localFileCache.getOrLoad(fileUrl, fileInfo);
+        if (cached != null) {
+            File tempFile = createTempFile(originalFilename);
+            if (localFileCache.copyTo(cached, tempFile.toPath())) {
+                return tempFile;
+            }
+            deleteTempFile(tempFile);
+        }
+        if (fileInfo == null) {
+            return createTempFileFromBytes(fileStorageService.download(fileUrl).bytes(), originalFilename);
+        }
+        File tempFile = createTempFile(originalFilename);
+        try (InputStream in = minioObjectService.openStream(fileInfo, null, null)) {
+            Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return tempFile;
+        } catch (IOException e) {
+            deleteTempFile(tempFile);
+            throw new BusinessException("下载文件失败: " + e.getMessage());
+        }
+    }
+
+    private File createTempFile(String originalFilename) {
         try {
             String suffix = ".tmp";
             if (StringUtils.hasText(originalFilename) && originalFilename.contains(".")) {
                 suffix = originalFilename.substring(originalFilename.lastIndexOf('.'));
             }
-            Path tempFile = Files.createTempFile("kb_download_", suffix);
-            Files.write(tempFile, data);
-            return tempFile.toFile();
+            return Files.createTempFile("kb_download_", suffix).toFile();
+        } catch (IOException e) {
+            throw new BusinessException("Failed to create temp file: " + e.getMessage());
+        }
+    }
+
+    private File createTempFileFromBytes(byte[] data, String originalFilename) {
+        if (data == null || data.length == 0) {
+            throw new BusinessException("下载文件内容为空");
+        }
+        File tempFile = createTempFile(originalFilename);
+        try {
+            Files.write(tempFile.toPath(), data);
+            return tempFile;
         } catch (IOException e) {
+            deleteTempFile(tempFile);
             throw new BusinessException("Failed to create temp file: " + e.getMessage());
         }
     }
@@ -659,115 +959,6 @@ public class FileServiceImpl implements FileService {
                 .collect(Collectors.joining("\n\n"));
     }
 
-    private KnowledgeGraphDTO buildKnowledgeGraph(String fileId) {
-        // 查询文档节点
-        DocumentNode documentNode = documentNodeRepository.findByFileId(fileId);
-        if (documentNode == null) {
-            return null;
-        }
-
-        List<KnowledgeGraphDTO.GraphNodeDTO> nodes = new ArrayList<>();
-        List<KnowledgeGraphDTO.GraphEdgeDTO> edges = new ArrayList<>();
-        
-        // 不添加文档节点，只添加实体节点
-        log.debug("buildKnowledgeGraph: fileId={}, skipping document node", fileId);
-        
-        // 添加所有实体节点（使用 neo4jClient 直接查询）
-        Set<String> processedEntityIds = new HashSet<>();
-        Collection<Map<String, Object>> entityMaps = neo4jClient.query("""
-                MATCH (d:Document {id: $fileId})<-[:BELONGS_TO]-(e:Entity)
-                RETURN e.id AS id, 
-                       e.name AS name, 
-                       e.type AS type
-                """)
-                .bind(fileId).to("fileId")
-                .fetch().all();
-        
-        log.info("buildKnowledgeGraph: fileId={}, found {} entities from Neo4j", fileId, entityMaps.size());
-        
-        for (Map<String, Object> entityMap : entityMaps) {
-            String entityId = toStringValue(entityMap.get("id"));
-            String entityName = toStringValue(entityMap.get("name"));
-            String entityType = toStringValue(entityMap.get("type"));
-            
-            if (!StringUtils.hasText(entityId)) {
-                log.warn("buildKnowledgeGraph: skipping entity with null id, name={}", entityName);
-                continue;
-            }
-            
-            if (processedEntityIds.contains(entityId)) {
-                log.debug("buildKnowledgeGraph: skipping duplicate entity id={}", entityId);
-                continue;
-            }
-
-            processedEntityIds.add(entityId);
-            nodes.add(KnowledgeGraphDTO.GraphNodeDTO.builder()
-                    .id(entityId)
-                    .label(entityName)
-                    .type(entityType)
-                    .build());
-            
-            // 不添加文档到实体的关系
-            
-            log.debug("buildKnowledgeGraph: added entity node id={}, name={}, type={}", 
-                entityId, entityName, entityType);
-        }
-
-        // 查询实体之间的关系（通过BELONGS_TO关系找到属于该文档的实体，然后查询它们之间的关系）
-        if (!processedEntityIds.isEmpty()) {
-            Set<String> relationshipEdgeKeys = new HashSet<>();
-            Collection<Map<String, Object>> relations = neo4jClient.query("""
-                    MATCH (d:Document {id: $fileId})<-[:BELONGS_TO]-(source:Entity)
-                    MATCH (d)<-[:BELONGS_TO]-(target:Entity)
-                    MATCH (source)-[rel]->(target)
-                    WHERE type(rel) <> 'BELONGS_TO'
-                    RETURN source.id AS sourceId,
-                           target.id AS targetId,
-                           type(rel) AS relationType,
-                           rel.description AS description
-                    """)
-                    .bind(fileId).to("fileId")
-                    .fetch().all();
-
-            log.debug("buildKnowledgeGraph: found {} relationships", relations.size());
-
-            for (Map<String, Object> relation : relations) {
-                String sourceId = toStringValue(relation.get("sourceId"));
-                String targetId = toStringValue(relation.get("targetId"));
-                if (!StringUtils.hasText(sourceId) || !StringUtils.hasText(targetId)) {
-                    continue;
-                }
-                if (!processedEntityIds.contains(sourceId) || !processedEntityIds.contains(targetId)) {
-                    log.debug("buildKnowledgeGraph: skipping relation with missing entity: {} -> {}", sourceId, targetId);
-                    continue;
-                }
-
-                String relationType = toStringValue(relation.get("relationType"));
-                String description = toStringValue(relation.get("description"));
-                String edgeKey = sourceId + "->" + targetId + "::" + relationType;
-                if (!relationshipEdgeKeys.add(edgeKey)) {
-                    continue;
-                }
-
-                // 优先使用description，如果为空则使用relationType，最后兜底使用"关联"
-                String label = StringUtils.hasText(description) ? description : 
-                              (StringUtils.hasText(relationType) ? relationType : "关联");
-                edges.add(KnowledgeGraphDTO.GraphEdgeDTO.builder()
-                        .source(sourceId)
-                        .target(targetId)
-                        .label(label)
-                        .build());
-                
-                log.debug("buildKnowledgeGraph: added edge {} -[{}]-> {}", sourceId, label, targetId);
-            }
-        }
-
-        log.info("buildKnowledgeGraph: completed for fileId={}, nodes={} entities, edges={}", 
-            fileId, processedEntityIds.size(), edges.size());
-
-        return new KnowledgeGraphDTO(nodes, edges);
-    }
-
     private EntityNode extractEntityNode(Object rawEntity) {
         if (rawEntity instanceof EntityNode entityNode) {
             return entityNode;
@@ -807,44 +998,19 @@ public class FileServiceImpl implements FileService {
         return null;
     }
 
-    private List<QaPairDTO> buildQaPairs(String fileId) {
-        LambdaQueryWrapper<KbQaPair> pairQuery = new LambdaQueryWrapper<>();
-        pairQuery.eq(KbQaPair::getFileId, fileId);
-        pairQuery.orderByAsc(KbQaPair::getCreatedAt);
-        List<KbQaPair> pairs = qaPairMapper.selectList(pairQuery);
-
-        return pairs.stream()
-                .map(pair -> QaPairDTO.builder()
-                        .question(pair.getQuestion())
-                        .answer(pair.getAnswer())
-                        .sourceText(pair.getSourceText())
-                        .build())
-                .collect(Collectors.toList());
-    }
-
     private FileDTO convertToDTO(FileDetail file, KbKnowledgeBase knowledgeBase) {
         FileDetailAttributes attributes = FileDetailAttrUtils.parse(file.getAttr());
 
+        // 优先读取独立列，未回填的历史数据回退到 attr
         FileStatusesDTO statuses = new FileStatusesDTO();
-        statuses.setOcr(mapProcessingStatus(attributes.getOcrStatus()));
-        statuses.setVectorization(mapProcessingStatus(attributes.getVectorizationStatus()));
-        statuses.setQaPairs(mapProcessingStatus(attributes.getQaPairsStatus()));
-        statuses.setKnowledgeGraph(mapProcessingStatus(attributes.getKnowledgeGraphStatus()));
-
-        UserDTO uploadedBy = null;
-        if (attributes.getUploadedBy() != null) {
-            SysUser uploader = userMapper.selectById(attributes.getUploadedBy());
-            if (uploader != null) {
-                uploadedBy = UserDTO.builder()
-                        .id(uploader.getId())
-                        .username(uploader.getUsername())
-                        .name(uploader.getName())
-                        .email(uploader.getEmail())
-                        .avatar(uploader.getAvatar())
-                        .role(uploader.getRole())
-                        .build();
-            }
-        }
+        statuses.setOcr(mapProcessingStatus(firstNonBlank(file.getOcrStatus(), attributes.getOcrStatus())));
+        statuses.setVectorization(mapProcessingStatus(
+                firstNonBlank(file.getVectorizationStatus(), attributes.getVectorizationStatus())));
+        statuses.setQaPairs(mapProcessingStatus(firstNonBlank(file.getQaPairsStatus(), attributes.getQaPairsStatus())));
+        statuses.setKnowledgeGraph(mapProcessingStatus(
+                firstNonBlank(file.getKnowledgeGraphStatus(), attributes.getKnowledgeGraphStatus())));
+
+        UserDTO uploadedBy = requestUserCache.get(resolveUploaderId(file, attributes));
 
         String displayName = StringUtils.hasText(file.getOriginalFilename())
                 ? file.getOriginalFilename()
@@ -852,6 +1018,8 @@ public class FileServiceImpl implements FileService {
         String fileType = StringUtils.hasText(attributes.getFileType())
                 ? attributes.getFileType()
                 : getFileType(file.getExt());
+        List<String> tags = file.getTags() != null ? List.of(file.getTags()) : attributes.getTags();
+        String errorMessage = file.getOcrStatus() != null ? file.getErrorMessage() : attributes.getErrorMessage();
 
         return FileDTO.builder()
                 .id(file.getId())
@@ -865,11 +1033,46 @@ public class FileServiceImpl implements FileService {
                 .statuses(statuses)
                 .url(file.getUrl())
                 .thumbnailUrl(file.getThUrl())
-                .tags(attributes.getTags())
-                .errorMessage(attributes.getErrorMessage())
+                .tags(tags)
+                .errorMessage(errorMessage)
                 .build();
     }
 
+    private List<FileDTO> convertToDTOs(List<FileDetail> files, KbKnowledgeBase knowledgeBase) {
+        preloadUploaders(files);
+        return files.stream()
+                .map(file -> convertToDTO(file, knowledgeBase))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 一次查询加载本批文件的全部上传者，避免逐条查询用户
+     */
+    private void preloadUploaders(List<FileDetail> files) {
+        requestUserCache.preload(files.stream()
+                .map(file -> resolveUploaderId(file, null))
+                .collect(Collectors.toSet()));
+    }
+
+    private Long resolveUploaderId(FileDetail file, FileDetailAttributes attributes) {
+        if (file.getUploadedBy() != null) {
+            return file.getUploadedBy();
+        }
+        FileDetailAttributes attrs = attributes != null ? attributes : FileDetailAttrUtils.parse(file.getAttr());
+        return attrs.getUploadedBy();
+    }
+
+    private String resolveOcrStatus(FileDetail file) {
+        if (StringUtils.hasText(file.getOcrStatus())) {
+            return file.getOcrStatus();
+        }
+        return FileDetailAttrUtils.parse(file.getAttr()).getOcrStatus();
+    }
+
+    private String firstNonBlank(String primary, String fallback) {
+        return StringUtils.hasText(primary) ? primary : fallback;
+    }
+
     private String mapProcessingStatus(String status) {
         if (!StringUtils.hasText(status)) {
             return ProcessingStatus.PENDING.getCode();
@@ -898,6 +1101,122 @@ public class FileServiceImpl implements FileService {
         return value == null ? "" : value.toString();
     }
 
+    private FileDetail findMultipartUpload(String fileId) {
+        FileDetail fileRecord = fileDetailMapper.selectById(fileId);
+        if (fileRecord == null
+                || !OBJECT_TYPE_KB_PENDING.equals(fileRecord.getObjectType())
+                || !StringUtils.hasText(fileRecord.getUploadId())) {
+            throw new BusinessException("分片上传任务不存在或已完成");
+        }
+        return fileRecord;
+    }
+
+    private List<FilePartDetail> listUploadedParts(String uploadId) {
+        return filePartDetailMapper.selectList(new LambdaQueryWrapper<FilePartDetail>()
+                .eq(FilePartDetail::getUploadId, uploadId)
+                .orderByAsc(FilePartDetail::getPartNumber));
+    }
+
+    private MultipartUploadDTO toMultipartUploadDTO(String fileId,
+                                                    String uploadId,
+                                                    Long size,
+                                                    List<MultipartPartDTO> uploadedParts) {
+        long totalSize = size == null ? 0L : size;
+        return MultipartUploadDTO.builder()
+                .fileId(fileId)
+                .uploadId(uploadId)
+                .size(totalSize)
+                .partSize(multipartPartSize)
+                .partCount((int) Math.max(1, (totalSize + multipartPartSize - 1) / multipartPartSize))
+                .uploadedParts(uploadedParts)
+                .build();
+    }
+
+    private void abortMultipartUploadQuietly(FileDetail fileRecord) {
+        try {
+            FileInfo fileInfo = fileStorageService.getFileInfoByUrl(fileRecord.getUrl());
+            if (fileInfo != null) {
+                fileStorageService.abortMultipartUpload(fileInfo).abort();
+            }
+        } catch (Exception ex) {
+            log.warn("取消分片上传失败: fileId={} uploadId={}", fileRecord.getId(), fileRecord.getUploadId(), ex);
+        }
+        filePartDetailMapper.delete(new LambdaQueryWrapper<FilePartDetail>()
+                .eq(FilePartDetail::getUploadId, fileRecord.getUploadId()));
+    }
+
+    /**
+     * 校验文件名与大小，返回小写扩展名
+     */
+    private String validateUpload(String originalFilename, Long size) {
+        return validateUpload(originalFilename, size, maxFileSize);
+    }
+
+    private String validateUpload(String originalFilename, Long size, long sizeLimit) {
+        if (size == null || size <= 0) {
+            throw new BusinessException("上传文件不能为空");
+        }
+
+        if (size > sizeLimit) {
+            throw new BusinessException("文件大小超过限制");
+        }
+
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            throw new BusinessException("无法识别的文件名");
+        }
+
+        String extension = getFileExtension(originalFilename);
+        if (!isAllowedFileType(extension)) {
+            throw new BusinessException("不支持的文件类型");
+        }
+        return extension;
+    }
+
+    /**
+     * 将已落盘的对象登记为知识库文件并启动处理流程
+     */
+    private void activateKnowledgeBaseFile(FileDetail fileRecord,
+                                           KbKnowledgeBase knowledgeBase,
+                                           String extension,
+                                           String contentType,
+                                           long size,
+                                           Long uploadedBy) {
+        FileDetailAttributes attributes = FileDetailAttrUtils.parse(fileRecord.getAttr());
+        attributes.setFileType(getFileType(extension));
+
+        fileRecord.setExt(StringUtils.hasText(extension) ? extension : fileRecord.getExt());
+        fileRecord.setContentType(StringUtils.hasText(contentType) ? contentType : fileRecord.getContentType());
+        fileRecord.setSize(size);
+        fileRecord.setObjectType(OBJECT_TYPE_KB);
+        fileRecord.setObjectId(String.valueOf(knowledgeBase.getId()));
+        fileRecord.setAttr(FileDetailAttrUtils.toJson(attributes));
+        fileRecord.setUploadedBy(uploadedBy);
+        // 提交后的后台处理（复用重复内容或拆分页面）完成前，文件保持处理中
+        fileRecord.setOcrStatus(ProcessingStatus.PROCESSING.getCode());
+        fileRecord.setVectorizationStatus(ProcessingStatus.PENDING.getCode());
+        fileRecord.setQaPairsStatus(ProcessingStatus.PENDING.getCode());
+        fileRecord.setKnowledgeGraphStatus(ProcessingStatus.PENDING.getCode());
+        fileDetailMapper.updateById(fileRecord);
+
+        updateKnowledgeBaseFileCount(knowledgeBase, 1);
+
+        // 补算哈希、复用重复内容和拆分页面都要读取整个对象，放到事务提交后在后台执行
+        String fileId = fileRecord.getId();
+        runAfterCommit(() -> fileDeduplicationService.processAsync(fileId, this::processNewFile));
+    }
+
+    /**
+     * 新文件的完整处理流程：拆分页面并投递 OCR，页面记录在独立事务中写入
+     */
+    private void processNewFile(FileDetail file) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> createDocumentPages(file, file.getUrl()));
+        } catch (Exception ex) {
+            log.error("文件页面拆分失败: fileId={}", file.getId(), ex);
+            fileStatusService.updateStatus(file.getId(), ProcessingStage.OCR, ProcessingStatus.FAILED, ex.getMessage());
+        }
+    }
+
     private KbKnowledgeBase findKnowledgeBase(String kbId) {
         KbKnowledgeBase knowledgeBase = knowledgeBaseMapper.selectOne(new LambdaQueryWrapper<KbKnowledgeBase>()
                 .eq(KbKnowledgeBase::getKbId, kbId));
@@ -954,29 +1273,98 @@ public class FileServiceImpl implements FileService {
         }
 
         KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
+        List<FileDetail> files = fileDetailMapper.selectList(
+                tagSearchQuery(knowledgeBase, buildTagPattern(tag, TAG_MATCH_CONTAINS))
+                        .orderByDesc(FileDetail::getCreateTime));
+
+        return convertToDTOs(files, knowledgeBase);
+    }
+
+    @Override
+    public CursorPageDTO<FileDTO> searchByTag(String kbId, String tag, String match, String cursor, Integer size) {
+        if (!StringUtils.hasText(tag)) {
+            return CursorPageDTO.<FileDTO>builder().items(List.of()).hasMore(false).build();
+        }
+
+        KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
+        int pageSize = resolvePageSize(size);
+        CursorUtils.Cursor position = CursorUtils.decode(cursor);
+
+        LambdaQueryWrapper<FileDetail> query = tagSearchQuery(knowledgeBase, buildTagPattern(tag, match));
+        applyCursor(query, position, false);
+        query.orderByDesc(FileDetail::getCreateTime, FileDetail::getId)
+                .last("LIMIT " + (pageSize + 1));
+
+        List<FileDetail> files = fileDetailMapper.selectList(query);
+        preloadUploaders(files);
+        return toCursorPage(files, pageSize, file -> convertToDTO(file, knowledgeBase));
+    }
+
+    @Override
+    public List<TagFacetDTO> listTagFacets(String kbId, String prefix, Integer limit) {
+        KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
+        int facetLimit = limit == null || limit <= 0 ? DEFAULT_FACET_LIMIT : Math.min(limit, MAX_FACET_LIMIT);
+        String pattern = StringUtils.hasText(prefix) ? buildTagPattern(prefix, TAG_MATCH_PREFIX) : null;
+        return kbFileTagMapper.countTags(knowledgeBase.getId(), pattern, facetLimit);
+    }
 
-        // 查询该知识库下的所有文件
-        List<FileDetail> allFiles = fileDetailMapper.selectList(new LambdaQueryWrapper<FileDetail>()
+    /**
+     * 标签匹配走 kb_file_tag 索引：前缀匹配使用 text_pattern_ops B-Tree，子串匹配使用 pg_trgm GIN
+     */
+    private LambdaQueryWrapper<FileDetail> tagSearchQuery(KbKnowledgeBase knowledgeBase, String pattern) {
+        return new LambdaQueryWrapper<FileDetail>()
                 .eq(FileDetail::getObjectType, OBJECT_TYPE_KB)
                 .eq(FileDetail::getObjectId, String.valueOf(knowledgeBase.getId()))
-                .orderByDesc(FileDetail::getCreateTime));
+                .apply("id IN (SELECT file_id FROM kb_file_tag WHERE kb_id = {0} AND tag_lower LIKE {1})",
+                        knowledgeBase.getId(), pattern);
+    }
 
-        String searchTag = tag.trim().toLowerCase(Locale.ROOT);
+    private String buildTagPattern(String tag, String match) {
+        String escaped = escapeLike(tag.trim().toLowerCase(Locale.ROOT));
+        return TAG_MATCH_PREFIX.equalsIgnoreCase(match) ? escaped + "%" : "%" + escaped + "%";
+    }
 
-        // 在内存中过滤包含该标签的文件
-        return allFiles.stream()
-                .filter(file -> {
-                    FileDetailAttributes attributes = FileDetailAttrUtils.parse(file.getAttr());
-                    List<String> tags = attributes.getTags();
-                    if (tags == null || tags.isEmpty()) {
-                        return false;
-                    }
-                    // 检查是否包含该标签（不区分大小写）
-                    return tags.stream()
-                            .anyMatch(t -> t.toLowerCase(Locale.ROOT).contains(searchTag));
-                })
-                .map(file -> convertToDTO(file, knowledgeBase))
-                .collect(Collectors.toList());
+    private void applyCursor(LambdaQueryWrapper<FileDetail> query, CursorUtils.Cursor position, boolean ascending) {
+        if (position == null) {
+            return;
+        }
+        if (ascending) {
+            query.and(w -> w.gt(FileDetail::getCreateTime, position.time())
+                    .or(o -> o.eq(FileDetail::getCreateTime, position.time())
+                            .gt(FileDetail::getId, position.id())));
+        } else {
+            query.and(w -> w.lt(FileDetail::getCreateTime, position.time())
+                    .or(o -> o.eq(FileDetail::getCreateTime, position.time())
+                            .lt(FileDetail::getId, position.id())));
+        }
+    }
+
+    private <T> CursorPageDTO<T> toCursorPage(List<FileDetail> files, int pageSize, Function<FileDetail, T> mapper) {
+        boolean hasMore = files.size() > pageSize;
+        List<FileDetail> page = hasMore ? files.subList(0, pageSize) : files;
+        String nextCursor = null;
+        if (hasMore) {
+            FileDetail last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(last.getCreateTime(), last.getId());
+        }
+        return CursorPageDTO.<T>builder()
+                .items(page.stream().map(mapper).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 
     @Override
@@ -0,0 +1,252 @@
+package com.ai.middle.platform.service.impl;
+
+import com.ai.middle.platform.common.enums.ProcessingStage;
+import com.ai.middle.platform.common.enums.ProcessingStatus;
+import com.ai.middle.platform.entity.po.FileDetail;
+import com.ai.middle.platform.entity.po.KbFileTag;
+import com.ai.middle.platform.repository.mapper.FileDetailMapper;
+import com.ai.middle.platform.repository.mapper.KbFileTagMapper;
+import com.ai.middle.platform.service.FileStatusService;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.google.common.util.concurrent.Striped;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.type.ArrayTypeHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 文件处理状态服务实现
+ * <p>
+ * 每页 OCR 都会把文件置为 PROCESSING，数百页的文档会产生数百次相同的写入。
+ * 这里把同一文件的 PROCESSING 迁移合并到内存中，按固定间隔每个文件只写一次；
+ * 终态迁移会连同缓冲中的补丁一起立即写出，保证写入顺序与事件顺序一致。
+ * 每次写出都是只涉及变更列的单条 UPDATE，不同阶段的并发更新互不覆盖。
+ * 定时写出失败的补丁放回缓冲区，下一轮重试，连续失败超过上限后丢弃。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileStatusServiceImpl implements FileStatusService {
+
+    private static final String ERROR_MESSAGE_COLUMN = "error_message";
+    private static final String TAGS_COLUMN = "tags";
+    private static final String TAGS_MAPPING = "typeHandler=" + ArrayTypeHandler.class.getName();
+    private static final String OBJECT_TYPE_KB = "knowledge_base";
+    private static final int MAX_TAG_LENGTH = 128;
+    private static final int MAX_FLUSH_ATTEMPTS = 5;
+
+    private final FileDetailMapper fileDetailMapper;
+    private final KbFileTagMapper kbFileTagMapper;
+
+    /**
+     * fileId -> 待写出的列值（列名 -> 值）
+     */
+    private final Map<String, Map<String, Object>> pendingPatches = new ConcurrentHashMap<>();
+
+    /**
+     * fileId -> 缓冲补丁连续写出失败的次数
+     */
+    private final Map<String, Integer> flushFailures = new ConcurrentHashMap<>();
+
+    /**
+     * 按文件加锁，保证同一文件的缓冲与写出串行执行
+     */
+    private final Striped<Lock> fileLocks = Striped.lock(64);
+
+    @Override
+    public void updateStatus(String fileId, ProcessingStage stage, ProcessingStatus status, String errorMessage) {
+        if (!StringUtils.hasText(fileId) || stage == null || status == null) {
+            return;
+        }
+        Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put(stage.getColumn(), status.getCode());
+        if (status == ProcessingStatus.FAILED) {
+            patch.put(ERROR_MESSAGE_COLUMN, errorMessage);
+        } else if (status != ProcessingStatus.PROCESSING) {
+            patch.put(ERROR_MESSAGE_COLUMN, null);
+        }
+
+        Lock lock = fileLocks.get(fileId);
+        lock.lock();
+        try {
+            if (status == ProcessingStatus.PROCESSING) {
+                pendingPatches.computeIfAbsent(fileId, key -> new LinkedHashMap<>()).putAll(patch);
+                return;
+            }
+            writeWithPending(fileId, patch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void updateTags(String fileId, List<String> tags) {
+        if (!StringUtils.hasText(fileId)) {
+            return;
+        }
+        Map<String, String> normalized = normalizeTags(tags);
+        Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put(TAGS_COLUMN, normalized.values().toArray(new String[0]));
+
+        Lock lock = fileLocks.get(fileId);
+        lock.lock();
+        try {
+            // 条带锁在事务提交前就会释放，以文件行锁把同一文件的标签更新串行到提交为止，
+            // 避免并发的删除与插入在 kb_file_tag 上交错
+            FileDetail file = fileDetailMapper.selectOne(new LambdaQueryWrapper<FileDetail>()
+                    .select(FileDetail::getId, FileDetail::getObjectType, FileDetail::getObjectId)
+                    .eq(FileDetail::getId, fileId)
+                    .last("FOR UPDATE"));
+            if (file == null) {
+                log.warn("Attempted to update tags for missing file: {}", fileId);
+                return;
+            }
+            writeWithPending(fileId, patch);
+            syncTagIndex(file, normalized);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.file.status-flush-interval:1000}")
+    public void flush() {
+        for (String fileId : pendingPatches.keySet()) {
+            Lock lock = fileLocks.get(fileId);
+            lock.lock();
+            Map<String, Object> patch = null;
+            try {
+                patch = pendingPatches.remove(fileId);
+                if (patch != null && !patch.isEmpty()) {
+                    writePatch(fileId, patch);
+                }
+                flushFailures.remove(fileId);
+            } catch (Exception ex) {
+                requeue(fileId, patch, ex);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 写出失败的补丁放回缓冲区；调用方需持有该文件的锁，因此期间不会有新的补丁写入缓冲区
+     */
+    private void requeue(String fileId, Map<String, Object> patch, Exception ex) {
+        if (patch == null || patch.isEmpty()) {
+            log.warn("Failed to flush file status: fileId={}", fileId, ex);
+            return;
+        }
+        int attempts = flushFailures.merge(fileId, 1, Integer::sum);
+        if (attempts >= MAX_FLUSH_ATTEMPTS) {
+            flushFailures.remove(fileId);
+            log.error("Dropping file status patch after {} failed flushes: fileId={} patch={}",
+                    attempts, fileId, patch, ex);
+            return;
+        }
+        pendingPatches.put(fileId, patch);
+        log.warn("Failed to flush file status, will retry: fileId={} attempt={}", fileId, attempts, ex);
+    }
+
+    /**
+     * 调用方需持有该文件的锁；写出失败时缓冲中的补丁保留，异常交给调用方
+     */
+    private void writeWithPending(String fileId, Map<String, Object> patch) {
+        Map<String, Object> pending = pendingPatches.remove(fileId);
+        Map<String, Object> combined = new LinkedHashMap<>();
+        if (pending != null) {
+            combined.putAll(pending);
+        }
+        combined.putAll(patch);
+        try {
+            writePatch(fileId, combined);
+        } catch (RuntimeException ex) {
+            if (pending != null) {
+                pendingPatches.put(fileId, pending);
+            }
+            throw ex;
+        }
+        flushFailures.remove(fileId);
+    }
+
+    /**
+     * 重建文件在 kb_file_tag 中的索引行
+     */
+    private void syncTagIndex(FileDetail file, Map<String, String> tags) {
+        String fileId = file.getId();
+        kbFileTagMapper.delete(new LambdaQueryWrapper<KbFileTag>().eq(KbFileTag::getFileId, fileId));
+        if (tags.isEmpty() || !OBJECT_TYPE_KB.equals(file.getObjectType())) {
+            return;
+        }
+        Long kbId;
+        try {
+            kbId = Long.valueOf(file.getObjectId());
+        } catch (NumberFormatException ex) {
+            log.warn("无法解析文件关联的知识库ID: fileId={}, objectId={}", fileId, file.getObjectId());
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        tags.forEach((tagLower, tag) -> kbFileTagMapper.insert(KbFileTag.builder()
+                .kbId(kbId)
+                .fileId(fileId)
+                .tag(tag)
+                .tagLower(tagLower)
+                .createdAt(now)
+                .build()));
+    }
+
+    /**
+     * 去除空白与大小写重复的标签，返回 小写标签 -> 原始标签
+     */
+    private Map<String, String> normalizeTags(List<String> tags) {
+        Map<String, String> normalized = new LinkedHashMap<>();
+        if (tags == null) {
+            return normalized;
+        }
+        for (String tag : tags) {
+            if (!StringUtils.hasText(tag)) {
+                continue;
+            }
+            String trimmed = tag.trim();
+            if (trimmed.length() > MAX_TAG_LENGTH) {
+                trimmed = trimmed.substring(0, MAX_TAG_LENGTH);
+            }
+            normalized.putIfAbsent(trimmed.toLowerCase(Locale.ROOT), trimmed);
+        }
+        return normalized;
+    }
+
+    private void writePatch(String fileId, Map<String, Object> patch) {
+        UpdateWrapper<FileDetail> wrapper = new UpdateWrapper<FileDetail>().eq("id", fileId);
+        patch.forEach((column, value) -> {
+            if (TAGS_COLUMN.equals(column)) {
+                wrapper.set(column, value, TAGS_MAPPING);
+            } else {
+                wrapper.set(column, value);
+            }
+        });
+        int rows = fileDetailMapper.update(null, wrapper);
+        if (rows == 0) {
+            log.warn("Attempted to update status for missing file: {}", fileId);
+        }
+    }
+}
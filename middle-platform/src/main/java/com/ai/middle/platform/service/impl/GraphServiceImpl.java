@@ -0,0 +1,208 @@
+package com.ai.middle.platform.service.impl;
+
+import com.ai.middle.platform.common.enums.ProcessingStatus;
+import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.common.util.CursorUtils;
+import com.ai.middle.platform.config.GraphProperties;
+import com.ai.middle.platform.dto.response.GraphViewDTO;
+import com.ai.middle.platform.dto.response.KnowledgeGraphDTO;
+import com.ai.middle.platform.entity.po.FileDetail;
+import com.ai.middle.platform.entity.po.KbKnowledgeBase;
+import com.ai.middle.platform.repository.mapper.FileDetailMapper;
+import com.ai.middle.platform.repository.mapper.KbKnowledgeBaseMapper;
+import com.ai.middle.platform.repository.neo4j.EntityGraphRepository;
+import com.ai.middle.platform.repository.neo4j.EntityGraphRepository.EntityRow;
+import com.ai.middle.platform.repository.neo4j.EntityGraphRepository.GraphEdge;
+import com.ai.middle.platform.repository.neo4j.EntityGraphRepository.GraphNode;
+import com.ai.middle.platform.repository.neo4j.EntityGraphRepository.Subgraph;
+import com.ai.middle.platform.service.GraphService;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GraphServiceImpl implements GraphService {
+
+    private static final String OBJECT_TYPE_KB = "knowledge_base";
+    private static final String DEFAULT_EDGE_LABEL = "关联";
+
+    private final EntityGraphRepository entityGraphRepository;
+    private final GraphProperties graphProperties;
+    private final KbKnowledgeBaseMapper knowledgeBaseMapper;
+    private final FileDetailMapper fileDetailMapper;
+
+    @Override
+    public GraphViewDTO neighbors(String kbId, String entityId, Integer depth, Integer limit) {
+        if (!StringUtils.hasText(entityId)) {
+            throw new BusinessException(400, "实体ID不能为空");
+        }
+        List<String> documentIds = loadGraphFileIds(kbId, null);
+        int resolvedDepth = clamp(depth, 1, graphProperties.getMaxDepth());
+        int resolvedLimit = clamp(limit, graphProperties.getDefaultNeighborLimit(), graphProperties.getMaxNeighborLimit());
+        if (documentIds.isEmpty()) {
+            throw new BusinessException("实体不存在: " + entityId);
+        }
+        Subgraph subgraph = query(() -> entityGraphRepository.neighbors(
+                entityId, documentIds, resolvedDepth, resolvedLimit, graphProperties.getQueryTimeout()))
+                .orElseThrow(() -> new BusinessException("实体不存在: " + entityId));
+        return toView(subgraph.nodes(), subgraph.edges(), subgraph.truncated());
+    }
+
+    @Override
+    public GraphViewDTO shortestPath(String kbId, String from, String to, Integer maxLength) {
+        if (!StringUtils.hasText(from) || !StringUtils.hasText(to)) {
+            throw new BusinessException(400, "起止实体ID不能为空");
+        }
+        if (from.equals(to)) {
+            throw new BusinessException(400, "起止实体不能相同");
+        }
+        List<String> documentIds = loadGraphFileIds(kbId, null);
+        int resolvedLength = clamp(maxLength, graphProperties.getMaxPathLength(), graphProperties.getMaxPathLength());
+        if (documentIds.isEmpty()) {
+            return toView(List.of(), List.of(), false);
+        }
+        return query(() -> entityGraphRepository.shortestPath(
+                from, to, documentIds, resolvedLength, graphProperties.getQueryTimeout()))
+                .map(path -> toView(path.nodes(), path.edges(), false))
+                .orElseGet(() -> toView(List.of(), List.of(), false));
+    }
+
+    @Override
+    public GraphViewDTO subgraph(String kbId, String fileId, String cursor, Integer size) {
+        List<String> documentIds = loadGraphFileIds(kbId, fileId);
+        int pageSize = clamp(size, graphProperties.getDefaultPageSize(), graphProperties.getMaxPageSize());
+        String after = CursorUtils.decodeKey(cursor);
+        if (documentIds.isEmpty()) {
+            return GraphViewDTO.builder()
+                    .nodes(List.of())
+                    .edges(List.of())
+                    .truncated(false)
+                    .hasMore(false)
+                    .build();
+        }
+
+        // 多取一行用于判断是否还有下一页
+        List<EntityRow> rows = query(() -> entityGraphRepository.entities(
+                documentIds,
+                after != null ? after : "",
+                pageSize + 1,
+                graphProperties.getMaxEdgesPerEntity(),
+                graphProperties.getQueryTimeout()));
+
+        List<GraphNode> nodes = new ArrayList<>();
+        List<GraphEdge> edges = new ArrayList<>();
+        boolean truncated = false;
+        int edgeBudget = graphProperties.getMaxEdgesPerPage();
+        for (EntityRow row : rows) {
+            if (nodes.size() == pageSize) {
+                break;
+            }
+            // 边数达到单页上限时提前结束本页，下一页从当前实体继续，保证每条边只返回一次
+            if (!nodes.isEmpty() && edges.size() + row.edges().size() > edgeBudget) {
+                break;
+            }
+            nodes.add(row.node());
+            edges.addAll(row.edges());
+            truncated |= row.edges().size() >= graphProperties.getMaxEdgesPerEntity();
+        }
+
+        boolean hasMore = rows.size() > nodes.size();
+        GraphViewDTO view = toView(nodes, edges, truncated);
+        view.setHasMore(hasMore);
+        view.setNextCursor(hasMore ? CursorUtils.encodeKey(nodes.get(nodes.size() - 1).id()) : null);
+        return view;
+    }
+
+    /**
+     * 知识库中知识图谱已生成的文件；指定文件时校验其属于该知识库
+     */
+    private List<String> loadGraphFileIds(String kbId, String fileId) {
+        KbKnowledgeBase knowledgeBase = knowledgeBaseMapper.selectOne(new LambdaQueryWrapper<KbKnowledgeBase>()
+                .eq(KbKnowledgeBase::getKbId, kbId));
+        if (knowledgeBase == null) {
+            throw new BusinessException("知识库不存在: " + kbId);
+        }
+        List<String> fileIds = fileDetailMapper.selectList(new LambdaQueryWrapper<FileDetail>()
+                        .select(FileDetail::getId)
+                        .eq(FileDetail::getObjectType, OBJECT_TYPE_KB)
+                        .eq(FileDetail::getObjectId, String.valueOf(knowledgeBase.getId()))
+                        .eq(StringUtils.hasText(fileId), FileDetail::getId, fileId)
+                        .eq(FileDetail::getKnowledgeGraphStatus, ProcessingStatus.COMPLETED.getCode()))
+                .stream()
+                .map(FileDetail::getId)
+                .toList();
+        if (StringUtils.hasText(fileId) && fileIds.isEmpty()) {
+            throw new BusinessException("文件不存在或知识图谱尚未生成");
+        }
+        return fileIds;
+    }
+
+    private <T> T query(Supplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (Neo4jException ex) {
+            log.warn("图谱查询失败: {}", ex.getMessage());
+            throw new BusinessException("图谱查询失败，请缩小查询范围后重试");
+        }
+    }
+
+    /**
+     * 转换为响应结构，按ID去重节点，按 (起点, 终点, 类型) 去重边
+     */
+    private GraphViewDTO toView(Collection<GraphNode> nodes, Collection<GraphEdge> edges, boolean truncated) {
+        Map<String, KnowledgeGraphDTO.GraphNodeDTO> nodeById = new LinkedHashMap<>();
+        for (GraphNode node : nodes) {
+            if (StringUtils.hasText(node.id())) {
+                nodeById.putIfAbsent(node.id(), KnowledgeGraphDTO.GraphNodeDTO.builder()
+                        .id(node.id())
+                        .label(node.name())
+                        .type(node.type())
+                        .fileId(node.fileId())
+                        .build());
+            }
+        }
+        Map<String, KnowledgeGraphDTO.GraphEdgeDTO> edgeByKey = new LinkedHashMap<>();
+        for (GraphEdge edge : edges) {
+            if (!StringUtils.hasText(edge.source()) || !StringUtils.hasText(edge.target())) {
+                continue;
+            }
+            edgeByKey.putIfAbsent(edge.source() + "->" + edge.target() + "::" + edge.type(),
+                    KnowledgeGraphDTO.GraphEdgeDTO.builder()
+                            .source(edge.source())
+                            .target(edge.target())
+                            .label(edgeLabel(edge.description(), edge.type()))
+                            .type(edge.type())
+                            .build());
+        }
+        return GraphViewDTO.builder()
+                .nodes(new ArrayList<>(nodeById.values()))
+                .edges(new ArrayList<>(edgeByKey.values()))
+                .truncated(truncated)
+                .build();
+    }
+
+    private String edgeLabel(String description, String type) {
+        if (StringUtils.hasText(description)) {
+            return description;
+        }
+        return StringUtils.hasText(type) ? type : DEFAULT_EDGE_LABEL;
+    }
+
+    private int clamp(Integer value, int defaultValue, int max) {
+        if (value == null || value <= 0) {
+            return Math.min(defaultValue, max);
+        }
+        return Math.min(value, max);
+    }
+}
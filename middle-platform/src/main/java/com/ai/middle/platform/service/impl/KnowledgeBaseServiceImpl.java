@@ -5,20 +5,29 @@ import com.ai.middle.platform.common.util.IdUtil;
 import com.ai.middle.platform.dto.request.KnowledgeBaseRequest;
 import com.ai.middle.platform.dto.response.KnowledgeBaseDTO;
 import com.ai.middle.platform.dto.response.MemberDTO;
+import com.ai.middle.platform.dto.response.PageDTO;
 import com.ai.middle.platform.dto.response.UserDTO;
 import com.ai.middle.platform.entity.po.KbKnowledgeBase;
 import com.ai.middle.platform.entity.po.KbMember;
-import com.ai.middle.platform.entity.po.SysUser;
 import com.ai.middle.platform.repository.mapper.KbKnowledgeBaseMapper;
 import com.ai.middle.platform.repository.mapper.KbMemberMapper;
-import com.ai.middle.platform.repository.mapper.SysUserMapper;
 import com.ai.middle.platform.service.KnowledgeBaseService;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -28,16 +37,46 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class KnowledgeBaseServiceImpl implements KnowledgeBaseService {
 
+    private static final long MAX_PAGE_SIZE = 100;
+
     private final KbKnowledgeBaseMapper kbMapper;
     private final KbMemberMapper memberMapper;
-    private final SysUserMapper userMapper;
+    private final RequestUserCache requestUserCache;
+
+    @Value("${app.kb.membership-cache-ttl:30s}")
+    private Duration membershipCacheTtl;
+
+    /**
+     * 知识库内部ID -> 拥有者与成员；成员变更时需调用 {@link #evictMembershipCache(Long)}
+     */
+    private Cache<Long, Membership> membershipCache;
+
+    @PostConstruct
+    public void initMembershipCache() {
+        membershipCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(membershipCacheTtl)
+                .maximumSize(10_000)
+                .build();
+    }
 
     @Override
     public List<KnowledgeBaseDTO> list() {
         List<KbKnowledgeBase> kbList = kbMapper.selectList(null);
-        return kbList.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(kbList);
+    }
+
+    @Override
+    public PageDTO<KnowledgeBaseDTO> page(long current, long size) {
+        long pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Page<KbKnowledgeBase> page = kbMapper.selectPage(new Page<>(Math.max(current, 1), pageSize),
+                new LambdaQueryWrapper<KbKnowledgeBase>()
+                        .orderByDesc(KbKnowledgeBase::getCreatedAt, KbKnowledgeBase::getId));
+        return PageDTO.<KnowledgeBaseDTO>builder()
+                .records(convertToDTOs(page.getRecords()))
+                .total(page.getTotal())
+                .current(page.getCurrent())
+                .size(page.getSize())
+                .build();
     }
 
     @Override
@@ -85,62 +124,96 @@ public class KnowledgeBaseServiceImpl implements KnowledgeBaseService {
 
         // 级联删除由数据库约束处理
         kbMapper.deleteById(kb.getId());
+        evictMembershipCache(kb.getId());
+    }
+
+    @Override
+    public void evictMembershipCache(Long kbInternalId) {
+        if (kbInternalId != null) {
+            membershipCache.invalidate(kbInternalId);
+        }
     }
 
     /**
      * 将实体转换为DTO
      */
     private KnowledgeBaseDTO convertToDTO(KbKnowledgeBase kb) {
-        SysUser owner = userMapper.selectById(kb.getOwnerId());
-        if (owner == null) {
-            throw new BusinessException("知识库拥有者不存在");
-        }
-
-        UserDTO ownerDTO = UserDTO.builder()
-                .id(owner.getId())
-                .username(owner.getUsername())
-                .email(owner.getEmail())
-                .name(owner.getName())
-                .avatar(owner.getAvatar())
-                .role(owner.getRole())
-                .build();
-
-        List<KbMember> members = memberMapper.selectList(new LambdaQueryWrapper<KbMember>()
-                .eq(KbMember::getKbId, kb.getId()));
-
-        List<MemberDTO> memberDTOs = members.stream()
-                .map(member -> {
-                    SysUser user = userMapper.selectById(member.getUserId());
-                    if (user == null) {
-                        throw new BusinessException("成员用户不存在");
-                    }
-
-                    UserDTO userDTO = UserDTO.builder()
-                            .id(user.getId())
-                            .username(user.getUsername())
-                            .email(user.getEmail())
-                            .name(user.getName())
-                            .avatar(user.getAvatar())
-                            .role(user.getRole())
-                            .build();
+        return convertToDTOs(List.of(kb)).get(0);
+    }
 
-                    return MemberDTO.builder()
-                            .user(userDTO)
-                            .role(member.getRole())
-                            .joinedAt(member.getJoinedAt())
+    /**
+     * 批量转换：成员一次查询、用户一次查询，已缓存的知识库不再访问数据库
+     */
+    private List<KnowledgeBaseDTO> convertToDTOs(List<KbKnowledgeBase> kbList) {
+        if (kbList.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Membership> memberships = loadMemberships(kbList);
+        return kbList.stream()
+                .map(kb -> {
+                    Membership membership = memberships.get(kb.getId());
+                    return KnowledgeBaseDTO.builder()
+                            .id(kb.getKbId())
+                            .name(kb.getName())
+                            .description(kb.getDescription())
+                            .fileCount(kb.getFileCount())
+                            .owner(membership.owner())
+                            .members(membership.members())
+                            .createdAt(kb.getCreatedAt())
+                            .updatedAt(kb.getUpdatedAt())
                             .build();
                 })
                 .collect(Collectors.toList());
+    }
 
-        return KnowledgeBaseDTO.builder()
-                .id(kb.getKbId())
-                .name(kb.getName())
-                .description(kb.getDescription())
-                .fileCount(kb.getFileCount())
-                .owner(ownerDTO)
-                .members(memberDTOs)
-                .createdAt(kb.getCreatedAt())
-                .updatedAt(kb.getUpdatedAt())
-                .build();
+    private Map<Long, Membership> loadMemberships(List<KbKnowledgeBase> kbList) {
+        Map<Long, Membership> result = new HashMap<>(membershipCache.getAllPresent(
+                kbList.stream().map(KbKnowledgeBase::getId).collect(Collectors.toList())));
+        List<KbKnowledgeBase> missing = kbList.stream()
+                .filter(kb -> !result.containsKey(kb.getId()))
+                .collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, List<KbMember>> membersByKb = memberMapper.selectList(new LambdaQueryWrapper<KbMember>()
+                        .in(KbMember::getKbId, missing.stream().map(KbKnowledgeBase::getId).collect(Collectors.toList())))
+                .stream()
+                .collect(Collectors.groupingBy(KbMember::getKbId));
+
+        Set<Long> userIds = new HashSet<>();
+        missing.forEach(kb -> userIds.add(kb.getOwnerId()));
+        membersByKb.values().forEach(members -> members.forEach(member -> userIds.add(member.getUserId())));
+        requestUserCache.preload(userIds);
+
+        for (KbKnowledgeBase kb : missing) {
+            UserDTO owner = requestUserCache.get(kb.getOwnerId());
+            if (owner == null) {
+                throw new BusinessException("知识库拥有者不存在");
+            }
+            List<MemberDTO> memberDTOs = membersByKb.getOrDefault(kb.getId(), List.of()).stream()
+                    .map(member -> {
+                        UserDTO user = requestUserCache.get(member.getUserId());
+                        if (user == null) {
+                            throw new BusinessException("成员用户不存在");
+                        }
+                        return MemberDTO.builder()
+                                .user(user)
+                                .role(member.getRole())
+                                .joinedAt(member.getJoinedAt())
+                                .build();
+                    })
+                    .collect(Collectors.toList());
+            Membership membership = new Membership(owner, List.copyOf(memberDTOs));
+            membershipCache.put(kb.getId(), membership);
+            result.put(kb.getId(), membership);
+        }
+        return result;
+    }
+
+    /**
+     * 知识库的拥有者与成员，按知识库内部ID缓存
+     */
+    private record Membership(UserDTO owner, List<MemberDTO> members) {
     }
 }
@@ -0,0 +1,78 @@
+package com.ai.middle.platform.service.impl;
+
+import com.ai.middle.platform.dto.response.UserDTO;
+import com.ai.middle.platform.entity.po.SysUser;
+import com.ai.middle.platform.repository.mapper.SysUserMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 请求级用户缓存
+ * <p>
+ * 列表接口先调用 {@link #preload(Collection)} 批量加载本页涉及的用户，
+ * 之后逐条转换时从缓存取值，一个请求内同一用户只查询一次。
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class RequestUserCache {
+
+    private final SysUserMapper userMapper;
+
+    /**
+     * userId -> 用户信息，不存在的用户以 null 值占位，避免重复查询
+     */
+    private final Map<Long, UserDTO> users = new HashMap<>();
+
+    /**
+     * 批量加载尚未缓存的用户
+     */
+    public void preload(Collection<Long> userIds) {
+        List<Long> missing = userIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .filter(id -> !users.containsKey(id))
+                .collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<Long, SysUser> loaded = userMapper.selectBatchIds(missing).stream()
+                .collect(Collectors.toMap(SysUser::getId, user -> user));
+        for (Long id : missing) {
+            SysUser user = loaded.get(id);
+            users.put(id, user == null ? null : toDTO(user));
+        }
+    }
+
+    /**
+     * 获取用户信息，未预加载时按需单独查询
+     */
+    public UserDTO get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        if (!users.containsKey(userId)) {
+            preload(List.of(userId));
+        }
+        return users.get(userId);
+    }
+
+    private UserDTO toDTO(SysUser user) {
+        return UserDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .name(user.getName())
+                .email(user.getEmail())
+                .avatar(user.getAvatar())
+                .role(user.getRole())
+                .build();
+    }
+}
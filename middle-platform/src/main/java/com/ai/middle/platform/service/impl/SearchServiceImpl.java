@@ -0,0 +1,363 @@
+package com.ai.middle.platform.service.impl;
+
+import com.ai.middle.platform.common.enums.ProcessingStatus;
+import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.common.util.LexicalTerms;
+import com.ai.middle.platform.common.util.ReciprocalRankFusion;
+import com.ai.middle.platform.config.SearchProperties;
+import com.ai.middle.platform.config.VectorStoreProperties;
+import com.ai.middle.platform.dto.request.SearchRequest;
+import com.ai.middle.platform.dto.response.SearchHitDTO;
+import com.ai.middle.platform.entity.po.FileDetail;
+import com.ai.middle.platform.entity.po.KbKnowledgeBase;
+import com.ai.middle.platform.repository.mapper.FileDetailMapper;
+import com.ai.middle.platform.repository.mapper.KbKnowledgeBaseMapper;
+import com.ai.middle.platform.repository.neo4j.EntityGraphRepository;
+import com.ai.middle.platform.repository.vector.VectorMatch;
+import com.ai.middle.platform.repository.vector.VectorStoreRepository;
+import com.ai.middle.platform.repository.vector.VectorStoreRepository.PageRef;
+import com.ai.middle.platform.service.SearchService;
+import com.ai.middle.platform.service.model.QueryEmbeddingCache;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+@Slf4j
+@Service
+public class SearchServiceImpl implements SearchService {
+
+    private static final int DEFAULT_TOP_K = 10;
+    private static final String MODE_HYBRID = "hybrid";
+    private static final String MODE_GRAPH = "graph";
+    private static final String OBJECT_TYPE_KB = "knowledge_base";
+    private static final int MAX_CHUNK_PAGE_SPAN = 50;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final VectorStoreRepository vectorStoreRepository;
+    private final VectorStoreProperties vectorStoreProperties;
+    private final SearchProperties searchProperties;
+    private final KbKnowledgeBaseMapper knowledgeBaseMapper;
+    private final FileDetailMapper fileDetailMapper;
+    private final TaskExecutor retrievalExecutor;
+    private final EntityGraphRepository entityGraphRepository;
+
+    /**
+     * 相同知识库、查询与参数的检索结果短期复用，并发的相同请求只检索一次；
+     * 缓存的命中列表为共享对象，调用方不得修改
+     */
+    private final Cache<SearchCacheKey, List<SearchHitDTO>> resultCache;
+
+    public SearchServiceImpl(QueryEmbeddingCache queryEmbeddingCache,
+                             VectorStoreRepository vectorStoreRepository,
+                             VectorStoreProperties vectorStoreProperties,
+                             SearchProperties searchProperties,
+                             KbKnowledgeBaseMapper knowledgeBaseMapper,
+                             FileDetailMapper fileDetailMapper,
+                             @Qualifier("retrievalExecutor") TaskExecutor retrievalExecutor,
+                             EntityGraphRepository entityGraphRepository,
+                             MeterRegistry meterRegistry) {
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.vectorStoreRepository = vectorStoreRepository;
+        this.vectorStoreProperties = vectorStoreProperties;
+        this.searchProperties = searchProperties;
+        this.knowledgeBaseMapper = knowledgeBaseMapper;
+        this.fileDetailMapper = fileDetailMapper;
+        this.retrievalExecutor = retrievalExecutor;
+        this.entityGraphRepository = entityGraphRepository;
+        this.resultCache = CacheBuilder.newBuilder()
+                .maximumSize(searchProperties.getResultCacheSize())
+                .expireAfterWrite(searchProperties.getResultCacheTtl())
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, resultCache, "kb.search.result");
+    }
+
+    @Override
+    public List<SearchHitDTO> search(String kbId, SearchRequest request) {
+        KbKnowledgeBase knowledgeBase = findKnowledgeBase(kbId);
+        String kbKey = String.valueOf(knowledgeBase.getId());
+        if (searchProperties.getResultCacheTtl().isZero()) {
+            return doSearch(kbKey, request);
+        }
+        try {
+            return resultCache.get(SearchCacheKey.of(kbKey, request), () -> List.copyOf(doSearch(kbKey, request)));
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BusinessException("知识库检索失败: " + cause.getMessage());
+        }
+    }
+
+    private List<SearchHitDTO> doSearch(String kbKey, SearchRequest request) {
+        int topK = request.getTopK() != null ? request.getTopK() : DEFAULT_TOP_K;
+        if (MODE_HYBRID.equalsIgnoreCase(request.getMode())) {
+            return fusedSearch(kbKey, request, topK, false);
+        }
+        if (MODE_GRAPH.equalsIgnoreCase(request.getMode())) {
+            return fusedSearch(kbKey, request, topK, true);
+        }
+
+        long startNanos = System.nanoTime();
+        List<VectorMatch> matches = vectorSearch(kbKey, request, topK);
+        List<SearchHitDTO> hits = toHits(matches, null, false);
+        log.debug("知识库检索完成: kbId={} mode=vector hits={} costMs={}", kbKey, hits.size(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+        return hits;
+    }
+
+    /**
+     * 第二路（关键词或知识图谱）在检索线程池中执行，与查询向量化及向量检索并行；
+     * 第二路失败或超时时退化为纯向量结果
+     */
+    private List<SearchHitDTO> fusedSearch(String kbKey, SearchRequest request, int topK, boolean graph) {
+        long startNanos = System.nanoTime();
+        int candidates = Math.min(topK * searchProperties.getCandidateMultiplier(), searchProperties.getMaxCandidates());
+        List<String> terms = extractTerms(request.getQuery());
+        String legName = graph ? "知识图谱" : "关键词";
+        Duration timeout = graph ? searchProperties.getGraphTimeout() : searchProperties.getLexicalTimeout();
+
+        CompletableFuture<List<VectorMatch>> secondFuture = terms.isEmpty()
+                ? CompletableFuture.completedFuture(List.of())
+                : CompletableFuture.supplyAsync(() -> graph
+                                ? graphSearch(kbKey, terms, request.getFileIds(), candidates)
+                                : vectorStoreRepository.lexicalSearch(vectorStoreProperties.getDefaultStore(),
+                                        terms, kbKey, request.getFileIds(), candidates, timeout),
+                        retrievalExecutor);
+        secondFuture = secondFuture
+                .completeOnTimeout(null, timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    log.warn("{}检索失败，仅使用向量检索结果: {}", legName, ex.getMessage());
+                    return List.of();
+                });
+
+        List<VectorMatch> vectorMatches = vectorSearch(kbKey, request, candidates);
+        List<VectorMatch> secondMatches = secondFuture.join();
+        if (secondMatches == null) {
+            log.warn("{}检索超时，仅使用向量检索结果: timeout={}", legName, timeout);
+            secondMatches = List.of();
+        }
+
+        List<ReciprocalRankFusion.Fused<VectorMatch>> fused = ReciprocalRankFusion.fuse(
+                List.of(vectorMatches, secondMatches), VectorMatch::embeddingId, searchProperties.getRrfK());
+        List<ReciprocalRankFusion.Fused<VectorMatch>> top = fused.subList(0, Math.min(topK, fused.size()));
+        List<SearchHitDTO> hits = toHits(top.stream().map(ReciprocalRankFusion.Fused::item).toList(), top, graph);
+
+        log.debug("知识库检索完成: kbId={} mode={} terms={} vector={} second={} hits={} costMs={}", kbKey,
+                graph ? MODE_GRAPH : MODE_HYBRID, terms.size(), vectorMatches.size(), secondMatches.size(), hits.size(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+        return hits;
+    }
+
+    /**
+     * 以查询词命中的实体为种子，沿实体关系扩展一至两跳，再把触及的页面映射回文本块：
+     * 种子权重为归一化的全文检索得分，每远一跳乘以衰减系数，文本块得分为其页码范围内各页权重之和
+     */
+    private List<VectorMatch> graphSearch(String kbKey, List<String> terms, List<String> fileIds, int limit) {
+        Collection<String> documentIds = CollectionUtils.isEmpty(fileIds) ? loadGraphFileIds(kbKey) : fileIds;
+        if (documentIds.isEmpty()) {
+            return List.of();
+        }
+        List<EntityGraphRepository.SeedExpansion> expansions = entityGraphRepository.expand(
+                toLuceneQuery(terms),
+                documentIds,
+                searchProperties.getGraphSeedCandidates(),
+                searchProperties.getGraphSeeds(),
+                searchProperties.getGraphFanOut(),
+                searchProperties.getGraphMaxHops(),
+                searchProperties.getGraphTimeout());
+        if (expansions.isEmpty()) {
+            return List.of();
+        }
+
+        double maxScore = expansions.stream().mapToDouble(EntityGraphRepository.SeedExpansion::score).max().orElse(0D);
+        Map<PageRef, Double> pageWeights = new HashMap<>();
+        for (EntityGraphRepository.SeedExpansion expansion : expansions) {
+            if (expansion.documentId() == null) {
+                continue;
+            }
+            double weight = maxScore > 0 ? expansion.score() / maxScore : 1D;
+            for (List<Integer> pages : expansion.hopPages()) {
+                for (Integer page : new HashSet<>(pages)) {
+                    pageWeights.merge(new PageRef(expansion.documentId(), page), weight, Double::sum);
+                }
+                weight *= searchProperties.getGraphHopDecay();
+            }
+        }
+        List<PageRef> topPages = pageWeights.entrySet().stream()
+                .sorted(Map.Entry.<PageRef, Double>comparingByValue().reversed())
+                .limit(searchProperties.getGraphMaxPages())
+                .map(Map.Entry::getKey)
+                .toList();
+
+        // 按页查询的结果无序，多取一些再按权重截断
+        List<VectorMatch> chunks = vectorStoreRepository.findChunksByPages(
+                vectorStoreProperties.getDefaultStore(), kbKey, topPages, Math.max(limit, topPages.size() * 4));
+        Map<String, Double> chunkWeights = new HashMap<>();
+        for (VectorMatch chunk : chunks) {
+            String fileId = chunk.metadataString("fileId");
+            Integer pageStart = chunk.metadataInt("pageStart");
+            Integer pageEnd = chunk.metadataInt("pageEnd");
+            if (pageStart == null) {
+                chunkWeights.put(chunk.embeddingId(), 0D);
+                continue;
+            }
+            int last = pageEnd != null ? Math.min(pageEnd, pageStart + MAX_CHUNK_PAGE_SPAN) : pageStart;
+            double weight = 0D;
+            for (int page = pageStart; page <= last; page++) {
+                weight += pageWeights.getOrDefault(new PageRef(fileId, page), 0D);
+            }
+            chunkWeights.put(chunk.embeddingId(), weight);
+        }
+        double maxWeight = chunkWeights.values().stream().mapToDouble(Double::doubleValue).max().orElse(0D);
+        return chunks.stream()
+                .sorted(Comparator.comparingDouble((VectorMatch chunk) -> chunkWeights.get(chunk.embeddingId())).reversed())
+                .limit(limit)
+                .map(chunk -> new VectorMatch(chunk.embeddingId(), chunk.text(), chunk.metadata(),
+                        maxWeight > 0 ? chunkWeights.get(chunk.embeddingId()) / maxWeight : 0D))
+                .toList();
+    }
+
+    /**
+     * 每个词项作为短语查询，转义后以 OR 连接；中文按默认分析器的单字切分做短语匹配
+     */
+    private String toLuceneQuery(List<String> terms) {
+        return terms.stream()
+                .map(term -> "\"" + term.replace("\\", "\\\\").replace("\"", "\\\"") + "\"")
+                .collect(Collectors.joining(" OR "));
+    }
+
+    private List<String> loadGraphFileIds(String kbKey) {
+        return fileDetailMapper.selectList(new LambdaQueryWrapper<FileDetail>()
+                        .select(FileDetail::getId)
+                        .eq(FileDetail::getObjectType, OBJECT_TYPE_KB)
+                        .eq(FileDetail::getObjectId, kbKey)
+                        .eq(FileDetail::getKnowledgeGraphStatus, ProcessingStatus.COMPLETED.getCode()))
+                .stream()
+                .map(FileDetail::getId)
+                .toList();
+    }
+
+    private List<VectorMatch> vectorSearch(String kbKey, SearchRequest request, int limit) {
+        float[] queryVector = queryEmbeddingCache.embed(request.getQuery());
+        List<VectorMatch> matches = vectorStoreRepository.search(
+                vectorStoreProperties.getDefaultStore(),
+                queryVector,
+                kbKey,
+                request.getFileIds(),
+                limit);
+        double minScore = request.getMinScore() != null ? request.getMinScore() : 0D;
+        return matches.stream()
+                .filter(match -> match.score() >= minScore)
+                .toList();
+    }
+
+    private List<String> extractTerms(String query) {
+        return LexicalTerms.extract(query, searchProperties.getMaxLexicalTerms());
+    }
+
+    private List<SearchHitDTO> toHits(List<VectorMatch> matches,
+                                      List<ReciprocalRankFusion.Fused<VectorMatch>> fused,
+                                      boolean graph) {
+        if (matches.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, String> fileNames = loadFileNames(matches.stream()
+                .map(match -> match.metadataString("fileId"))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        List<SearchHitDTO> hits = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            VectorMatch match = matches.get(i);
+            String fileId = match.metadataString("fileId");
+            SearchHitDTO.SearchHitDTOBuilder hit = SearchHitDTO.builder()
+                    .chunkId(match.embeddingId())
+                    .fileId(fileId)
+                    .fileName(fileId != null ? fileNames.get(fileId) : null)
+                    .chunkIndex(match.metadataInt("chunkIndex"))
+                    .pageStart(match.metadataInt("pageStart"))
+                    .pageEnd(match.metadataInt("pageEnd"))
+                    .content(match.text());
+            if (fused != null) {
+                ReciprocalRankFusion.Fused<VectorMatch> entry = fused.get(i);
+                hit.score(entry.score()).vectorRank(entry.ranks().get(0));
+                if (graph) {
+                    hit.graphRank(entry.ranks().get(1));
+                } else {
+                    hit.lexicalRank(entry.ranks().get(1));
+                }
+            } else {
+                hit.score(match.score()).vectorRank(i + 1);
+            }
+            hits.add(hit.build());
+        }
+        return hits;
+    }
+
+    private Map<String, String> loadFileNames(Set<String> fileIds) {
+        if (CollectionUtils.isEmpty(fileIds)) {
+            return Collections.emptyMap();
+        }
+        return fileDetailMapper.selectList(new LambdaQueryWrapper<FileDetail>()
+                        .select(FileDetail::getId, FileDetail::getOriginalFilename)
+                        .in(FileDetail::getId, fileIds))
+                .stream()
+                .filter(file -> file.getOriginalFilename() != null)
+                .collect(Collectors.toMap(FileDetail::getId, FileDetail::getOriginalFilename, (a, b) -> a));
+    }
+
+    /**
+     * 结果缓存键，查询文本按空白归一化，文件过滤条件与顺序无关
+     */
+    private record SearchCacheKey(String kbKey, String query, int topK, String mode, List<String> fileIds, Double minScore) {
+
+        static SearchCacheKey of(String kbKey, SearchRequest request) {
+            List<String> fileIds = CollectionUtils.isEmpty(request.getFileIds())
+                    ? List.of()
+                    : request.getFileIds().stream().distinct().sorted().toList();
+            return new SearchCacheKey(
+                    kbKey,
+                    WHITESPACE.matcher(request.getQuery().trim()).replaceAll(" "),
+                    request.getTopK() != null ? request.getTopK() : DEFAULT_TOP_K,
+                    request.getMode() != null ? request.getMode().toLowerCase(Locale.ROOT) : null,
+                    fileIds,
+                    request.getMinScore());
+        }
+    }
+
+    private KbKnowledgeBase findKnowledgeBase(String kbId) {
+        KbKnowledgeBase knowledgeBase = knowledgeBaseMapper.selectOne(new LambdaQueryWrapper<KbKnowledgeBase>()
+                .eq(KbKnowledgeBase::getKbId, kbId));
+        if (knowledgeBase == null) {
+            throw new BusinessException("知识库不存在: " + kbId);
+        }
+        return knowledgeBase;
+    }
+}
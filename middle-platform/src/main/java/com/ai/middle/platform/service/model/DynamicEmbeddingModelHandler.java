@@ -25,6 +25,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Embedding model implementation that dynamically resolves provider configuration
@@ -58,6 +59,28 @@ public class DynamicEmbeddingModelHandler implements EmbeddingModel {
         return Response.from(embeddings);
     }
 
+    /**
+     * Identity (provider/model) of the embedding model currently configured for vectorization.
+     * Vectors produced by different identities are not comparable.
+     */
+    public String currentModelId() {
+        return modelId(modelConfigService.getRuntimeConfig(DEFAULT_BUSINESS_CODE));
+    }
+
+    /**
+     * Embeds a single text with the given model identity. Failover only moves to endpoints that
+     * serve the same provider/model; when none is left the call fails instead of returning a
+     * vector that cannot be compared with the stored ones.
+     */
+    public Embedding embedWithModel(String text, String modelId) {
+        return executeWithFailover(runtimeConfig -> createEmbeddings(List.of(text), runtimeConfig).get(0),
+                runtimeConfig -> modelId.equals(modelId(runtimeConfig)));
+    }
+
+    private String modelId(ModelRuntimeConfig runtimeConfig) {
+        return runtimeConfig.provider() + "/" + runtimeConfig.embeddingModelName();
+    }
+
     private List<Embedding> createEmbeddings(List<String> instructions, ModelRuntimeConfig runtimeConfig) {
         EmbeddingInvocationContext invocationContext = resolveInvocationContext(runtimeConfig);
         List<Embedding> embeddings = new ArrayList<>();
@@ -147,6 +170,15 @@ public class DynamicEmbeddingModelHandler implements EmbeddingModel {
     }
 
     private <T> T executeWithFailover(Function<ModelRuntimeConfig, T> operation) {
+        return executeWithFailover(operation, runtimeConfig -> true);
+    }
+
+    /**
+     * @param eligible endpoints rejected here are skipped without a request and without being
+     *                 recorded as failed
+     */
+    private <T> T executeWithFailover(Function<ModelRuntimeConfig, T> operation,
+                                      Predicate<ModelRuntimeConfig> eligible) {
         Set<String> attemptedKeys = new LinkedHashSet<>();
         RuntimeException lastError = null;
 
@@ -164,6 +196,16 @@ public class DynamicEmbeddingModelHandler implements EmbeddingModel {
             ModelApiKey apiKey = runtimeConfig.apiKey();
             String keyId = apiKey != null ? apiKey.getKeyId() : null;
 
+            if (!eligible.test(runtimeConfig)) {
+                log.debug("Skipping embedding endpoint of provider {} model {}",
+                        runtimeConfig.provider(), runtimeConfig.embeddingModelName());
+                if (!StringUtils.hasText(keyId)) {
+                    break;
+                }
+                attemptedKeys.add(keyId);
+                continue;
+            }
+
             try {
                 T result = operation.apply(runtimeConfig);
                 if (StringUtils.hasText(keyId)) {
@@ -0,0 +1,26 @@
+package com.ai.middle.platform.service.model;
+
+/**
+ * Result of extracting a single document page.
+ *
+ * A page either carries text taken directly from the source document, or only an
+ * image that still has to go through vision OCR.
+ *
+ * @param pageIndex 1-based page index
+ * @param text      extracted text, null when the page needs OCR
+ * @param imageUrl  rendered page image, may be null for text pages without preview
+ */
+public record PageContent(int pageIndex, String text, String imageUrl) {
+
+    public static PageContent text(int pageIndex, String text, String imageUrl) {
+        return new PageContent(pageIndex, text, imageUrl);
+    }
+
+    public static PageContent image(int pageIndex, String imageUrl) {
+        return new PageContent(pageIndex, null, imageUrl);
+    }
+
+    public boolean hasText() {
+        return text != null;
+    }
+}
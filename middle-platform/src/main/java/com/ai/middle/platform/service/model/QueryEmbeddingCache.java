@@ -0,0 +1,91 @@
+package com.ai.middle.platform.service.model;
+
+import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.config.SearchProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import dev.langchain4j.data.embedding.Embedding;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches embeddings of search queries and questions.
+ *
+ * Entries are keyed by the configured embedding model (provider/model) as well as the text,
+ * because the model is resolved from the database on every call and may be switched at runtime;
+ * a vector from the previous model is never served for the new one. Query embedding only fails
+ * over to endpoints serving the configured model, since a vector from another model cannot be
+ * compared with the stored ones; with no such endpoint left the call fails and nothing is cached.
+ *
+ * Concurrent misses for the same key are coalesced: the first caller invokes the embedding
+ * model while the others wait for its result, so a burst of identical questions costs one
+ * provider request. Failures are not cached. Returned vectors are shared and must not be modified.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryEmbeddingCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    /**
+     * Normalized text never contains a line break, so it cannot collide with the model part of the key.
+     */
+    private static final String KEY_SEPARATOR = "\n";
+
+    private final DynamicEmbeddingModelHandler embeddingModel;
+    private final SearchProperties searchProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, float[]> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(searchProperties.getEmbeddingCacheSize())
+                .expireAfterWrite(searchProperties.getEmbeddingCacheTtl())
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, cache, "kb.query.embedding");
+    }
+
+    /**
+     * @param text query text; leading, trailing and repeated whitespace does not affect the key
+     */
+    public float[] embed(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            throw new BusinessException("查询内容不能为空");
+        }
+        String modelId = embeddingModel.currentModelId();
+        String key = modelId + KEY_SEPARATOR + normalized;
+        try {
+            return cache.get(key, () -> load(normalized, modelId));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError ex) {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BusinessException("查询向量化失败: " + cause.getMessage());
+        }
+    }
+
+    private float[] load(String text, String modelId) {
+        Embedding embedding = embeddingModel.embedWithModel(text, modelId);
+        if (embedding == null || embedding.vector() == null || embedding.vector().length == 0) {
+            throw new BusinessException("查询向量化失败");
+        }
+        return embedding.vector();
+    }
+
+    private String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.trim()).replaceAll(" ");
+    }
+}
@@ -4,8 +4,13 @@ import com.ai.middle.platform.common.exception.BusinessException;
 import com.ai.middle.platform.service.AIModelFactory;
 import com.ai.middle.platform.service.ModelConfigService;
 import com.ai.middle.platform.service.ModelConfigService.ModelRuntimeConfig;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
 import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -63,6 +68,61 @@ public class ChatExecutor {
         throw lastError;
     }
 
+    /**
+     * Streams a completion for the prompt. Key rotation only applies while no token has been
+     * forwarded yet; once the client has received output, a failure is reported to the handler.
+     * Handler callbacks run on the model client's threads.
+     */
+    public void stream(String businessCode, String prompt, StreamingResponseHandler<AiMessage> handler) {
+        streamAttempt(businessCode, prompt, handler, new LinkedHashSet<>(), 0, null);
+    }
+
+    private void streamAttempt(String businessCode,
+                               String prompt,
+                               StreamingResponseHandler<AiMessage> handler,
+                               LinkedHashSet<String> attemptedKeys,
+                               int attempt,
+                               Throwable lastError) {
+        ModelRuntimeConfig runtimeConfig;
+        StreamingChatLanguageModel streamingModel;
+        try {
+            runtimeConfig = modelConfigService.getRuntimeConfig(businessCode, attemptedKeys);
+            streamingModel = aiModelFactory.createStreamingChatModel(runtimeConfig);
+        } catch (RuntimeException ex) {
+            handler.onError(lastError != null ? lastError : ex);
+            return;
+        }
+        String keyId = runtimeConfig.apiKey() != null ? runtimeConfig.apiKey().getKeyId() : null;
+        AtomicBoolean started = new AtomicBoolean();
+
+        streamingModel.generate(prompt, new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {
+                started.set(true);
+                handler.onNext(token);
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                recordApiKeyUsage(runtimeConfig, true, null);
+                handler.onComplete(response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                recordApiKeyUsage(runtimeConfig, false, error.getMessage());
+                if (started.get() || keyId == null || attempt + 1 >= MAX_KEY_ATTEMPTS) {
+                    handler.onError(error);
+                    return;
+                }
+                attemptedKeys.add(keyId);
+                log.warn("Streaming chat failed for provider {} key {}, retrying with another key: {}",
+                        runtimeConfig.provider(), runtimeConfig.apiKey().getDisplayKey(), error.getMessage());
+                streamAttempt(businessCode, prompt, handler, attemptedKeys, attempt + 1, error);
+            }
+        });
+    }
+
     private void recordApiKeyUsage(ModelRuntimeConfig runtimeConfig, boolean success, String error) {
         if (runtimeConfig.apiKey() == null || !StringUtils.hasText(runtimeConfig.apiKey().getKeyId())) {
             return;
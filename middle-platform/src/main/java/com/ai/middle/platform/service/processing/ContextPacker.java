@@ -0,0 +1,100 @@
+package com.ai.middle.platform.service.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Packs ranked retrieval results into prompt context under a token budget.
+ *
+ * Token counts are estimated rather than computed with a model tokenizer, since the chat
+ * model is chosen per request from the database: CJK characters count as one token each and
+ * other text as one token per four characters, which errs on the high side for common BPE
+ * vocabularies. Passages are taken in rank order; one that does not fit is skipped so that
+ * a shorter, lower-ranked passage can still use the remaining budget.
+ */
+public final class ContextPacker {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private ContextPacker() {
+    }
+
+    /**
+     * @param text      packed context, blocks separated by blank lines
+     * @param items     included items in citation order, the n-th item is cited as n
+     * @param tokens    estimated tokens of {@code text}
+     */
+    public record Packed<T>(String text, List<T> items, int tokens) {
+    }
+
+    /**
+     * @param items       candidates ordered by relevance
+     * @param render      renders an item with its citation number (starting at 1)
+     * @param tokenBudget upper bound of estimated tokens
+     */
+    public static <T> Packed<T> pack(List<T> items, BiFunction<T, Integer, String> render, int tokenBudget) {
+        StringBuilder text = new StringBuilder();
+        List<T> included = new ArrayList<>();
+        int used = 0;
+        for (T item : items) {
+            String block = render.apply(item, included.size() + 1);
+            int tokens = estimateTokens(block) + 1;
+            if (used + tokens > tokenBudget) {
+                continue;
+            }
+            if (!included.isEmpty()) {
+                text.append("\n\n");
+            }
+            text.append(block);
+            included.add(item);
+            used += tokens;
+        }
+        if (included.isEmpty() && !items.isEmpty() && tokenBudget > 0) {
+            // 排名第一的文本块单独超出预算时截断后使用，避免上下文为空
+            T first = items.get(0);
+            String block = truncate(render.apply(first, 1), tokenBudget);
+            return new Packed<>(block, List.of(first), estimateTokens(block));
+        }
+        return new Packed<>(text.toString(), included, used);
+    }
+
+    public static int estimateTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            if (isCjk(codePoint)) {
+                cjk++;
+            } else {
+                other++;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return cjk + (other + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    private static String truncate(String text, int tokenBudget) {
+        int end = text.length();
+        while (end > 0 && estimateTokens(text.substring(0, end)) > tokenBudget) {
+            // 按超出比例回退，至多几轮即可收敛
+            int tokens = estimateTokens(text.substring(0, end));
+            end = Math.min(end - 1, (int) ((long) end * tokenBudget / tokens));
+        }
+        if (end > 0 && Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end);
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ai.middle.platform.service.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits the answer of a multi-page OCR request back into pages.
+ *
+ * The model is asked to open every page with a marker line such as {@code === PAGE 2 ===}.
+ * Parsing is strict: the markers must cover pages 1..N exactly once and in order,
+ * otherwise {@code null} is returned and the caller falls back to single-page requests.
+ */
+public final class OcrBatchOutputParser {
+
+    private static final Pattern PAGE_MARKER = Pattern.compile(
+            "^[ \\t]*(?:#+[ \\t]*)?={3,}[ \\t]*PAGE[ \\t]+(\\d+)[ \\t]*={3,}[ \\t]*$",
+            Pattern.MULTILINE | Pattern.CASE_INSENSITIVE);
+
+    private OcrBatchOutputParser() {
+    }
+
+    /**
+     * Instruction appended to the OCR prompt for a batch of {@code pageCount} images.
+     */
+    public static String instruction(int pageCount) {
+        return "\n\n以下共有 " + pageCount + " 张图片，依次对应第 1 至第 " + pageCount + " 页。"
+                + "请逐页识别，并在每一页的内容之前单独输出一行分隔标记 \"" + marker(1) + "\"，"
+                + "其中数字为图片序号。每页都必须输出分隔标记，空白页也不例外，不要合并或遗漏页面。";
+    }
+
+    public static String marker(int pageNumber) {
+        return "=== PAGE " + pageNumber + " ===";
+    }
+
+    /**
+     * @param output    raw model output
+     * @param pageCount number of images sent in the request
+     * @return page contents in request order, or null when the output cannot be split reliably
+     */
+    public static List<String> parse(String output, int pageCount) {
+        if (output == null || pageCount <= 0) {
+            return null;
+        }
+        Matcher matcher = PAGE_MARKER.matcher(output);
+        List<int[]> markers = new ArrayList<>();
+        while (matcher.find()) {
+            int pageNumber;
+            try {
+                pageNumber = Integer.parseInt(matcher.group(1));
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+            if (pageNumber != markers.size() + 1) {
+                return null;
+            }
+            markers.add(new int[]{matcher.start(), matcher.end()});
+        }
+        if (markers.size() != pageCount) {
+            return null;
+        }
+
+        List<String> pages = new ArrayList<>(pageCount);
+        for (int i = 0; i < markers.size(); i++) {
+            int contentStart = markers.get(i)[1];
+            int contentEnd = i + 1 < markers.size() ? markers.get(i + 1)[0] : output.length();
+            pages.add(output.substring(contentStart, contentEnd).strip());
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ai.middle.platform.service.processing;
+
+/**
+ * OCR 阶段完成判定
+ * <p>
+ * 页面可能来自视觉 OCR，也可能直接取自文档文本层；任一来源的页面完成后调用，
+ * 全部页面结束时汇总文件的 OCR 状态并触发向量化。
+ */
+public interface OcrCompletionHandler {
+
+    /**
+     * 检查文件的所有页面是否已处理结束，结束时更新 OCR 状态并发送向量化任务
+     */
+    void onPageFinished(String fileId);
+}
@@ -1,6 +1,13 @@
 package com.ai.middle.platform.service.processing;
 
+import java.util.List;
+
 public interface OcrProcessor {
     String performOcr(String filePath, String fileType);
+
+    /**
+     * Recognize several pages in one request; returns null when the output cannot be split per page.
+     */
+    List<String> performBatchOcr(List<String> filePaths, String fileType);
 }
 
@@ -0,0 +1,90 @@
+package com.ai.middle.platform.service.processing.impl;
+
+import com.ai.middle.platform.common.enums.ProcessingStage;
+import com.ai.middle.platform.common.enums.ProcessingStatus;
+import com.ai.middle.platform.common.util.IdGenerator;
+import com.ai.middle.platform.config.RabbitMQConfig;
+import com.ai.middle.platform.entity.po.FileDetail;
+import com.ai.middle.platform.entity.po.KbDocument;
+import com.ai.middle.platform.mq.message.VectorizationTaskMessage;
+import com.ai.middle.platform.repository.mapper.FileDetailMapper;
+import com.ai.middle.platform.repository.mapper.KbDocumentMapper;
+import com.ai.middle.platform.service.FileStatusService;
+import com.ai.middle.platform.service.processing.OcrCompletionHandler;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OcrCompletionHandlerImpl implements OcrCompletionHandler {
+
+    private final FileStatusService fileStatusService;
+    private final KbDocumentMapper documentMapper;
+    private final FileDetailMapper fileDetailMapper;
+    private final RabbitTemplate rabbitTemplate;
+
+    @Override
+    public void onPageFinished(String fileId) {
+        long pendingCount = documentMapper.selectCount(new LambdaQueryWrapper<KbDocument>()
+                .eq(KbDocument::getFileId, fileId)
+                .in(KbDocument::getOcrStatus,
+                        ProcessingStatus.PENDING.getCode(),
+                        ProcessingStatus.PROCESSING.getCode()));
+
+        if (pendingCount > 0) {
+            return;
+        }
+
+        List<KbDocument> documents = documentMapper.selectList(new LambdaQueryWrapper<KbDocument>()
+                .eq(KbDocument::getFileId, fileId)
+                .eq(KbDocument::getOcrStatus, ProcessingStatus.COMPLETED.getCode())
+                .orderByAsc(KbDocument::getPageIndex));
+
+        if (documents.isEmpty()) {
+            log.warn("All documents failed for fileId={}, skipping vectorization trigger", fileId);
+            fileStatusService.updateStatus(fileId, ProcessingStage.OCR, ProcessingStatus.FAILED, "OCR failed for all pages");
+            return;
+        }
+
+        StringBuilder fullContent = new StringBuilder();
+        for (KbDocument doc : documents) {
+            if (doc.getContent() != null) {
+                fullContent.append(doc.getContent()).append("\n\n");
+            }
+        }
+
+        String aggregatedContent = fullContent.toString().trim();
+        fileStatusService.updateStatus(fileId, ProcessingStage.OCR, ProcessingStatus.COMPLETED, null);
+
+        FileDetail file = fileDetailMapper.selectById(fileId);
+        if (file == null) {
+            log.warn("File not found for OCR completion: {}", fileId);
+            return;
+        }
+
+        sendVectorizationTask(file.getId(), aggregatedContent);
+    }
+
+    private void sendVectorizationTask(String fileId, String content) {
+        VectorizationTaskMessage message = VectorizationTaskMessage.builder()
+                .taskId(IdGenerator.simpleUUID())
+                .fileId(fileId)
+                .ocrContent(content)
+                .chunkSize(1000)
+                .overlap(200)
+                .build();
+
+        rabbitTemplate.convertAndSend(
+                RabbitMQConfig.EXCHANGE_VECTORIZATION,
+                RabbitMQConfig.ROUTING_KEY_VECTORIZATION,
+                message
+        );
+
+        log.info("Triggered vectorization for fileId={} contentLength={}", fileId, content != null ? content.length() : 0);
+    }
+}
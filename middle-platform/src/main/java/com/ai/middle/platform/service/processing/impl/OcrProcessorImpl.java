@@ -1,17 +1,32 @@
 package com.ai.middle.platform.service.processing.impl;
 
 import com.ai.middle.platform.common.exception.BusinessException;
+import com.ai.middle.platform.config.OcrProperties;
 import com.ai.middle.platform.service.PromptService;
 import com.ai.middle.platform.service.processing.ChatExecutor;
+import com.ai.middle.platform.service.processing.OcrBatchOutputParser;
 import com.ai.middle.platform.service.processing.OcrProcessor;
+import com.ai.middle.platform.service.storage.LocalFileCache;
+import com.ai.middle.platform.service.storage.MinioObjectService;
 import dev.langchain4j.data.image.Image;
 import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.Content;
 import dev.langchain4j.data.message.ImageContent;
 import dev.langchain4j.data.message.TextContent;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.minio.http.Method;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Locale;
@@ -20,6 +35,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.dromara.x.file.storage.core.FileInfo;
 import org.dromara.x.file.storage.core.FileStorageService;
 import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.util.StringUtils;
@@ -30,10 +46,15 @@ import org.springframework.util.StringUtils;
 public class OcrProcessorImpl implements OcrProcessor {
 
     private static final String BUSINESS_OCR = "ocr";
+    private static final long MAX_PREALLOCATED_BYTES = 64L * 1024 * 1024;
 
     private final FileStorageService fileStorageService;
     private final PromptService promptService;
     private final ChatExecutor chatExecutor;
+    private final LocalFileCache localFileCache;
+    private final MinioObjectService minioObjectService;
+    private final OcrProperties ocrProperties;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public String performOcr(String filePath, String fileType) {
@@ -44,57 +65,229 @@ public class OcrProcessorImpl implements OcrProcessor {
         String prompt = promptService.getActivePromptContent(BUSINESS_OCR);
         log.debug("开始OCR处理: filePath={}, fileType={}", filePath, fileType);
 
-        FileInfo pageFileInfo = null;
+        FileInfo pageFileInfo = resolvePageFileInfo(filePath);
+        MimeType mimeType = resolvePageMimeType(pageFileInfo, fileType);
+        PageImage pageImage = new PageImage(filePath, pageFileInfo, mimeType);
+        // 在模型调用之外完成下载，读取失败不应计为 API Key 调用失败
+        pageImage.prepare();
+        log.debug("准备发送文件到AI模型，mimeType: {}, filename: {}", mimeType, resolveFileName(filePath));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            String content = chatExecutor.execute(BUSINESS_OCR, (chatModel, runtimeConfig) -> {
+                UserMessage userMessage = UserMessage.from(List.of(
+                        TextContent.from(prompt),
+                        ImageContent.from(pageImage.resolve(runtimeConfig.provider()))
+                ));
+                Response<AiMessage> response = chatModel.generate(userMessage);
+                AiMessage aiMessage = response != null ? response.content() : null;
+                return aiMessage != null ? aiMessage.text() : null;
+            });
+            outcome = "success";
+            return cleanOcrContent(content);
+        } finally {
+            sample.stop(Timer.builder("kb.ocr.duration")
+                    .description("Vision model OCR latency per request")
+                    .tag("outcome", outcome)
+                    .tag("mode", "single")
+                    .register(meterRegistry));
+            pageImage.recordSize();
+        }
+    }
+
+    @Override
+    public List<String> performBatchOcr(List<String> filePaths, String fileType) {
+        if (filePaths == null || filePaths.isEmpty() || filePaths.stream().anyMatch(path -> !StringUtils.hasText(path))) {
+            throw new BusinessException("文件路径不能为空");
+        }
+
+        String prompt = promptService.getActivePromptContent(BUSINESS_OCR)
+                + OcrBatchOutputParser.instruction(filePaths.size());
+        List<PageImage> pageImages = new ArrayList<>(filePaths.size());
+        for (String filePath : filePaths) {
+            FileInfo pageFileInfo = resolvePageFileInfo(filePath);
+            PageImage pageImage = new PageImage(filePath, pageFileInfo, resolvePageMimeType(pageFileInfo, fileType));
+            pageImage.prepare();
+            pageImages.add(pageImage);
+        }
+        log.debug("开始批量OCR处理: pages={}, fileType={}", filePaths.size(), fileType);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
         try {
-            pageFileInfo = fileStorageService.getFileInfoByUrl(filePath);
+            String content = chatExecutor.execute(BUSINESS_OCR, (chatModel, runtimeConfig) -> {
+                List<Content> contents = new ArrayList<>(pageImages.size() + 1);
+                contents.add(TextContent.from(prompt));
+                for (PageImage pageImage : pageImages) {
+                    contents.add(ImageContent.from(pageImage.resolve(runtimeConfig.provider())));
+                }
+                Response<AiMessage> response = chatModel.generate(UserMessage.from(contents));
+                AiMessage aiMessage = response != null ? response.content() : null;
+                return aiMessage != null ? aiMessage.text() : null;
+            });
+
+            List<String> pages = OcrBatchOutputParser.parse(removeMarkdownCodeFenceWrapper(content), filePaths.size());
+            if (pages == null) {
+                outcome = "unparsable";
+                log.warn("批量OCR输出无法按页拆分: pages={}, length={}",
+                        filePaths.size(), content != null ? content.length() : 0);
+                return null;
+            }
+            outcome = "success";
+            List<String> cleaned = new ArrayList<>(pages.size());
+            for (String page : pages) {
+                cleaned.add(cleanOcrContent(page));
+            }
+            return cleaned;
+        } finally {
+            sample.stop(Timer.builder("kb.ocr.duration")
+                    .description("Vision model OCR latency per request")
+                    .tag("outcome", outcome)
+                    .tag("mode", "batch")
+                    .register(meterRegistry));
+            meterRegistry.counter("kb.ocr.batch.pages", "outcome", outcome).increment(filePaths.size());
+            pageImages.forEach(PageImage::recordSize);
+        }
+    }
+
+    private FileInfo resolvePageFileInfo(String filePath) {
+        try {
+            FileInfo pageFileInfo = fileStorageService.getFileInfoByUrl(filePath);
             log.debug("成功获取文件信息: {}", pageFileInfo != null ? "有效" : "无效");
+            return pageFileInfo;
         } catch (Exception ex) {
             log.debug("无法通过URL获取文件信息: {}", filePath, ex);
+            return null;
         }
+    }
 
-        try {
-            byte[] data;
-            if (pageFileInfo != null) {
-                data = fileStorageService.download(pageFileInfo).bytes();
-            } else {
+    /**
+     * 一页图片在多次重试之间共享；base64 与预签名地址均按需生成且只生成一次
+     */
+    private final class PageImage {
+
+        private final String filePath;
+        private final FileInfo fileInfo;
+        private final MimeType mimeType;
+        private String base64Data;
+        private String presignedUrl;
+        private long sourceBytes = -1;
+        private String transfer;
+
+        private PageImage(String filePath, FileInfo fileInfo, MimeType mimeType) {
+            this.filePath = filePath;
+            this.fileInfo = fileInfo;
+            this.mimeType = mimeType;
+        }
+
+        private void prepare() {
+            if (fileInfo == null || ocrProperties.getImageTransfer() != OcrProperties.ImageTransfer.URL) {
+                base64Data = loadBase64();
+            }
+        }
+
+        private Image resolve(String provider) {
+            if (fileInfo != null && ocrProperties.useUrlFor(provider)) {
+                if (presignedUrl == null) {
+                    presignedUrl = minioObjectService.presignedUrl(
+                            fileInfo, Method.GET, ocrProperties.getImageUrlExpiry(), null);
+                }
+                transfer = "url";
+                sourceBytes = fileInfo.getSize() != null ? fileInfo.getSize() : -1;
+                return Image.builder()
+                        .url(URI.create(presignedUrl))
+                        .mimeType(mimeType.toString())
+                        .build();
+            }
+            if (base64Data == null) {
+                base64Data = loadBase64();
+            }
+            transfer = "base64";
+            return Image.builder()
+                    .base64Data(base64Data)
+                    .mimeType(mimeType.toString())
+                    .build();
+        }
+
+        private String loadBase64() {
+            try {
+                if (fileInfo != null) {
+                    LocalFileCache.CachedFile cached = localFileCache.getOrLoad(filePath, fileInfo);
+                    InputStream cachedStream = cached != null ? localFileCache.openStream(cached) : null;
+                    if (cachedStream != null) {
+                        return encode(cachedStream, cached.size());
+                    }
+                    long size = minioObjectService.stat(fileInfo).size();
+                    return encode(minioObjectService.openStream(fileInfo, null, null), size);
+                }
                 if (!isValidFileUrl(filePath)) {
                     throw new BusinessException("无效的文件路径格式: " + filePath +
                             "。请确保路径包含有效的协议前缀（如 http://, https://, file:// 等）");
                 }
-                data = fileStorageService.download(filePath).bytes();
+                String[] encoded = new String[1];
+                fileStorageService.download(filePath).inputStream(in -> encoded[0] = encodeQuietly(in));
+                return encoded[0];
+            } catch (BusinessException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("文件下载失败: filePath={}, error={}", filePath, e.getMessage(), e);
+                throw new BusinessException("文件下载失败: " + e.getMessage() + "。请检查文件路径格式是否正确");
             }
+        }
 
-            if (data == null || data.length == 0) {
+        /**
+         * 边读边编码，不在内存中保留原始字节；结果只含 ASCII，以单字节压缩字符串存放
+         */
+        private String encode(InputStream in, long sizeHint) throws IOException {
+            int capacity = sizeHint > 0 && sizeHint < MAX_PREALLOCATED_BYTES
+                    ? (int) (4 * ((sizeHint + 2) / 3))
+                    : 32;
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(capacity);
+            try (in; OutputStream encoder = Base64.getEncoder().wrap(buffer)) {
+                in.transferTo(encoder);
+            }
+            if (buffer.size() == 0) {
                 throw new BusinessException("文件内容为空: " + filePath);
             }
+            sourceBytes = base64DecodedLength(buffer.size());
+            return buffer.toString(StandardCharsets.ISO_8859_1);
+        }
 
-            MimeType mimeType = resolveMimeType(fileType);
-            String fileName = resolveFileName(filePath);
-            String base64Data = Base64.getEncoder().encodeToString(data);
-            Image image = Image.builder()
-                    .base64Data(base64Data)
-                    .mimeType(mimeType.toString())
-                    .build();
+        private String encodeQuietly(InputStream in) {
+            try {
+                return encode(in, -1);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
-            UserMessage userMessage = UserMessage.from(List.of(
-                    TextContent.from(prompt),
-                    ImageContent.from(image)
-            ));
+        private void recordSize() {
+            if (transfer == null) {
+                return;
+            }
+            long bytes = sourceBytes >= 0 ? sourceBytes : 0;
+            meterRegistry.summary("kb.ocr.request.bytes", "transfer", transfer).record(bytes);
+        }
+    }
 
-            log.debug("准备发送文件到AI模型，mimeType: {}, filename: {}", mimeType, fileName);
+    private static long base64DecodedLength(long encodedLength) {
+        return encodedLength / 4 * 3;
+    }
 
-            String content = chatExecutor.execute(BUSINESS_OCR, (chatModel, runtimeConfig) -> {
-                Response<AiMessage> response = chatModel.generate(userMessage);
-                AiMessage aiMessage = response != null ? response.content() : null;
-                return aiMessage != null ? aiMessage.text() : null;
-            });
-            return cleanOcrContent(content);
-        } catch (BusinessException e) {
-            throw e;
-        } catch (Exception e) {
-            log.error("文件下载失败: filePath={}, error={}", filePath, e.getMessage(), e);
-            throw new BusinessException("文件下载失败: " + e.getMessage() + "。请检查文件路径格式是否正确");
+    /**
+     * 页面图片通常转码为 JPEG；无法解码的图片按原格式上传，此时以存储记录中的图片类型为准
+     */
+    private MimeType resolvePageMimeType(FileInfo fileInfo, String fileType) {
+        String contentType = fileInfo != null ? fileInfo.getContentType() : null;
+        if (StringUtils.hasText(contentType) && contentType.startsWith("image/")) {
+            try {
+                return MimeTypeUtils.parseMimeType(contentType);
+            } catch (InvalidMimeTypeException ex) {
+                log.debug("无法解析页面图片类型: {}", contentType);
+            }
         }
+        return resolveMimeType(fileType);
     }
 
     private MimeType resolveMimeType(String fileType) {
@@ -2,10 +2,12 @@ package com.ai.middle.platform.service.processing.impl;
 
 import com.ai.middle.platform.common.exception.BusinessException;
 import com.ai.middle.platform.common.util.IdGenerator;
+import com.ai.middle.platform.config.VectorStoreProperties;
 import com.ai.middle.platform.entity.po.FileDetail;
 import com.ai.middle.platform.entity.po.KbQaPair;
 import com.ai.middle.platform.repository.mapper.FileDetailMapper;
 import com.ai.middle.platform.repository.mapper.KbQaPairMapper;
+import com.ai.middle.platform.repository.vector.VectorStoreRepository;
 import com.ai.middle.platform.service.PromptService;
 import com.ai.middle.platform.service.processing.ChatExecutor;
 import com.ai.middle.platform.service.processing.QaGenerationProcessor;
@@ -40,6 +42,7 @@ public class QaGenerationProcessorImpl implements QaGenerationProcessor {
     private static final int MAX_SEGMENT_LENGTH = 1200;
     private static final int DEFAULT_QA_MAX = 100;
     private static final BigDecimal DEFAULT_QA_CONFIDENCE = BigDecimal.valueOf(0.9);
+    private static final String OBJECT_TYPE_KB = "knowledge_base";
 
     private final FileDetailMapper fileDetailMapper;
     private final KbQaPairMapper qaPairMapper;
@@ -48,6 +51,8 @@ public class QaGenerationProcessorImpl implements QaGenerationProcessor {
     private final ObjectMapper objectMapper;
     private final EmbeddingModel embeddingModel;
     private final EmbeddingStore<TextSegment> embeddingStoreQa;
+    private final VectorStoreRepository vectorStoreRepository;
+    private final VectorStoreProperties vectorStoreProperties;
 
     @Override
     public void generate(String fileId, String content, Integer maxPairs) {
@@ -129,7 +134,7 @@ public class QaGenerationProcessorImpl implements QaGenerationProcessor {
         int targetPairs = Optional.ofNullable(maxPairs).filter(value -> value > 0).orElse(DEFAULT_QA_MAX);
         List<QaPairData> finalQaPairs = allQaPairs.size() > targetPairs ? allQaPairs.subList(0, targetPairs) : allQaPairs;
 
-        int savedCount = 0;
+        List<KbQaPair> savedPairs = new ArrayList<>(finalQaPairs.size());
         for (QaPairData qaPair : finalQaPairs) {
             KbQaPair entity = KbQaPair.builder()
                     .qaId(IdGenerator.simpleUUID())
@@ -140,21 +145,31 @@ public class QaGenerationProcessorImpl implements QaGenerationProcessor {
                     .confidenceScore(Optional.ofNullable(qaPair.confidenceScore()).orElse(DEFAULT_QA_CONFIDENCE))
                     .build();
             qaPairMapper.insert(entity);
-            savedCount++;
+            savedPairs.add(entity);
         }
+        int savedCount = savedPairs.size();
 
-        // QA向量写入：text=question
+        // QA向量写入：text=question，qaId 用于问答缓存命中后回查答案
         try {
+            int removed = vectorStoreRepository.deleteQuestions(vectorStoreProperties.getQa(), fileDetail.getId());
+            if (removed > 0) {
+                log.info("已清理旧的QA向量: fileId={}, count={}", fileId, removed);
+            }
+            String kbId = OBJECT_TYPE_KB.equals(fileDetail.getObjectType()) ? fileDetail.getObjectId() : null;
             List<dev.langchain4j.data.document.Document> qaDocuments = new ArrayList<>();
-            for (QaPairData qaPair : finalQaPairs) {
-                if (!StringUtils.hasText(qaPair.question())) {
+            for (KbQaPair qaPair : savedPairs) {
+                if (!StringUtils.hasText(qaPair.getQuestion())) {
                     continue;
                 }
                 Map<String, Object> md = new HashMap<>();
                 md.put("fileId", fileDetail.getId());
                 md.put("documentId", fileDetail.getId());
                 md.put("fileName", fileName);
-                qaDocuments.add(new dev.langchain4j.data.document.Document(qaPair.question(), Metadata.from(md)));
+                md.put("qaId", qaPair.getQaId());
+                if (kbId != null) {
+                    md.put("kbId", kbId);
+                }
+                qaDocuments.add(new dev.langchain4j.data.document.Document(qaPair.getQuestion(), Metadata.from(md)));
             }
             if (!qaDocuments.isEmpty()) {
                 List<TextSegment> qaSegments = qaDocuments.stream().map(dev.langchain4j.data.document.Document::toTextSegment).toList();
@@ -1,5 +1,11 @@
 package com.ai.middle.platform.service.processing.impl;
 
+import com.ai.middle.platform.common.enums.ProcessingStatus;
+import com.ai.middle.platform.entity.po.FileDetail;
+import com.ai.middle.platform.entity.po.KbDocument;
+import com.ai.middle.platform.repository.mapper.FileDetailMapper;
+import com.ai.middle.platform.repository.mapper.KbDocumentMapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
@@ -8,6 +14,7 @@ import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,9 +32,12 @@ public class VectorizationProcessorImpl implements com.ai.middle.platform.servic
     private static final int DEFAULT_CHUNK_SIZE = 2000;
     private static final int DEFAULT_OVERLAP = 200;
     private static final int MIN_CHUNK_SIZE = 200;
+    private static final String OBJECT_TYPE_KB = "knowledge_base";
 
     private final EmbeddingStore<TextSegment> embeddingStore;
     private final EmbeddingModel embeddingModel;
+    private final FileDetailMapper fileDetailMapper;
+    private final KbDocumentMapper documentMapper;
 
     @Override
     public void vectorize(String fileId, String content, Integer chunkSize, Integer overlap) {
@@ -40,7 +50,13 @@ public class VectorizationProcessorImpl implements com.ai.middle.platform.servic
         int effectiveChunkSize = resolveChunkSize(chunkSize);
         int effectiveOverlap = resolveOverlap(overlap, effectiveChunkSize);
 
-        List<Document> documents = splitIntoChunks(content, fileId, effectiveChunkSize, effectiveOverlap);
+        FileDetail fileDetail = fileDetailMapper.selectById(fileId);
+        String kbId = fileDetail != null && OBJECT_TYPE_KB.equals(fileDetail.getObjectType())
+                ? fileDetail.getObjectId()
+                : null;
+        List<PageSpan> pageSpans = resolvePageSpans(fileId, content);
+
+        List<Document> documents = splitIntoChunks(content, fileId, kbId, pageSpans, effectiveChunkSize, effectiveOverlap);
         if (documents.isEmpty()) {
             log.warn("未生成有效文档块: fileId={}", fileId);
             return;
@@ -71,7 +87,12 @@ public class VectorizationProcessorImpl implements com.ai.middle.platform.servic
         return Math.min(effective, chunkSize - 1);
     }
 
-    private List<Document> splitIntoChunks(String content, String fileId, int chunkSize, int overlap) {
+    private List<Document> splitIntoChunks(String content,
+                                           String fileId,
+                                           String kbId,
+                                           List<PageSpan> pageSpans,
+                                           int chunkSize,
+                                           int overlap) {
         List<Document> documents = new ArrayList<>();
         if (!StringUtils.hasText(content)) {
             return documents;
@@ -85,6 +106,10 @@ public class VectorizationProcessorImpl implements com.ai.middle.platform.servic
             Map<String, Object> metadata = new HashMap<>();
             metadata.put("fileId", fileId);
             metadata.put("chunkIndex", chunkIndex);
+            if (kbId != null) {
+                metadata.put("kbId", kbId);
+            }
+            putPageRange(metadata, pageSpans, start, end);
             documents.add(new Document(chunk, Metadata.from(metadata)));
             if (end >= normalized.length()) {
                 break;
@@ -94,5 +119,53 @@ public class VectorizationProcessorImpl implements com.ai.middle.platform.servic
         }
         return documents;
     }
-}
 
+    /**
+     * 按 OCR 完成时的拼接方式重建各页在全文中的位置；内容被人工修改过时无法对应，返回空列表
+     */
+    private List<PageSpan> resolvePageSpans(String fileId, String content) {
+        List<KbDocument> pages = documentMapper.selectList(new LambdaQueryWrapper<KbDocument>()
+                .select(KbDocument::getPageIndex, KbDocument::getContent)
+                .eq(KbDocument::getFileId, fileId)
+                .eq(KbDocument::getOcrStatus, ProcessingStatus.COMPLETED.getCode())
+                .orderByAsc(KbDocument::getPageIndex));
+        StringBuilder rebuilt = new StringBuilder();
+        List<PageSpan> spans = new ArrayList<>(pages.size());
+        for (KbDocument page : pages) {
+            if (page.getContent() == null) {
+                continue;
+            }
+            int start = rebuilt.length();
+            rebuilt.append(page.getContent());
+            spans.add(new PageSpan(page.getPageIndex(), start, rebuilt.length()));
+            rebuilt.append("\n\n");
+        }
+        String full = rebuilt.toString();
+        String normalized = content.trim();
+        if (!full.trim().equals(normalized)) {
+            return Collections.emptyList();
+        }
+        int leading = full.indexOf(normalized);
+        return spans.stream()
+                .map(span -> new PageSpan(span.pageIndex(), span.start() - leading, span.end() - leading))
+                .toList();
+    }
+
+    private void putPageRange(Map<String, Object> metadata, List<PageSpan> pageSpans, int start, int end) {
+        Integer pageStart = null;
+        Integer pageEnd = null;
+        for (PageSpan span : pageSpans) {
+            if (span.start() < end && span.end() > start) {
+                pageStart = pageStart == null ? span.pageIndex() : Math.min(pageStart, span.pageIndex());
+                pageEnd = pageEnd == null ? span.pageIndex() : Math.max(pageEnd, span.pageIndex());
+            }
+        }
+        if (pageStart != null) {
+            metadata.put("pageStart", pageStart);
+            metadata.put("pageEnd", pageEnd);
+        }
+    }
+
+    private record PageSpan(int pageIndex, int start, int end) {
+    }
+}
@@ -0,0 +1,449 @@
+package com.ai.middle.platform.service.storage;
+
+import com.ai.middle.platform.config.FileCacheProperties;
+import com.google.common.hash.Hashing;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 对象存储前的本地磁盘缓存
+ * <p>
+ * 以访问地址的 SHA-256 作为键，按总字节数做 LRU 淘汰；写入先落临时文件再原子重命名，
+ * 读取方不会看到写了一半的文件。同一对象并发未命中时只回源一次。
+ * 代理下载可通过 {@link #beginWrite} 边向客户端输出边写入缓存，首字节不必等待整个对象落盘。
+ * 缓存文件名附带存储端 ETag，重启后据此重建索引。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalFileCache {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int KEY_LENGTH = 64;
+    private static final Pattern SAFE_ETAG = Pattern.compile("[A-Za-z0-9-]{1,128}");
+
+    private final FileCacheProperties properties;
+    private final MinioObjectService minioObjectService;
+
+    /**
+     * 按访问顺序排列的索引，最久未使用的在前；所有读写在 this 上同步
+     */
+    private final LinkedHashMap<String, CachedFile> index = new LinkedHashMap<>(256, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<CachedFile>> loading = new ConcurrentHashMap<>();
+    /**
+     * 正在边读边写入缓存的对象，同一对象只保留一个写入方
+     */
+    private final Set<String> writing = ConcurrentHashMap.newKeySet();
+    private long totalBytes;
+    private Path directory;
+
+    /**
+     * 缓存文件
+     *
+     * @param path         本地路径
+     * @param size         文件大小（字节）
+     * @param etag         存储端 ETag，未知时为空
+     * @param lastModified 最后修改时间（毫秒时间戳）
+     */
+    public record CachedFile(Path path, long size, String etag, long lastModified) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            log.info("本地文件缓存未启用");
+            return;
+        }
+        try {
+            Path dir = Paths.get(properties.getDirectory());
+            Files.createDirectories(dir);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(dir)) {
+                files = stream.filter(Files::isRegularFile)
+                        .sorted(Comparator.comparing(this::lastModifiedTime))
+                        .toList();
+            }
+            synchronized (this) {
+                for (Path file : files) {
+                    restoreEntry(file);
+                }
+                evictIfNecessary();
+            }
+            directory = dir;
+            log.info("本地文件缓存已就绪: dir={} entries={} bytes={}", dir, index.size(), totalBytes);
+        } catch (IOException ex) {
+            log.warn("本地文件缓存目录不可用，缓存已禁用: {}", properties.getDirectory(), ex);
+        }
+    }
+
+    /**
+     * 查询缓存，未命中时返回 null，不触发回源
+     */
+    public CachedFile lookup(String url) {
+        if (directory == null || !StringUtils.hasText(url)) {
+            return null;
+        }
+        String key = keyOf(url);
+        synchronized (this) {
+            CachedFile cached = index.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (Files.exists(cached.path())) {
+                return cached;
+            }
+            index.remove(key);
+            totalBytes -= cached.size();
+            return null;
+        }
+    }
+
+    /**
+     * 获取缓存文件，未命中时从存储端拉取并写入缓存
+     * <p>
+     * 缓存不可用、对象超过单文件上限或拉取失败时返回 null，调用方应直接读取存储端。
+     */
+    public CachedFile getOrLoad(String url, FileInfo fileInfo) {
+        CachedFile cached = lookup(url);
+        if (cached != null || directory == null || fileInfo == null) {
+            return cached;
+        }
+        String key = keyOf(url);
+        CompletableFuture<CachedFile> future = new CompletableFuture<>();
+        CompletableFuture<CachedFile> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            CachedFile loaded = load(key, fileInfo);
+            future.complete(loaded);
+            return loaded;
+        } catch (Exception ex) {
+            log.warn("写入本地缓存失败，回退到直接读取存储: {} {}", url, ex.getMessage());
+            future.complete(null);
+            return null;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 为即将从存储端读取的完整对象准备缓存写入，调用方在输出给客户端的同时写入返回的 {@link CacheWriter}
+     * <p>
+     * 缓存不可用、对象超过单文件上限或该对象正由其他请求写入时返回 null，调用方只输出给客户端即可。
+     */
+    public CacheWriter beginWrite(String url, MinioObjectService.ObjectMetadata metadata) {
+        if (directory == null || !StringUtils.hasText(url) || metadata == null
+                || metadata.size() > properties.getMaxEntrySize().toBytes()) {
+            return null;
+        }
+        String key = keyOf(url);
+        if (!writing.add(key)) {
+            return null;
+        }
+        try {
+            String etag = safeEtag(metadata.etag());
+            Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+            return new CacheWriter(key, temp, targetPath(key, etag), etag, metadata);
+        } catch (IOException ex) {
+            writing.remove(key);
+            log.warn("创建缓存临时文件失败: {} {}", url, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 边读边写的缓存写入方；完整写入且大小与元数据一致时 {@link #commit()} 才登记到缓存，
+     * 其余情况在 {@link #close()} 时丢弃临时文件。写入缓存失败不影响向客户端的输出。
+     */
+    public final class CacheWriter implements Closeable {
+
+        private final String key;
+        private final Path temp;
+        private final Path target;
+        private final String etag;
+        private final MinioObjectService.ObjectMetadata metadata;
+        private OutputStream out;
+        private long written;
+        private boolean committed;
+
+        private CacheWriter(String key, Path temp, Path target, String etag,
+                            MinioObjectService.ObjectMetadata metadata) throws IOException {
+            this.key = key;
+            this.temp = temp;
+            this.target = target;
+            this.etag = etag;
+            this.metadata = metadata;
+            this.out = Files.newOutputStream(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        public void write(byte[] buffer, int offset, int length) {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.write(buffer, offset, length);
+                written += length;
+            } catch (IOException ex) {
+                log.warn("写入本地缓存失败，本次不再缓存: {} {}", temp, ex.getMessage());
+                closeOutput();
+            }
+        }
+
+        /**
+         * 对象已完整读取后调用，大小不一致时放弃缓存
+         */
+        public void commit() {
+            if (out == null) {
+                return;
+            }
+            closeOutput();
+            if (written != metadata.size()) {
+                log.warn("缓存写入大小不一致，已丢弃: expected={} actual={}", metadata.size(), written);
+                return;
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                register(key, new CachedFile(target, written, etag, metadata.lastModified()));
+                committed = true;
+            } catch (IOException ex) {
+                log.warn("登记本地缓存失败: {} {}", target, ex.getMessage());
+            }
+        }
+
+        @Override
+        public void close() {
+            closeOutput();
+            if (!committed) {
+                deleteQuietly(temp);
+            }
+            writing.remove(key);
+        }
+
+        private void closeOutput() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (IOException ex) {
+                log.debug("关闭缓存临时文件失败: {}", temp, ex);
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * 以只读方式打开缓存文件；文件已被淘汰时返回 null
+     */
+    public FileChannel open(CachedFile cached) {
+        try {
+            return FileChannel.open(cached.path(), StandardOpenOption.READ);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            log.warn("打开缓存文件失败: {}", cached.path(), ex);
+            return null;
+        }
+    }
+
+    /**
+     * 以输入流方式打开缓存文件，调用方负责关闭；文件已被淘汰时返回 null
+     */
+    public InputStream openStream(CachedFile cached) {
+        try {
+            return Files.newInputStream(cached.path());
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            log.warn("打开缓存文件失败: {}", cached.path(), ex);
+            return null;
+        }
+    }
+
+    /**
+     * 将缓存文件复制到指定位置，返回是否成功
+     */
+    public boolean copyTo(CachedFile cached, Path target) {
+        try {
+            Files.copy(cached.path(), target, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException ex) {
+            log.debug("复制缓存文件失败: {} {}", cached.path(), ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 通过 {@link FileChannel#transferTo} 把指定区间写入目标通道，由内核完成拷贝
+     */
+    public static void transfer(FileChannel channel, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long written = channel.transferTo(position + transferred, count - transferred, target);
+            if (written <= 0) {
+                throw new IOException("缓存文件在传输过程中被截断");
+            }
+            transferred += written;
+        }
+    }
+
+    /**
+     * 移除指定地址的缓存，对象被删除或覆盖时调用
+     */
+    public void evict(String url) {
+        if (directory == null || !StringUtils.hasText(url)) {
+            return;
+        }
+        CachedFile removed;
+        synchronized (this) {
+            removed = index.remove(keyOf(url.trim()));
+            if (removed != null) {
+                totalBytes -= removed.size();
+            }
+        }
+        if (removed != null) {
+            deleteQuietly(removed.path());
+        }
+    }
+
+    private CachedFile load(String key, FileInfo fileInfo) throws IOException {
+        MinioObjectService.ObjectMetadata metadata = minioObjectService.stat(fileInfo);
+        if (metadata.size() > properties.getMaxEntrySize().toBytes()) {
+            return null;
+        }
+        String etag = safeEtag(metadata.etag());
+        Path target = targetPath(key, etag);
+        Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+        try {
+            try (InputStream in = minioObjectService.openStream(fileInfo, null, null)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        CachedFile cached = new CachedFile(target, Files.size(target), etag, metadata.lastModified());
+        register(key, cached);
+        return cached;
+    }
+
+    /**
+     * ETag 会写入文件名，只接受安全字符
+     */
+    private String safeEtag(String etag) {
+        return etag != null && SAFE_ETAG.matcher(etag).matches() ? etag : null;
+    }
+
+    private Path targetPath(String key, String etag) {
+        return directory.resolve(etag != null ? key + "-" + etag : key);
+    }
+
+    private void register(String key, CachedFile cached) {
+        synchronized (this) {
+            CachedFile previous = index.put(key, cached);
+            if (previous != null) {
+                totalBytes -= previous.size();
+                if (!previous.path().equals(cached.path())) {
+                    deleteQuietly(previous.path());
+                }
+            }
+            totalBytes += cached.size();
+            evictIfNecessary();
+        }
+    }
+
+    /**
+     * 重启后根据目录内容恢复索引，按文件修改时间近似还原访问顺序
+     */
+    private void restoreEntry(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(TEMP_SUFFIX) || name.length() < KEY_LENGTH) {
+            deleteQuietly(file);
+            return;
+        }
+        String key = name.substring(0, KEY_LENGTH);
+        String etag = name.length() > KEY_LENGTH + 1 ? name.substring(KEY_LENGTH + 1) : null;
+        CachedFile cached = new CachedFile(file, Files.size(file), etag, lastModifiedTime(file).toMillis());
+        CachedFile previous = index.put(key, cached);
+        if (previous != null) {
+            totalBytes -= previous.size();
+            deleteQuietly(previous.path());
+        }
+        totalBytes += cached.size();
+    }
+
+    private void evictIfNecessary() {
+        long maxBytes = properties.getMaxSize().toBytes();
+        Iterator<Map.Entry<String, CachedFile>> iterator = index.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            CachedFile eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.size();
+            // 正在读取的文件句柄不受删除影响
+            deleteQuietly(eldest.path());
+        }
+    }
+
+    private CachedFile await(CompletableFuture<CachedFile> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            return null;
+        }
+    }
+
+    private FileTime lastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException ex) {
+            return FileTime.fromMillis(0L);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("删除缓存文件失败: {}", file, ex);
+        }
+    }
+
+    private String keyOf(String url) {
+        return Hashing.sha256().hashString(url.trim(), StandardCharsets.UTF_8).toString();
+    }
+}
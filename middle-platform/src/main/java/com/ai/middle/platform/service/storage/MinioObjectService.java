@@ -0,0 +1,204 @@
+package com.ai.middle.platform.service.storage;
+
+import com.ai.middle.platform.common.exception.BusinessException;
+import com.google.common.collect.Lists;
+import io.minio.GetObjectArgs;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.dromara.x.file.storage.core.FileStorageService;
+import org.dromara.x.file.storage.core.platform.FileStorage;
+import org.dromara.x.file.storage.core.platform.MinioFileStorage;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 直接访问 MinIO 对象的辅助组件
+ * <p>
+ * x-file-storage 的下载接口只能整体读取对象，这里补充按需读取元数据、
+ * 按区间流式读取等能力，对象定位仍以 x-file-storage 记录的 {@link FileInfo} 为准。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MinioObjectService {
+
+    /**
+     * S3 多对象删除接口单次请求的对象数上限
+     */
+    private static final int REMOVE_BATCH_SIZE = 1000;
+
+    private final FileStorageService fileStorageService;
+
+    /**
+     * 对象元数据
+     *
+     * @param size         对象大小（字节）
+     * @param etag         存储端 ETag（不含引号）
+     * @param lastModified 最后修改时间（毫秒时间戳）
+     * @param contentType  存储端记录的内容类型
+     */
+    public record ObjectMetadata(long size, String etag, long lastModified, String contentType) {
+    }
+
+    /**
+     * 根据访问地址查询文件记录，不存在时返回 null
+     */
+    public FileInfo getFileInfo(String url) {
+        if (!StringUtils.hasText(url)) {
+            return null;
+        }
+        return fileStorageService.getFileInfoByUrl(url);
+    }
+
+    /**
+     * 读取对象元数据（HEAD 请求，不传输内容）
+     */
+    public ObjectMetadata stat(FileInfo fileInfo) {
+        MinioFileStorage storage = resolveStorage(fileInfo.getPlatform());
+        try {
+            StatObjectResponse stat = storage.getClient().statObject(StatObjectArgs.builder()
+                    .bucket(storage.getBucketName())
+                    .object(storage.getFileKey(fileInfo))
+                    .build());
+            long lastModified = stat.lastModified() == null ? 0L : stat.lastModified().toInstant().toEpochMilli();
+            return new ObjectMetadata(stat.size(), stripQuotes(stat.etag()), lastModified, stat.contentType());
+        } catch (Exception ex) {
+            throw new BusinessException("读取对象元数据失败: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * 流式读取对象内容，调用方负责关闭返回的输入流
+     *
+     * @param offset 起始偏移，为空表示从头读取
+     * @param length 读取长度，为空表示读到末尾
+     */
+    public InputStream openStream(FileInfo fileInfo, Long offset, Long length) {
+        MinioFileStorage storage = resolveStorage(fileInfo.getPlatform());
+        GetObjectArgs.Builder args = GetObjectArgs.builder()
+                .bucket(storage.getBucketName())
+                .object(storage.getFileKey(fileInfo));
+        if (offset != null) {
+            args.offset(offset);
+        }
+        if (length != null) {
+            args.length(length);
+        }
+        try {
+            return storage.getClient().getObject(args.build());
+        } catch (Exception ex) {
+            throw new BusinessException("读取对象内容失败: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * 按 x-file-storage 的规则预先生成对象的存储信息，供客户端直传时使用
+     */
+    public FileInfo prepareFileInfo(String path, String filename) {
+        MinioFileStorage storage = resolveStorage(null);
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setPlatform(storage.getPlatform());
+        fileInfo.setBasePath(storage.getBasePath());
+        fileInfo.setPath(path);
+        fileInfo.setFilename(filename);
+        fileInfo.setUrl(storage.getDomain() + storage.getFileKey(fileInfo));
+        return fileInfo;
+    }
+
+    /**
+     * 生成预签名地址，客户端凭此地址直接读写对象，不经过应用服务器
+     *
+     * @param queryParams 额外的签名参数，如 response-content-disposition，可为空
+     */
+    public String presignedUrl(FileInfo fileInfo, Method method, Duration expiry, Map<String, String> queryParams) {
+        MinioFileStorage storage = resolveStorage(fileInfo.getPlatform());
+        GetPresignedObjectUrlArgs.Builder args = GetPresignedObjectUrlArgs.builder()
+                .method(method)
+                .bucket(storage.getBucketName())
+                .object(storage.getFileKey(fileInfo))
+                .expiry((int) expiry.toSeconds(), TimeUnit.SECONDS);
+        if (queryParams != null && !queryParams.isEmpty()) {
+            args.extraQueryParams(queryParams);
+        }
+        try {
+            return storage.getClient().getPresignedObjectUrl(args.build());
+        } catch (Exception ex) {
+            throw new BusinessException("生成预签名地址失败: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * 批量删除同一平台下的对象，每个请求最多删除 1000 个
+     * <p>
+     * 对象不存在不视为失败；请求整体失败时该批对象全部计为失败，调用方可原样重试。
+     *
+     * @param platform   存储平台，为空时使用默认平台
+     * @param objectKeys 对象键（含 basePath 与 path）
+     * @return 删除失败的对象键
+     */
+    public List<String> removeObjects(String platform, Collection<String> objectKeys) {
+        MinioFileStorage storage = resolveStorage(platform);
+        List<String> failed = new ArrayList<>();
+        for (List<String> batch : Lists.partition(List.copyOf(objectKeys), REMOVE_BATCH_SIZE)) {
+            RemoveObjectsArgs args = RemoveObjectsArgs.builder()
+                    .bucket(storage.getBucketName())
+                    .objects(batch.stream().map(DeleteObject::new).toList())
+                    .build();
+            try {
+                // 结果是惰性的，遍历时才真正发送请求
+                for (Result<DeleteError> result : storage.getClient().removeObjects(args)) {
+                    DeleteError error = result.get();
+                    log.warn("删除对象失败: {} {}", error.objectName(), error.message());
+                    failed.add(error.objectName());
+                }
+            } catch (Exception ex) {
+                log.warn("批量删除对象请求失败: bucket={} count={} {}",
+                        storage.getBucketName(), batch.size(), ex.getMessage());
+                failed.addAll(batch);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * 获取 MinIO 存储平台，平台为空时使用默认平台
+     */
+    public MinioFileStorage resolveStorage(String platform) {
+        FileStorage storage = StringUtils.hasText(platform)
+                ? fileStorageService.getFileStorage(platform)
+                : fileStorageService.getFileStorage();
+        if (storage instanceof MinioFileStorage minioStorage) {
+            return minioStorage;
+        }
+        throw new BusinessException("存储平台不是MinIO: " + platform);
+    }
+
+    public MinioClient getClient(String platform) {
+        return resolveStorage(platform).getClient();
+    }
+
+    private String stripQuotes(String etag) {
+        if (etag == null) {
+            return null;
+        }
+        return etag.replace("\"", "");
+    }
+}
@@ -0,0 +1,34 @@
+package com.ai.middle.platform.service.vector;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports whether every vector table has a valid ANN index of the configured type.
+ *
+ * A missing or building index is reported as UNKNOWN rather than DOWN: search still
+ * works through sequential scans, only slower.
+ */
+@Component
+@RequiredArgsConstructor
+public class VectorIndexHealthIndicator implements HealthIndicator {
+
+    private final VectorIndexManager vectorIndexManager;
+
+    @Override
+    public Health health() {
+        List<VectorIndexManager.TableIndexState> states = vectorIndexManager.describe();
+        Map<String, Object> details = new LinkedHashMap<>();
+        boolean healthy = true;
+        for (VectorIndexManager.TableIndexState state : states) {
+            details.put(state.table(), state);
+            healthy &= state.healthy();
+        }
+        return (healthy ? Health.up() : Health.unknown()).withDetails(details).build();
+    }
+}
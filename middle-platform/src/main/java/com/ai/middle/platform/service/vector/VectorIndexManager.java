@@ -0,0 +1,327 @@
+package com.ai.middle.platform.service.vector;
+
+import com.ai.middle.platform.config.VectorStoreProperties;
+import com.ai.middle.platform.config.VectorStoreProperties.IndexProperties;
+import com.ai.middle.platform.config.VectorStoreProperties.IndexType;
+import com.ai.middle.platform.config.VectorStoreProperties.StoreProperties;
+import com.ai.middle.platform.repository.vector.VectorStoreRepository;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lifecycle of the ANN, metadata and trigram text indexes on the pgvector tables.
+ *
+ * Indexes are built with {@code CREATE INDEX CONCURRENTLY} on a background thread after
+ * startup, so writes keep flowing while a large table is indexed. A build that was
+ * interrupted leaves an invalid index behind; it is dropped and rebuilt on the next start.
+ * Switching the index type builds the new index first and drops the old one afterwards.
+ * Tables that did not exist yet, or had too few rows for IVFFlat, are re-checked on a
+ * schedule until their indexes have been built.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VectorIndexManager {
+
+    private static final String INDEX_PREFIX = "idx_";
+    private static final String OPERATOR_CLASS = "vector_cosine_ops";
+    private static final int IVFFLAT_MIN_ROWS_PER_LIST = 10;
+
+    private static final String INDEX_STATE_SQL = """
+            SELECT c.relname AS name, am.amname AS method, i.indisvalid AS valid, i.indisready AS ready,
+                   pg_relation_size(c.oid) AS bytes, COALESCE(s.idx_scan, 0) AS scans
+            FROM pg_index i
+                     JOIN pg_class c ON c.oid = i.indexrelid
+                     JOIN pg_am am ON am.oid = c.relam
+                     LEFT JOIN pg_stat_user_indexes s ON s.indexrelid = i.indexrelid
+            WHERE i.indrelid = to_regclass(?)
+            """;
+
+    private static final String BUILD_PROGRESS_SQL = """
+            SELECT phase, blocks_done, blocks_total, tuples_done, tuples_total
+            FROM pg_stat_progress_create_index
+            WHERE relid = to_regclass(?)
+            """;
+
+    private final VectorStoreProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Tables whose index build was postponed and is retried by {@link #buildPostponedIndexes()}.
+     */
+    private final Set<String> postponed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Set while a background build runs, so the startup build and re-checks never overlap.
+     */
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    /**
+     * Index state of one vector table.
+     *
+     * @param table    vector table
+     * @param expected configured index type
+     * @param exists   whether the table exists
+     * @param indexes  indexes present on the table
+     * @param building build in progress, null when idle
+     */
+    public record TableIndexState(String table,
+                                  IndexType expected,
+                                  boolean exists,
+                                  List<IndexState> indexes,
+                                  Map<String, Object> building) {
+
+        public boolean healthy() {
+            if (!exists || expected == IndexType.NONE) {
+                return exists;
+            }
+            String method = expected.name().toLowerCase(Locale.ROOT);
+            return indexes.stream().anyMatch(index -> method.equals(index.method()) && index.valid());
+        }
+    }
+
+    public record IndexState(String name, String method, boolean valid, boolean ready, long bytes, long scans) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Map<String, StoreProperties> stores = distinctStores();
+        boolean anyToBuild = stores.values().stream()
+                .anyMatch(store -> Boolean.TRUE.equals(store.getIndex().getBuildOnStartup()));
+        if (!anyToBuild) {
+            return;
+        }
+        Map<String, StoreProperties> toBuild = new LinkedHashMap<>();
+        stores.forEach((table, store) -> {
+            if (Boolean.TRUE.equals(store.getIndex().getBuildOnStartup())) {
+                toBuild.put(table, store);
+            }
+        });
+        buildInBackground(toBuild);
+    }
+
+    /**
+     * Retries postponed builds: the table may have been created by the first insert, and an
+     * IVFFlat index becomes worth building once enough vectors have been written.
+     */
+    @Scheduled(fixedDelayString = "${vector-store.index-recheck-interval:600000}")
+    public void buildPostponedIndexes() {
+        if (postponed.isEmpty()) {
+            return;
+        }
+        Map<String, StoreProperties> stores = distinctStores();
+        Map<String, StoreProperties> toBuild = new LinkedHashMap<>();
+        for (String table : postponed) {
+            StoreProperties store = stores.get(table);
+            if (store == null) {
+                postponed.remove(table);
+            } else {
+                toBuild.put(table, store);
+            }
+        }
+        buildInBackground(toBuild);
+    }
+
+    private void buildInBackground(Map<String, StoreProperties> stores) {
+        if (stores.isEmpty() || !building.compareAndSet(false, true)) {
+            return;
+        }
+        Thread builder = new Thread(() -> {
+            try {
+                stores.forEach((table, store) -> {
+                    try {
+                        ensureIndexes(table, store.getIndex());
+                    } catch (Exception ex) {
+                        log.error("Failed to build vector indexes for {}", table, ex);
+                    }
+                });
+            } finally {
+                building.set(false);
+            }
+        }, "vector-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Create the metadata and ANN indexes configured for a table if they are missing.
+     */
+    public void ensureIndexes(String table, IndexProperties index) {
+        VectorStoreRepository.checkTableName(table);
+        // 本次检查中任何一步推迟或失败都会重新加入，由定时任务继续重试
+        postponed.remove(table);
+        if (!tableExists(table)) {
+            log.warn("Vector table {} does not exist yet, index build postponed", table);
+            postponed.add(table);
+            return;
+        }
+        dropInvalidIndexes(table);
+
+        String kbIndex = indexName(table, "kb_id");
+        createConcurrently(table, kbIndex, String.format(
+                "CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON %s ((metadata->>'kbId'))", kbIndex, table));
+
+        String fileIndex = indexName(table, "file_id");
+        createConcurrently(table, fileIndex, String.format(
+                "CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON %s ((metadata->>'fileId'))", fileIndex, table));
+
+        if (trigramAvailable()) {
+            String textIndex = indexName(table, "text_trgm");
+            createConcurrently(table, textIndex, String.format(
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON %s USING gin (text gin_trgm_ops)", textIndex, table));
+        }
+
+        if (index.getType() == IndexType.NONE) {
+            return;
+        }
+        String annIndex = annIndexName(table, index.getType());
+        String ddl = switch (index.getType()) {
+            case HNSW -> String.format(
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON %s USING hnsw (embedding %s) "
+                            + "WITH (m = %d, ef_construction = %d)",
+                    annIndex, table, OPERATOR_CLASS, index.getM(), index.getEfConstruction());
+            case IVFFLAT -> String.format(
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON %s USING ivfflat (embedding %s) "
+                            + "WITH (lists = %d)",
+                    annIndex, table, OPERATOR_CLASS, index.getLists());
+            case NONE -> throw new IllegalStateException();
+        };
+        if (index.getType() == IndexType.IVFFLAT && !hasRowsForIvfflat(table, index.getLists())) {
+            // IVFFlat 的聚类中心在建索引时确定，空表上建出的索引召回很差
+            log.info("Vector table {} has too few rows for {} IVFFlat lists, index build postponed",
+                    table, index.getLists());
+            postponed.add(table);
+            return;
+        }
+        if (createConcurrently(table, annIndex, ddl)) {
+            for (IndexType other : IndexType.values()) {
+                if (other != IndexType.NONE && other != index.getType()) {
+                    dropConcurrently(table, annIndexName(table, other));
+                }
+            }
+        }
+    }
+
+    /**
+     * Current index state of every configured vector table.
+     */
+    public List<TableIndexState> describe() {
+        List<TableIndexState> states = new ArrayList<>();
+        distinctStores().forEach((table, store) -> {
+            IndexType expected = store.getIndex().getType();
+            if (!tableExists(table)) {
+                states.add(new TableIndexState(table, expected, false, List.of(), null));
+                return;
+            }
+            List<IndexState> indexes = jdbcTemplate.query(INDEX_STATE_SQL, (rs, rowNum) -> new IndexState(
+                    rs.getString("name"),
+                    rs.getString("method"),
+                    rs.getBoolean("valid"),
+                    rs.getBoolean("ready"),
+                    rs.getLong("bytes"),
+                    rs.getLong("scans")), table);
+            List<Map<String, Object>> progress = jdbcTemplate.queryForList(BUILD_PROGRESS_SQL, table);
+            states.add(new TableIndexState(table, expected, true, indexes,
+                    progress.isEmpty() ? null : progress.get(0)));
+        });
+        return states;
+    }
+
+    private boolean createConcurrently(String table, String indexName, String ddl) {
+        if (indexExists(table, indexName)) {
+            return true;
+        }
+        long startNanos = System.nanoTime();
+        log.info("Building vector index {} on {}", indexName, table);
+        try {
+            jdbcTemplate.execute(ddl);
+            log.info("Built vector index {} on {} in {} ms", indexName, table,
+                    (System.nanoTime() - startNanos) / 1_000_000);
+            return true;
+        } catch (Exception ex) {
+            log.error("Failed to build vector index {} on {}", indexName, table, ex);
+            postponed.add(table);
+            return false;
+        }
+    }
+
+    private void dropInvalidIndexes(String table) {
+        List<String> invalid = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+                WHERE i.indrelid = to_regclass(?) AND NOT i.indisvalid AND c.relname LIKE ?
+                """, String.class, table, INDEX_PREFIX + baseName(table) + "\\_%");
+        for (String indexName : invalid) {
+            log.warn("Dropping invalid vector index {} left by an interrupted build", indexName);
+            dropConcurrently(table, indexName);
+        }
+    }
+
+    private void dropConcurrently(String table, String indexName) {
+        if (!indexExists(table, indexName)) {
+            return;
+        }
+        jdbcTemplate.execute(String.format("DROP INDEX CONCURRENTLY IF EXISTS %s%s", schemaPrefix(table), indexName));
+        log.info("Dropped vector index {}", indexName);
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private boolean indexExists(String table, String indexName) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, schemaPrefix(table) + indexName));
+    }
+
+    private boolean trigramAvailable() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", Boolean.class));
+    }
+
+    private boolean hasRowsForIvfflat(String table, int lists) {
+        Long rows = jdbcTemplate.queryForObject(
+                String.format("SELECT count(*) FROM (SELECT 1 FROM %s LIMIT ?) t", table),
+                Long.class, (long) lists * IVFFLAT_MIN_ROWS_PER_LIST);
+        return rows != null && rows >= (long) lists * IVFFLAT_MIN_ROWS_PER_LIST;
+    }
+
+    private Map<String, StoreProperties> distinctStores() {
+        // 两个逻辑库可能共用一张表，以默认库的配置为准
+        Map<String, StoreProperties> stores = new LinkedHashMap<>();
+        stores.put(properties.getDefaultStore().getTable(), properties.getDefaultStore());
+        stores.putIfAbsent(properties.getQa().getTable(), properties.getQa());
+        return stores;
+    }
+
+    private String annIndexName(String table, IndexType type) {
+        return indexName(table, "embedding_" + type.name().toLowerCase(Locale.ROOT));
+    }
+
+    private String indexName(String table, String suffix) {
+        return INDEX_PREFIX + baseName(table) + "_" + suffix;
+    }
+
+    private String baseName(String table) {
+        int dot = table.indexOf('.');
+        return dot >= 0 ? table.substring(dot + 1) : table;
+    }
+
+    private String schemaPrefix(String table) {
+        int dot = table.indexOf('.');
+        return dot >= 0 ? table.substring(0, dot + 1) : "";
+    }
+}
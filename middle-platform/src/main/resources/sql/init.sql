@@ -17,6 +17,8 @@
 
 -- 3. 安装pgvector扩展（用于向量检索）
 CREATE EXTENSION IF NOT EXISTS vector;
+-- 安装pg_trgm扩展（用于标签子串检索）
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
 
 -- ============================================================================
 -- 用户和权限相关表
@@ -122,9 +124,17 @@ CREATE TABLE IF NOT EXISTS file_detail (
     file_acl VARCHAR(32),
     th_file_acl VARCHAR(32),
     hash_info TEXT,
-    upload_id VARCHAR(128),
+    upload_id VARCHAR(255),
     upload_status INTEGER,
-    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    uploaded_by BIGINT,
+    ocr_status VARCHAR(20),
+    vectorization_status VARCHAR(20),
+    qa_pairs_status VARCHAR(20),
+    knowledge_graph_status VARCHAR(20),
+    error_message TEXT,
+    tags TEXT[],
+    content_sha256 VARCHAR(64)
 );
 
 COMMENT ON TABLE file_detail IS '文件记录表';
@@ -134,15 +144,28 @@ COMMENT ON COLUMN file_detail.metadata IS '文件元数据';
 COMMENT ON COLUMN file_detail.user_metadata IS '文件用户元数据';
 COMMENT ON COLUMN file_detail.attr IS '附加属性';
 COMMENT ON COLUMN file_detail.hash_info IS '哈希信息';
+COMMENT ON COLUMN file_detail.uploaded_by IS '上传者用户ID';
+COMMENT ON COLUMN file_detail.ocr_status IS 'OCR处理状态';
+COMMENT ON COLUMN file_detail.vectorization_status IS '向量化处理状态';
+COMMENT ON COLUMN file_detail.qa_pairs_status IS '问答对生成状态';
+COMMENT ON COLUMN file_detail.knowledge_graph_status IS '知识图谱生成状态';
+COMMENT ON COLUMN file_detail.error_message IS '最近一次处理失败的错误信息';
+COMMENT ON COLUMN file_detail.tags IS '文件标签';
+COMMENT ON COLUMN file_detail.content_sha256 IS '文件内容SHA-256，用于识别重复上传';
 
 CREATE INDEX idx_file_detail_object ON file_detail(object_type, object_id);
+CREATE INDEX idx_file_detail_tags ON file_detail USING gin(tags);
+-- 知识库文件列表按上传时间的游标分页
+CREATE INDEX idx_file_detail_object_created ON file_detail(object_type, object_id, create_time DESC, id DESC);
 CREATE INDEX idx_file_detail_upload ON file_detail(upload_id);
+-- 按内容哈希查找已处理的相同文件
+CREATE INDEX idx_file_detail_sha256 ON file_detail(content_sha256) WHERE content_sha256 IS NOT NULL;
 
 -- 8. 文件分片信息表
 CREATE TABLE IF NOT EXISTS file_part_detail (
     id VARCHAR(32) PRIMARY KEY,
     platform VARCHAR(32),
-    upload_id VARCHAR(128),
+    upload_id VARCHAR(255),
     e_tag VARCHAR(255),
     part_number INTEGER,
     part_size BIGINT,
@@ -151,7 +174,7 @@ CREATE TABLE IF NOT EXISTS file_part_detail (
 );
 
 COMMENT ON TABLE file_part_detail IS '文件分片信息表，仅在手动分片上传时使用';
-COMMENT ON COLUMN file_part_detail.id IS '分片id';
+COMMENT ON COLUMN file_part_detail.id IS '分片id，(upload_id, part_number) 的 MD5';
 COMMENT ON COLUMN file_part_detail.upload_id IS '上传ID，仅在手动分片上传时使用';
 
 CREATE INDEX idx_file_part_upload ON file_part_detail(upload_id);
@@ -213,6 +236,26 @@ CREATE INDEX idx_qa_file ON kb_qa_pair(file_id);
 -- GIN索引用于全文搜索
 CREATE INDEX idx_qa_question ON kb_qa_pair USING gin(to_tsvector('simple', question));
 
+-- 文件标签索引表（每个文件的每个标签一行）
+CREATE TABLE IF NOT EXISTS kb_file_tag (
+    id BIGSERIAL PRIMARY KEY,
+    kb_id BIGINT NOT NULL REFERENCES kb_knowledge_base(id) ON DELETE CASCADE,
+    file_id VARCHAR(32) NOT NULL REFERENCES file_detail(id) ON DELETE CASCADE,
+    tag VARCHAR(128) NOT NULL,
+    tag_lower VARCHAR(128) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(file_id, tag_lower)
+);
+
+COMMENT ON TABLE kb_file_tag IS '文件标签索引表';
+COMMENT ON COLUMN kb_file_tag.kb_id IS '知识库ID';
+COMMENT ON COLUMN kb_file_tag.tag IS '标签原文';
+COMMENT ON COLUMN kb_file_tag.tag_lower IS '小写标签，用于不区分大小写的检索';
+
+-- 前缀匹配使用 text_pattern_ops，子串匹配使用 trigram GIN
+CREATE INDEX idx_kb_file_tag_prefix ON kb_file_tag(kb_id, tag_lower text_pattern_ops);
+CREATE INDEX idx_kb_file_tag_trgm ON kb_file_tag USING gin(tag_lower gin_trgm_ops);
+
 -- 9. 处理任务表
 CREATE TABLE IF NOT EXISTS kb_process_task (
     id BIGSERIAL PRIMARY KEY,
@@ -402,7 +445,8 @@ VALUES
     ('biz-1', 'OCR识别', 'ocr', 'OCR文字识别业务', TRUE, 1),
     ('biz-2', '文本向量化', 'vectorization', '文本向量化业务', TRUE, 1),
     ('biz-3', '知识图谱生成', 'kg', '知识图谱生成业务', TRUE, 1),
-    ('biz-4', '问答对生成', 'qa', '问答对生成业务', TRUE, 1)
+    ('biz-4', '问答对生成', 'qa', '问答对生成业务', TRUE, 1),
+    ('biz-5', '知识库问答', 'chat', '基于知识库检索结果生成答案', TRUE, 1)
 ON CONFLICT (business_id) DO NOTHING;
 
 -- ============================================================================
@@ -630,6 +674,30 @@ VALUES (
     1
 );
 
+-- 5. 知识库问答 Prompt
+INSERT INTO kb_prompt (prompt_id, business_code, prompt_name, prompt_content, description, variables, is_active, version)
+VALUES (
+    'chat-default-001',
+    'chat',
+    '知识库问答（默认）',
+    '请仅根据以下参考资料回答用户问题。
+
+参考资料：
+{context}
+
+要求：
+1. 答案必须来自参考资料，不要编造资料中没有的信息
+2. 资料不足以回答时，直接说明无法从知识库中找到答案
+3. 在引用内容后用 [编号] 标注出处，例如 [1]
+4. 回答简洁、条理清晰
+
+用户问题：{question}',
+    '根据检索到的文本块回答知识库问题',
+    '["context", "question"]',
+    true,
+    1
+);
+
 -- ============================================================================
 -- 脚本结束
 -- ============================================================================
@@ -49,6 +49,10 @@ FOR (e:Entity) ON (e.type);
 CREATE INDEX entity_name IF NOT EXISTS
 FOR (e:Entity) ON (e.name);
 
+// 实体所属文档索引（用于按文件过滤实体）
+CREATE INDEX entity_document IF NOT EXISTS
+FOR (e:Entity) ON (e.documentId);
+
 // 概念类型索引
 CREATE INDEX concept_type IF NOT EXISTS
 FOR (c:Concept) ON (c.type);
@@ -0,0 +1,105 @@
+-- ============================================
+-- file_detail 处理状态独立列（在线迁移）
+-- 适用于已按旧版 init.sql 初始化的数据库
+--
+-- 执行顺序：
+--   1. 部署新版本前执行本脚本：加列 -> 分批回填 -> 并发建索引
+--      旧版本应用不感知新列，加列与回填对其无影响
+--   2. 滚动发布新版本应用（读写独立列，列为空时回退 attr）
+--   3. 所有实例均为新版本后，执行 001_file_detail_processing_columns_post_deploy.sql
+--      补齐发布期间旧实例写入 attr 的状态，并清理 attr 中已迁移的字段
+-- 全程不锁表，可在业务运行时执行；脚本可重复执行。
+-- attr 不是合法 JSON 对象的行不会中断迁移，跳过的行以 NOTICE 输出。
+-- 注意：CREATE INDEX CONCURRENTLY 不能在事务块中执行，请勿使用 psql 的 --single-transaction。
+-- ============================================
+
+-- 1. 加列（无默认值，仅修改元数据，瞬间完成）
+ALTER TABLE file_detail ADD COLUMN IF NOT EXISTS uploaded_by BIGINT;
+ALTER TABLE file_detail ADD COLUMN IF NOT EXISTS ocr_status VARCHAR(20);
+ALTER TABLE file_detail ADD COLUMN IF NOT EXISTS vectorization_status VARCHAR(20);
+ALTER TABLE file_detail ADD COLUMN IF NOT EXISTS qa_pairs_status VARCHAR(20);
+ALTER TABLE file_detail ADD COLUMN IF NOT EXISTS knowledge_graph_status VARCHAR(20);
+ALTER TABLE file_detail ADD COLUMN IF NOT EXISTS error_message TEXT;
+ALTER TABLE file_detail ADD COLUMN IF NOT EXISTS tags TEXT[];
+
+COMMENT ON COLUMN file_detail.uploaded_by IS '上传者用户ID';
+COMMENT ON COLUMN file_detail.ocr_status IS 'OCR处理状态';
+COMMENT ON COLUMN file_detail.vectorization_status IS '向量化处理状态';
+COMMENT ON COLUMN file_detail.qa_pairs_status IS '问答对生成状态';
+COMMENT ON COLUMN file_detail.knowledge_graph_status IS '知识图谱生成状态';
+COMMENT ON COLUMN file_detail.error_message IS '最近一次处理失败的错误信息';
+COMMENT ON COLUMN file_detail.tags IS '文件标签';
+
+-- attr 的安全解析：不是合法 JSON 或不是 JSON 对象时返回 NULL，不中断迁移（会话级临时函数，执行结束即失效）
+CREATE OR REPLACE FUNCTION pg_temp.file_detail_attr_object(attr TEXT) RETURNS JSONB
+    LANGUAGE plpgsql IMMUTABLE AS $fn$
+DECLARE
+    j JSONB;
+BEGIN
+    IF attr IS NULL OR attr = '' THEN
+        RETURN NULL;
+    END IF;
+    j := attr::JSONB;
+    RETURN CASE WHEN jsonb_typeof(j) = 'object' THEN j END;
+EXCEPTION
+    WHEN invalid_text_representation OR untranslatable_character THEN
+        RETURN NULL;
+END $fn$;
+
+-- 2. 从 attr 分批回填：按主键顺序遍历，每批 1000 行并单独提交，避免长事务、大范围行锁和重复扫描；
+--    attr 无法解析为 JSON 对象的行保持原样并输出 NOTICE，需人工核对
+DO $$
+DECLARE
+    last_id   VARCHAR(32) := '';
+    batch_end VARCHAR(32);
+    skipped_id VARCHAR(32);
+BEGIN
+    LOOP
+        SELECT max(id) INTO batch_end
+        FROM (SELECT id FROM file_detail WHERE id > last_id ORDER BY id LIMIT 1000) b;
+        EXIT WHEN batch_end IS NULL;
+
+        UPDATE file_detail f
+        SET uploaded_by            = CASE
+                                         WHEN a.j ->> 'uploadedBy' ~ '^[0-9]{1,18}$'
+                                             THEN (a.j ->> 'uploadedBy')::BIGINT
+                                     END,
+            ocr_status             = COALESCE(a.j ->> 'ocrStatus', 'pending'),
+            vectorization_status   = COALESCE(a.j ->> 'vectorizationStatus', 'pending'),
+            qa_pairs_status        = COALESCE(a.j ->> 'qaPairsStatus', 'pending'),
+            knowledge_graph_status = COALESCE(a.j ->> 'knowledgeGraphStatus', 'pending'),
+            error_message          = a.j ->> 'errorMessage',
+            tags                   = CASE
+                                         WHEN jsonb_typeof(a.j -> 'tags') = 'array'
+                                             THEN ARRAY(SELECT jsonb_array_elements_text(a.j -> 'tags'))
+                                     END
+        FROM (
+            SELECT id, pg_temp.file_detail_attr_object(attr) AS j
+            FROM file_detail
+            WHERE id > last_id AND id <= batch_end
+              AND object_type = 'knowledge_base'
+              AND ocr_status IS NULL
+              AND attr IS NOT NULL AND attr <> ''
+        ) a
+        WHERE f.id = a.id
+          AND a.j IS NOT NULL;
+
+        FOR skipped_id IN
+            SELECT id
+            FROM file_detail
+            WHERE id > last_id AND id <= batch_end
+              AND object_type = 'knowledge_base'
+              AND ocr_status IS NULL
+              AND attr IS NOT NULL AND attr <> ''
+              AND pg_temp.file_detail_attr_object(attr) IS NULL
+        LOOP
+            RAISE NOTICE 'file_detail %: attr 不是 JSON 对象，已跳过', skipped_id;
+        END LOOP;
+
+        last_id := batch_end;
+        COMMIT;
+    END LOOP;
+END $$;
+
+-- 3. 并发建索引，不阻塞写入
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_file_detail_tags ON file_detail USING gin(tags);
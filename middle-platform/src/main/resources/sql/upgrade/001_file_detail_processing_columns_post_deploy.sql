@@ -0,0 +1,100 @@
+-- ============================================
+-- file_detail 处理状态独立列：发布后清理
+-- 仅在所有应用实例均已升级为新版本后执行，旧版本仍只读写 attr 中的字段。
+--
+-- 1. 补齐滚动发布期间旧实例写入 attr 的状态：
+--    独立列为空（旧实例新上传的文件）或仍为 pending 而 attr 中已有进展时，以 attr 为准
+-- 2. 从 attr 中移除已迁移到独立列的字段，仅保留 fileType 等扩展数据
+-- 按主键顺序遍历，每批 1000 行并单独提交；attr 不是合法 JSON 对象的行跳过并以 NOTICE 输出。
+-- 脚本可重复执行。
+-- ============================================
+
+-- attr 的安全解析：不是合法 JSON 或不是 JSON 对象时返回 NULL，不中断迁移（会话级临时函数，执行结束即失效）
+CREATE OR REPLACE FUNCTION pg_temp.file_detail_attr_object(attr TEXT) RETURNS JSONB
+    LANGUAGE plpgsql IMMUTABLE AS $fn$
+DECLARE
+    j JSONB;
+BEGIN
+    IF attr IS NULL OR attr = '' THEN
+        RETURN NULL;
+    END IF;
+    j := attr::JSONB;
+    RETURN CASE WHEN jsonb_typeof(j) = 'object' THEN j END;
+EXCEPTION
+    WHEN invalid_text_representation OR untranslatable_character THEN
+        RETURN NULL;
+END $fn$;
+
+DO $$
+DECLARE
+    last_id   VARCHAR(32) := '';
+    batch_end VARCHAR(32);
+    skipped_id VARCHAR(32);
+BEGIN
+    LOOP
+        SELECT max(id) INTO batch_end
+        FROM (SELECT id FROM file_detail WHERE id > last_id ORDER BY id LIMIT 1000) b;
+        EXIT WHEN batch_end IS NULL;
+
+        UPDATE file_detail f
+        SET uploaded_by            = COALESCE(f.uploaded_by, CASE
+                                         WHEN a.j ->> 'uploadedBy' ~ '^[0-9]{1,18}$'
+                                             THEN (a.j ->> 'uploadedBy')::BIGINT
+                                     END),
+            ocr_status             = CASE
+                                         WHEN f.ocr_status IS NULL OR f.ocr_status = 'pending'
+                                             THEN COALESCE(a.j ->> 'ocrStatus', f.ocr_status, 'pending')
+                                         ELSE f.ocr_status
+                                     END,
+            vectorization_status   = CASE
+                                         WHEN f.vectorization_status IS NULL OR f.vectorization_status = 'pending'
+                                             THEN COALESCE(a.j ->> 'vectorizationStatus', f.vectorization_status, 'pending')
+                                         ELSE f.vectorization_status
+                                     END,
+            qa_pairs_status        = CASE
+                                         WHEN f.qa_pairs_status IS NULL OR f.qa_pairs_status = 'pending'
+                                             THEN COALESCE(a.j ->> 'qaPairsStatus', f.qa_pairs_status, 'pending')
+                                         ELSE f.qa_pairs_status
+                                     END,
+            knowledge_graph_status = CASE
+                                         WHEN f.knowledge_graph_status IS NULL OR f.knowledge_graph_status = 'pending'
+                                             THEN COALESCE(a.j ->> 'knowledgeGraphStatus', f.knowledge_graph_status, 'pending')
+                                         ELSE f.knowledge_graph_status
+                                     END,
+            error_message          = CASE
+                                         WHEN f.ocr_status IS NULL THEN a.j ->> 'errorMessage'
+                                         ELSE f.error_message
+                                     END,
+            tags                   = CASE
+                                         WHEN f.tags IS NULL AND jsonb_typeof(a.j -> 'tags') = 'array'
+                                             THEN ARRAY(SELECT jsonb_array_elements_text(a.j -> 'tags'))
+                                         ELSE f.tags
+                                     END,
+            attr                   = (a.j - ARRAY['uploadedBy', 'ocrStatus', 'vectorizationStatus', 'qaPairsStatus',
+                                                  'knowledgeGraphStatus', 'errorMessage', 'tags'])::TEXT
+        FROM (
+            SELECT id, pg_temp.file_detail_attr_object(attr) AS j
+            FROM file_detail
+            WHERE id > last_id AND id <= batch_end
+              AND object_type = 'knowledge_base'
+              AND attr IS NOT NULL AND attr <> ''
+        ) a
+        WHERE f.id = a.id
+          AND a.j ?| ARRAY['uploadedBy', 'ocrStatus', 'vectorizationStatus', 'qaPairsStatus',
+                           'knowledgeGraphStatus', 'errorMessage', 'tags'];
+
+        FOR skipped_id IN
+            SELECT id
+            FROM file_detail
+            WHERE id > last_id AND id <= batch_end
+              AND object_type = 'knowledge_base'
+              AND attr IS NOT NULL AND attr <> ''
+              AND pg_temp.file_detail_attr_object(attr) IS NULL
+        LOOP
+            RAISE NOTICE 'file_detail %: attr 不是 JSON 对象，已跳过', skipped_id;
+        END LOOP;
+
+        last_id := batch_end;
+        COMMIT;
+    END LOOP;
+END $$;
@@ -0,0 +1,36 @@
+-- ============================================
+-- 文件标签索引表 kb_file_tag（在线迁移）
+-- 依赖 001_file_detail_processing_columns.sql 已回填 file_detail.tags
+-- 注意：CREATE INDEX CONCURRENTLY 不能在事务块中执行
+-- ============================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE IF NOT EXISTS kb_file_tag (
+    id BIGSERIAL PRIMARY KEY,
+    kb_id BIGINT NOT NULL REFERENCES kb_knowledge_base(id) ON DELETE CASCADE,
+    file_id VARCHAR(32) NOT NULL REFERENCES file_detail(id) ON DELETE CASCADE,
+    tag VARCHAR(128) NOT NULL,
+    tag_lower VARCHAR(128) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(file_id, tag_lower)
+);
+
+COMMENT ON TABLE kb_file_tag IS '文件标签索引表';
+COMMENT ON COLUMN kb_file_tag.kb_id IS '知识库ID';
+COMMENT ON COLUMN kb_file_tag.tag IS '标签原文';
+COMMENT ON COLUMN kb_file_tag.tag_lower IS '小写标签，用于不区分大小写的检索';
+
+-- 从 file_detail.tags 回填，重复执行时跳过已存在的行
+INSERT INTO kb_file_tag (kb_id, file_id, tag, tag_lower)
+SELECT DISTINCT ON (f.id, lower(btrim(t.tag)))
+       f.object_id::BIGINT, f.id, left(btrim(t.tag), 128), left(lower(btrim(t.tag)), 128)
+FROM file_detail f
+CROSS JOIN LATERAL unnest(f.tags) AS t(tag)
+WHERE f.object_type = 'knowledge_base'
+  AND f.object_id ~ '^[0-9]+$'
+  AND btrim(t.tag) <> ''
+ON CONFLICT (file_id, tag_lower) DO NOTHING;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_kb_file_tag_prefix ON kb_file_tag(kb_id, tag_lower text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_kb_file_tag_trgm ON kb_file_tag USING gin(tag_lower gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- ============================================
+-- 知识库文件列表游标分页索引（在线迁移）
+-- 注意：CREATE INDEX CONCURRENTLY 不能在事务块中执行
+-- ============================================
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_file_detail_object_created
+    ON file_detail(object_type, object_id, create_time DESC, id DESC);
@@ -0,0 +1,13 @@
+-- ============================================
+-- 文件内容哈希列（在线迁移）
+-- 1. 新增可空列，只修改元数据，不重写表
+-- 2. 部分索引只覆盖已计算哈希的记录
+-- 注意：CREATE INDEX CONCURRENTLY 不能在事务块中执行
+-- ============================================
+
+ALTER TABLE file_detail ADD COLUMN IF NOT EXISTS content_sha256 VARCHAR(64);
+
+COMMENT ON COLUMN file_detail.content_sha256 IS '文件内容SHA-256，用于识别重复上传';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_file_detail_sha256
+    ON file_detail(content_sha256) WHERE content_sha256 IS NOT NULL;
@@ -0,0 +1,25 @@
+-- ============================================
+-- 向量元数据补充知识库ID（在线迁移）
+-- 1. 按知识库过滤的表达式索引
+-- 2. 为历史文本块向量补写 kbId（带 chunkIndex 的行；问答向量可能与之同表，不在此回填），
+--    页码范围需重新向量化才能补齐
+-- 注意：vector_store 由 langchain4j 建表，表名以 vector-store.default-store.table 为准；
+--      CREATE INDEX CONCURRENTLY 不能在事务块中执行
+-- ============================================
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vector_store_kb_id
+    ON public.vector_store ((metadata->>'kbId'));
+
+-- 分批回填，重复执行直到影响行数为 0
+UPDATE public.vector_store v
+SET metadata = (v.metadata::jsonb || jsonb_build_object('kbId', f.object_id))::json
+FROM file_detail f
+WHERE v.embedding_id IN (
+        SELECT s.embedding_id
+        FROM public.vector_store s
+                 JOIN file_detail fd ON fd.id = s.metadata->>'fileId'
+        WHERE s.metadata->>'kbId' IS NULL
+          AND s.metadata->>'chunkIndex' IS NOT NULL
+          AND fd.object_type = 'knowledge_base'
+        LIMIT 5000)
+  AND f.id = v.metadata->>'fileId';
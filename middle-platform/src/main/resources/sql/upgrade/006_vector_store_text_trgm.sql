@@ -0,0 +1,11 @@
+-- ============================================
+-- 文本块关键词检索的三元组索引（在线迁移）
+-- 混合检索的关键词一路按子串匹配文本块，依赖 pg_trgm 的 GIN 索引
+-- 注意：vector_store 由 langchain4j 建表，表名以 vector-store.default-store.table 为准；
+--      CREATE INDEX CONCURRENTLY 不能在事务块中执行
+-- ============================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vector_store_text_trgm
+    ON public.vector_store USING gin (text gin_trgm_ops);
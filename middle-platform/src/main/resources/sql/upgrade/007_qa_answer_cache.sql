@@ -0,0 +1,62 @@
+-- ============================================
+-- 问答对缓存与知识库问答（在线迁移）
+-- 1. 清理失效的问题向量，并为历史问题向量补写 qaId、kbId（按文件ID与问题文本关联 kb_qa_pair）
+-- 2. 新增知识库问答业务及默认 Prompt
+-- 注意：问题向量表名以 vector-store.qa.table 为准
+-- ============================================
+
+-- 先清理没有对应问答对的问题向量（问答对重新生成时遗留的旧向量），回填才能收敛
+DELETE FROM public.vector_store v
+WHERE v.metadata->>'qaId' IS NULL
+  AND v.metadata->>'chunkIndex' IS NULL
+  AND v.metadata->>'fileId' IS NOT NULL
+  AND NOT EXISTS (SELECT 1
+                  FROM kb_qa_pair q
+                  WHERE q.file_id = v.metadata->>'fileId'
+                    AND q.question = v.text);
+
+-- 分批回填，重复执行直到影响行数为 0
+UPDATE public.vector_store v
+SET metadata = (v.metadata::jsonb
+    || jsonb_build_object('qaId', q.qa_id)
+    || CASE WHEN f.object_type = 'knowledge_base'
+            THEN jsonb_build_object('kbId', f.object_id) ELSE '{}'::jsonb END)::json
+FROM kb_qa_pair q
+         JOIN file_detail f ON f.id = q.file_id
+WHERE v.embedding_id IN (
+        SELECT s.embedding_id
+        FROM public.vector_store s
+        WHERE s.metadata->>'qaId' IS NULL
+          AND s.metadata->>'chunkIndex' IS NULL
+          AND s.metadata->>'fileId' IS NOT NULL
+        LIMIT 5000)
+  AND q.file_id = v.metadata->>'fileId'
+  AND q.question = v.text;
+
+INSERT INTO model_business (business_id, name, code, description, enabled, created_by)
+VALUES ('biz-5', '知识库问答', 'chat', '基于知识库检索结果生成答案', TRUE, 1)
+ON CONFLICT (business_id) DO NOTHING;
+
+INSERT INTO kb_prompt (prompt_id, business_code, prompt_name, prompt_content, description, variables, is_active, version)
+VALUES (
+    'chat-default-001',
+    'chat',
+    '知识库问答（默认）',
+    '请仅根据以下参考资料回答用户问题。
+
+参考资料：
+{context}
+
+要求：
+1. 答案必须来自参考资料，不要编造资料中没有的信息
+2. 资料不足以回答时，直接说明无法从知识库中找到答案
+3. 在引用内容后用 [编号] 标注出处，例如 [1]
+4. 回答简洁、条理清晰
+
+用户问题：{question}',
+    '根据检索到的文本块回答知识库问题',
+    '["context", "question"]',
+    true,
+    1
+)
+ON CONFLICT (prompt_id) DO NOTHING;
@@ -0,0 +1,19 @@
+-- ============================================
+-- 文件删除改为异步并行清理（在线迁移）
+-- 1. 按文件删除向量使用的表达式索引
+-- 2. 清理历史删除遗留的孤儿向量：旧的删除逻辑按 metadata->>'file_id' 匹配，从未删除任何向量
+-- 注意：vector_store 由 langchain4j 建表，表名以 vector-store.default-store.table / vector-store.qa.table 为准；
+--      CREATE INDEX CONCURRENTLY 不能在事务块中执行
+-- ============================================
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vector_store_file_id
+    ON public.vector_store ((metadata->>'fileId'));
+
+-- 分批清理，重复执行直到影响行数为 0
+DELETE FROM public.vector_store
+WHERE embedding_id IN (
+        SELECT v.embedding_id
+        FROM public.vector_store v
+        WHERE v.metadata->>'fileId' IS NOT NULL
+          AND NOT EXISTS (SELECT 1 FROM file_detail f WHERE f.id = v.metadata->>'fileId')
+        LIMIT 5000);
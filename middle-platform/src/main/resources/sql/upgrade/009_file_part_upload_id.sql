@@ -0,0 +1,11 @@
+-- ============================================
+-- 分片上传记录兼容存储端的长 uploadId
+-- 1. 分片主键改为 (upload_id, part_number) 的 MD5（32 位），由应用生成，无需改列宽
+-- 2. upload_id 列放宽到 255，S3/MinIO 的 uploadId 可能超过 128 个字符
+-- 注意：仅修改 VARCHAR 长度上限，PostgreSQL 不会重写表
+-- ============================================
+
+ALTER TABLE file_detail ALTER COLUMN upload_id TYPE VARCHAR(255);
+ALTER TABLE file_part_detail ALTER COLUMN upload_id TYPE VARCHAR(255);
+
+COMMENT ON COLUMN file_part_detail.id IS '分片id，(upload_id, part_number) 的 MD5';
@@ -0,0 +1,108 @@
+package com.ai.middle.platform.common.util;
+
+import com.ai.middle.platform.common.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorUtilsTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123456000);
+
+    @Test
+    void cursorRoundTripsTimeAndId() {
+        CursorUtils.Cursor cursor = CursorUtils.decode(CursorUtils.encode(TIME, "file-1"));
+
+        assertEquals(TIME, cursor.time());
+        assertEquals("file-1", cursor.id());
+    }
+
+    @Test
+    void cursorKeepsWholeSecondsAndSeparatorInId() {
+        LocalDateTime wholeMinute = LocalDateTime.of(2024, 3, 1, 10, 15);
+
+        CursorUtils.Cursor cursor = CursorUtils.decode(CursorUtils.encode(wholeMinute, "a|b"));
+
+        assertEquals(wholeMinute, cursor.time());
+        assertEquals("a|b", cursor.id());
+    }
+
+    @Test
+    void emptyCursorMeansFirstPage() {
+        assertNull(CursorUtils.decode(null));
+        assertNull(CursorUtils.decode(" "));
+        assertNull(CursorUtils.decodeKey(null));
+        assertNull(CursorUtils.decodeKey(""));
+        assertNull(CursorUtils.encode(null, "file-1"));
+        assertNull(CursorUtils.encodeKey(null));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertInvalid(() -> CursorUtils.decode("not base64!"));
+        assertInvalid(() -> CursorUtils.decode(encodeRaw("2024-03-01T10:15:30")));
+        assertInvalid(() -> CursorUtils.decode(encodeRaw("yesterday|file-1")));
+        assertInvalid(() -> CursorUtils.decodeKey("%%%"));
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        String cursor = CursorUtils.encode(TIME, "file-1");
+        String tampered = "*" + cursor.substring(1);
+
+        assertInvalid(() -> CursorUtils.decode(tampered));
+    }
+
+    @Test
+    void keyRoundTripsUnicode() {
+        assertEquals("实体-42", CursorUtils.decodeKey(CursorUtils.encodeKey("实体-42")));
+    }
+
+    @Test
+    void keysetPagingOverTiedTimesVisitsEveryRowOnce() {
+        List<Row> rows = List.of(
+                new Row(TIME, "a"), new Row(TIME, "b"), new Row(TIME, "c"),
+                new Row(TIME.plusNanos(1000), "a"), new Row(TIME.minusSeconds(1), "z"));
+        Comparator<Row> order = Comparator.comparing(Row::time).thenComparing(Row::id).reversed();
+
+        List<Row> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorUtils.Cursor position = CursorUtils.decode(cursor);
+            // 与 create_time DESC, id DESC 的 keyset 条件一致，每页取 2 行
+            List<Row> page = rows.stream()
+                    .filter(row -> position == null
+                            || row.time().isBefore(position.time())
+                            || row.time().isEqual(position.time()) && row.id().compareTo(position.id()) < 0)
+                    .sorted(order)
+                    .limit(2)
+                    .toList();
+            visited.addAll(page);
+            Row last = page.isEmpty() ? null : page.get(page.size() - 1);
+            cursor = page.size() == 2 ? CursorUtils.encode(last.time(), last.id()) : null;
+        } while (cursor != null);
+
+        assertEquals(rows.stream().sorted(order).toList(), visited);
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(Runnable decode) {
+        BusinessException ex = assertThrows(BusinessException.class, decode::run);
+        assertEquals(400, ex.getCode());
+    }
+
+    private record Row(LocalDateTime time, String id) {
+    }
+}
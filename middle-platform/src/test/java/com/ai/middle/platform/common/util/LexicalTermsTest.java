@@ -0,0 +1,31 @@
+package com.ai.middle.platform.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LexicalTermsTest {
+
+    @Test
+    void twoCharacterChineseWordIsKeptWhole() {
+        assertEquals(List.of("电压"), LexicalTerms.extract("电压", 8));
+    }
+
+    @Test
+    void shortIdentifiersAreKeptAndLowercased() {
+        assertEquals(List.of("a1", "gb/t-2019", "电压"), LexicalTerms.extract("A1 的 GB/T-2019 电压", 8));
+    }
+
+    @Test
+    void longRunWindowsCoverTheLastCharacter() {
+        assertEquals(List.of("额定电", "电压等", "等级测", "级测试"), LexicalTerms.extract("额定电压等级测试", 8));
+        assertEquals(List.of("额定电", "电压等", "等级测", "测试表"), LexicalTerms.extract("额定电压等级测试表", 8));
+    }
+
+    @Test
+    void termCountIsCapped() {
+        assertEquals(List.of("额定电", "电压等"), LexicalTerms.extract("额定电压等级测试", 2));
+    }
+}
@@ -0,0 +1,43 @@
+package com.ai.middle.platform.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReciprocalRankFusionTest {
+
+    @Test
+    void itemsFoundByBothListsRankFirst() {
+        List<ReciprocalRankFusion.Fused<String>> fused = ReciprocalRankFusion.fuse(
+                List.of(List.of("a", "b", "c"), List.of("c", "d")), Function.identity(), 60);
+
+        assertEquals(List.of("c", "a", "b", "d"), fused.stream().map(ReciprocalRankFusion.Fused::item).toList());
+        assertEquals(1.0 / 63 + 1.0 / 61, fused.get(0).score(), 1e-12);
+        assertEquals(Arrays.asList(3, 1), fused.get(0).ranks());
+        assertEquals(Arrays.asList(1, null), fused.get(1).ranks());
+    }
+
+    @Test
+    void tiesKeepFirstSeenOrder() {
+        List<ReciprocalRankFusion.Fused<String>> fused = ReciprocalRankFusion.fuse(
+                List.of(List.of("a"), List.of("b")), Function.identity(), 60);
+
+        assertEquals(List.of("a", "b"), fused.stream().map(ReciprocalRankFusion.Fused::item).toList());
+    }
+
+    @Test
+    void duplicatesWithinOneListCountOnce() {
+        List<ReciprocalRankFusion.Fused<String>> fused = ReciprocalRankFusion.fuse(
+                List.of(List.of("a", "a", "b"), List.of()), Function.identity(), 60);
+
+        assertEquals(2, fused.size());
+        assertEquals(1.0 / 61, fused.get(0).score(), 1e-12);
+        assertEquals(3, fused.get(1).ranks().get(0));
+        assertNull(fused.get(1).ranks().get(1));
+    }
+}
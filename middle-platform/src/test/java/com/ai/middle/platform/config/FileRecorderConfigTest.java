@@ -0,0 +1,56 @@
+package com.ai.middle.platform.config;
+
+import com.ai.middle.platform.entity.po.FilePartDetail;
+import com.ai.middle.platform.repository.mapper.FileDetailMapper;
+import com.ai.middle.platform.repository.mapper.FilePartDetailMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.dromara.x.file.storage.core.upload.FilePartInfo;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class FileRecorderConfigTest {
+
+    /**
+     * MinIO 生成的 uploadId：base64 编码的两段 UUID，约 100 个字符
+     */
+    private static final String MINIO_UPLOAD_ID =
+            "ZjE3YmE3YzQtNjk1ZC00YjE3LWE0ZTItYjY3ZGE1MzE2ZWE4LjVkMzY3MWU0LTRhODgtNDg2Ni1hMmEzLTcxZTc2Mzc0YWRkMXgxNzEyMDQ2NTcwNDk0MjU2MDAw";
+
+    private final FilePartDetailMapper filePartDetailMapper = mock(FilePartDetailMapper.class);
+    private final FileRecorderConfig recorder =
+            new FileRecorderConfig(mock(FileDetailMapper.class), filePartDetailMapper, new ObjectMapper());
+
+    @Test
+    void partWithLongUploadIdGetsIdThatFitsPrimaryKey() {
+        recorder.saveFilePart(part(MINIO_UPLOAD_ID, 7));
+
+        ArgumentCaptor<FilePartDetail> saved = ArgumentCaptor.forClass(FilePartDetail.class);
+        verify(filePartDetailMapper).insert(saved.capture());
+        assertTrue(saved.getValue().getId().length() <= 32);
+        assertEquals(MINIO_UPLOAD_ID, saved.getValue().getUploadId());
+        assertEquals(7, saved.getValue().getPartNumber());
+    }
+
+    @Test
+    void partIdIsStablePerUploadAndPartNumber() {
+        String first = recorder.generatePartId(part(MINIO_UPLOAD_ID, 1));
+
+        assertEquals(first, recorder.generatePartId(part(MINIO_UPLOAD_ID, 1)));
+        assertNotEquals(first, recorder.generatePartId(part(MINIO_UPLOAD_ID, 2)));
+    }
+
+    private FilePartInfo part(String uploadId, int partNumber) {
+        FilePartInfo part = new FilePartInfo();
+        part.setUploadId(uploadId);
+        part.setPartNumber(partNumber);
+        part.setPartSize(8L * 1024 * 1024);
+        part.setETag("9b2cf535f27731c974343645a3985328");
+        return part;
+    }
+}
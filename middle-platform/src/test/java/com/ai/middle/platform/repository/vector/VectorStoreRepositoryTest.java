@@ -0,0 +1,74 @@
+package com.ai.middle.platform.repository.vector;
+
+import com.ai.middle.platform.config.VectorStoreProperties.StoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class VectorStoreRepositoryTest {
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final VectorStoreRepository repository = new VectorStoreRepository(jdbcTemplate, new ObjectMapper(),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Test
+    void twoCharacterChineseQueryReachesLexicalSearch() {
+        repository.lexicalSearch(store(), List.of("电压"), "7", null, 10, Duration.ofMillis(800));
+
+        assertEquals(List.of("SET LOCAL statement_timeout = 800"), jdbcTemplate.statements);
+        assertFalse(jdbcTemplate.sql.contains("UNION ALL"));
+        assertEquals(List.of("%电压%", "7", "%电压%", 10), jdbcTemplate.args);
+    }
+
+    @Test
+    void shortAndTrigramTermsUseSeparateBranches() {
+        repository.lexicalSearch(store(), List.of("额定电", "a1"), "7", List.of("f1"), 10, Duration.ofSeconds(1));
+
+        assertTrue(jdbcTemplate.sql.contains("UNION ALL"));
+        assertEquals(List.of("%额定电%", "%a1%", "7", "f1", "%额定电%", "7", "f1", "%a1%", 10), jdbcTemplate.args);
+    }
+
+    @Test
+    void likeWildcardsInTermsAreEscaped() {
+        repository.lexicalSearch(store(), List.of("5%"), "7", null, 10, Duration.ofSeconds(1));
+
+        assertEquals("%5\\%%", jdbcTemplate.args.get(0));
+    }
+
+    private StoreProperties store() {
+        StoreProperties store = new StoreProperties();
+        store.setTable("vector_store");
+        return store;
+    }
+
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<String> statements = new ArrayList<>();
+        private String sql;
+        private List<Object> args;
+
+        @Override
+        public void execute(String sql) {
+            statements.add(sql);
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            this.sql = sql;
+            this.args = List.of(args);
+            return List.of();
+        }
+    }
+}
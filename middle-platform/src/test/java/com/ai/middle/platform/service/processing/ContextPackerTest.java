@@ -0,0 +1,40 @@
+package com.ai.middle.platform.service.processing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContextPackerTest {
+
+    @Test
+    void estimatesCjkPerCharacterAndLatinPerFourCharacters() {
+        assertEquals(0, ContextPacker.estimateTokens(""));
+        assertEquals(4, ContextPacker.estimateTokens("知识图谱"));
+        assertEquals(2, ContextPacker.estimateTokens("abcdefgh"));
+        assertEquals(3, ContextPacker.estimateTokens("检索abc"));
+    }
+
+    @Test
+    void keepsRankOrderAndSkipsPassagesThatDoNotFit() {
+        List<String> passages = List.of("一二三四五", "一二三四五六七八九十一二三四五六七八九十", "六七八");
+
+        ContextPacker.Packed<String> packed = ContextPacker.pack(passages, (text, n) -> "[" + n + "] " + text, 15);
+
+        assertEquals(List.of("一二三四五", "六七八"), packed.items());
+        assertEquals("[1] 一二三四五\n\n[2] 六七八", packed.text());
+        assertTrue(packed.tokens() <= 15);
+    }
+
+    @Test
+    void truncatesTopPassageWhenNothingFits() {
+        String passage = "一二三四五六七八九十";
+
+        ContextPacker.Packed<String> packed = ContextPacker.pack(List.of(passage), (text, n) -> text, 4);
+
+        assertEquals(List.of(passage), packed.items());
+        assertEquals("一二三四", packed.text());
+    }
+}
@@ -0,0 +1,49 @@
+package com.ai.middle.platform.service.processing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OcrBatchOutputParserTest {
+
+    @Test
+    void splitsPagesInOrder() {
+        String output = "好的，以下是识别结果。\n"
+                + "=== PAGE 1 ===\n# 标题\n第一页内容\n\n"
+                + "=== PAGE 2 ===\n\n"
+                + "=== page 3 ===\n| a | b |\n|---|---|\n";
+
+        List<String> pages = OcrBatchOutputParser.parse(output, 3);
+
+        assertEquals(List.of("# 标题\n第一页内容", "", "| a | b |\n|---|---|"), pages);
+    }
+
+    @Test
+    void rejectsMissingPage() {
+        String output = "=== PAGE 1 ===\nA\n=== PAGE 3 ===\nC\n";
+
+        assertNull(OcrBatchOutputParser.parse(output, 3));
+    }
+
+    @Test
+    void rejectsDuplicatedOrExtraPages() {
+        assertNull(OcrBatchOutputParser.parse("=== PAGE 1 ===\nA\n=== PAGE 1 ===\nB\n", 2));
+        assertNull(OcrBatchOutputParser.parse("=== PAGE 1 ===\nA\n=== PAGE 2 ===\nB\n", 1));
+    }
+
+    @Test
+    void rejectsOutputWithoutMarkers() {
+        assertNull(OcrBatchOutputParser.parse("第一页\n\n第二页", 2));
+        assertNull(OcrBatchOutputParser.parse(null, 2));
+    }
+
+    @Test
+    void ignoresMarkerTextInsideLines() {
+        String output = "=== PAGE 1 ===\n参见 === PAGE 2 === 的说明\n=== PAGE 2 ===\nB";
+
+        assertEquals(List.of("参见 === PAGE 2 === 的说明", "B"), OcrBatchOutputParser.parse(output, 2));
+    }
+}
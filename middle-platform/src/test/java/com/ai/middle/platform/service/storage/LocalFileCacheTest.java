@@ -0,0 +1,147 @@
+package com.ai.middle.platform.service.storage;
+
+import com.ai.middle.platform.config.FileCacheProperties;
+import org.dromara.x.file.storage.core.FileInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LocalFileCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final MinioObjectService minioObjectService = mock(MinioObjectService.class);
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedBeyondMaxSize() {
+        LocalFileCache cache = cache(100, 100);
+        put(cache, "a", 40);
+        put(cache, "b", 40);
+        assertNotNull(cache.lookup("a"));
+
+        put(cache, "c", 40);
+
+        assertNotNull(cache.lookup("a"));
+        assertNull(cache.lookup("b"));
+        assertNotNull(cache.lookup("c"));
+        assertEquals(2, cachedFileCount());
+    }
+
+    @Test
+    void entryLargerThanMaxEntrySizeIsNotCached() {
+        LocalFileCache cache = cache(100, 50);
+
+        assertNull(cache.beginWrite("big", metadata(60)));
+        assertNull(cache.getOrLoad("big", loadable(60)));
+
+        assertNull(cache.lookup("big"));
+        verify(minioObjectService, times(0)).openStream(any(), isNull(), isNull());
+    }
+
+    @Test
+    void getOrLoadFetchesOnceAndServesFromDisk() throws IOException {
+        LocalFileCache cache = cache(100, 100);
+        FileInfo fileInfo = loadable(30);
+
+        LocalFileCache.CachedFile loaded = cache.getOrLoad("obj", fileInfo);
+        LocalFileCache.CachedFile again = cache.getOrLoad("obj", fileInfo);
+
+        assertEquals(loaded, again);
+        assertEquals(30, loaded.size());
+        assertArrayEquals(new byte[30], Files.readAllBytes(loaded.path()));
+        verify(minioObjectService, times(1)).openStream(any(), isNull(), isNull());
+    }
+
+    @Test
+    void incompleteWriteIsDiscarded() {
+        LocalFileCache cache = cache(100, 100);
+
+        try (LocalFileCache.CacheWriter writer = cache.beginWrite("short", metadata(40))) {
+            writer.write(new byte[10], 0, 10);
+            writer.commit();
+        }
+
+        assertNull(cache.lookup("short"));
+        assertEquals(0, cachedFileCount());
+    }
+
+    @Test
+    void restartRestoresEntriesTrimmedToMaxSize() throws IOException {
+        LocalFileCache cache = cache(100, 100);
+        Path older = put(cache, "a", 40).path();
+        Path newer = put(cache, "b", 40).path();
+        Files.setLastModifiedTime(older, FileTime.fromMillis(1_000_000L));
+        Files.setLastModifiedTime(newer, FileTime.fromMillis(2_000_000L));
+        Path partial = Files.createTempFile(directory, "partial", ".tmp");
+
+        LocalFileCache restarted = cache(50, 50);
+
+        assertNull(restarted.lookup("a"));
+        LocalFileCache.CachedFile restored = restarted.lookup("b");
+        assertNotNull(restored);
+        assertEquals(40, restored.size());
+        assertEquals("etag-40", restored.etag());
+        assertFalse(Files.exists(older));
+        assertFalse(Files.exists(partial));
+        assertTrue(Files.exists(newer));
+    }
+
+    private LocalFileCache cache(long maxSize, long maxEntrySize) {
+        FileCacheProperties properties = new FileCacheProperties();
+        properties.setDirectory(directory.toString());
+        properties.setMaxSize(DataSize.ofBytes(maxSize));
+        properties.setMaxEntrySize(DataSize.ofBytes(maxEntrySize));
+        LocalFileCache cache = new LocalFileCache(properties, minioObjectService);
+        cache.init();
+        return cache;
+    }
+
+    private LocalFileCache.CachedFile put(LocalFileCache cache, String url, int size) {
+        try (LocalFileCache.CacheWriter writer = cache.beginWrite(url, metadata(size))) {
+            writer.write(new byte[size], 0, size);
+            writer.commit();
+        }
+        return cache.lookup(url);
+    }
+
+    private FileInfo loadable(int size) {
+        FileInfo fileInfo = new FileInfo();
+        when(minioObjectService.stat(fileInfo)).thenReturn(metadata(size));
+        when(minioObjectService.openStream(any(), isNull(), isNull()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(new byte[size]));
+        return fileInfo;
+    }
+
+    private MinioObjectService.ObjectMetadata metadata(long size) {
+        return new MinioObjectService.ObjectMetadata(size, "etag-" + size, 1_700_000_000_000L, "application/pdf");
+    }
+
+    private long cachedFileCount() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}